@@ -77,6 +77,26 @@ public abstract class LeaderConfig {
         return 5000L;
     }
 
+    /**
+     * If positive, a confirmation that this server is still the leader is relied on for this long, less the
+     * clock drift margin, before leadership is confirmed again, rather than confirming it on every request.
+     * A server that gains leadership waits this long before serving requests, so every leader must use the
+     * same value.
+     */
+    @Value.Default
+    public long leaderLeaseDurationMs() {
+        return 0L;
+    }
+
+    /**
+     * How far the clocks of two leaders may drift apart over a lease; leases are held for this much less
+     * than their duration.
+     */
+    @Value.Default
+    public long leaderLeaseClockDriftMarginMs() {
+        return leaderLeaseDurationMs() / 10;
+    }
+
     @Value.Check
     protected final void check() {
         Preconditions.checkState(quorumSize() > leaders().size() / 2,
@@ -91,6 +111,13 @@ public abstract class LeaderConfig {
                 "Learner log directory '%s' does not exist and cannot be created.", learnerLogDir());
         Preconditions.checkArgument(acceptorLogDir().exists() || acceptorLogDir().mkdirs(),
                 "Acceptor log directory '%s' does not exist and cannot be created.", acceptorLogDir());
+        Preconditions.checkArgument(leaderLeaseDurationMs() >= 0,
+                "Leader lease duration must not be negative; found '%s'.", leaderLeaseDurationMs());
+        Preconditions.checkArgument(leaderLeaseDurationMs() == 0
+                        || (leaderLeaseClockDriftMarginMs() >= 0
+                                && leaderLeaseClockDriftMarginMs() < leaderLeaseDurationMs()),
+                "Leader lease clock drift margin must be at least zero and less than the lease duration; found '%s'.",
+                leaderLeaseClockDriftMarginMs());
     }
 
     @JsonIgnore
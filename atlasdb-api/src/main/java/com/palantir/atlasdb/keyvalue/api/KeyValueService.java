@@ -28,6 +28,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.palantir.common.annotation.Idempotent;
 import com.palantir.common.annotation.NonIdempotent;
@@ -513,6 +514,23 @@ public interface KeyValueService extends AutoCloseable {
             Iterable<RangeRequest> rangeRequests,
             @QueryParam("timestamp") long timestamp);
 
+    /**
+     * Splits the range into consecutive, disjoint ranges which together cover it, so that they can be scanned
+     * concurrently. Implementations should split along the way they partition their data, for example along
+     * the token ranges of a cluster, and may return more or fewer ranges than desired. By default the range is
+     * not split.
+     */
+    @POST
+    @Path("partition-range")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Idempotent
+    default List<RangeRequest> partitionRange(@QueryParam("tableRef") TableReference tableRef,
+                                              RangeRequest rangeRequest,
+                                              @QueryParam("desiredPartitions") int desiredPartitions) {
+        return ImmutableList.of(rangeRequest);
+    }
+
     ////////////////////////////////////////////////////////////
     // TABLE CREATION AND METADATA
     ////////////////////////////////////////////////////////////
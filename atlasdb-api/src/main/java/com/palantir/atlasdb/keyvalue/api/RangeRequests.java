@@ -15,10 +15,15 @@
  */
 package com.palantir.atlasdb.keyvalue.api;
 
+import java.util.List;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.encoding.PtBytes;
 
 public final class RangeRequests {
@@ -200,4 +205,55 @@ public final class RangeRequests {
             return nextLexicographicNameInternal(rowName);
         }
     }
+
+    /**
+     * Splits the range into consecutive, disjoint ranges which together cover it, starting a new range at each of
+     * the given row names that falls strictly inside the range. The row names must be in increasing order.
+     * Reverse ranges are not split.
+     */
+    public static List<RangeRequest> split(RangeRequest range, Iterable<byte[]> splitPoints) {
+        if (range.isReverse()) {
+            return ImmutableList.of(range);
+        }
+        List<RangeRequest> parts = Lists.newArrayList();
+        byte[] start = range.getStartInclusive();
+        byte[] end = range.getEndExclusive();
+        for (byte[] splitPoint : splitPoints) {
+            if (UnsignedBytes.lexicographicalComparator().compare(splitPoint, start) <= 0) {
+                continue;
+            }
+            if (end.length != 0 && UnsignedBytes.lexicographicalComparator().compare(splitPoint, end) >= 0) {
+                break;
+            }
+            parts.add(range.getBuilder().startRowInclusive(start).endRowExclusive(splitPoint).build());
+            start = splitPoint;
+        }
+        parts.add(range.getBuilder().startRowInclusive(start).build());
+        return parts;
+    }
+
+    /**
+     * Returns row names which split the range into up to {@code numParts} parts of roughly equal size, assuming
+     * row names are spread evenly over their first two bytes (as they are when rows start with a hashed component).
+     */
+    public static List<byte[]> getUniformSplitPoints(RangeRequest range, int numParts) {
+        int lowest = getTwoBytePrefix(range.getStartInclusive());
+        int highest = range.getEndExclusive().length == 0 ? 1 << 16 : getTwoBytePrefix(range.getEndExclusive());
+        List<byte[]> splitPoints = Lists.newArrayListWithCapacity(numParts);
+        int previous = lowest;
+        for (int i = 1; i < numParts; i++) {
+            int splitPoint = lowest + (int) ((long) (highest - lowest) * i / numParts);
+            if (splitPoint > previous) {
+                splitPoints.add(new byte[] {(byte) (splitPoint >>> 8), (byte) splitPoint});
+                previous = splitPoint;
+            }
+        }
+        return splitPoints;
+    }
+
+    private static int getTwoBytePrefix(byte[] name) {
+        int first = name.length > 0 ? name[0] & 0xff : 0;
+        int second = name.length > 1 ? name[1] & 0xff : 0;
+        return (first << 8) | second;
+    }
 }
@@ -69,6 +69,20 @@ public interface Transaction {
     @Idempotent
     BatchingVisitable<RowResult<byte[]>> getRange(TableReference tableRef, RangeRequest rangeRequest);
 
+    /**
+     * Creates a visitable that scans the provided range, without any guarantee on the order in which rows are
+     * visited. This allows the range to be split into disjoint parts which are read concurrently, each row being
+     * visited as soon as its part of the range has been read. All parts are read at the start timestamp of this
+     * transaction. Implementations which cannot read concurrently fall back to {@link #getRange}.
+     *
+     * @param tableRef the table to scan
+     * @param rangeRequest the range of rows and columns to scan; must not be a reverse range
+     */
+    @Idempotent
+    default BatchingVisitable<RowResult<byte[]>> getRangeUnordered(TableReference tableRef, RangeRequest rangeRequest) {
+        return getRange(tableRef, rangeRequest);
+    }
+
     /**
      * Creates a visitable that scans the provided range.
      * <p>
@@ -82,6 +96,22 @@ public interface Transaction {
             TableReference tableRef,
             Iterable<RangeRequest> rangeRequests);
 
+    /**
+     * Like {@link #getRanges(TableReference, Iterable)}, but the first pages of the ranges are fetched concurrently,
+     * in up to {@code concurrencyLevel} batches at a time, rather than one batch after the other. Later pages of a
+     * range are only fetched once the caller has visited its first page.
+     * <p>
+     * This is intended for callers which read many small ranges, where the time taken is dominated by round trips
+     * to the key value service. Implementations which cannot fetch concurrently read the ranges serially.
+     */
+    @Idempotent
+    default Iterable<BatchingVisitable<RowResult<byte[]>>> getRanges(
+            TableReference tableRef,
+            Iterable<RangeRequest> rangeRequests,
+            int concurrencyLevel) {
+        return getRanges(tableRef, rangeRequests);
+    }
+
     /**
      * Puts values into the key-value store. If you put a null or the empty byte array, then
      * this is treated like a delete to the store.
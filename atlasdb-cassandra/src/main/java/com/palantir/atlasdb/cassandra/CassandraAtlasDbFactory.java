@@ -26,6 +26,7 @@ import com.palantir.atlasdb.keyvalue.cassandra.CassandraTimestampBoundStore;
 import com.palantir.atlasdb.keyvalue.cassandra.CassandraTimestampStoreInvalidator;
 import com.palantir.atlasdb.spi.AtlasDbFactory;
 import com.palantir.atlasdb.spi.KeyValueServiceConfig;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
 import com.palantir.atlasdb.versions.AtlasDbVersion;
 import com.palantir.timestamp.PersistentTimestampService;
 import com.palantir.timestamp.TimestampService;
@@ -58,8 +59,9 @@ public class CassandraAtlasDbFactory implements AtlasDbFactory {
         Preconditions.checkArgument(rawKvs instanceof CassandraKeyValueService,
                 "TimestampService must be created from an instance of"
                 + " CassandraKeyValueService, found %s", rawKvs.getClass());
-        return PersistentTimestampService.create(
-                CassandraTimestampBoundStore.create((CassandraKeyValueService) rawKvs));
+        return PersistentTimestampService.createAdaptive(
+                CassandraTimestampBoundStore.create((CassandraKeyValueService) rawKvs),
+                AtlasDbMetrics.getMetricRegistry());
     }
 
     @Override
@@ -180,6 +180,15 @@ public abstract class CassandraKeyValueServiceConfig implements KeyValueServiceC
         return 64;
     }
 
+    /**
+     * The number of pages of a range scan to read ahead of the caller, so that the next pages are fetched from
+     * Cassandra while the current one is being processed. By default, each page is only read once it is needed.
+     */
+    @Value.Default
+    public int rangeReadAheadPages() {
+        return 0;
+    }
+
     @Value.Default
     public boolean scyllaDb() {
         return false;
@@ -210,5 +219,6 @@ public abstract class CassandraKeyValueServiceConfig implements KeyValueServiceC
         double evictionCheckProportion = proportionConnectionsToCheckPerEvictionRun();
         Preconditions.checkArgument(evictionCheckProportion > 0.01 && evictionCheckProportion <= 1,
                 "'proportionConnectionsToCheckPerEvictionRun' must be between 0.01 and 1");
+        Preconditions.checkArgument(rangeReadAheadPages() >= 0, "'rangeReadAheadPages' must not be negative");
     }
 }
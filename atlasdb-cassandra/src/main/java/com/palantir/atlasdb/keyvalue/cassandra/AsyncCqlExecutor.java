@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.common.base.Throwables;
+
+/**
+ * Executes CQL statements asynchronously, with at most maxInFlightRequests statements in flight across all callers.
+ * A caller issuing more statements than that waits for earlier ones to complete, rather than queueing more requests
+ * than the connections can carry and having them time out waiting for a connection.
+ */
+final class AsyncCqlExecutor {
+    private final Semaphore inFlightRequests;
+
+    AsyncCqlExecutor(int maxInFlightRequests) {
+        Preconditions.checkArgument(maxInFlightRequests > 0, "maxInFlightRequests must be positive");
+        this.inFlightRequests = new Semaphore(maxInFlightRequests);
+    }
+
+    ResultSetFuture executeAsync(Session session, Statement statement) {
+        inFlightRequests.acquireUninterruptibly();
+        ResultSetFuture future;
+        try {
+            future = session.executeAsync(statement);
+        } catch (RuntimeException | Error e) {
+            inFlightRequests.release();
+            throw e;
+        }
+        future.addListener(inFlightRequests::release, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /**
+     * Executes all the statements, and returns their results in the same order once all have completed.
+     */
+    List<ResultSet> executeAll(Session session, List<? extends Statement> statements) {
+        List<ResultSetFuture> futures = Lists.newArrayListWithCapacity(statements.size());
+        for (Statement statement : statements) {
+            futures.add(executeAsync(session, statement));
+        }
+        List<ResultSet> resultSets = Lists.newArrayListWithCapacity(futures.size());
+        for (ResultSetFuture future : futures) {
+            try {
+                resultSets.add(future.getUninterruptibly());
+            } catch (Throwable t) {
+                throw Throwables.throwUncheckedException(t);
+            }
+        }
+        return resultSets;
+    }
+
+    int availablePermits() {
+        return inFlightRequests.availablePermits();
+    }
+}
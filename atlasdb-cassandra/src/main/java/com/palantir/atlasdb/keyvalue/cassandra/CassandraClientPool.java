@@ -402,6 +402,17 @@ public class CassandraClientPool {
         return Optional.ofNullable(pools.get(randomLivingHost));
     }
 
+    /**
+     * Returns the tokens at which the token ranges of the ring start, in increasing order. As the ring is byte
+     * ordered, these are row names. Returns nothing if the ring has not been read yet or has a single range.
+     */
+    public List<byte[]> getTokenRangeBoundaries() {
+        return tokenMap.asMapOfRanges().keySet().stream()
+                .filter(Range::hasLowerBound)
+                .map(range -> range.lowerEndpoint().bytes)
+                .collect(Collectors.toList());
+    }
+
     public InetSocketAddress getRandomHostForKey(byte[] key) {
         List<InetSocketAddress> hostsForKey = tokenMap.get(new LightweightOppToken(key));
 
@@ -94,6 +94,7 @@ import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
@@ -113,6 +114,7 @@ import com.palantir.atlasdb.keyvalue.cassandra.paging.RowGetter;
 import com.palantir.atlasdb.keyvalue.cassandra.paging.ThriftColumnGetter;
 import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.atlasdb.keyvalue.impl.ForwardingKeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.GetCandidateCellsForSweepingShim;
 import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
 import com.palantir.atlasdb.keyvalue.impl.LocalRowColumnRangeIterator;
@@ -1335,11 +1337,46 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
             Iterable<RangeRequest> rangeRequests,
             long timestamp) {
         int concurrency = configManager.getConfig().rangesConcurrency();
+        // Only the first page of each range is used, so reading the pages after it ahead would be wasted work.
+        KeyValueService withoutReadAhead = new ForwardingKeyValueService() {
+            @Override
+            protected KeyValueService delegate() {
+                return CassandraKeyValueService.this;
+            }
+
+            @Override
+            public ClosableIterator<RowResult<Value>> getRange(TableReference table, RangeRequest range, long ts) {
+                return getRangeWithPageCreator(table, range, ts, readConsistency, ValueExtractor::create, 0);
+            }
+        };
         return KeyValueServices.getFirstBatchForRangesUsingGetRangeConcurrent(
-                executor, this, tableRef, rangeRequests, timestamp, concurrency);
+                executor, withoutReadAhead, tableRef, rangeRequests, timestamp, concurrency);
     }
 
 
+    /**
+     * Splits the range along the token ranges of the ring, so that each part is read from a single set of
+     * replicas. Adjacent token ranges are scanned together if there are more of them than desired; if there are
+     * fewer, the range is split evenly instead.
+     */
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        List<byte[]> boundaries = clientPool.getTokenRangeBoundaries().stream()
+                .filter(boundary -> boundary.length > 0 && rangeRequest.inRange(boundary))
+                .collect(Collectors.toList());
+        if (rangeRequest.isReverse() || boundaries.size() + 1 < desiredPartitions) {
+            return super.partitionRange(tableRef, rangeRequest, desiredPartitions);
+        }
+        int tokenRangesPerPartition = (boundaries.size() + desiredPartitions) / desiredPartitions;
+        List<byte[]> splitPoints = Lists.newArrayList();
+        for (int i = tokenRangesPerPartition - 1; i < boundaries.size(); i += tokenRangesPerPartition) {
+            splitPoints.add(boundaries.get(i));
+        }
+        return RangeRequests.split(rangeRequest, splitPoints);
+    }
+
     // TODO(unknown): after cassandra change: handle reverse ranges
     // TODO(unknown): after cassandra change: handle column filtering
     /**
@@ -1416,7 +1453,8 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
         CqlExecutor cqlExecutor = new CqlExecutor(clientPool, consistency);
         ColumnGetter columnGetter = new CqlColumnGetter(cqlExecutor, tableRef, columnBatchSize);
 
-        return getRangeWithPageCreator(rowGetter, columnGetter, rangeRequest, TimestampExtractor::new, timestamp);
+        return getRangeWithPageCreator(rowGetter, columnGetter, rangeRequest, TimestampExtractor::new, timestamp,
+                configManager.getConfig().rangeReadAheadPages());
     }
 
     private <T> ClosableIterator<RowResult<T>> getRangeWithPageCreator(
@@ -1425,10 +1463,22 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
             long timestamp,
             ConsistencyLevel consistency,
             Supplier<ResultsExtractor<T>> resultsExtractor) {
+        return getRangeWithPageCreator(tableRef, rangeRequest, timestamp, consistency, resultsExtractor,
+                configManager.getConfig().rangeReadAheadPages());
+    }
+
+    private <T> ClosableIterator<RowResult<T>> getRangeWithPageCreator(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp,
+            ConsistencyLevel consistency,
+            Supplier<ResultsExtractor<T>> resultsExtractor,
+            int readAheadPages) {
         RowGetter rowGetter = new RowGetter(clientPool, queryRunner, consistency, tableRef, ColumnFetchMode.FETCH_ALL);
         ColumnGetter columnGetter = new ThriftColumnGetter();
 
-        return getRangeWithPageCreator(rowGetter, columnGetter, rangeRequest, resultsExtractor, timestamp);
+        return getRangeWithPageCreator(rowGetter, columnGetter, rangeRequest, resultsExtractor, timestamp,
+                readAheadPages);
     }
 
     private <T> ClosableIterator<RowResult<T>> getRangeWithPageCreator(
@@ -1436,7 +1486,8 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
             ColumnGetter columnGetter,
             RangeRequest rangeRequest,
             Supplier<ResultsExtractor<T>> resultsExtractor,
-            long timestamp) {
+            long timestamp,
+            int readAheadPages) {
         if (rangeRequest.isReverse()) {
             throw new UnsupportedOperationException();
         }
@@ -1449,10 +1500,12 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                 columnGetter,
                 rangeRequest,
                 resultsExtractor,
-                timestamp
+                timestamp,
+                executor,
+                readAheadPages
         );
 
-        return ClosableIterators.wrap(rowResults.iterator());
+        return ClosableIterators.wrap(rowResults.iterator(), rowResults);
     }
 
     /**
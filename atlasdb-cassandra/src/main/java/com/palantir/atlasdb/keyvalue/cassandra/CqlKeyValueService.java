@@ -26,7 +26,6 @@ import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.SortedSet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
@@ -55,6 +54,7 @@ import com.datastax.driver.core.Row;
 import com.datastax.driver.core.SSLOptions;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.SocketOptions;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.exceptions.InvalidQueryException;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
 import com.datastax.driver.core.exceptions.UnavailableException;
@@ -65,7 +65,6 @@ import com.datastax.driver.core.policies.TokenAwarePolicy;
 import com.datastax.driver.core.policies.WhiteListPolicy;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
-import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -78,16 +77,13 @@ import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
-import com.google.common.collect.Ordering;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
-import com.google.common.collect.SortedSetMultimap;
-import com.google.common.collect.TreeMultimap;
-import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfigManager;
@@ -141,6 +137,7 @@ public class CqlKeyValueService extends AbstractKeyValueService {
 
     protected CqlStatementCache cqlStatementCache;
     protected CqlKeyValueServices cqlKeyValueServices;
+    AsyncCqlExecutor asyncCqlExecutor;
 
     Session session;
     Session longRunningQuerySession;
@@ -246,6 +243,8 @@ public class CqlKeyValueService extends AbstractKeyValueService {
 
         cqlStatementCache = new CqlStatementCache(session, longRunningQuerySession);
         cqlKeyValueServices = new CqlKeyValueServices();
+        // each host has one connection, which carries at most poolSize requests at once
+        asyncCqlExecutor = new AsyncCqlExecutor(config.poolSize() * Math.max(1, metadata.getAllHosts().size()));
 
         if (log.isInfoEnabled()) {
             StringBuilder hostInfo = new StringBuilder();
@@ -359,40 +358,30 @@ public class CqlKeyValueService extends AbstractKeyValueService {
     private Map<Cell, Value> getRowsAllColsInternal(final TableReference tableRef,
                                                     final Iterable<byte[]> rows,
                                                     final long startTs) throws Exception {
-        int rowCount = 0;
         Map<Cell, Value> result = Maps.newHashMap();
         final CassandraKeyValueServiceConfig config = configManager.getConfig();
         int fetchBatchCount = config.fetchBatchCount();
-        List<ResultSetFuture> resultSetFutures = Lists.newArrayListWithExpectedSize(rowCount);
-
-        for (final List<byte[]> batch : Iterables.partition(rows, fetchBatchCount)) {
-            rowCount += batch.size();
-            String getRowsQuery = String.format("SELECT * FROM %s WHERE %s IN (%s)",
-                    getFullTableName(tableRef),
-                    fieldNameProvider.row(),
-                    Joiner.on(",").join(Iterables.limit(Iterables.cycle("?"), batch.size())));
-            PreparedStatement preparedStatement = getPreparedStatement(tableRef, getRowsQuery, session);
-            Object[] args = batch.stream().map(ByteBuffer::wrap).toArray();
-            resultSetFutures.add(session.executeAsync(preparedStatement.bind(args)));
-
-            for (ResultSetFuture resultSetFuture : resultSetFutures) {
-                ResultSet resultSet;
-                try {
-                    resultSet = resultSetFuture.getUninterruptibly();
-                } catch (Throwable t) {
-                    throw Throwables.throwUncheckedException(t);
-                }
-                for (Row row : resultSet.all()) {
-                    Cell cell = Cell.create(getRowName(row), getColName(row));
-                    if ((getTs(row) < startTs)
-                            && (!result.containsKey(cell) || (result.get(cell).getTimestamp() < getTs(row)))) {
-                        result.put(
-                                Cell.create(getRowName(row), getColName(row)),
-                                Value.create(getValue(row), getTs(row)));
-                    }
+
+        // One query per row, rather than one per batch of rows with IN, so that each query has a routing key and
+        // goes straight to a replica of its row.
+        String getRowQuery = "SELECT * FROM " + getFullTableName(tableRef)
+                + " WHERE " + fieldNameProvider.row() + " = ?";
+        PreparedStatement preparedStatement = getPreparedStatement(tableRef, getRowQuery, session);
+        List<BoundStatement> statements = Lists.newArrayList();
+        for (byte[] row : rows) {
+            statements.add(preparedStatement.bind(ByteBuffer.wrap(row)));
+        }
+        int rowCount = statements.size();
+
+        for (ResultSet resultSet : asyncCqlExecutor.executeAll(session, statements)) {
+            for (Row row : resultSet.all()) {
+                Cell cell = Cell.create(getRowName(row), getColName(row));
+                long ts = getTs(row);
+                if (ts < startTs && (!result.containsKey(cell) || result.get(cell).getTimestamp() < ts)) {
+                    result.put(cell, Value.create(getValue(row), ts));
                 }
-                cqlKeyValueServices.logTracedQuery(getRowsQuery, resultSet, session, cqlStatementCache.normalQuery);
             }
+            cqlKeyValueServices.logTracedQuery(getRowQuery, resultSet, session, cqlStatementCache.normalQuery);
         }
         if (rowCount > fetchBatchCount) {
             log.warn("Rebatched in getRows a call to {} that attempted to multiget {} rows; "
@@ -440,57 +429,57 @@ public class CqlKeyValueService extends AbstractKeyValueService {
                             final Visitor<Multimap<Cell, Value>> visitor,
                             final ConsistencyLevel consistency) throws Exception {
         final CassandraKeyValueServiceConfig config = configManager.getConfig();
-
-        List<ResultSetFuture> resultSetFutures = Lists.newArrayListWithCapacity(cells.size());
-        SortedSetMultimap<byte[], Cell> cellsByCol =
-                TreeMultimap.create(UnsignedBytes.lexicographicalComparator(), Ordering.natural());
-        for (Cell cell : cells) {
-            cellsByCol.put(cell.getColumnName(), cell);
-        }
-        for (Entry<byte[], SortedSet<Cell>> entry : Multimaps.asMap(cellsByCol).entrySet()) {
-            if (entry.getValue().size() > config.fetchBatchCount()) {
-                log.warn("A call to {} is performing a multiget {} cells; this may indicate overly-large batching "
-                        + "on a higher level.\n{}",
-                        tableRef,
-                        entry.getValue().size(),
-                        CassandraKeyValueServices.getFilteredStackTrace("com.palantir"));
-            }
-            for (List<Cell> batch : Iterables.partition(entry.getValue(), config.fetchBatchCount())) {
-                String rowBinds = Joiner.on(",").join(Iterables.limit(Iterables.cycle('?'), batch.size()));
-                final String loadWithTsQuery = "SELECT * FROM " + getFullTableName(tableRef)
-                        + " WHERE " + fieldNameProvider.row()
-                        + " IN (" + rowBinds
-                        + ") AND " + fieldNameProvider.column()
-                        + " = ? AND " + fieldNameProvider.timestamp()
-                        + " > ?" + (!loadAllTs ? " LIMIT 1" : "");
-                final PreparedStatement preparedStatement = getPreparedStatement(tableRef, loadWithTsQuery, session)
-                              .setConsistencyLevel(consistency);
-
-                Object[] args = new Object[batch.size() + 2];
-                for (int i = 0; i < batch.size(); i++) {
-                    args[i] = ByteBuffer.wrap(batch.get(i).getRowName());
-                }
-                args[batch.size()] = ByteBuffer.wrap(entry.getKey());
-                args[batch.size() + 1] = ~startTs;
-                ResultSetFuture resultSetFuture = session.executeAsync(
-                        preparedStatement.bind(args));
-                resultSetFutures.add(resultSetFuture);
-            }
+        if (cells.size() > config.fetchBatchCount()) {
+            log.warn("A call to {} is performing a multiget {} cells; this may indicate overly-large batching "
+                    + "on a higher level.\n{}",
+                    tableRef,
+                    cells.size(),
+                    CassandraKeyValueServices.getFilteredStackTrace("com.palantir"));
         }
 
-        String loggedLoadWithTsQuery = "SELECT * FROM " + getFullTableName(tableRef) + " "
-                + "WHERE " + fieldNameProvider.row()
-                + " IN (?, ...) AND " + fieldNameProvider.column()
+        // One query per cell, rather than one per column with the rows in an IN, so that each query has a routing
+        // key and goes straight to a replica of its row, and so that the LIMIT applies to each cell.
+        final String loadWithTsQuery = "SELECT * FROM " + getFullTableName(tableRef)
+                + " WHERE " + fieldNameProvider.row()
+                + " = ? AND " + fieldNameProvider.column()
                 + " = ? AND " + fieldNameProvider.timestamp()
                 + " > ?" + (!loadAllTs ? " LIMIT 1" : "");
-        for (ResultSetFuture rsf : resultSetFutures) {
-            visitResults(rsf.getUninterruptibly(), visitor, loggedLoadWithTsQuery, loadAllTs);
+        final PreparedStatement preparedStatement = getPreparedStatement(tableRef, loadWithTsQuery, session)
+                .setConsistencyLevel(consistency);
+        List<BoundStatement> statements = Lists.newArrayListWithCapacity(cells.size());
+        for (Cell cell : cells) {
+            statements.add(preparedStatement.bind(
+                    ByteBuffer.wrap(cell.getRowName()),
+                    ByteBuffer.wrap(cell.getColumnName()),
+                    ~startTs));
+        }
+
+        for (ResultSet resultSet : asyncCqlExecutor.executeAll(session, statements)) {
+            visitResults(resultSet, visitor, loadWithTsQuery, loadAllTs);
         }
     }
 
-    // TODO(unknown): use this for insert and delete batch-to-owner-coordinator mapping
-    private Map<byte[], List<Cell>> partitionCellsByPrimaryKey(Collection<Cell> cells) {
-        return Multimaps.asMap(Multimaps.index(cells, Cells.getRowFunction()));
+    /**
+     * Groups entries into batches that each hold cells of a single row. Cassandra applies a batch within one
+     * partition as a single mutation on a replica of it, whereas a batch spanning partitions makes its coordinator
+     * forward a mutation to the replicas of each; the first statement of a batch also routes it to a replica.
+     */
+    private <T extends Entry<Cell, ?>> Iterable<List<T>> partitionByRowCountAndBytes(
+            Iterable<T> entries,
+            int maximumCountPerPartition,
+            long maximumBytesPerPartition,
+            TableReference tableRef,
+            Function<T, Long> sizingFunction) {
+        ListMultimap<ByteBuffer, T> entriesByRow =
+                Multimaps.index(entries, entry -> ByteBuffer.wrap(entry.getKey().getRowName()));
+        return Iterables.concat(Iterables.transform(
+                Multimaps.asMap(entriesByRow).values(),
+                rowEntries -> partitionByCountAndBytes(
+                        rowEntries,
+                        maximumCountPerPartition,
+                        maximumBytesPerPartition,
+                        tableRef,
+                        sizingFunction)));
     }
 
     private void visitResults(
@@ -629,7 +618,7 @@ public class CqlKeyValueService extends AbstractKeyValueService {
             NavigableMap<Cell, byte[]> sortedMap = ImmutableSortedMap.copyOf(e.getValue());
 
 
-            Iterable<List<Entry<Cell, byte[]>>> partitions = partitionByCountAndBytes(
+            Iterable<List<Entry<Cell, byte[]>>> partitions = partitionByRowCountAndBytes(
                     sortedMap.entrySet(),
                     getMultiPutBatchCount(),
                     getMultiPutBatchSizeBytes(),
@@ -678,7 +667,7 @@ public class CqlKeyValueService extends AbstractKeyValueService {
         long mutationBatchSizeBytes = limitBatchSizesToServerDefaults
                 ? CqlKeyValueServices.UNCONFIGURED_DEFAULT_BATCH_SIZE_BYTES
                 : configManager.getConfig().mutationBatchSizeBytes();
-        for (List<Entry<Cell, Value>> partition : partitionByCountAndBytes(
+        for (List<Entry<Cell, Value>> partition : partitionByRowCountAndBytes(
                 values,
                 mutationBatchCount,
                 mutationBatchSizeBytes,
@@ -784,10 +773,10 @@ public class CqlKeyValueService extends AbstractKeyValueService {
             if (partition.size() > 1) {
                 batchStatement.add(boundStatement);
             } else {
-                return session.executeAsync(boundStatement);
+                return asyncCqlExecutor.executeAsync(session, boundStatement);
             }
         }
-        return session.executeAsync(batchStatement);
+        return asyncCqlExecutor.executeAsync(session, batchStatement);
     }
 
     @Override
@@ -824,41 +813,42 @@ public class CqlKeyValueService extends AbstractKeyValueService {
 
     @Override
     public void delete(final TableReference tableRef, final Multimap<Cell, Long> keys) {
-        int cellCount = 0;
         String deleteQuery = "DELETE FROM " + getFullTableName(tableRef)
                 + " WHERE " + fieldNameProvider.row() + " = ?"
                 + " AND " + fieldNameProvider.column() + " = ?"
                 + " AND " + fieldNameProvider.timestamp() + " = ?";
         CassandraKeyValueServiceConfig config = configManager.getConfig();
-        int fetchBatchCount = config.fetchBatchCount();
-        for (final List<Cell> batch : Iterables.partition(keys.keySet(), fetchBatchCount)) {
-            cellCount += batch.size();
-            PreparedStatement deleteStatement = getPreparedStatement(tableRef, deleteQuery, longRunningQuerySession)
-                    .setConsistencyLevel(deleteConsistency);
-            List<ResultSetFuture> resultSetFutures = Lists.newArrayList();
-            for (Cell key : batch) {
-                for (long ts : Ordering.natural().immutableSortedCopy(keys.get(key))) {
-                    BoundStatement boundStatement = deleteStatement.bind(
-                            ByteBuffer.wrap(key.getRowName()),
-                            ByteBuffer.wrap(key.getColumnName()),
-                            ~ts
-                    );
-                    resultSetFutures.add(longRunningQuerySession.executeAsync(boundStatement));
-                }
+        PreparedStatement deleteStatement = getPreparedStatement(tableRef, deleteQuery, longRunningQuerySession)
+                .setConsistencyLevel(deleteConsistency);
+
+        List<Statement> statements = Lists.newArrayList();
+        for (List<Entry<Cell, Long>> batch : partitionByRowCountAndBytes(
+                keys.entries(),
+                config.mutationBatchCount(),
+                Long.MAX_VALUE,
+                tableRef,
+                entry -> 0L)) {
+            List<BoundStatement> boundStatements = Lists.newArrayListWithCapacity(batch.size());
+            for (Entry<Cell, Long> entry : batch) {
+                boundStatements.add(deleteStatement.bind(
+                        ByteBuffer.wrap(entry.getKey().getRowName()),
+                        ByteBuffer.wrap(entry.getKey().getColumnName()),
+                        ~entry.getValue()));
             }
-            for (ResultSetFuture resultSetFuture : resultSetFutures) {
-                ResultSet resultSet;
-                try {
-                    resultSet = resultSetFuture.getUninterruptibly();
-                    resultSet.all();
-                } catch (Throwable t) {
-                    throw Throwables.throwUncheckedException(t);
-                }
-                cqlKeyValueServices.logTracedQuery(deleteQuery, resultSet, session, cqlStatementCache.normalQuery);
+            if (boundStatements.size() == 1) {
+                statements.add(boundStatements.get(0));
+            } else {
+                // unlogged, as deleting a cell at a timestamp is idempotent
+                statements.add(new BatchStatement(BatchStatement.Type.UNLOGGED).addAll(boundStatements));
             }
         }
-        if (cellCount > fetchBatchCount) {
-            log.warn("Rebatched in delete a call to {} that attempted to delete {} cells; "
+        for (ResultSet resultSet : asyncCqlExecutor.executeAll(longRunningQuerySession, statements)) {
+            cqlKeyValueServices.logTracedQuery(deleteQuery, resultSet, session, cqlStatementCache.normalQuery);
+        }
+
+        int cellCount = keys.keySet().size();
+        if (cellCount > config.fetchBatchCount()) {
+            log.warn("A call to {} is deleting {} cells; "
                     + "this may indicate overly-large batching on a higher level.\n{}",
                     tableRef, cellCount, CassandraKeyValueServices.getFilteredStackTrace("com.palantir"));
         }
@@ -15,26 +15,35 @@
  */
 package com.palantir.atlasdb.keyvalue.cassandra.paging;
 
+import java.io.Closeable;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nullable;
 
 import org.apache.cassandra.thrift.ColumnOrSuperColumn;
 import org.apache.cassandra.thrift.KeyRange;
 import org.apache.cassandra.thrift.KeySlice;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.Iterables;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.cassandra.ResultsExtractor;
+import com.palantir.atlasdb.keyvalue.cassandra.paging.RangePagePrefetcher.RangePage;
 import com.palantir.util.paging.AbstractPagingIterable;
 import com.palantir.util.paging.SimpleTokenBackedResultsPage;
 import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 public class CassandraRangePagingIterable<T>
-        extends AbstractPagingIterable<RowResult<T>, TokenBackedBasicResultsPage<RowResult<T>, byte[]>> {
+        extends AbstractPagingIterable<RowResult<T>, TokenBackedBasicResultsPage<RowResult<T>, byte[]>>
+        implements Closeable {
     private final ColumnGetter columnGetter;
     private final RangeRequest rangeRequest;
     private final Supplier<ResultsExtractor<T>> resultsExtractor;
@@ -43,6 +52,7 @@ public class CassandraRangePagingIterable<T>
     private final int batchHint;
     private final ColumnSelection selection;
     private final RowGetter rowGetter;
+    private final Optional<RangePagePrefetcher> prefetcher;
 
     public CassandraRangePagingIterable(
             RowGetter rowGetter,
@@ -50,6 +60,22 @@ public class CassandraRangePagingIterable<T>
             RangeRequest rangeRequest,
             Supplier<ResultsExtractor<T>> resultsExtractor,
             long timestamp) {
+        this(rowGetter, columnGetter, rangeRequest, resultsExtractor, timestamp, null, 0);
+    }
+
+    /**
+     * Reads up to {@code readAheadPages} pages ahead of the caller on the given executor, so that the next pages are
+     * fetched while the current one is being processed. No pages are read ahead if {@code readAheadPages} is zero.
+     * Pages which are still pending when the iterable is closed are cancelled.
+     */
+    public CassandraRangePagingIterable(
+            RowGetter rowGetter,
+            ColumnGetter columnGetter,
+            RangeRequest rangeRequest,
+            Supplier<ResultsExtractor<T>> resultsExtractor,
+            long timestamp,
+            ExecutorService readAheadExecutor,
+            int readAheadPages) {
         this.rowGetter = rowGetter;
         this.columnGetter = columnGetter;
         this.rangeRequest = rangeRequest;
@@ -59,6 +85,14 @@ public class CassandraRangePagingIterable<T>
         batchHint = rangeRequest.getBatchHint() == null ? 100 : rangeRequest.getBatchHint();
         selection = rangeRequest.getColumnNames().isEmpty() ? ColumnSelection.all()
                 : ColumnSelection.create(rangeRequest.getColumnNames());
+        prefetcher = readAheadPages > 0
+                ? Optional.of(new RangePagePrefetcher(this::loadPage, readAheadExecutor, readAheadPages))
+                : Optional.empty();
+    }
+
+    @Override
+    public void close() {
+        prefetcher.ifPresent(RangePagePrefetcher::close);
     }
 
     @Override
@@ -74,17 +108,40 @@ public class CassandraRangePagingIterable<T>
     }
 
     private TokenBackedBasicResultsPage<RowResult<T>, byte[]> getSinglePage(byte[] startKey) throws Exception {
-        List<KeySlice> rows = getRows(startKey);
-        Map<ByteBuffer, List<ColumnOrSuperColumn>> columnsByRow = getColumns(rows);
-        TokenBackedBasicResultsPage<RowResult<T>, byte[]> page = getPage(columnsByRow);
+        RangePage rangePage = prefetcher.isPresent() ? prefetcher.get().getPage(startKey) : loadPage(startKey);
+        TokenBackedBasicResultsPage<RowResult<T>, byte[]> page = getPage(rangePage.getColumnsByRow());
 
-        if (page.moreResultsAvailable() && pageShouldBeLastPage(rows)) {
+        if (page.moreResultsAvailable() && pageShouldBeLastPage(rangePage.getRows())) {
             return pageWithNoMoreResultsAvailable(page);
         }
 
         return page;
     }
 
+    private RangePage loadPage(byte[] startKey) throws Exception {
+        List<KeySlice> rows = getRows(startKey);
+        Map<ByteBuffer, List<ColumnOrSuperColumn>> columnsByRow = getColumns(rows);
+        return new RangePage(rows, columnsByRow, getNextStartKey(rows));
+    }
+
+    @Nullable
+    private byte[] getNextStartKey(List<KeySlice> rows) {
+        if (rows.isEmpty() || pageShouldBeLastPage(rows)) {
+            return null;
+        }
+        byte[] lastRow = Iterables.getLast(rows).getKey();
+        if (RangeRequests.isLastRowName(lastRow)) {
+            return null;
+        }
+        byte[] nextStartKey = RangeRequests.nextLexicographicName(lastRow);
+        byte[] endExclusive = rangeRequest.getEndExclusive();
+        if (endExclusive.length != 0
+                && UnsignedBytes.lexicographicalComparator().compare(nextStartKey, endExclusive) >= 0) {
+            return null;
+        }
+        return nextStartKey;
+    }
+
     private List<KeySlice> getRows(byte[] startKey) throws Exception {
         KeyRange keyRange = getKeyRange(startKey, rangeRequest.getEndExclusive());
         return rowGetter.getRows(keyRange);
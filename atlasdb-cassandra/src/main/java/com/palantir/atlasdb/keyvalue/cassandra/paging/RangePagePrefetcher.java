@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra.paging;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nullable;
+
+import org.apache.cassandra.thrift.ColumnOrSuperColumn;
+import org.apache.cassandra.thrift.KeySlice;
+
+import com.google.common.base.Preconditions;
+import com.palantir.common.base.FunctionCheckedException;
+import com.palantir.common.base.Throwables;
+
+/**
+ * Reads the pages of a range scan ahead of the caller. As soon as the rows of a page are known, the page after it
+ * is requested in the background, until {@code maxOutstandingPages} pages are waiting to be consumed.
+ * <p>
+ * A page read ahead is only handed out if the caller asks for the page starting where it does; otherwise all pages
+ * read ahead are discarded and the requested page is read directly. Discarded pages, and any pages still pending
+ * when the prefetcher is closed, are cancelled if they have not started loading yet. Loads already in flight are
+ * not interrupted, so that the connection they use is returned to its pool in a good state.
+ */
+final class RangePagePrefetcher {
+    private final FunctionCheckedException<byte[], RangePage, Exception> pageLoader;
+    private final ExecutorService executor;
+    private final int maxOutstandingPages;
+
+    // guarded by this
+    private final Deque<PendingPage> pendingPages = new ArrayDeque<>();
+    private boolean closed = false;
+
+    RangePagePrefetcher(FunctionCheckedException<byte[], RangePage, Exception> pageLoader,
+                        ExecutorService executor,
+                        int maxOutstandingPages) {
+        Preconditions.checkArgument(maxOutstandingPages > 0, "maxOutstandingPages must be positive");
+        this.pageLoader = pageLoader;
+        this.executor = executor;
+        this.maxOutstandingPages = maxOutstandingPages;
+    }
+
+    RangePage getPage(byte[] startKey) throws Exception {
+        PendingPage pendingPage = takePendingPage(startKey);
+        RangePage page = pendingPage == null ? pageLoader.apply(startKey) : pendingPage.get();
+        readAhead(page);
+        return page;
+    }
+
+    @Nullable
+    private synchronized PendingPage takePendingPage(byte[] startKey) {
+        PendingPage head = pendingPages.pollFirst();
+        if (head != null && Arrays.equals(head.startKey, startKey)) {
+            return head;
+        }
+        if (head != null) {
+            head.cancel();
+        }
+        cancelPendingPages();
+        return null;
+    }
+
+    synchronized void close() {
+        closed = true;
+        cancelPendingPages();
+    }
+
+    private void cancelPendingPages() {
+        for (PendingPage pendingPage : pendingPages) {
+            pendingPage.cancel();
+        }
+        pendingPages.clear();
+    }
+
+    private synchronized void readAhead(RangePage consumed) {
+        PendingPage tail = pendingPages.peekLast();
+        if (tail == null) {
+            readAheadAfter(consumed);
+        } else if (tail.loaded != null) {
+            readAheadAfter(tail.loaded);
+        }
+    }
+
+    private synchronized void onLoaded(PendingPage pendingPage, RangePage page) {
+        pendingPage.loaded = page;
+        if (pendingPages.peekLast() == pendingPage) {
+            readAheadAfter(page);
+        }
+    }
+
+    private void readAheadAfter(RangePage page) {
+        byte[] nextStartKey = page.getNextStartKey();
+        if (closed || nextStartKey == null || pendingPages.size() >= maxOutstandingPages) {
+            return;
+        }
+        PendingPage pendingPage = new PendingPage(nextStartKey);
+        pendingPages.addLast(pendingPage);
+        pendingPage.future = executor.submit(() -> {
+            RangePage loaded = pageLoader.apply(nextStartKey);
+            onLoaded(pendingPage, loaded);
+            return loaded;
+        });
+    }
+
+    private static final class PendingPage {
+        private final byte[] startKey;
+        private Future<RangePage> future;
+        private RangePage loaded;
+
+        PendingPage(byte[] startKey) {
+            this.startKey = startKey;
+        }
+
+        void cancel() {
+            // The future is only unset while the page is being submitted, by which time it has been loaded
+            // if the executor runs tasks on the submitting thread.
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        RangePage get() throws InterruptedException {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * The rows of a single {@code get_range_slices} call along with all of their columns.
+     */
+    static final class RangePage {
+        private final List<KeySlice> rows;
+        private final Map<ByteBuffer, List<ColumnOrSuperColumn>> columnsByRow;
+        private final byte[] nextStartKey;
+
+        RangePage(List<KeySlice> rows,
+                  Map<ByteBuffer, List<ColumnOrSuperColumn>> columnsByRow,
+                  @Nullable byte[] nextStartKey) {
+            this.rows = rows;
+            this.columnsByRow = columnsByRow;
+            this.nextStartKey = nextStartKey;
+        }
+
+        List<KeySlice> getRows() {
+            return rows;
+        }
+
+        Map<ByteBuffer, List<ColumnOrSuperColumn>> getColumnsByRow() {
+            return columnsByRow;
+        }
+
+        /**
+         * @return where the page after this one starts, or null if this is the last page of the range
+         */
+        @Nullable
+        byte[] getNextStartKey() {
+            return nextStartKey;
+        }
+    }
+}
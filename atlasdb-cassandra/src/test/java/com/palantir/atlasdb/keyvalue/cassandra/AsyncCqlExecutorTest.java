@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+public class AsyncCqlExecutorTest {
+    private static final int MAX_IN_FLIGHT_REQUESTS = 2;
+
+    private final Session session = mock(Session.class);
+    private final AsyncCqlExecutor executor = new AsyncCqlExecutor(MAX_IN_FLIGHT_REQUESTS);
+    private final List<Runnable> completionListeners = Lists.newArrayList();
+
+    @Test
+    public void holdsAPermitUntilTheRequestCompletes() {
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> pendingFuture(mock(ResultSet.class)));
+
+        executor.executeAsync(session, mock(Statement.class));
+        executor.executeAsync(session, mock(Statement.class));
+        assertThat(executor.availablePermits()).isEqualTo(0);
+
+        completionListeners.forEach(Runnable::run);
+        assertThat(executor.availablePermits()).isEqualTo(MAX_IN_FLIGHT_REQUESTS);
+    }
+
+    @Test
+    public void releasesThePermitIfTheRequestCannotBeSent() {
+        when(session.executeAsync(any(Statement.class))).thenThrow(new IllegalStateException("closed"));
+
+        assertThatThrownBy(() -> executor.executeAsync(session, mock(Statement.class)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(executor.availablePermits()).isEqualTo(MAX_IN_FLIGHT_REQUESTS);
+    }
+
+    @Test
+    public void executesMoreStatementsThanThereArePermitsAndReturnsResultsInOrder() {
+        List<ResultSet> resultSets = ImmutableList.of(
+                mock(ResultSet.class), mock(ResultSet.class), mock(ResultSet.class), mock(ResultSet.class));
+        List<Statement> statements = Lists.newArrayList();
+        for (ResultSet resultSet : resultSets) {
+            Statement statement = mock(Statement.class);
+            statements.add(statement);
+            when(session.executeAsync(statement)).thenAnswer(invocation -> completedFuture(resultSet));
+        }
+
+        assertThat(executor.executeAll(session, statements)).containsExactlyElementsOf(resultSets);
+        assertThat(executor.availablePermits()).isEqualTo(MAX_IN_FLIGHT_REQUESTS);
+    }
+
+    private ResultSetFuture pendingFuture(ResultSet resultSet) {
+        ResultSetFuture future = mock(ResultSetFuture.class);
+        when(future.getUninterruptibly()).thenReturn(resultSet);
+        doAnswer(invocation -> {
+            completionListeners.add((Runnable) invocation.getArguments()[0]);
+            return null;
+        }).when(future).addListener(any(Runnable.class), any());
+        return future;
+    }
+
+    private static ResultSetFuture completedFuture(ResultSet resultSet) {
+        ResultSetFuture future = mock(ResultSetFuture.class);
+        when(future.getUninterruptibly()).thenReturn(resultSet);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return null;
+        }).when(future).addListener(any(Runnable.class), any());
+        return future;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra.paging;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.keyvalue.cassandra.paging.RangePagePrefetcher.RangePage;
+
+public class RangePagePrefetcherTest {
+    private static final int LAST_PAGE = 9;
+
+    private final List<Integer> loadedPages = Lists.newArrayList();
+    private int failingPage = -1;
+
+    // Pages read ahead are loaded as soon as they are submitted, which keeps these tests deterministic.
+    private final RangePagePrefetcher prefetcher = new RangePagePrefetcher(
+            this::loadPage, MoreExecutors.newDirectExecutorService(), 2);
+
+    @Test
+    public void readsAheadUpToTheMaximumNumberOfOutstandingPages() throws Exception {
+        assertThat(pageNumber(prefetcher.getPage(key(0))), equalTo(0));
+        assertThat(loadedPages, contains(0, 1, 2));
+
+        assertThat(pageNumber(prefetcher.getPage(key(1))), equalTo(1));
+        assertThat(loadedPages, contains(0, 1, 2, 3));
+    }
+
+    @Test
+    public void stopsReadingAheadAtTheLastPage() throws Exception {
+        for (int page = LAST_PAGE - 1; page <= LAST_PAGE; page++) {
+            prefetcher.getPage(key(page));
+        }
+        assertThat(loadedPages, contains(LAST_PAGE - 1, LAST_PAGE));
+    }
+
+    @Test
+    public void discardsPagesReadAheadIfTheCallerSkipsThem() throws Exception {
+        prefetcher.getPage(key(0));
+        assertThat(pageNumber(prefetcher.getPage(key(5))), equalTo(5));
+        assertThat(loadedPages, contains(0, 1, 2, 5, 6, 7));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failuresReadingAheadAreThrownWhenThePageIsRequested() throws Exception {
+        failingPage = 1;
+        prefetcher.getPage(key(0));
+        prefetcher.getPage(key(1));
+    }
+
+    @Test
+    public void closingCancelsPagesThatHaveNotStartedLoading() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch executorBlocked = new CountDownLatch(1);
+        executor.submit(() -> {
+            executorBlocked.await();
+            return null;
+        });
+        RangePagePrefetcher closingPrefetcher = new RangePagePrefetcher(this::loadPage, executor, 2);
+
+        closingPrefetcher.getPage(key(0));
+        closingPrefetcher.close();
+        executorBlocked.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertThat(loadedPages, contains(0));
+    }
+
+    private RangePage loadPage(byte[] startKey) {
+        int page = startKey[0];
+        loadedPages.add(page);
+        if (page == failingPage) {
+            throw new IllegalStateException("Failed to load page " + page);
+        }
+        return new RangePage(ImmutableList.of(), ImmutableMap.of(), page < LAST_PAGE ? key(page + 1) : null);
+    }
+
+    private static int pageNumber(RangePage page) {
+        byte[] nextStartKey = page.getNextStartKey();
+        return nextStartKey == null ? LAST_PAGE : nextStartKey[0] - 1;
+    }
+
+    private static byte[] key(int page) {
+        return new byte[] {(byte) page};
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cli.command;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.io.BaseEncoding;
+import com.palantir.common.base.Throwables;
+
+/**
+ * Records how far each row range of a sweep has got, and how many cell values it has examined and deleted so far, so
+ * that an interrupted sweep can carry on each range from where it stopped and still report the counts of the whole
+ * sweep. Progress is kept in a properties file, keyed by the range's table and bounds, so a sweep that splits a table
+ * differently starts it afresh. Once a table has been swept its ranges are replaced by a single entry for the table,
+ * and once the whole sweep has finished the file is deleted, so that running the sweep again sweeps afresh.
+ */
+@ThreadSafe
+final class SweepCheckpoints {
+    private static final String FINISHED = "finished";
+    private static final char SEPARATOR = ',';
+
+    @Nullable
+    private final Path file;
+    private final Properties checkpoints = new Properties();
+
+    private SweepCheckpoints(@Nullable Path file) {
+        this.file = file;
+    }
+
+    static SweepCheckpoints inMemory() {
+        return new SweepCheckpoints(null);
+    }
+
+    static SweepCheckpoints load(Path file) throws IOException {
+        SweepCheckpoints sweepCheckpoints = new SweepCheckpoints(file);
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                sweepCheckpoints.checkpoints.load(reader);
+            }
+        }
+        return sweepCheckpoints;
+    }
+
+    static String rangeKey(String tableName, byte[] rangeStart, byte[] rangeEnd) {
+        return tableName + "/" + BaseEncoding.base16().encode(rangeStart)
+                + "-" + BaseEncoding.base16().encode(rangeEnd);
+    }
+
+    /**
+     * Returns the row from which to carry on sweeping the range, or nothing if the range has been swept.
+     */
+    synchronized Optional<byte[]> getStartRow(String rangeKey, byte[] rangeStart) {
+        List<String> checkpoint = getCheckpoint(rangeKey);
+        if (checkpoint == null) {
+            return Optional.of(rangeStart);
+        } else if (checkpoint.get(0).equals(FINISHED)) {
+            return Optional.empty();
+        } else {
+            return Optional.of(BaseEncoding.base16().decode(checkpoint.get(0)));
+        }
+    }
+
+    /**
+     * Returns the number of cell values examined in the range by this and earlier runs of the sweep.
+     */
+    synchronized long getCellsExamined(String rangeKey) {
+        List<String> checkpoint = getCheckpoint(rangeKey);
+        return checkpoint == null ? 0L : Long.parseLong(checkpoint.get(1));
+    }
+
+    /**
+     * Returns the number of stale values deleted from the range by this and earlier runs of the sweep.
+     */
+    synchronized long getCellsDeleted(String rangeKey) {
+        List<String> checkpoint = getCheckpoint(rangeKey);
+        return checkpoint == null ? 0L : Long.parseLong(checkpoint.get(2));
+    }
+
+    /**
+     * Records the row from which to carry on sweeping the range, or that the range has been swept if there is none,
+     * and adds the counts of the batch just swept to those of the range.
+     */
+    synchronized void record(String rangeKey, Optional<byte[]> nextStartRow, long cellsExamined, long cellsDeleted) {
+        String progress = nextStartRow.map(BaseEncoding.base16()::encode).orElse(FINISHED);
+        checkpoints.setProperty(rangeKey, Joiner.on(SEPARATOR).join(
+                progress,
+                getCellsExamined(rangeKey) + cellsExamined,
+                getCellsDeleted(rangeKey) + cellsDeleted));
+        if (file != null) {
+            save(file);
+        }
+    }
+
+    /**
+     * Returns whether the table has been swept, and its sweep recorded, by an earlier run of this sweep.
+     */
+    synchronized boolean isTableFinished(String tableName) {
+        return FINISHED.equals(checkpoints.getProperty(tableName));
+    }
+
+    /**
+     * Records that the table has been swept and its sweep recorded, dropping the checkpoints of its ranges.
+     */
+    synchronized void finishTable(String tableName) {
+        String rangePrefix = tableName + "/";
+        checkpoints.stringPropertyNames().stream()
+                .filter(key -> key.startsWith(rangePrefix))
+                .forEach(checkpoints::remove);
+        checkpoints.setProperty(tableName, FINISHED);
+        if (file != null) {
+            save(file);
+        }
+    }
+
+    /**
+     * Forgets all progress once the whole sweep has finished, so that running it again sweeps afresh.
+     */
+    synchronized void finish() {
+        checkpoints.clear();
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw Throwables.rewrapAndThrowUncheckedException("Failed to delete sweep progress in " + file, e);
+            }
+        }
+    }
+
+    @Nullable
+    private List<String> getCheckpoint(String rangeKey) {
+        String checkpoint = checkpoints.getProperty(rangeKey);
+        return checkpoint == null ? null : Splitter.on(SEPARATOR).splitToList(checkpoint);
+    }
+
+    private void save(Path target) {
+        // write a new file and move it into place, so that an interrupted run cannot leave a partial file behind
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                checkpoints.store(writer, "AtlasDB sweep progress");
+            }
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to record sweep progress in " + target, e);
+        }
+    }
+}
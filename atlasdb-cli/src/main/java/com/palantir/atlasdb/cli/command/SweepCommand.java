@@ -15,10 +15,16 @@
  */
 package com.palantir.atlasdb.cli.command;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -28,10 +34,13 @@ import javax.annotation.Nullable;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Functions;
+import com.google.common.base.Splitter;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.cli.output.OutputPrinter;
 import com.palantir.atlasdb.encoding.PtBytes;
@@ -45,6 +54,8 @@ import com.palantir.atlasdb.sweep.SweepBatchConfig;
 import com.palantir.atlasdb.sweep.SweepTaskRunner;
 import com.palantir.atlasdb.transaction.impl.TxTask;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 
 import io.airlift.airline.Command;
 import io.airlift.airline.Option;
@@ -112,6 +123,26 @@ public class SweepCommand extends SingleBackendCommand {
             description = "Run sweep in dry run mode to get how much would have been deleted and check safety.")
     boolean dryRun = false;
 
+    @Option(name = {"--ranges"},
+            description = "Number of row ranges, of even size, to split each table into and sweep in parallel"
+                    + " (default: 1)")
+    int numRanges = 1;
+
+    @Option(name = {"--range-boundaries"},
+            description = "Comma-separated rows (hex encoded bytes) at which to split each table into ranges,"
+                    + " instead of into ranges of even size")
+    String rangeBoundaries;
+
+    @Option(name = {"--threads"},
+            description = "Number of ranges to sweep at once (default: the number of ranges)")
+    Integer numThreads;
+
+    @Option(name = {"--checkpoint-file"},
+            description = "File in which to record how far each range has been swept, so that an interrupted"
+                    + " sweep run with the same file and ranges carries on from where it stopped. The file is"
+                    + " deleted once the sweep has finished")
+    String checkpointFile;
+
     @Override
     public boolean isOnlineRunSupported() {
         return true;
@@ -130,6 +161,16 @@ public class SweepCommand extends SingleBackendCommand {
                     + ") when sweeping multiple tables (in namespace " + namespace + ")");
             return 1;
         }
+        if (isRangeSweep()) {
+            if (row != null) {
+                printer.error("Cannot specify a start row (" + row + ") when sweeping tables in ranges");
+                return 1;
+            }
+            if (numRanges < 1 || (numThreads != null && numThreads < 1)) {
+                printer.error("The number of ranges and threads must be positive.");
+                return 1;
+            }
+        }
 
         Map<TableReference, byte[]> tableToStartRow = Maps.newHashMap();
 
@@ -160,14 +201,35 @@ public class SweepCommand extends SingleBackendCommand {
         }
 
         SweepBatchConfig batchConfig = getSweepBatchConfig();
+        SweepCheckpoints checkpoints;
+        try {
+            checkpoints = checkpointFile == null
+                    ? SweepCheckpoints.inMemory()
+                    : SweepCheckpoints.load(Paths.get(checkpointFile));
+        } catch (IOException e) {
+            printer.error("Failed to read sweep progress from " + checkpointFile + ": " + e.getMessage());
+            return 1;
+        }
 
         for (Map.Entry<TableReference, byte[]> entry : tableToStartRow.entrySet()) {
             final TableReference tableToSweep = entry.getKey();
-            Optional<byte[]> startRow = Optional.of(entry.getValue());
+            Optional<byte[]> startRow = isRangeSweep() ? Optional.empty() : Optional.of(entry.getValue());
+
+            if (checkpoints.isTableFinished(tableToSweep.getQualifiedName())) {
+                printer.info("Skipping {}, which the checkpoint file records as already swept.", tableToSweep);
+                continue;
+            }
 
             final AtomicLong cellsExamined = new AtomicLong();
             final AtomicLong cellsDeleted = new AtomicLong();
 
+            if (isRangeSweep()
+                    && !sweepRanges(sweepRunner, batchConfig, tableToSweep, checkpoints, cellsExamined, cellsDeleted)) {
+                printer.error("Failed to sweep every range of {}.{}", tableToSweep, checkpointFile == null ? ""
+                        : " Sweep again with the same checkpoint file to carry on from where it stopped.");
+                return 1;
+            }
+
             while (startRow.isPresent()) {
                 Stopwatch watch = Stopwatch.createStarted();
 
@@ -216,10 +278,141 @@ public class SweepCommand extends SingleBackendCommand {
                 printer.info("Finished performing compactInternally on {} in {} ms.",
                         tableToSweep, watch.elapsed(TimeUnit.MILLISECONDS));
             }
+
+            if (!dryRun) {
+                checkpoints.finishTable(tableToSweep.getQualifiedName());
+            }
+        }
+        if (!dryRun) {
+            checkpoints.finish();
         }
         return 0;
     }
 
+    private boolean isRangeSweep() {
+        return numRanges > 1 || rangeBoundaries != null || numThreads != null || checkpointFile != null;
+    }
+
+    /**
+     * Sweeps each range of the table on a thread of its own, up to the given number of threads at once, and
+     * returns whether every range was swept. Once every range has been swept, the counts are those of the whole
+     * sweep of the table, including the ranges swept by earlier runs with the same checkpoint file.
+     */
+    private boolean sweepRanges(SweepTaskRunner sweepRunner,
+                                SweepBatchConfig batchConfig,
+                                TableReference tableToSweep,
+                                SweepCheckpoints checkpoints,
+                                AtomicLong cellsExamined,
+                                AtomicLong cellsDeleted) {
+        List<byte[]> boundaries = getRangeBoundaries();
+        int numRangesToSweep = boundaries.size() - 1;
+        ExecutorService executor = PTExecutors.newFixedThreadPool(
+                numThreads == null ? numRangesToSweep : Math.min(numThreads, numRangesToSweep),
+                new NamedThreadFactory("atlasdb-cli-sweep", true));
+        Stopwatch totalWatch = Stopwatch.createStarted();
+        try {
+            List<Future<?>> rangeFutures = Lists.newArrayList();
+            for (int i = 0; i < numRangesToSweep; i++) {
+                byte[] rangeStart = boundaries.get(i);
+                byte[] rangeEnd = boundaries.get(i + 1);
+                rangeFutures.add(executor.submit(() -> sweepRange(sweepRunner, batchConfig, tableToSweep,
+                        rangeStart, rangeEnd, checkpoints, cellsExamined, cellsDeleted, totalWatch)));
+            }
+            boolean sweptAllRanges = true;
+            for (Future<?> future : rangeFutures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    printer.error("Failed to sweep a range of {}: {}", tableToSweep, e.getCause().toString());
+                    sweptAllRanges = false;
+                }
+            }
+            if (sweptAllRanges && !dryRun) {
+                cellsExamined.set(0L);
+                cellsDeleted.set(0L);
+                for (int i = 0; i < numRangesToSweep; i++) {
+                    String rangeKey = SweepCheckpoints.rangeKey(
+                            tableToSweep.getQualifiedName(), boundaries.get(i), boundaries.get(i + 1));
+                    cellsExamined.addAndGet(checkpoints.getCellsExamined(rangeKey));
+                    cellsDeleted.addAndGet(checkpoints.getCellsDeleted(rangeKey));
+                }
+            }
+            return sweptAllRanges;
+        } catch (InterruptedException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void sweepRange(SweepTaskRunner sweepRunner,
+                            SweepBatchConfig batchConfig,
+                            TableReference tableToSweep,
+                            byte[] rangeStart,
+                            byte[] rangeEnd,
+                            SweepCheckpoints checkpoints,
+                            AtomicLong cellsExamined,
+                            AtomicLong cellsDeleted,
+                            Stopwatch totalWatch) {
+        String rangeKey = SweepCheckpoints.rangeKey(tableToSweep.getQualifiedName(), rangeStart, rangeEnd);
+        Optional<byte[]> startRow = checkpoints.getStartRow(rangeKey, rangeStart);
+        while (startRow.isPresent()) {
+            Stopwatch watch = Stopwatch.createStarted();
+
+            SweepResults results = dryRun
+                    ? sweepRunner.dryRun(tableToSweep, batchConfig, startRow.get(), rangeEnd)
+                    : sweepRunner.run(tableToSweep, batchConfig, startRow.get(), rangeEnd);
+            long totalExamined = cellsExamined.addAndGet(results.getCellTsPairsExamined());
+            long totalDeleted = cellsDeleted.addAndGet(results.getStaleValuesDeleted());
+            double totalSeconds = Math.max(totalWatch.elapsed(TimeUnit.MILLISECONDS), 1L) / 1000.0;
+            printer.info(
+                    "Swept from {} to {} in table {} in {} ms, examined {} cell values,"
+                            + " {}deleted {} stale versions of those cells."
+                            + " All ranges have examined {} cell values per second and {}deleted {} per second.",
+                    encodeStartRow(startRow),
+                    encodeEndRow(results.getNextStartRow().isPresent() ? results.getNextStartRow()
+                            : Optional.of(rangeEnd)),
+                    tableToSweep,
+                    watch.elapsed(TimeUnit.MILLISECONDS),
+                    results.getCellTsPairsExamined(),
+                    dryRun ? "would have " : "",
+                    results.getStaleValuesDeleted(),
+                    Math.round(totalExamined / totalSeconds),
+                    dryRun ? "would have " : "",
+                    Math.round(totalDeleted / totalSeconds));
+            startRow = results.getNextStartRow();
+            if (!dryRun) {
+                checkpoints.record(rangeKey, startRow,
+                        results.getCellTsPairsExamined(), results.getStaleValuesDeleted());
+            }
+            maybeSleep();
+        }
+    }
+
+    /**
+     * Returns the bounds of the ranges to sweep, starting and ending with the empty row, which stands for the first
+     * and last rows of the table.
+     */
+    private List<byte[]> getRangeBoundaries() {
+        Set<byte[]> innerBoundaries = Sets.newTreeSet(UnsignedBytes.lexicographicalComparator());
+        if (rangeBoundaries != null) {
+            for (String boundary : Splitter.on(',').trimResults().omitEmptyStrings().split(rangeBoundaries)) {
+                innerBoundaries.add(decodeStartRow(boundary));
+            }
+        } else {
+            // split the space of two-byte row prefixes evenly
+            for (int i = 1; i < numRanges; i++) {
+                int prefix = (int) ((long) i * 0x10000 / numRanges);
+                innerBoundaries.add(new byte[] {(byte) (prefix >>> 8), (byte) prefix});
+            }
+        }
+        List<byte[]> boundaries = Lists.newArrayList();
+        boundaries.add(PtBytes.EMPTY_BYTE_ARRAY);
+        boundaries.addAll(innerBoundaries);
+        boundaries.add(PtBytes.EMPTY_BYTE_ARRAY);
+        return boundaries;
+    }
+
     private SweepBatchConfig getSweepBatchConfig() {
         if (batchSize != null || cellBatchSize != null) {
             printer.warn("Options 'batchSize' and 'cellBatchSize' have been deprecated in favor of 'deleteBatchHint', "
@@ -272,7 +465,7 @@ public class SweepCommand extends SingleBackendCommand {
     }
 
     private String encodeEndRow(Optional<byte[]> rowBytes) {
-        if (rowBytes.isPresent() && !Arrays.equals(rowBytes.get(), FIRST_ROW)) {
+        if (rowBytes.isPresent() && !Arrays.equals(rowBytes.get(), FIRST_ROW) && rowBytes.get().length > 0) {
             return BaseEncoding.base16().encode(rowBytes.get());
         } else {
             return BaseEncoding.base16().encode(LAST_ROW);
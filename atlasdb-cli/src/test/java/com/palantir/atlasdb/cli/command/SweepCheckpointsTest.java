@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cli.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.palantir.atlasdb.encoding.PtBytes;
+
+public class SweepCheckpointsTest {
+    private static final byte[] RANGE_START = PtBytes.EMPTY_BYTE_ARRAY;
+    private static final byte[] RANGE_END = "m".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEXT_START_ROW = "f".getBytes(StandardCharsets.UTF_8);
+    private static final String RANGE = SweepCheckpoints.rangeKey("ns.table", RANGE_START, RANGE_END);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void rangesWithoutCheckpointsStartFromTheRangeStart() {
+        SweepCheckpoints checkpoints = SweepCheckpoints.inMemory();
+        assertThat(checkpoints.getStartRow(RANGE, RANGE_START)).contains(RANGE_START);
+    }
+
+    @Test
+    public void resumesRangesFromTheLastCheckpointWrittenToTheFile() throws IOException {
+        File file = new File(tempFolder.getRoot(), "sweep-progress");
+        SweepCheckpoints.load(file.toPath()).record(RANGE, Optional.of(NEXT_START_ROW), 10L, 1L);
+
+        SweepCheckpoints reloaded = SweepCheckpoints.load(file.toPath());
+        assertThat(reloaded.getStartRow(RANGE, RANGE_START)).contains(NEXT_START_ROW);
+
+        reloaded.record(RANGE, Optional.empty(), 10L, 1L);
+        assertThat(SweepCheckpoints.load(file.toPath()).getStartRow(RANGE, RANGE_START)).isEmpty();
+    }
+
+    @Test
+    public void accumulatesCountsOfEachRangeAcrossRuns() throws IOException {
+        File file = new File(tempFolder.getRoot(), "sweep-progress");
+        SweepCheckpoints.load(file.toPath()).record(RANGE, Optional.of(NEXT_START_ROW), 10L, 1L);
+        SweepCheckpoints.load(file.toPath()).record(RANGE, Optional.empty(), 5L, 2L);
+
+        SweepCheckpoints reloaded = SweepCheckpoints.load(file.toPath());
+        assertThat(reloaded.getCellsExamined(RANGE)).isEqualTo(15L);
+        assertThat(reloaded.getCellsDeleted(RANGE)).isEqualTo(3L);
+    }
+
+    @Test
+    public void finishingATableReplacesItsRangesWithASingleEntry() throws IOException {
+        File file = new File(tempFolder.getRoot(), "sweep-progress");
+        SweepCheckpoints checkpoints = SweepCheckpoints.load(file.toPath());
+        checkpoints.record(RANGE, Optional.empty(), 10L, 1L);
+        checkpoints.finishTable("ns.table");
+
+        SweepCheckpoints reloaded = SweepCheckpoints.load(file.toPath());
+        assertThat(reloaded.isTableFinished("ns.table")).isTrue();
+        assertThat(reloaded.isTableFinished("ns.other")).isFalse();
+        assertThat(reloaded.getStartRow(RANGE, RANGE_START)).contains(RANGE_START);
+        assertThat(reloaded.getCellsExamined(RANGE)).isEqualTo(0L);
+    }
+
+    @Test
+    public void finishingTheSweepDeletesTheFile() throws IOException {
+        File file = new File(tempFolder.getRoot(), "sweep-progress");
+        SweepCheckpoints checkpoints = SweepCheckpoints.load(file.toPath());
+        checkpoints.record(RANGE, Optional.empty(), 10L, 1L);
+        checkpoints.finishTable("ns.table");
+
+        checkpoints.finish();
+
+        assertThat(file).doesNotExist();
+        assertThat(SweepCheckpoints.load(file.toPath()).isTableFinished("ns.table")).isFalse();
+    }
+
+    @Test
+    public void rangesWithDifferentBoundsAreCheckpointedSeparately() {
+        SweepCheckpoints checkpoints = SweepCheckpoints.inMemory();
+        checkpoints.record(RANGE, Optional.empty(), 10L, 1L);
+
+        String otherRange = SweepCheckpoints.rangeKey("ns.table", RANGE_END, PtBytes.EMPTY_BYTE_ARRAY);
+        assertThat(checkpoints.getStartRow(otherRange, RANGE_END)).contains(RANGE_END);
+    }
+}
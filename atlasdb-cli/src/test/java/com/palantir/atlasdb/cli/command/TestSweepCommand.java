@@ -238,6 +238,34 @@ public class TestSweepCommand {
         }
     }
 
+    @Test
+    public void testSweepTableInRanges() throws Exception {
+        try (SingleBackendCliTestRunner runner = makeRunner(
+                paramsWithDryRunSet(SWEEP_COMMAND, "-t", TABLE_ONE.getQualifiedName(), "--ranges", "64",
+                        "--threads", "2"))) {
+            TestAtlasDbServices services = runner.connect(moduleFactory);
+            SerializableTransactionManager txm = services.getTransactionManager();
+            TimestampService tss = services.getTimestampService();
+            KeyValueService kvs = services.getKeyValueService();
+
+            createTable(kvs, TABLE_ONE, TableMetadataPersistence.SweepStrategy.CONSERVATIVE);
+            long ts1 = put(txm, TABLE_ONE, "foo", "bar");
+            long ts2 = put(txm, TABLE_ONE, "boo", "biz");
+            long ts3 = put(txm, TABLE_ONE, "foo", "baz");
+            long ts4 = put(txm, TABLE_ONE, "boo", "buz");
+            long ts5 = tss.getFreshTimestamp();
+            String stdout = sweep(runner, ts5);
+
+            Assert.assertTrue(stdout.contains("cell values per second"));
+            Assert.assertEquals("baz", get(kvs, TABLE_ONE, "foo", ts5));
+            Assert.assertEquals(deletedValue("bar"), get(kvs, TABLE_ONE, "foo", mid(ts1, ts3)));
+            Assert.assertEquals(ImmutableSet.of(deletedTimestamp(ts1), ts3), getAllTs(kvs, TABLE_ONE, "foo"));
+            Assert.assertEquals("buz", get(kvs, TABLE_ONE, "boo", ts5));
+            Assert.assertEquals(deletedValue("biz"), get(kvs, TABLE_ONE, "boo", mid(ts2, ts4)));
+            Assert.assertEquals(ImmutableSet.of(deletedTimestamp(ts2), ts4), getAllTs(kvs, TABLE_ONE, "boo"));
+        }
+    }
+
 
     private String[] paramsWithDryRunSet(String... params) {
         List<String> paramList = new ArrayList<>(
@@ -25,7 +25,11 @@ import com.palantir.atlasdb.transaction.impl.TransactionConstants;
 
 public class AtlasDbConstants {
     public static final TableReference PUNCH_TABLE = TableReference.createWithEmptyNamespace("_punch");
+    public static final TableReference PUNCH_TIMESTAMP_INDEX_TABLE =
+            TableReference.createWithEmptyNamespace("_punch_ts_index");
     public static final TableReference SCRUB_TABLE = TableReference.createWithEmptyNamespace("_scrub");
+    public static final TableReference SCRUB_TIMESTAMP_BUCKET_TABLE =
+            TableReference.createWithEmptyNamespace("_scrub_ts_buckets");
     public static final TableReference NAMESPACE_TABLE = TableReference.createWithEmptyNamespace("_namespace");
     public static final TableReference TIMESTAMP_TABLE = TableReference.createWithEmptyNamespace("_timestamp");
     public static final TableReference PERSISTED_LOCKS_TABLE = TableReference.createWithEmptyNamespace(
@@ -64,7 +68,9 @@ public class AtlasDbConstants {
     public static final Set<TableReference> hiddenTables = ImmutableSet.of(
             TransactionConstants.TRANSACTION_TABLE,
             PUNCH_TABLE,
+            PUNCH_TIMESTAMP_INDEX_TABLE,
             SCRUB_TABLE,
+            SCRUB_TIMESTAMP_BUCKET_TABLE,
             NAMESPACE_TABLE,
             PARTITION_MAP_TABLE,
             PERSISTED_LOCKS_TABLE);
@@ -81,6 +87,7 @@ public class AtlasDbConstants {
 
     public static final long DEFAULT_TRANSACTION_READ_TIMEOUT = 60 * 60 * 1000; // one hour
     public static final long DEFAULT_PUNCH_INTERVAL_MILLIS = 60 * 1000; // one minute
+    public static final boolean DEFAULT_ENABLE_PUNCH_TIMESTAMP_INDEX = false;
 
     public static final boolean DEFAULT_BACKGROUND_SCRUB_AGGRESSIVELY = false;
     public static final int DEFAULT_BACKGROUND_SCRUB_THREADS = 8;
@@ -89,6 +96,7 @@ public class AtlasDbConstants {
     public static final int DEFAULT_BACKGROUND_SCRUB_BATCH_SIZE = 2000;
     public static final long SCRUBBER_RETRY_DELAY_MILLIS = 500L;
     public static final char SCRUB_TABLE_SEPARATOR_CHAR = '\0';
+    public static final boolean DEFAULT_ENABLE_TIMESTAMP_BUCKETED_SCRUB_QUEUE = false;
 
     public static final boolean DEFAULT_ENABLE_SWEEP = false;
     public static final long DEFAULT_SWEEP_PAUSE_MILLIS = 5 * 1000;
@@ -55,6 +55,7 @@ import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
@@ -284,6 +285,17 @@ public abstract class AbstractKeyValueService implements KeyValueService {
         }
     }
 
+    /**
+     * Splits the range evenly over the first two bytes of its row names; stores which know how their data is
+     * distributed should override this.
+     */
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        return RangeRequests.split(rangeRequest, RangeRequests.getUniformSplitPoints(rangeRequest, desiredPartitions));
+    }
+
     @Override
     public void deleteRange(TableReference tableRef, RangeRequest range) {
         try (ClosableIterator<RowResult<Set<Long>>> iterator = getRangeOfTimestamps(tableRef, range, AtlasDbConstants.MAX_TS)) {
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * A count-min sketch: estimates how often each key has been added in a fixed amount of memory. An estimate is never
+ * less than the true count, and exceeds it by more than 2 * total / width with probability at most 2^-depth.
+ * Adding is lock-free, so the sketch may be updated from many threads at once.
+ */
+final class CountMinSketch {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counts;
+
+    CountMinSketch(int depth, int width) {
+        Preconditions.checkArgument(depth > 0, "depth must be positive");
+        Preconditions.checkArgument(width > 0, "width must be positive");
+        this.depth = depth;
+        this.width = width;
+        this.counts = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * Adds {@code count} occurrences of the first {@code length} bytes of {@code key}, and returns the new estimate
+     * of how often they have been added.
+     */
+    long add(byte[] key, int length, long count) {
+        ByteBuffer hash = ByteBuffer.wrap(HASH_FUNCTION.hashBytes(key, 0, length).asBytes());
+        long hash1 = hash.getLong();
+        long hash2 = hash.getLong();
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, counts.addAndGet(index(i, hash1, hash2), count));
+        }
+        return estimate;
+    }
+
+    long estimate(byte[] key, int length) {
+        ByteBuffer hash = ByteBuffer.wrap(HASH_FUNCTION.hashBytes(key, 0, length).asBytes());
+        long hash1 = hash.getLong();
+        long hash2 = hash.getLong();
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, counts.get(index(i, hash1, hash2)));
+        }
+        return estimate;
+    }
+
+    // Each row of the sketch uses the hash (hash1 + i * hash2), which is as good as independent hashes here.
+    private int index(int row, long hash1, long hash2) {
+        long combinedHash = hash1 + row * hash2;
+        return row * width + (int) ((combinedHash & Long.MAX_VALUE) % width);
+    }
+}
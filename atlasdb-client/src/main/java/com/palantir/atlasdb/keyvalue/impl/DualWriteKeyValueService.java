@@ -154,6 +154,13 @@ public class DualWriteKeyValueService implements KeyValueService {
         return delegate1.getFirstBatchForRanges(tableRef, rangeRequests, timestamp);
     }
 
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        return delegate1.partitionRange(tableRef, rangeRequest, desiredPartitions);
+    }
+
     @Override
     public void dropTable(TableReference tableRef) {
         delegate1.dropTable(tableRef);
@@ -145,6 +145,13 @@ public abstract class ForwardingKeyValueService extends ForwardingObject impleme
         return delegate().getFirstBatchForRanges(tableRef, rangeRequests, timestamp);
     }
 
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        return delegate().partitionRange(tableRef, rangeRequest, desiredPartitions);
+    }
+
     @Override
     public void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp) {
         delegate().put(tableRef, values, timestamp);
@@ -299,6 +299,14 @@ public final class ProfilingKeyValueService implements KeyValueService {
                 logTimeAndTable("getFirstBatchForRanges", tableRef));
     }
 
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        return maybeLog(() -> delegate.partitionRange(tableRef, rangeRequest, desiredPartitions),
+                logTimeAndTable("partitionRange", tableRef));
+    }
+
     @Override
     public Map<Cell, Long> getLatestTimestamps(TableReference tableRef, Map<Cell, Long> timestampByCell) {
         return maybeLog(() -> delegate.getLatestTimestamps(tableRef, timestampByCell),
@@ -19,6 +19,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
@@ -38,15 +39,21 @@ import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.schema.SweepSchema;
@@ -54,14 +61,24 @@ import com.palantir.atlasdb.schema.generated.SweepPriorityTable;
 import com.palantir.atlasdb.schema.generated.SweepPriorityTable.SweepPriorityNamedColumn;
 import com.palantir.atlasdb.schema.generated.SweepPriorityTable.SweepPriorityRow;
 import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.ClosableIterators;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.persist.Persistables;
 import com.palantir.timestamp.TimestampService;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 /**
  * This kvs wrapper tracks the approximate number of writes to every table
  * since the last time the table was completely swept. This is used when
  * deciding the order in which tables should be swept.
+ * <p>
+ * If enabled, it also records the reads and writes to every table, and the
+ * most written row prefixes of each, in a {@link TableAccessTelemetry} that
+ * is reported through {@link AtlasDbMetrics}. Reads are the values returned
+ * by get, getRows, getRowsColumnRange, getRange and getFirstBatchForRanges;
+ * reads of timestamps alone are not counted.
  */
 public class SweepStatsKeyValueService extends ForwardingKeyValueService {
 
@@ -69,6 +86,7 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
     private static final int CLEAR_WEIGHT = 1 << 14;
     private static final int WRITE_THRESHOLD = 1 << 16;
     private static final long FLUSH_DELAY_SECONDS = 42;
+    private static final long TELEMETRY_INTERVAL_SECONDS = 60;
 
     // This is gross and won't work if someone starts namespacing sweep differently
     private static final TableReference SWEEP_PRIORITY_TABLE = TableReference.create(SweepSchema.INSTANCE.getNamespace(), SweepPriorityTable.getRawTableName());
@@ -76,6 +94,7 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
     private final KeyValueService delegate;
     private final TimestampService timestampService;
     private final Multiset<TableReference> writesByTable = ConcurrentHashMultiset.create();
+    private final Optional<TableAccessTelemetry> telemetry;
 
     private final Set<TableReference> clearedTables = Collections.newSetFromMap(new ConcurrentHashMap<TableReference, Boolean>());
 
@@ -84,14 +103,31 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
     private final ScheduledExecutorService flushExecutor = PTExecutors.newSingleThreadScheduledExecutor();
 
     public static SweepStatsKeyValueService create(KeyValueService delegate, TimestampService timestampService) {
-        return new SweepStatsKeyValueService(delegate, timestampService);
+        return create(delegate, timestampService, Optional.empty());
+    }
+
+    /**
+     * @param telemetrySampleRate If present, table access telemetry is recorded, sampling this fraction of the
+     * written rows to estimate the most written row prefixes.
+     */
+    public static SweepStatsKeyValueService create(KeyValueService delegate,
+                                                   TimestampService timestampService,
+                                                   Optional<Double> telemetrySampleRate) {
+        return new SweepStatsKeyValueService(delegate, timestampService, telemetrySampleRate.map(
+                sampleRate -> new TableAccessTelemetry(AtlasDbMetrics.getMetricRegistry(), sampleRate)));
     }
 
     private SweepStatsKeyValueService(KeyValueService delegate,
-                                     TimestampService timestampService) {
+                                     TimestampService timestampService,
+                                     Optional<TableAccessTelemetry> telemetry) {
         this.delegate = delegate;
         this.timestampService = timestampService;
+        this.telemetry = telemetry;
         this.flushExecutor.scheduleWithFixedDelay(createFlushTask(), FLUSH_DELAY_SECONDS, FLUSH_DELAY_SECONDS, TimeUnit.SECONDS);
+        if (telemetry.isPresent()) {
+            this.flushExecutor.scheduleAtFixedRate(this::snapshotTelemetry,
+                    TELEMETRY_INTERVAL_SECONDS, TELEMETRY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
     }
 
     @VisibleForTesting
@@ -100,10 +136,78 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
         return delegate;
     }
 
+    public Optional<TableAccessTelemetry> getTableAccessTelemetry() {
+        return telemetry;
+    }
+
+    @Override
+    public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        Map<Cell, Value> result = delegate().get(tableRef, timestampByCell);
+        recordReads(tableRef, result.size());
+        return result;
+    }
+
+    @Override
+    public Map<Cell, Value> getRows(TableReference tableRef, Iterable<byte[]> rows,
+                                    ColumnSelection columnSelection, long timestamp) {
+        Map<Cell, Value> result = delegate().getRows(tableRef, rows, columnSelection, timestamp);
+        recordReads(tableRef, result.size());
+        return result;
+    }
+
+    @Override
+    public Map<byte[], RowColumnRangeIterator> getRowsColumnRange(TableReference tableRef, Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection, long timestamp) {
+        Map<byte[], RowColumnRangeIterator> result =
+                delegate().getRowsColumnRange(tableRef, rows, batchColumnRangeSelection, timestamp);
+        if (!telemetry.isPresent()) {
+            return result;
+        }
+        return Maps.newLinkedHashMap(Maps.transformValues(result, cells -> countingReads(tableRef, cells)));
+    }
+
+    @Override
+    public RowColumnRangeIterator getRowsColumnRange(TableReference tableRef, Iterable<byte[]> rows,
+            ColumnRangeSelection columnRangeSelection, int cellBatchHint, long timestamp) {
+        return countingReads(tableRef,
+                delegate().getRowsColumnRange(tableRef, rows, columnRangeSelection, cellBatchHint, timestamp));
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Value>> getRange(TableReference tableRef, RangeRequest rangeRequest,
+                                                       long timestamp) {
+        ClosableIterator<RowResult<Value>> result = delegate().getRange(tableRef, rangeRequest, timestamp);
+        if (!telemetry.isPresent()) {
+            return result;
+        }
+        return ClosableIterators.wrap(Iterators.transform(result, row -> {
+            recordReads(tableRef, row.getColumns().size());
+            return row;
+        }), result);
+    }
+
+    @Override
+    public Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRanges(
+            TableReference tableRef, Iterable<RangeRequest> rangeRequests, long timestamp) {
+        Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> result =
+                delegate().getFirstBatchForRanges(tableRef, rangeRequests, timestamp);
+        if (telemetry.isPresent()) {
+            long numReads = 0;
+            for (TokenBackedBasicResultsPage<RowResult<Value>, byte[]> page : result.values()) {
+                for (RowResult<Value> row : page.getResults()) {
+                    numReads += row.getColumns().size();
+                }
+            }
+            recordReads(tableRef, numReads);
+        }
+        return result;
+    }
+
     @Override
     public void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp) {
         delegate().put(tableRef, values, timestamp);
         writesByTable.add(tableRef, values.size());
+        recordWrites(tableRef, values.keySet());
         recordModifications(values.size());
     }
 
@@ -113,6 +217,7 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
         int newWrites = 0;
         for (Entry<TableReference, ? extends Map<Cell, byte[]>> entry : valuesByTable.entrySet()) {
             writesByTable.add(entry.getKey(), entry.getValue().size());
+            recordWrites(entry.getKey(), entry.getValue().keySet());
             newWrites += entry.getValue().size();
         }
         recordModifications(newWrites);
@@ -122,6 +227,7 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
     public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> cellValues) {
         delegate().putWithTimestamps(tableRef, cellValues);
         writesByTable.add(tableRef, cellValues.size());
+        recordWrites(tableRef, cellValues.keys());
         recordModifications(cellValues.size());
     }
 
@@ -183,6 +289,37 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
         recordModifications(CLEAR_WEIGHT);
     }
 
+    private void recordWrites(TableReference tableRef, Iterable<Cell> cells) {
+        if (telemetry.isPresent()) {
+            telemetry.get().recordWrites(tableRef, cells);
+        }
+    }
+
+    private void recordReads(TableReference tableRef, long numReads) {
+        if (telemetry.isPresent()) {
+            telemetry.get().recordReads(tableRef, numReads);
+        }
+    }
+
+    private RowColumnRangeIterator countingReads(TableReference tableRef, RowColumnRangeIterator cells) {
+        if (!telemetry.isPresent()) {
+            return cells;
+        }
+        return new LocalRowColumnRangeIterator(Iterators.transform(cells, cell -> {
+            recordReads(tableRef, 1);
+            return cell;
+        }));
+    }
+
+    private void snapshotTelemetry() {
+        try {
+            Map<TableReference, TableAccessTelemetry.TableAccessSnapshot> snapshot = telemetry.get().snapshot();
+            log.debug("Table accesses in the last {} seconds: {}", TELEMETRY_INTERVAL_SECONDS, snapshot);
+        } catch (Throwable t) {
+            log.error("Error occurred while taking a snapshot of table access telemetry", t);
+        }
+    }
+
     private Runnable createFlushTask() {
         return new Runnable() {
             @Override
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+
+/**
+ * Counts the reads and writes to each table, and finds the row prefixes of each table that are written most often,
+ * estimating how often each prefix is written with a {@link CountMinSketch}. A table whose writes are dominated by a
+ * few prefixes is a hotspot: on Cassandra a single partition, and on Postgres a single index page, takes most of its
+ * load. To keep hashing off most writes, only a sample of the written rows may be added to the sketch, each sampled
+ * row standing in for the rows that were not.
+ * <p>
+ * Counts accumulate over an interval. {@link #snapshot()} ends the interval and publishes its counts, which are what
+ * the per-table gauges registered with the metric registry report: the number of writes and reads, and the estimated
+ * writes to, and share of the writes taken by, the most written row prefix. As with the sweep write counts, the counts
+ * are approximate: accesses recorded while a snapshot is being taken may be missed.
+ */
+public final class TableAccessTelemetry {
+    private static final Logger log = LoggerFactory.getLogger(TableAccessTelemetry.class);
+
+    static final int ROW_PREFIX_LENGTH = 16;
+    static final int NUM_HOT_ROW_PREFIXES = 10;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 1 << 10;
+
+    private final MetricRegistry metricRegistry;
+    private final double rowSampleRate;
+    private final long sampledRowWeight;
+    private volatile ConcurrentMap<TableReference, TableCounters> countersByTable = new ConcurrentHashMap<>();
+    private volatile Map<TableReference, TableAccessSnapshot> lastSnapshot = ImmutableMap.of();
+
+    public TableAccessTelemetry(MetricRegistry metricRegistry) {
+        this(metricRegistry, 1.0);
+    }
+
+    /**
+     * @param rowSampleRate the fraction of written rows to add to the row prefix sketch, greater than 0 and at most 1.
+     */
+    public TableAccessTelemetry(MetricRegistry metricRegistry, double rowSampleRate) {
+        Preconditions.checkArgument(rowSampleRate > 0 && rowSampleRate <= 1,
+                "rowSampleRate must be greater than 0 and at most 1, but was %s", rowSampleRate);
+        this.metricRegistry = metricRegistry;
+        this.rowSampleRate = rowSampleRate;
+        this.sampledRowWeight = Math.round(1 / rowSampleRate);
+    }
+
+    public void recordWrites(TableReference tableRef, Iterable<Cell> cells) {
+        TableCounters counters = getCounters(tableRef);
+        long numWrites = 0;
+        for (Cell cell : cells) {
+            if (rowSampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < rowSampleRate) {
+                counters.recordRowWrite(cell.getRowName(), sampledRowWeight);
+            }
+            numWrites++;
+        }
+        counters.writes.add(numWrites);
+    }
+
+    public void recordReads(TableReference tableRef, long numReads) {
+        getCounters(tableRef).reads.add(numReads);
+    }
+
+    /**
+     * Ends the current interval, and returns the counts recorded in it.
+     */
+    public synchronized Map<TableReference, TableAccessSnapshot> snapshot() {
+        Map<TableReference, TableCounters> counters = countersByTable;
+        countersByTable = new ConcurrentHashMap<>();
+        ImmutableMap.Builder<TableReference, TableAccessSnapshot> snapshot = ImmutableMap.builder();
+        for (Map.Entry<TableReference, TableCounters> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        Map<TableReference, TableAccessSnapshot> previousSnapshot = lastSnapshot;
+        lastSnapshot = snapshot.build();
+        for (TableReference tableRef : lastSnapshot.keySet()) {
+            if (!previousSnapshot.containsKey(tableRef)) {
+                registerGauges(tableRef);
+            }
+        }
+        return lastSnapshot;
+    }
+
+    /**
+     * Returns the counts recorded in the last interval to end.
+     */
+    public Map<TableReference, TableAccessSnapshot> getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    private TableCounters getCounters(TableReference tableRef) {
+        return countersByTable.computeIfAbsent(tableRef, unused -> new TableCounters());
+    }
+
+    private void registerGauges(TableReference tableRef) {
+        registerGauge(tableRef, "writes", snapshot -> snapshot.writes());
+        registerGauge(tableRef, "reads", snapshot -> snapshot.reads());
+        registerGauge(tableRef, "hottestRowPrefixWrites", snapshot -> snapshot.hottestRowPrefixWrites());
+        registerGauge(tableRef, "hottestRowPrefixShare", snapshot -> snapshot.hottestRowPrefixShare());
+    }
+
+    private <T> void registerGauge(TableReference tableRef,
+                                   String name,
+                                   Function<TableAccessSnapshot, T> value) {
+        String metricName = MetricRegistry.name(TableAccessTelemetry.class, tableRef.getQualifiedName(), name);
+        if (metricRegistry.getGauges().containsKey(metricName)) {
+            log.debug("Not registering gauge {} as the metric registry already contains it", metricName);
+            return;
+        }
+        try {
+            metricRegistry.register(metricName, (Gauge<T>) () -> {
+                TableAccessSnapshot snapshot = lastSnapshot.get(tableRef);
+                return snapshot == null ? null : value.apply(snapshot);
+            });
+        } catch (IllegalArgumentException e) {
+            log.debug("Not registering gauge {} as the metric registry already contains it", metricName, e);
+        }
+    }
+
+    public static final class TableAccessSnapshot {
+        private final long writes;
+        private final long reads;
+        private final Map<String, Long> hotRowPrefixes;
+
+        TableAccessSnapshot(long writes, long reads, Map<String, Long> hotRowPrefixes) {
+            this.writes = writes;
+            this.reads = reads;
+            this.hotRowPrefixes = hotRowPrefixes;
+        }
+
+        public long writes() {
+            return writes;
+        }
+
+        public long reads() {
+            return reads;
+        }
+
+        /**
+         * The most written row prefixes (up to the first 16 bytes of the row, hex encoded), in decreasing order of
+         * their estimated number of writes.
+         */
+        public Map<String, Long> hotRowPrefixes() {
+            return hotRowPrefixes;
+        }
+
+        /**
+         * The estimated number of writes to the most written row prefix, or 0 if the table was not written to.
+         */
+        public long hottestRowPrefixWrites() {
+            return hotRowPrefixes.isEmpty() ? 0 : hotRowPrefixes.values().iterator().next();
+        }
+
+        /**
+         * The estimated fraction of the writes to the table that went to its most written row prefix.
+         */
+        public double hottestRowPrefixShare() {
+            return writes == 0 ? 0.0 : Math.min(1.0, (double) hottestRowPrefixWrites() / writes);
+        }
+
+        @Override
+        public String toString() {
+            return "TableAccessSnapshot{writes=" + writes + ", reads=" + reads
+                    + ", hotRowPrefixes=" + hotRowPrefixes + "}";
+        }
+    }
+
+    private static final class TableCounters {
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder reads = new LongAdder();
+        private final CountMinSketch rowPrefixWrites = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+
+        // the row prefixes with the highest estimates so far, and the lowest of their estimates
+        private final Map<ByteBuffer, Long> hotRowPrefixes = new HashMap<>();
+        private volatile long minHotRowPrefixWrites = 0;
+
+        void recordRowWrite(byte[] rowName, long weight) {
+            int prefixLength = Math.min(rowName.length, ROW_PREFIX_LENGTH);
+            long estimate = rowPrefixWrites.add(rowName, prefixLength, weight);
+            if (estimate > minHotRowPrefixWrites) {
+                updateHotRowPrefixes(ByteBuffer.wrap(Arrays.copyOf(rowName, prefixLength)), estimate);
+            }
+        }
+
+        private synchronized void updateHotRowPrefixes(ByteBuffer prefix, long estimate) {
+            if (hotRowPrefixes.containsKey(prefix) || hotRowPrefixes.size() < NUM_HOT_ROW_PREFIXES) {
+                hotRowPrefixes.put(prefix, estimate);
+            } else if (estimate > minHotRowPrefixWrites) {
+                hotRowPrefixes.remove(coldestHotRowPrefix().getKey());
+                hotRowPrefixes.put(prefix, estimate);
+            } else {
+                return;
+            }
+            if (hotRowPrefixes.size() == NUM_HOT_ROW_PREFIXES) {
+                minHotRowPrefixWrites = coldestHotRowPrefix().getValue();
+            }
+        }
+
+        private Map.Entry<ByteBuffer, Long> coldestHotRowPrefix() {
+            return hotRowPrefixes.entrySet().stream().min(Map.Entry.comparingByValue()).get();
+        }
+
+        synchronized TableAccessSnapshot snapshot() {
+            ImmutableMap.Builder<String, Long> prefixes = ImmutableMap.builder();
+            hotRowPrefixes.entrySet().stream()
+                    .sorted(Map.Entry.<ByteBuffer, Long>comparingByValue(Comparator.reverseOrder()))
+                    .forEach(entry -> prefixes.put(encode(entry.getKey()), entry.getValue()));
+            return new TableAccessSnapshot(writes.sum(), reads.sum(), prefixes.build());
+        }
+
+        private static String encode(ByteBuffer prefix) {
+            return PtBytes.encodeHexString(prefix.array());
+        }
+    }
+}
@@ -209,6 +209,17 @@ public final class TracingKeyValueService extends ForwardingObject implements Ke
         }
     }
 
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        //noinspection unused - try-with-resources closes trace
+        try (CloseableTrace trace = startLocalTrace("partitionRange({}, {} partitions)",
+                tableRef, desiredPartitions)) {
+            return delegate().partitionRange(tableRef, rangeRequest, desiredPartitions);
+        }
+    }
+
     @Override
     public Map<Cell, Long> getLatestTimestamps(TableReference tableRef,
             Map<Cell, Long> timestampByCell) {
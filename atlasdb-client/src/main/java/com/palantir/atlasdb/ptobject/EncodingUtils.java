@@ -269,16 +269,14 @@ public class EncodingUtils {
     }
 
     public static UUID decodeUUID(byte[] bytes, int offset) {
-        ByteBuffer buf = ByteBuffer.wrap(bytes, offset, 2 * Longs.BYTES).order(ByteOrder.BIG_ENDIAN);
-        long mostSigBits = buf.getLong();
-        long leastSigBits = buf.getLong();
+        long mostSigBits = PtBytes.toLong(bytes, offset);
+        long leastSigBits = PtBytes.toLong(bytes, offset + Longs.BYTES);
         return new UUID(mostSigBits, leastSigBits);
     }
 
     public static UUID decodeFlippedUUID(byte[] bytes, int offset) {
-        ByteBuffer buf = ByteBuffer.wrap(bytes, offset, 2 * Longs.BYTES).order(ByteOrder.BIG_ENDIAN);
-        long mostSigBits = -1L ^ buf.getLong();
-        long leastSigBits = -1L ^ buf.getLong();
+        long mostSigBits = -1L ^ PtBytes.toLong(bytes, offset);
+        long leastSigBits = -1L ^ PtBytes.toLong(bytes, offset + Longs.BYTES);
         return new UUID(mostSigBits, leastSigBits);
     }
 
@@ -1131,7 +1131,7 @@ public final class SweepProgressTable implements
     }
 
     public BatchingVisitableView<SweepProgressRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, SweepProgressRowResult>() {
             @Override
             public SweepProgressRowResult apply(RowResult<byte[]> input) {
@@ -217,6 +217,18 @@ public class TableDefinition extends AbstractDefinition {
         return javaTableName;
     }
 
+    /**
+     * Generate row results that decode their row name and columns when they are first asked for, rather than
+     * eagerly. This only changes the generated code, not the table metadata.
+     */
+    public void lazyRowResults() {
+        lazyRowResults = true;
+    }
+
+    public boolean hasLazyRowResults() {
+        return lazyRowResults;
+    }
+
     public void validate() {
         toTableMetadata();
         getConstraintMetadata();
@@ -236,6 +248,7 @@ public class TableDefinition extends AbstractDefinition {
     private int maxValueSize = Integer.MAX_VALUE;
     private String genericTableName = null;
     private String javaTableName = null;
+    private boolean lazyRowResults = false;
     private boolean hashFirstRowComponent = false;
     private List<NameComponentDescription> rowNameComponents = Lists.newArrayList();
     private List<NamedColumnDescription> fixedColumns = Lists.newArrayList();
@@ -24,14 +24,24 @@ class DynamicRowResultRenderer extends Renderer {
     private final String Value;
     private final String ColumnValue;
     private final String RowResult;
+    private final boolean lazy;
 
     public DynamicRowResultRenderer(Renderer parent, String tableName, ColumnValueDescription val) {
+        this(parent, tableName, val, false);
+    }
+
+    /**
+     * If lazy is set, the row result keeps the raw row and decodes its row name and columns when first asked for
+     * them, rather than when it is created.
+     */
+    public DynamicRowResultRenderer(Renderer parent, String tableName, ColumnValueDescription val, boolean lazy) {
         super(parent);
         this.Row = tableName + "Row";
         this.Column = tableName + "Column";
         this.Value = val.getJavaObjectTypeName();
         this.ColumnValue = tableName + "ColumnValue";
         this.RowResult = tableName + "RowResult";
+        this.lazy = lazy;
     }
 
     @Override
@@ -47,6 +57,12 @@ class DynamicRowResultRenderer extends Renderer {
             line();
             getColumnValues();
             line();
+            if (lazy) {
+                lazyColumnValues();
+                line();
+                decodeColumnValues();
+                line();
+            }
             getRowNameFun();
             line();
             getColumnValuesFun();
@@ -56,40 +72,88 @@ class DynamicRowResultRenderer extends Renderer {
     }
 
     private void fields() {
-        line("private final ", Row, " rowName;");
-        line("private final ImmutableSet<", ColumnValue, "> columnValues;");
+        if (lazy) {
+            line("private final RowResult<byte[]> row;");
+            line("private volatile ", Row, " rowName;");
+            line("private volatile ImmutableSet<", ColumnValue, "> columnValues;");
+        } else {
+            line("private final ", Row, " rowName;");
+            line("private final ImmutableSet<", ColumnValue, "> columnValues;");
+        }
     }
 
     private void staticFactories() {
         line("public static ", RowResult, " of(RowResult<byte[]> rowResult) {"); {
-            line(Row, " rowName = ", Row, ".BYTES_HYDRATOR.hydrateFromBytes(rowResult.getRowName());");
-            line("Set<", ColumnValue, "> columnValues = Sets.newHashSetWithExpectedSize(rowResult.getColumns().size());");
-            line("for (Entry<byte[], byte[]> e : rowResult.getColumns().entrySet()) {"); {
-                line(Column, " col = ", Column, ".BYTES_HYDRATOR.hydrateFromBytes(e.getKey());");
-                line(Value, " value = ", ColumnValue, ".hydrateValue(e.getValue());");
-                line("columnValues.add(", ColumnValue, ".of(col, value));");
-            } line("}");
-            line("return new ", RowResult, "(rowName, ImmutableSet.copyOf(columnValues));");
+            if (lazy) {
+                line("return new ", RowResult, "(rowResult);");
+            } else {
+                line(Row, " rowName = ", Row, ".BYTES_HYDRATOR.hydrateFromBytes(rowResult.getRowName());");
+                line("Set<", ColumnValue, "> columnValues = Sets.newHashSetWithExpectedSize(rowResult.getColumns().size());");
+                line("for (Entry<byte[], byte[]> e : rowResult.getColumns().entrySet()) {"); {
+                    line(Column, " col = ", Column, ".BYTES_HYDRATOR.hydrateFromBytes(e.getKey());");
+                    line(Value, " value = ", ColumnValue, ".hydrateValue(e.getValue());");
+                    line("columnValues.add(", ColumnValue, ".of(col, value));");
+                } line("}");
+                line("return new ", RowResult, "(rowName, ImmutableSet.copyOf(columnValues));");
+            }
         } line("}");
     }
 
     private void constructors() {
-        line("private ", RowResult, "(", Row, " rowName, ImmutableSet<", ColumnValue, "> columnValues) {"); {
-            line("this.rowName = rowName;");
-            line("this.columnValues = columnValues;");
-        } line("}");
+        if (lazy) {
+            line("private ", RowResult, "(RowResult<byte[]> row) {"); {
+                line("this.row = row;");
+            } line("}");
+        } else {
+            line("private ", RowResult, "(", Row, " rowName, ImmutableSet<", ColumnValue, "> columnValues) {"); {
+                line("this.rowName = rowName;");
+                line("this.columnValues = columnValues;");
+            } line("}");
+        }
     }
 
     private void getRowName() {
         line("@Override");
         line("public ", Row, " getRowName() {"); {
-            line("return rowName;");
+            if (lazy) {
+                line(Row, " result = rowName;");
+                line("if (result == null) {"); {
+                    line("result = ", Row, ".BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());");
+                    line("rowName = result;");
+                } line("}");
+                line("return result;");
+            } else {
+                line("return rowName;");
+            }
         } line("}");
     }
 
     private void getColumnValues() {
         line("public Set<", ColumnValue, "> getColumnValues() {"); {
-            line("return columnValues;");
+            line("return ", columnValues("this"), ";");
+        } line("}");
+    }
+
+    private void lazyColumnValues() {
+        line("private ImmutableSet<", ColumnValue, "> columnValues() {"); {
+            line("ImmutableSet<", ColumnValue, "> result = columnValues;");
+            line("if (result == null) {"); {
+                line("result = decodeColumnValues(row);");
+                line("columnValues = result;");
+            } line("}");
+            line("return result;");
+        } line("}");
+    }
+
+    private void decodeColumnValues() {
+        line("private static ImmutableSet<", ColumnValue, "> decodeColumnValues(RowResult<byte[]> rowResult) {"); {
+            line("ImmutableSet.Builder<", ColumnValue, "> columnValues = ImmutableSet.builder();");
+            line("for (Entry<byte[], byte[]> e : rowResult.getColumns().entrySet()) {"); {
+                line(Column, " col = ", Column, ".BYTES_HYDRATOR.hydrateFromBytes(e.getKey());");
+                line(Value, " value = ", ColumnValue, ".hydrateValue(e.getValue());");
+                line("columnValues.add(", ColumnValue, ".of(col, value));");
+            } line("}");
+            line("return columnValues.build();");
         } line("}");
     }
 
@@ -98,7 +162,7 @@ class DynamicRowResultRenderer extends Renderer {
             line("return new Function<", RowResult, ", ", Row, ">() {"); {
                 line("@Override");
                 line("public ", Row, " apply(", RowResult, " rowResult) {"); {
-                    line("return rowResult.rowName;");
+                    line("return rowResult.", lazy ? "getRowName()" : "rowName", ";");
                 } line("}");
             } line("};");
         } line("}");
@@ -109,12 +173,16 @@ class DynamicRowResultRenderer extends Renderer {
             line("return new Function<", RowResult, ", ImmutableSet<", ColumnValue, ">>() {"); {
                 line("@Override");
                 line("public ImmutableSet<", ColumnValue, "> apply(", RowResult, " rowResult) {"); {
-                    line("return rowResult.columnValues;");
+                    line("return ", columnValues("rowResult"), ";");
                 } line("}");
             } line("};");
         } line("}");
     }
 
+    private String columnValues(String rowResult) {
+        return rowResult + (lazy ? ".columnValues()" : ".columnValues");
+    }
+
     private void renderToString() {
         line("@Override");
         line("public String toString() {"); {
@@ -27,12 +27,25 @@ class NamedRowResultRenderer extends Renderer {
     private final String Row;
     private final String RowResult;
     private final SortedSet<NamedColumnDescription> cols;
+    private final boolean lazy;
 
     public NamedRowResultRenderer(Renderer parent, String name, SortedSet<NamedColumnDescription> cols) {
+        this(parent, name, cols, false);
+    }
+
+    /**
+     * If lazy is set, the row result decodes its row name and each of its columns at most once, when first asked
+     * for them, rather than on every call.
+     */
+    public NamedRowResultRenderer(Renderer parent,
+                                  String name,
+                                  SortedSet<NamedColumnDescription> cols,
+                                  boolean lazy) {
         super(parent);
         this.Row = name + "Row";
         this.RowResult = name + "RowResult";
         this.cols = cols;
+        this.lazy = lazy;
     }
 
     @Override
@@ -68,6 +81,13 @@ class NamedRowResultRenderer extends Renderer {
 
     private void fields() {
         line("private final RowResult<byte[]> row;");
+        if (lazy) {
+            line("private volatile ", Row, " cachedRowName;");
+            for (NamedColumnDescription col : cols) {
+                line("private volatile ", TypeName(col), " decoded", VarName(col), ";");
+                line("private volatile boolean is", VarName(col), "Decoded;");
+            }
+        }
     }
 
     private void staticFactory() {
@@ -85,7 +105,16 @@ class NamedRowResultRenderer extends Renderer {
     private void getRowName() {
         line("@Override");
         line("public ", Row, " getRowName() {"); {
-            line("return ", Row, ".BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());");
+            if (lazy) {
+                line(Row, " rowName = cachedRowName;");
+                line("if (rowName == null) {"); {
+                    line("rowName = ", Row, ".BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());");
+                    line("cachedRowName = rowName;");
+                } line("}");
+                line("return rowName;");
+            } else {
+                line("return ", Row, ".BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());");
+            }
         } line("}");
     }
 
@@ -118,6 +147,10 @@ class NamedRowResultRenderer extends Renderer {
     }
 
     private void getCol(NamedColumnDescription col) {
+        if (lazy) {
+            getLazyCol(col);
+            return;
+        }
         line("public ", TypeName(col), " get", VarName(col), "() {"); {
             line("byte[] bytes = row.getColumns().get(PtBytes.toCachedBytes(", short_name(col), "));");
             line("if (bytes == null) {"); {
@@ -128,6 +161,19 @@ class NamedRowResultRenderer extends Renderer {
         } line("}");
     }
 
+    private void getLazyCol(NamedColumnDescription col) {
+        line("public ", TypeName(col), " get", VarName(col), "() {"); {
+            line("if (!is", VarName(col), "Decoded) {"); {
+                line("byte[] bytes = row.getColumns().get(PtBytes.toCachedBytes(", short_name(col), "));");
+                line("if (bytes != null) {"); {
+                    line("decoded", VarName(col), " = ", Renderers.CamelCase(col.getLongName()), ".BYTES_HYDRATOR.hydrateFromBytes(bytes).getValue();");
+                } line("}");
+                line("is", VarName(col), "Decoded = true;");
+            } line("}");
+            line("return decoded", VarName(col), ";");
+        } line("}");
+    }
+
     private void getColFun(NamedColumnDescription col) {
         line("public static Function<", RowResult, ", ", TypeName(col), "> get", VarName(col), "Fun() {"); {
             line("return new Function<", RowResult, ", ", TypeName(col), ">() {"); {
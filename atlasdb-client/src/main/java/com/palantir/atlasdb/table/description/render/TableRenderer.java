@@ -142,6 +142,7 @@ public class TableRenderer {
         private final String raw_table_name;
         private final boolean isGeneric;
         private final boolean isNestedIndex;
+        private final boolean lazyRowResults;
         private final String outerTable;
         private final String Table;
         private final String Row;
@@ -163,6 +164,7 @@ public class TableRenderer {
             this.raw_table_name = rawTableName;
             this.isGeneric = table.getGenericTableName() != null;
             this.isNestedIndex = false;
+            this.lazyRowResults = table.hasLazyRowResults();
             this.outerTable = null;
             this.Table = tableName + "Table";
             this.Row = tableName + "Row";
@@ -172,7 +174,7 @@ public class TableRenderer {
             this.Trigger = tableName + "Trigger";
         }
 
-        public ClassRenderer(Renderer parent, String outerTable, IndexMetadata index) {
+        public ClassRenderer(Renderer parent, String outerTable, IndexMetadata index, boolean lazyRowResults) {
             super(parent);
             this.tableName = Renderers.getIndexTableName(index);
             this.table = index.getTableMetadata();
@@ -181,6 +183,7 @@ public class TableRenderer {
             this.raw_table_name = index.getIndexName();
             this.isGeneric = false;
             this.isNestedIndex = true;
+            this.lazyRowResults = lazyRowResults;
             this.outerTable = outerTable;
             this.Table = tableName + "Table";
             this.Row = tableName + "Row";
@@ -281,7 +284,7 @@ public class TableRenderer {
                 renderFindConstraintFailures();
                 for (IndexMetadata index : indices) {
                     line();
-                    new ClassRenderer(this, Table, index).run();
+                    new ClassRenderer(this, Table, index, lazyRowResults).run();
                 }
                 if (!isNestedIndex) {
                     line();
@@ -301,7 +304,7 @@ public class TableRenderer {
             }
             renderTrigger();
             line();
-            new NamedRowResultRenderer(this, tableName, ColumnRenderers.namedColumns(table)).run();
+            new NamedRowResultRenderer(this, tableName, ColumnRenderers.namedColumns(table), lazyRowResults).run();
             line();
             new NamedColumnRenderer(this, tableName, ColumnRenderers.namedColumns(table)).run();
             line();
@@ -354,7 +357,7 @@ public class TableRenderer {
             line();
             new DynamicColumnValueRenderer(this, tableName, table.getColumns().getDynamicColumn()).run();
             line();
-            new DynamicRowResultRenderer(this, tableName, table.getColumns().getDynamicColumn().getValue()).run();
+            new DynamicRowResultRenderer(this, tableName, table.getColumns().getDynamicColumn().getValue(), lazyRowResults).run();
             line();
             renderDynamicDelete();
             line();
@@ -1031,7 +1034,7 @@ public class TableRenderer {
             } line("}");
             line();
             line("public BatchingVisitableView<", RowResult, "> getAllRowsUnordered(ColumnSelection columns) {"); {
-                line("return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),");
+                line("return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),");
                 line("        new Function<RowResult<byte[]>, ", RowResult, ">() {"); {
                     line("@Override");
                     line("public ", RowResult, " apply(RowResult<byte[]> input) {"); {
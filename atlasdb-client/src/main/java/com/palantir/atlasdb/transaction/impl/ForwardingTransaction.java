@@ -78,12 +78,25 @@ public abstract class ForwardingTransaction extends ForwardingObject implements
         return delegate().getRange(tableRef, rangeRequest);
     }
 
+    @Override
+    public BatchingVisitable<RowResult<byte[]>> getRangeUnordered(TableReference tableRef,
+                                                                  RangeRequest rangeRequest) {
+        return delegate().getRangeUnordered(tableRef, rangeRequest);
+    }
+
     @Override
     public Iterable<BatchingVisitable<RowResult<byte[]>>> getRanges(TableReference tableRef,
                                                                     Iterable<RangeRequest> rangeRequests) {
         return delegate().getRanges(tableRef, rangeRequests);
     }
 
+    @Override
+    public Iterable<BatchingVisitable<RowResult<byte[]>>> getRanges(TableReference tableRef,
+                                                                    Iterable<RangeRequest> rangeRequests,
+                                                                    int concurrencyLevel) {
+        return delegate().getRanges(tableRef, rangeRequests, concurrencyLevel);
+    }
+
     @Override
     public void put(TableReference tableRef, Map<Cell, byte[]> values) {
         delegate().put(tableRef, values);
@@ -66,6 +66,13 @@ public class ReadTransaction extends ForwardingTransaction {
         return delegate().getRange(tableRef, rangeRequest);
     }
 
+    @Override
+    public BatchingVisitable<RowResult<byte[]>> getRangeUnordered(TableReference tableRef,
+                                                                  RangeRequest rangeRequest) {
+        checkTableName(tableRef);
+        return delegate().getRangeUnordered(tableRef, rangeRequest);
+    }
+
     @Override
     public Iterable<BatchingVisitable<RowResult<byte[]>>> getRanges(TableReference tableRef,
                                                                     Iterable<RangeRequest> rangeRequests) {
@@ -73,6 +80,14 @@ public class ReadTransaction extends ForwardingTransaction {
         return delegate().getRanges(tableRef, rangeRequests);
     }
 
+    @Override
+    public Iterable<BatchingVisitable<RowResult<byte[]>>> getRanges(TableReference tableRef,
+                                                                    Iterable<RangeRequest> rangeRequests,
+                                                                    int concurrencyLevel) {
+        checkTableName(tableRef);
+        return delegate().getRanges(tableRef, rangeRequests, concurrencyLevel);
+    }
+
     @Override
     public Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> getRowsColumnRange(TableReference tableRef,
             Iterable<byte[]> rows, BatchColumnRangeSelection columnRangeSelection) {
@@ -27,11 +27,9 @@ import com.codahale.metrics.SharedMetricRegistries;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
-import com.palantir.tritium.event.log.LoggingInvocationEventHandler;
-import com.palantir.tritium.event.log.LoggingLevel;
-import com.palantir.tritium.event.metrics.MetricsInvocationEventHandler;
+import com.palantir.common.concurrent.BoundedExecutorService;
+import com.palantir.common.proxy.ForwardingProxies;
 import com.palantir.tritium.metrics.MetricRegistries;
-import com.palantir.tritium.proxy.Instrumentation;
 
 public final class AtlasDbMetrics {
     private static final Logger log = LoggerFactory.getLogger(AtlasDbMetrics.class);
@@ -70,14 +68,26 @@ public final class AtlasDbMetrics {
         return instrument(serviceInterface, service, serviceInterface.getName());
     }
 
+    /**
+     * Times calls to the service, through a generated proxy class rather than a dynamic proxy, so that calls are
+     * not made by reflection.
+     */
     public static <T, U extends T> T instrument(Class<T> serviceInterface, U service, String name) {
-        return Instrumentation.builder(serviceInterface, service)
-                .withHandler(new MetricsInvocationEventHandler(getMetricRegistry(), name))
-                .withLogging(
-                        LoggerFactory.getLogger("performance." + name),
-                        LoggingLevel.TRACE,
-                        LoggingInvocationEventHandler.LOG_DURATIONS_GREATER_THAN_1_MICROSECOND)
-                .build();
+        return ForwardingProxies.newProxyInstance(
+                new MetricsForwardingHooks(
+                        serviceInterface,
+                        service,
+                        getMetricRegistry(),
+                        name,
+                        LoggerFactory.getLogger("performance." + name)),
+                serviceInterface);
+    }
+
+    /**
+     * Returns a listener that reports the queue depth and task timings of a bounded executor under the given name.
+     */
+    public static BoundedExecutorService.Listener instrumentExecutor(String name) {
+        return new MetricsBoundedExecutorListener(getMetricRegistry(), name);
     }
 
     public static void registerCache(Cache<?, ?> cache, String metricsPrefix) {
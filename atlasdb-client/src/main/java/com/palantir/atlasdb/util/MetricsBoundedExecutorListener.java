@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.util;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.palantir.common.concurrent.BoundedExecutorService;
+
+/**
+ * Reports the queue depth, overloads, and task wait and run times of a {@link BoundedExecutorService} to a
+ * {@link MetricRegistry}, under the given name.
+ */
+public final class MetricsBoundedExecutorListener implements BoundedExecutorService.Listener {
+    private final Histogram queueDepth;
+    private final Meter overloads;
+    private final Timer waitTime;
+    private final Timer runTime;
+
+    public MetricsBoundedExecutorListener(MetricRegistry metricRegistry, String name) {
+        this.queueDepth = metricRegistry.histogram(MetricRegistry.name(name, "queueDepth"));
+        this.overloads = metricRegistry.meter(MetricRegistry.name(name, "overloaded"));
+        this.waitTime = metricRegistry.timer(MetricRegistry.name(name, "waitTime"));
+        this.runTime = metricRegistry.timer(MetricRegistry.name(name, "runTime"));
+    }
+
+    @Override
+    public void taskQueued(int queuedTasks) {
+        queueDepth.update(queuedTasks);
+    }
+
+    @Override
+    public void taskOverloaded() {
+        overloads.mark();
+    }
+
+    @Override
+    public void taskStarted(long waitNanos) {
+        waitTime.update(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void taskCompleted(long runNanos) {
+        runTime.update(runNanos, TimeUnit.NANOSECONDS);
+    }
+}
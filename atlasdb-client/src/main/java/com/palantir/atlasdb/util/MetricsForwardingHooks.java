@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.util;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.palantir.common.proxy.ForwardingHooks;
+import com.palantir.common.proxy.ForwardingProxies;
+
+/**
+ * Times each call to a service, and counts the calls that fail, under the same metric names as tritium's
+ * MetricsInvocationEventHandler; calls taking more than a microsecond are logged at trace level. Timers are
+ * looked up once per method rather than by name on each call.
+ */
+final class MetricsForwardingHooks implements ForwardingHooks {
+    private static final String FAILURES = "failures";
+    private static final long MIN_LOGGED_DURATION_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final Object delegate;
+    private final MetricRegistry metricRegistry;
+    private final String serviceName;
+    private final Logger performanceLogger;
+    private final List<Method> methods;
+    // filled in on first use, so that timers are only registered for methods that are called
+    private final Timer[] timers;
+
+    MetricsForwardingHooks(Class<?> serviceInterface,
+                           Object delegate,
+                           MetricRegistry metricRegistry,
+                           String serviceName,
+                           Logger performanceLogger) {
+        this.delegate = delegate;
+        this.metricRegistry = metricRegistry;
+        this.serviceName = serviceName;
+        this.performanceLogger = performanceLogger;
+        this.methods = ForwardingProxies.getForwardedMethods(serviceInterface);
+        this.timers = new Timer[methods.size()];
+    }
+
+    @Override
+    public Object beforeInvocation(int methodIndex) {
+        return delegate;
+    }
+
+    @Override
+    public void onSuccess(int methodIndex, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        getTimer(methodIndex).update(durationNanos, TimeUnit.NANOSECONDS);
+        if (durationNanos > MIN_LOGGED_DURATION_NANOS && performanceLogger.isTraceEnabled()) {
+            performanceLogger.trace("{}.{} took {} ns", serviceName, methods.get(methodIndex).getName(),
+                    durationNanos);
+        }
+    }
+
+    @Override
+    public Throwable onFailure(int methodIndex, long startNanos, Object target, Throwable cause) {
+        metricRegistry.meter(FAILURES).mark();
+        String failuresMetricName = MetricRegistry.name(serviceName, methods.get(methodIndex).getName(), FAILURES);
+        metricRegistry.meter(failuresMetricName).mark();
+        metricRegistry.meter(MetricRegistry.name(failuresMetricName, cause.getClass().getName())).mark();
+        return cause;
+    }
+
+    private Timer getTimer(int methodIndex) {
+        Timer timer = timers[methodIndex];
+        if (timer == null) {
+            // racing threads get the same timer from the registry
+            timer = metricRegistry.timer(MetricRegistry.name(serviceName, methods.get(methodIndex).getName()));
+            timers[methodIndex] = timer;
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.primitives.Ints;
+
+public class CountMinSketchTest {
+    private final CountMinSketch sketch = new CountMinSketch(4, 64);
+
+    @Test
+    public void estimatesAreNeverBelowTheTrueCounts() {
+        for (int key = 0; key < 1000; key++) {
+            sketch.add(Ints.toByteArray(key), 4, key % 10);
+        }
+        for (int key = 0; key < 1000; key++) {
+            assertThat(sketch.estimate(Ints.toByteArray(key), 4)).isGreaterThanOrEqualTo(key % 10);
+        }
+    }
+
+    @Test
+    public void addReturnsTheNewEstimate() {
+        byte[] key = Ints.toByteArray(42);
+        assertThat(sketch.add(key, 4, 3)).isEqualTo(3);
+        assertThat(sketch.add(key, 4, 2)).isEqualTo(5);
+        assertThat(sketch.estimate(key, 4)).isEqualTo(5);
+    }
+
+    @Test
+    public void onlyHashesTheGivenLength() {
+        sketch.add(new byte[] {1, 2, 3}, 2, 1);
+        assertThat(sketch.estimate(new byte[] {1, 2, 4}, 2)).isEqualTo(1);
+    }
+
+    @Test
+    public void heavyHittersStandOutFromTheRest() {
+        byte[] hotKey = Ints.toByteArray(-1);
+        for (int key = 0; key < 10_000; key++) {
+            sketch.add(Ints.toByteArray(key), 4, 1);
+            if (key % 10 == 0) {
+                sketch.add(hotKey, 4, 1);
+            }
+        }
+        assertThat(sketch.estimate(hotKey, 4)).isGreaterThan(sketch.estimate(Ints.toByteArray(5), 4));
+    }
+}
@@ -15,30 +15,47 @@
  */
 package com.palantir.atlasdb.keyvalue.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.ClosableIterators;
 import com.palantir.timestamp.TimestampService;
 
 public class SweepStatsKeyValueServiceTest {
     private static final byte[] ROW = "row".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COLUMN = "col".getBytes(StandardCharsets.UTF_8);
     private static final TableReference TABLE = TableReference.createWithEmptyNamespace("table");
 
+    private final KeyValueService delegate = mock(KeyValueService.class);
+    private final TimestampService timestampService = mock(TimestampService.class);
     private SweepStatsKeyValueService kvs;
 
     @Before
     public void before() {
-        KeyValueService delegate = mock(KeyValueService.class);
-        TimestampService timestampService = mock(TimestampService.class);
         kvs = SweepStatsKeyValueService.create(delegate, timestampService);
     }
 
@@ -54,4 +71,35 @@ public class SweepStatsKeyValueServiceTest {
         kvs.deleteRange(TABLE, request);
         assertFalse(kvs.hasBeenCleared(TABLE));
     }
+
+    @Test
+    public void tableAccessTelemetryIsOffByDefault() throws Exception {
+        assertFalse(kvs.getTableAccessTelemetry().isPresent());
+    }
+
+    @Test
+    public void putsAreRecordedInTableAccessTelemetry() throws Exception {
+        kvs = SweepStatsKeyValueService.create(delegate, timestampService, Optional.of(1.0));
+        kvs.put(TABLE, ImmutableMap.of(Cell.create(ROW, COLUMN), ROW), 1L);
+        assertEquals(1L, kvs.getTableAccessTelemetry().get().snapshot().get(TABLE).writes());
+    }
+
+    @Test
+    public void rangeReadsAreRecordedInTableAccessTelemetryAsTheyAreConsumed() throws Exception {
+        kvs = SweepStatsKeyValueService.create(delegate, timestampService, Optional.of(1.0));
+        RowResult<Value> row = RowResult.create(ROW,
+                ImmutableSortedMap.<byte[], Value>orderedBy(UnsignedBytes.lexicographicalComparator())
+                        .put(COLUMN, Value.create(ROW, 1L))
+                        .put(ROW, Value.create(ROW, 1L))
+                        .build());
+        ClosableIterator<RowResult<Value>> rows = ClosableIterators.wrap(ImmutableList.of(row, row).iterator());
+        when(delegate.getRange(eq(TABLE), any(RangeRequest.class), anyLong())).thenReturn(rows);
+
+        ClosableIterator<RowResult<Value>> range = kvs.getRange(TABLE, RangeRequest.all(), 2L);
+        range.next();
+        assertEquals(2L, kvs.getTableAccessTelemetry().get().snapshot().get(TABLE).reads());
+
+        Iterators.getNext(range, null);
+        assertEquals(2L, kvs.getTableAccessTelemetry().get().snapshot().get(TABLE).reads());
+    }
 }
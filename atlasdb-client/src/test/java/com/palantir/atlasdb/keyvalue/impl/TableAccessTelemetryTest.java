@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.impl.TableAccessTelemetry.TableAccessSnapshot;
+
+public class TableAccessTelemetryTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("ns.table");
+    private static final TableReference OTHER_TABLE = TableReference.createFromFullyQualifiedName("ns.other");
+    private static final byte[] COLUMN = PtBytes.toBytes("c");
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final TableAccessTelemetry telemetry = new TableAccessTelemetry(metricRegistry);
+
+    @Test
+    public void countsReadsAndWritesPerTable() {
+        telemetry.recordWrites(TABLE, cellsInRows(1, 2, 3));
+        telemetry.recordWrites(OTHER_TABLE, cellsInRows(1));
+        telemetry.recordReads(TABLE, 5);
+
+        Map<TableReference, TableAccessSnapshot> snapshot = telemetry.snapshot();
+        assertThat(snapshot.get(TABLE).writes()).isEqualTo(3);
+        assertThat(snapshot.get(TABLE).reads()).isEqualTo(5);
+        assertThat(snapshot.get(OTHER_TABLE).writes()).isEqualTo(1);
+        assertThat(snapshot.get(OTHER_TABLE).reads()).isEqualTo(0);
+    }
+
+    @Test
+    public void snapshotStartsANewInterval() {
+        telemetry.recordWrites(TABLE, cellsInRows(1, 2));
+        telemetry.snapshot();
+        telemetry.recordWrites(TABLE, cellsInRows(3));
+
+        assertThat(telemetry.snapshot().get(TABLE).writes()).isEqualTo(1);
+        assertThat(telemetry.getLastSnapshot().get(TABLE).writes()).isEqualTo(1);
+    }
+
+    @Test
+    public void findsTheMostWrittenRowPrefixes() {
+        for (int i = 0; i < 1000; i++) {
+            telemetry.recordWrites(TABLE, cellsInRows(i, 7, 7, 8));
+        }
+
+        Map<String, Long> hotRowPrefixes = telemetry.snapshot().get(TABLE).hotRowPrefixes();
+        assertThat(hotRowPrefixes).hasSize(TableAccessTelemetry.NUM_HOT_ROW_PREFIXES);
+        List<String> hottest = ImmutableList.copyOf(hotRowPrefixes.keySet()).subList(0, 2);
+        assertThat(hottest).containsExactly(hex(7), hex(8));
+        assertThat(hotRowPrefixes.get(hex(7))).isGreaterThanOrEqualTo(2001L);
+    }
+
+    @Test
+    public void truncatesRowsToTheirPrefix() {
+        byte[] longRow = new byte[TableAccessTelemetry.ROW_PREFIX_LENGTH + 4];
+        telemetry.recordWrites(TABLE, ImmutableList.of(Cell.create(longRow, COLUMN)));
+
+        assertThat(telemetry.snapshot().get(TABLE).hotRowPrefixes())
+                .containsOnlyKeys(PtBytes.encodeHexString(new byte[TableAccessTelemetry.ROW_PREFIX_LENGTH]));
+    }
+
+    @Test
+    public void reportsTheLastSnapshotThroughGauges() {
+        telemetry.recordWrites(TABLE, cellsInRows(1, 2));
+        telemetry.snapshot();
+
+        Gauge<?> writes = metricRegistry.getGauges()
+                .get(MetricRegistry.name(TableAccessTelemetry.class, TABLE.getQualifiedName(), "writes"));
+        assertThat(writes.getValue()).isEqualTo(2L);
+
+        telemetry.recordWrites(TABLE, cellsInRows(3));
+        telemetry.snapshot();
+        assertThat(writes.getValue()).isEqualTo(1L);
+    }
+
+    @Test
+    public void reportsTheHottestRowPrefixThroughNumericGauges() {
+        telemetry.recordWrites(TABLE, cellsInRows(1, 1, 1, 2));
+        telemetry.snapshot();
+
+        assertThat(gauge("hottestRowPrefixWrites").getValue()).isEqualTo(3L);
+        assertThat(gauge("hottestRowPrefixShare").getValue()).isEqualTo(0.75);
+        assertThat(metricRegistry.getGauges().values())
+                .extracting(Gauge::getValue)
+                .allMatch(value -> value instanceof Number);
+    }
+
+    @Test
+    public void sampledRowsStandInForTheRowsThatWereNotSampled() {
+        TableAccessTelemetry sampled = new TableAccessTelemetry(metricRegistry, 0.1);
+        for (int i = 0; i < 1000; i++) {
+            sampled.recordWrites(TABLE, cellsInRows(7, 7, 7, 7, 7, 7, 7, 7, 7, 7));
+        }
+
+        TableAccessSnapshot snapshot = sampled.snapshot().get(TABLE);
+        assertThat(snapshot.writes()).isEqualTo(10000L);
+        assertThat(snapshot.hotRowPrefixes()).containsOnlyKeys(hex(7));
+        assertThat(snapshot.hottestRowPrefixWrites()).isBetween(8000L, 12000L);
+    }
+
+    private Gauge<?> gauge(String name) {
+        return metricRegistry.getGauges()
+                .get(MetricRegistry.name(TableAccessTelemetry.class, TABLE.getQualifiedName(), name));
+    }
+
+    private static List<Cell> cellsInRows(int... rows) {
+        return IntStream.of(rows)
+                .mapToObj(row -> Cell.create(Ints.toByteArray(row), COLUMN))
+                .collect(Collectors.toList());
+    }
+
+    private static String hex(int row) {
+        return PtBytes.encodeHexString(Ints.toByteArray(row));
+    }
+}
@@ -63,6 +63,50 @@ public class TableRendererTest {
                         containsString("Optional.empty")));
     }
 
+    @Test
+    public void testRendersEagerRowResultsByDefault() {
+        TableRenderer renderer = new TableRenderer("package", Namespace.DEFAULT_NAMESPACE, OptionalType.JAVA8);
+        assertThat(renderer.render("table", getDynamicTableDefinition(TABLE_REF), NO_INDICES),
+                allOf(
+                        containsString("private final TestTableRow rowName;"),
+                        not(containsString("private final RowResult<byte[]> row;"))));
+    }
+
+    @Test
+    public void testCanRenderLazyNamedRowResults() {
+        TableRenderer renderer = new TableRenderer("package", Namespace.DEFAULT_NAMESPACE, OptionalType.JAVA8);
+        TableDefinition definition = getSimpleTableDefinition(TABLE_REF);
+        definition.lazyRowResults();
+        assertThat(renderer.render("table", definition, NO_INDICES),
+                allOf(
+                        containsString("private volatile TestTableRow cachedRowName;"),
+                        containsString("private volatile Long decodedCol1;"),
+                        containsString("if (!isCol1Decoded) {")));
+    }
+
+    @Test
+    public void testCanRenderLazyDynamicRowResults() {
+        TableRenderer renderer = new TableRenderer("package", Namespace.DEFAULT_NAMESPACE, OptionalType.JAVA8);
+        TableDefinition definition = getDynamicTableDefinition(TABLE_REF);
+        definition.lazyRowResults();
+        assertThat(renderer.render("table", definition, NO_INDICES),
+                allOf(
+                        containsString("private final RowResult<byte[]> row;"),
+                        containsString("return new TestTableRowResult(rowResult);"),
+                        containsString("result = decodeColumnValues(row);")));
+    }
+
+    private TableDefinition getDynamicTableDefinition(TableReference tableRef) {
+        return new TableDefinition() {{
+            javaTableName(tableRef.getTablename());
+            rowName();
+            rowComponent("rowName", ValueType.STRING);
+            dynamicColumns();
+            columnComponent("colName", ValueType.VAR_LONG);
+            value(ValueType.VAR_STRING);
+        }};
+    }
+
     private TableDefinition getSimpleTableDefinition(TableReference tableRef) {
         return new TableDefinition() {{
             javaTableName(tableRef.getTablename());
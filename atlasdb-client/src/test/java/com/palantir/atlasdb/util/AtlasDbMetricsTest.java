@@ -15,17 +15,22 @@
  */
 package com.palantir.atlasdb.util;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.SharedMetricRegistries;
+import com.palantir.common.concurrent.BoundedExecutorService;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.tritium.metrics.MetricRegistries;
 
 public class AtlasDbMetricsTest {
@@ -81,6 +86,41 @@ public class AtlasDbMetricsTest {
         assertMetricCountIncrementsAfterPing(metrics, service, methodTimerName);
     }
 
+    @Test
+    public void instrumentCountsFailures() throws Exception {
+        MetricRegistry metrics = setMetricRegistry();
+        TestService service = AtlasDbMetrics.instrument(TestService.class, () -> {
+            throw new IllegalStateException();
+        }, CUSTOM_METRIC_NAME);
+
+        String failuresMeterName = MetricRegistry.name(CUSTOM_METRIC_NAME, PING_REQUEST, "failures");
+
+        assertThatThrownBy(service::ping).isInstanceOf(IllegalStateException.class);
+        assertThat(metrics.meter(failuresMeterName).getCount(), is(equalTo(1L)));
+        assertThat(metrics.meter(MetricRegistry.name(failuresMeterName, IllegalStateException.class.getName()))
+                .getCount(), is(equalTo(1L)));
+        assertThat(metrics.timer(MetricRegistry.name(CUSTOM_METRIC_NAME, PING_REQUEST)).getCount(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void instrumentExecutorReportsTaskTimings() throws Exception {
+        MetricRegistry metrics = setMetricRegistry();
+        BoundedExecutorService executor = PTExecutors.newBoundedWorkStealingPool("test", 1, 1,
+                BoundedExecutorService.OverloadPolicy.ABORT, AtlasDbMetrics.instrumentExecutor(CUSTOM_METRIC_NAME));
+        try {
+            assertThat(executor.submit(() -> PING_RESPONSE).get(), is(equalTo(PING_RESPONSE)));
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+
+        assertThat(metrics.histogram(MetricRegistry.name(CUSTOM_METRIC_NAME, "queueDepth")).getCount(),
+                is(equalTo(1L)));
+        assertThat(metrics.timer(MetricRegistry.name(CUSTOM_METRIC_NAME, "waitTime")).getCount(), is(equalTo(1L)));
+        assertThat(metrics.timer(MetricRegistry.name(CUSTOM_METRIC_NAME, "runTime")).getCount(), is(equalTo(1L)));
+        assertThat(metrics.meter(MetricRegistry.name(CUSTOM_METRIC_NAME, "overloaded")).getCount(), is(equalTo(0L)));
+    }
+
     private MetricRegistry setMetricRegistry() {
         MetricRegistry metrics = MetricRegistries.createWithHdrHistogramReservoirs();
         AtlasDbMetrics.setMetricRegistry(metrics);
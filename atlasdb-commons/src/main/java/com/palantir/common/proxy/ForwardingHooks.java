@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.common.proxy;
+
+/**
+ * The hooks that a proxy created by {@link ForwardingProxies} runs around each call it forwards. Methods are
+ * identified by their index in {@link ForwardingProxies#getForwardedMethods(Class[])}, so that hooks can keep
+ * what they need per method in an array rather than look it up by {@link java.lang.reflect.Method}.
+ */
+public interface ForwardingHooks {
+    /**
+     * Runs before each call, and returns the object to forward the call to. Exceptions thrown here are thrown to
+     * the caller without running the other hooks.
+     */
+    Object beforeInvocation(int methodIndex);
+
+    /**
+     * Runs after the call returns normally.
+     */
+    default void onSuccess(int methodIndex, long startNanos) {
+        // nothing by default
+    }
+
+    /**
+     * Runs if the call to target throws, and returns the exception to throw to the caller.
+     */
+    default Throwable onFailure(int methodIndex, long startNanos, Object target, Throwable cause) {
+        return cause;
+    }
+}
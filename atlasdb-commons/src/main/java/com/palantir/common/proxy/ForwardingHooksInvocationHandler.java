@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.common.proxy;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Runs {@link ForwardingHooks} around calls to a {@link java.lang.reflect.Proxy}, for interfaces that
+ * {@link ForwardingProxies} cannot generate a class for.
+ */
+final class ForwardingHooksInvocationHandler implements InvocationHandler {
+    private final ForwardingHooks hooks;
+    private final Map<String, Integer> methodIndexes;
+
+    ForwardingHooksInvocationHandler(ForwardingHooks hooks, List<Method> methods) {
+        this.hooks = hooks;
+        ImmutableMap.Builder<String, Integer> indexes = ImmutableMap.builder();
+        for (int i = 0; i < methods.size(); i++) {
+            indexes.put(ForwardingProxies.getSignature(methods.get(i)), i);
+        }
+        this.methodIndexes = indexes.build();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return hooks.hashCode();
+                default:
+                    return hooks.toString();
+            }
+        }
+
+        int methodIndex = methodIndexes.get(ForwardingProxies.getSignature(method));
+        long startNanos = System.nanoTime();
+        Object target = hooks.beforeInvocation(methodIndex);
+        try {
+            Object result = method.invoke(target, args);
+            hooks.onSuccess(methodIndex, startNanos);
+            return result;
+        } catch (InvocationTargetException e) {
+            throw hooks.onFailure(methodIndex, startNanos, target, e.getCause());
+        }
+    }
+}
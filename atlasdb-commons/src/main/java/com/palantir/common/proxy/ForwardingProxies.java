@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.common.proxy;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.palantir.common.base.Throwables;
+
+import javassist.CannotCompileException;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtNewMethod;
+import javassist.NotFoundException;
+
+/**
+ * Creates proxies that forward each call to the object returned by {@link ForwardingHooks#beforeInvocation(int)},
+ * running the hooks around the call.
+ * <p>
+ * Unlike a {@link Proxy}, the proxy is an instance of a class generated for the interfaces it implements, whose
+ * methods call the hooks and the target directly, without {@link Method#invoke} or copying the arguments into an
+ * array. A class is generated when the first proxy for a list of interfaces is created, and reused after that.
+ * Interfaces that a generated class could not access, such as package-private ones, are proxied with a
+ * {@link Proxy} that runs the same hooks.
+ * <p>
+ * Proxies are only equal to themselves, and take their hashCode and toString from the hooks.
+ */
+public final class ForwardingProxies {
+    private static final Logger log = LoggerFactory.getLogger(ForwardingProxies.class);
+
+    private static final Set<String> OBJECT_METHOD_SIGNATURES = ImmutableSet.of(
+            "boolean equals(java.lang.Object)", "int hashCode()", "java.lang.String toString()");
+
+    private static final ConcurrentMap<List<Class<?>>, Optional<Constructor<?>>> constructors =
+            new ConcurrentHashMap<>();
+    private static final AtomicInteger generatedClassCount = new AtomicInteger();
+
+    private ForwardingProxies() {
+        // utility
+    }
+
+    public static <T> T newProxyInstance(ForwardingHooks hooks,
+                                         Class<T> interfaceClass,
+                                         Class<?>... additionalInterfaces) {
+        Preconditions.checkNotNull(hooks, "hooks");
+        List<Class<?>> interfaces = ImmutableList.<Class<?>>builder()
+                .add(interfaceClass)
+                .add(additionalInterfaces)
+                .build();
+        for (Class<?> iface : interfaces) {
+            Preconditions.checkArgument(iface.isInterface(), "%s is not an interface", iface.getName());
+        }
+
+        Optional<Constructor<?>> constructor = constructors.computeIfAbsent(
+                interfaces, ForwardingProxies::generateClass);
+        if (constructor.isPresent()) {
+            try {
+                return interfaceClass.cast(constructor.get().newInstance(hooks));
+            } catch (ReflectiveOperationException e) {
+                throw Throwables.rewrapAndThrowUncheckedException(e);
+            }
+        }
+        return interfaceClass.cast(Proxy.newProxyInstance(
+                interfaceClass.getClassLoader(),
+                interfaces.toArray(new Class<?>[interfaces.size()]),
+                new ForwardingHooksInvocationHandler(hooks, getForwardedMethods(interfaces))));
+    }
+
+    /**
+     * Returns the methods that proxies for these interfaces forward, in the order that gives their indexes in
+     * calls to {@link ForwardingHooks}. Methods declared by more than one of the interfaces are listed once, and
+     * equals, hashCode and toString are not forwarded.
+     */
+    public static List<Method> getForwardedMethods(Class<?>... interfaces) {
+        return getForwardedMethods(Arrays.asList(interfaces));
+    }
+
+    static List<Method> getForwardedMethods(List<Class<?>> interfaces) {
+        Set<String> signatures = Sets.newHashSet(OBJECT_METHOD_SIGNATURES);
+        ImmutableList.Builder<Method> methods = ImmutableList.builder();
+        for (Class<?> iface : interfaces) {
+            Method[] ifaceMethods = iface.getMethods();
+            // getMethods returns methods in no particular order
+            Arrays.sort(ifaceMethods, Comparator.comparing(ForwardingProxies::getSignature));
+            for (Method method : ifaceMethods) {
+                if (!Modifier.isStatic(method.getModifiers()) && signatures.add(getSignature(method))) {
+                    methods.add(method);
+                }
+            }
+        }
+        return methods.build();
+    }
+
+    static String getSignature(Method method) {
+        // including the return type, as an interface may declare a covariant override of a method
+        StringBuilder signature = new StringBuilder(getSourceName(method.getReturnType()))
+                .append(' ').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            signature.append(i == 0 ? "" : ",").append(getSourceName(parameterTypes[i]));
+        }
+        return signature.append(')').toString();
+    }
+
+    private static Optional<Constructor<?>> generateClass(List<Class<?>> interfaces) {
+        List<Method> methods = getForwardedMethods(interfaces);
+        if (!canGenerateClass(interfaces, methods)) {
+            return Optional.empty();
+        }
+        // not in the package of the interface, which may be one that we cannot define classes in, such as java.lang
+        String className = ForwardingProxies.class.getName() + "$$" + interfaces.get(0).getSimpleName()
+                + "$$" + generatedClassCount.incrementAndGet();
+        try {
+            ClassPool pool = new ClassPool(true);
+            pool.appendClassPath(new ClassClassPath(ForwardingHooks.class));
+            for (Class<?> iface : interfaces) {
+                pool.appendClassPath(new ClassClassPath(iface));
+            }
+
+            CtClass ctClass = pool.makeClass(className);
+            ctClass.setModifiers(Modifier.PUBLIC | Modifier.FINAL);
+            for (Class<?> iface : interfaces) {
+                ctClass.addInterface(pool.get(iface.getName()));
+            }
+            ctClass.addField(CtField.make(
+                    "private final " + ForwardingHooks.class.getName() + " hooks;", ctClass));
+            CtConstructor constructor = new CtConstructor(
+                    new CtClass[] {pool.get(ForwardingHooks.class.getName())}, ctClass);
+            constructor.setBody("{ this.hooks = $1; }");
+            ctClass.addConstructor(constructor);
+
+            for (int i = 0; i < methods.size(); i++) {
+                Method method = methods.get(i);
+                CtMethod ctMethod = new CtMethod(
+                        pool.get(getSourceName(method.getReturnType())),
+                        method.getName(),
+                        getCtClasses(pool, method.getParameterTypes()),
+                        ctClass);
+                ctMethod.setModifiers(Modifier.PUBLIC);
+                ctMethod.setBody(getForwardingBody(i, method, getOwner(interfaces, method)));
+                ctClass.addMethod(ctMethod);
+            }
+            ctClass.addMethod(CtNewMethod.make(
+                    "public boolean equals(Object other) { return this == other; }", ctClass));
+            ctClass.addMethod(CtNewMethod.make(
+                    "public int hashCode() { return hooks.hashCode(); }", ctClass));
+            ctClass.addMethod(CtNewMethod.make(
+                    "public String toString() { return hooks.toString(); }", ctClass));
+
+            byte[] bytecode = ctClass.toBytecode();
+            ctClass.detach();
+            Class<?> generatedClass = new GeneratedClassLoader(interfaces.get(0).getClassLoader())
+                    .define(className, bytecode);
+            return Optional.of(generatedClass.getConstructor(ForwardingHooks.class));
+        } catch (NotFoundException | CannotCompileException | ReflectiveOperationException | LinkageError
+                | IOException e) {
+            log.warn("Could not generate a forwarding class for {}; using a dynamic proxy instead", interfaces, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The generated method calls the hooks and the target as the following Java would.
+     * <pre>
+     * long startNanos = System.nanoTime();
+     * Object target = hooks.beforeInvocation(methodIndex);
+     * try {
+     *     ReturnType result = (ReturnType) ((Owner) target).method($1, $2, ...);
+     *     hooks.onSuccess(methodIndex, startNanos);
+     *     return result;
+     * } catch (Throwable t) {
+     *     throw hooks.onFailure(methodIndex, startNanos, target, t);
+     * }
+     * </pre>
+     */
+    private static String getForwardingBody(int methodIndex, Method method, Class<?> owner) {
+        String call = "((" + getSourceName(owner) + ") target)." + method.getName() + "($$)";
+        String returnType = getSourceName(method.getReturnType());
+        StringBuilder body = new StringBuilder("{ long startNanos = System.nanoTime(); ")
+                .append("Object target = hooks.beforeInvocation(").append(methodIndex).append("); try { ");
+        if (method.getReturnType() == void.class) {
+            body.append(call).append("; hooks.onSuccess(").append(methodIndex).append(", startNanos); ");
+        } else {
+            body.append(returnType).append(" result = (").append(returnType).append(") ").append(call)
+                    .append("; hooks.onSuccess(").append(methodIndex).append(", startNanos); return result; ");
+        }
+        return body.append("} catch (Throwable t) { throw hooks.onFailure(").append(methodIndex)
+                .append(", startNanos, target, t); } }")
+                .toString();
+    }
+
+    private static Class<?> getOwner(List<Class<?>> interfaces, Method method) {
+        // the requested interface rather than the declaring one, which need not be accessible
+        for (Class<?> iface : interfaces) {
+            if (method.getDeclaringClass().isAssignableFrom(iface)) {
+                return iface;
+            }
+        }
+        throw new IllegalStateException("No interface declares " + method);
+    }
+
+    private static boolean canGenerateClass(List<Class<?>> interfaces, List<Method> methods) {
+        for (Class<?> iface : interfaces) {
+            if (!isAccessible(iface)) {
+                return false;
+            }
+        }
+        for (Method method : methods) {
+            if (!isAccessible(method.getReturnType())) {
+                return false;
+            }
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (!isAccessible(parameterType)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAccessible(@Nullable Class<?> type) {
+        if (type == null || type.isPrimitive()) {
+            return true;
+        }
+        if (type.isArray()) {
+            return isAccessible(type.getComponentType());
+        }
+        return Modifier.isPublic(type.getModifiers()) && isAccessible(type.getEnclosingClass());
+    }
+
+    private static CtClass[] getCtClasses(ClassPool pool, Class<?>[] types) throws NotFoundException {
+        CtClass[] ctClasses = new CtClass[types.length];
+        for (int i = 0; i < types.length; i++) {
+            ctClasses[i] = pool.get(getSourceName(types[i]));
+        }
+        return ctClasses;
+    }
+
+    private static String getSourceName(Class<?> type) {
+        return type.isArray() ? getSourceName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader(@Nullable ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            // the generated class refers to ForwardingHooks, which the interfaces' class loader need not see
+            return ForwardingProxies.class.getClassLoader().loadClass(name);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
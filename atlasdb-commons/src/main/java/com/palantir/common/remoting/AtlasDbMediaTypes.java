@@ -0,0 +1,27 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.common.remoting;
+
+public final class AtlasDbMediaTypes {
+    /**
+     * The media type of Jackson's Smile binary encoding of JSON.
+     */
+    public static final String APPLICATION_JACKSON_SMILE = "application/x-jackson-smile";
+
+    private AtlasDbMediaTypes() {
+        // constants
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.common.proxy;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class ForwardingProxiesTest {
+
+    @Test
+    public void forwardsCallsToTheTargetWithoutADynamicProxy() throws Exception {
+        RecordingHooks hooks = new RecordingHooks(new Adder());
+        Calculator calculator = ForwardingProxies.newProxyInstance(hooks, Calculator.class);
+
+        assertFalse(Proxy.isProxyClass(calculator.getClass()));
+        assertThat(calculator.add(2L, 3), is(5L));
+        assertThat(calculator.concat(new String[] {"a", "b"}), is("ab"));
+        calculator.reset();
+
+        List<Method> methods = ForwardingProxies.getForwardedMethods(Calculator.class);
+        List<String> methodNames = Lists.transform(hooks.calls, index -> methods.get(index).getName());
+        assertThat(methodNames, contains("add", "concat", "reset"));
+        assertThat(hooks.successes, is(3));
+    }
+
+    @Test
+    public void passesExceptionsThroughTheFailureHook() throws Exception {
+        RecordingHooks hooks = new RecordingHooks(new Adder());
+        Calculator calculator = ForwardingProxies.newProxyInstance(hooks, Calculator.class);
+
+        try {
+            calculator.divide(1, 0);
+            fail("expected the failure hook to replace the exception");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof ArithmeticException);
+        }
+        assertThat(hooks.successes, is(0));
+    }
+
+    @Test
+    public void forwardsAdditionalInterfaces() throws Exception {
+        RecordingHooks hooks = new RecordingHooks(new Adder());
+        Calculator calculator = ForwardingProxies.newProxyInstance(hooks, Calculator.class, Closeable.class);
+
+        ((Closeable) calculator).close();
+        List<Method> methods = ForwardingProxies.getForwardedMethods(Calculator.class, Closeable.class);
+        assertThat(methods.get(hooks.calls.get(0)).getName(), is("close"));
+    }
+
+    @Test
+    public void takesObjectMethodsFromTheHooks() {
+        RecordingHooks hooks = new RecordingHooks(new Adder());
+        Calculator calculator = ForwardingProxies.newProxyInstance(hooks, Calculator.class);
+
+        assertThat(calculator.toString(), is(hooks.toString()));
+        assertThat(calculator.hashCode(), is(hooks.hashCode()));
+        assertTrue(calculator.equals(calculator));
+        assertFalse(calculator.equals(ForwardingProxies.newProxyInstance(hooks, Calculator.class)));
+        assertTrue(hooks.calls.isEmpty());
+    }
+
+    @Test
+    public void fallsBackToADynamicProxyForInaccessibleInterfaces() throws Exception {
+        RecordingHooks hooks = new RecordingHooks((PrivateInterface) () -> "value");
+        PrivateInterface proxy = ForwardingProxies.newProxyInstance(hooks, PrivateInterface.class);
+
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        assertThat(proxy.call(), is("value"));
+        assertThat(hooks.successes, is(1));
+    }
+
+    public interface Calculator {
+        long add(long first, int second);
+
+        String concat(String[] strings);
+
+        void reset();
+
+        int divide(int dividend, int divisor);
+    }
+
+    private interface PrivateInterface extends Callable<String> {
+    }
+
+    private static class Adder implements Calculator, Closeable {
+        @Override
+        public long add(long first, int second) {
+            return first + second;
+        }
+
+        @Override
+        public String concat(String[] strings) {
+            return String.join("", strings);
+        }
+
+        @Override
+        public void reset() {
+            // nothing to reset
+        }
+
+        @Override
+        public int divide(int dividend, int divisor) {
+            return dividend / divisor;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // nothing to close
+        }
+    }
+
+    private static class RecordingHooks implements ForwardingHooks {
+        private final Object target;
+        private final List<Integer> calls = Lists.newArrayList();
+        private int successes = 0;
+
+        RecordingHooks(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object beforeInvocation(int methodIndex) {
+            calls.add(methodIndex);
+            return target;
+        }
+
+        @Override
+        public void onSuccess(int methodIndex, long startNanos) {
+            successes++;
+        }
+
+        @Override
+        public Throwable onFailure(int methodIndex, long startNanos, Object failedTarget, Throwable cause) {
+            return new IllegalStateException(cause);
+        }
+    }
+}
@@ -71,6 +71,29 @@ public abstract class AtlasDbConfig {
         return AtlasDbConstants.DEFAULT_PUNCH_INTERVAL_MILLIS;
     }
 
+    /**
+     * If true, punches are also recorded in a table keyed by timestamp, so
+     * that translating a timestamp to a wall clock time reads a single row
+     * rather than scanning the punch table. Only punches made while this is
+     * enabled are indexed, so it should be enabled on every client.
+     */
+    @Value.Default
+    public boolean enablePunchTimestampIndex() {
+        return AtlasDbConstants.DEFAULT_ENABLE_PUNCH_TIMESTAMP_INDEX;
+    }
+
+    /**
+     * If true, cells are queued for scrubbing in a table keyed by the
+     * bucket of timestamps their hard delete started in, so that the
+     * background scrubber only reads the part of the queue it can scrub.
+     * Cells queued by clients without this enabled are still scrubbed,
+     * so it can be enabled one client at a time.
+     */
+    @Value.Default
+    public boolean enableTimestampBucketedScrubQueue() {
+        return AtlasDbConstants.DEFAULT_ENABLE_TIMESTAMP_BUCKETED_SCRUB_QUEUE;
+    }
+
     /**
      * Scrubbing is the process of removing overwritten or deleted
      * cells from the underlying key value store after a hard-delete
@@ -212,6 +235,20 @@ public abstract class AtlasDbConfig {
         return AtlasDbConstants.DEFAULT_LOCK_TIMEOUT_SECONDS;
     }
 
+    /**
+     * If set, transactions buffer the cells and values they write outside of the java heap rather than on it, and spill
+     * them to a temporary file once they have buffered more than this many bytes. Useful for services running
+     * transactions that write more data than comfortably fits on the heap.
+     */
+    public abstract Optional<Long> getOffHeapWriteSpillThresholdBytes();
+
+    /**
+     * If set, the reads and writes to each table are counted and reported through {@code AtlasDbMetrics}, and this
+     * fraction of the written rows (between 0 exclusive and 1 inclusive) is sampled to estimate each table's most
+     * written row prefixes. Off by default.
+     */
+    public abstract Optional<Double> getTableAccessTelemetrySampleRate();
+
     @Value.Check
     protected final void check() {
         if (leader().isPresent()) {
@@ -238,6 +275,10 @@ public abstract class AtlasDbConfig {
                             + " 'sweepCandidateBatchSize' and 'sweepDeleteBatchSize' instead of the deprecated"
                             + " 'sweepBatchSize' and 'sweepCellBatchSize'.");
         }
+
+        getTableAccessTelemetrySampleRate().ifPresent(sampleRate -> Preconditions.checkState(
+                sampleRate > 0 && sampleRate <= 1,
+                "The table access telemetry sample rate must be greater than 0 and at most 1."));
     }
 
     private boolean areTimeAndLockConfigsAbsent() {
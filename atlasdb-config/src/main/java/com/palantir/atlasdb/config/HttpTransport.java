@@ -0,0 +1,33 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.config;
+
+/**
+ * How clients of a remote service encode their requests and responses.
+ */
+public enum HttpTransport {
+    /**
+     * JSON bodies, with a connection pool per client.
+     */
+    JSON,
+    /**
+     * Smile (binary JSON) bodies for the endpoints that accept them, and JSON for the rest, with HTTP/2 preferred
+     * and connections shared between clients, so that concurrent calls to a server are multiplexed over a single
+     * connection. The servers must be able to read Smile, as TimeLock servers and the lock and timestamp services
+     * that {@code TransactionManagers} embeds can.
+     */
+    SMILE
+}
@@ -36,4 +36,9 @@ public interface ServerListConfig {
 
     Optional<SslConfiguration> sslConfiguration();
 
+    @Value.Default
+    default HttpTransport transport() {
+        return HttpTransport.JSON;
+    }
+
 }
@@ -22,6 +22,7 @@ import javax.net.ssl.SSLSocketFactory;
 
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Function;
+import com.palantir.atlasdb.config.HttpTransport;
 import com.palantir.atlasdb.config.ServerListConfig;
 import com.palantir.atlasdb.http.AtlasDbHttpClients;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
@@ -40,7 +41,7 @@ public class ServiceCreator<T> implements Function<ServerListConfig, T> {
     @Override
     public T apply(ServerListConfig input) {
         Optional<SSLSocketFactory> sslSocketFactory = createSslSocketFactory(input.sslConfiguration());
-        return createService(sslSocketFactory, input.servers(), serviceClass, userAgent);
+        return createService(sslSocketFactory, input.servers(), serviceClass, userAgent, input.transport());
     }
 
     /**
@@ -55,9 +56,18 @@ public class ServiceCreator<T> implements Function<ServerListConfig, T> {
             Set<String> uris,
             Class<T> serviceClass,
             String userAgent) {
+        return createService(sslSocketFactory, uris, serviceClass, userAgent, HttpTransport.JSON);
+    }
+
+    public static <T> T createService(
+            Optional<SSLSocketFactory> sslSocketFactory,
+            Set<String> uris,
+            Class<T> serviceClass,
+            String userAgent,
+            HttpTransport transport) {
         return AtlasDbMetrics.instrument(
                 serviceClass,
-                AtlasDbHttpClients.createProxyWithFailover(sslSocketFactory, uris, serviceClass, userAgent),
+                AtlasDbHttpClients.createProxyWithFailover(sslSocketFactory, uris, serviceClass, userAgent, transport),
                 MetricRegistry.name(serviceClass, userAgent));
     }
 
@@ -44,6 +44,7 @@ import com.palantir.atlasdb.config.LeaderConfig;
 import com.palantir.atlasdb.config.ServerListConfig;
 import com.palantir.atlasdb.config.TimeLockClientConfig;
 import com.palantir.atlasdb.factory.startup.TimeLockMigrator;
+import com.palantir.atlasdb.http.AtlasDbSmileProvider;
 import com.palantir.atlasdb.http.UserAgents;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.NamespacedKeyValueServices;
@@ -194,7 +195,8 @@ public final class TransactionManagers {
 
         KeyValueService kvs = NamespacedKeyValueServices.wrapWithStaticNamespaceMappingKvs(rawKvs);
         kvs = ProfilingKeyValueService.create(kvs, config.getKvsSlowLogThresholdMillis());
-        kvs = SweepStatsKeyValueService.create(kvs, lockAndTimestampServices.time());
+        kvs = SweepStatsKeyValueService.create(kvs, lockAndTimestampServices.time(),
+                config.getTableAccessTelemetrySampleRate());
         kvs = TracingKeyValueService.create(kvs);
         kvs = AtlasDbMetrics.instrument(KeyValueService.class, kvs,
                 MetricRegistry.name(KeyValueService.class, userAgent));
@@ -230,6 +232,8 @@ public final class TransactionManagers {
                 .setBackgroundScrubFrequencyMillis(config.getBackgroundScrubFrequencyMillis())
                 .setBackgroundScrubThreads(config.getBackgroundScrubThreads())
                 .setPunchIntervalMillis(config.getPunchIntervalMillis())
+                .setEnablePunchTimestampIndex(config.enablePunchTimestampIndex())
+                .setEnableTimestampBucketedScrubQueue(config.enableTimestampBucketedScrubQueue())
                 .setTransactionReadTimeout(config.getTransactionReadTimeoutMillis())
                 .buildCleaner();
 
@@ -242,7 +246,8 @@ public final class TransactionManagers {
                 conflictManager,
                 sweepStrategyManager,
                 cleaner,
-                allowHiddenTableAccess);
+                allowHiddenTableAccess,
+                config.getOffHeapWriteSpillThresholdBytes());
 
         PersistentLockManager persistentLockManager = new PersistentLockManager(
                 persistentLockService,
@@ -411,8 +416,11 @@ public final class TransactionManagers {
             String userAgent) {
         LeaderElectionService leader = Leaders.create(env, leaderConfig, userAgent);
 
-        env.register(AwaitingLeadershipProxy.newProxyInstance(RemoteLockService.class, lock, leader));
-        env.register(AwaitingLeadershipProxy.newProxyInstance(TimestampService.class, time, leader));
+        env.register(AwaitingLeadershipProxy.newProxyInstance(RemoteLockService.class, lock, leader,
+                leaderConfig.leaderLeaseDurationMs(), leaderConfig.leaderLeaseClockDriftMarginMs()));
+        env.register(AwaitingLeadershipProxy.newProxyInstance(TimestampService.class, time, leader,
+                leaderConfig.leaderLeaseDurationMs(), leaderConfig.leaderLeaseClockDriftMarginMs()));
+        env.register(new AtlasDbSmileProvider());
 
         Optional<SSLSocketFactory> sslSocketFactory = ServiceCreator.createSslSocketFactory(
                 leaderConfig.sslConfiguration());
@@ -452,6 +460,7 @@ public final class TransactionManagers {
 
         env.register(lockService);
         env.register(timeService);
+        env.register(new AtlasDbSmileProvider());
 
         return ImmutableLockAndTimestampServices.builder()
                 .lock(lockService)
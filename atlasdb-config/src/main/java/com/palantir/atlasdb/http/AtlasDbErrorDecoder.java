@@ -41,7 +41,14 @@ public class AtlasDbErrorDecoder implements ErrorDecoder {
     public Exception decode(String methodKey, Response response) {
         Exception exception = delegateDecoder.decode(methodKey, response);
         if (response503ButExceptionIsNotRetryable(response, exception)) {
-            return new RetryableException(exception.getMessage(), exception, parseRetryAfter(response));
+            Date retryAfter = parseRetryAfter(response);
+            Collection<String> serviceHints = HeaderAccessUtils.shortcircuitingCaseInsensitiveGet(
+                    response.headers(), ExceptionMappers.LEADER_HINT_HEADER);
+            if (!serviceHints.isEmpty()) {
+                return new RetryableExceptionWithServiceHint(
+                        exception.getMessage(), exception, retryAfter, serviceHints.iterator().next());
+            }
+            return new RetryableException(exception.getMessage(), exception, retryAfter);
         }
         if (response429ButExceptionIsNotRetryable(response, exception)) {
             // We want to retry on the same node (ExceptionRetryBehaviour.RETRY_ON_SAME_NODE) every time we receive
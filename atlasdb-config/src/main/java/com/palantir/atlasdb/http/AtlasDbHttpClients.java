@@ -23,8 +23,10 @@ import javax.net.ssl.SSLSocketFactory;
 
 import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import com.palantir.atlasdb.config.HttpTransport;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
 
 import feign.Client;
@@ -49,6 +51,12 @@ public final class AtlasDbHttpClients {
     private static final Decoder decoder = new TextDelegateDecoder(new JacksonDecoder(mapper));
     private static final ErrorDecoder errorDecoder = new AtlasDbErrorDecoder();
 
+    private static final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private static final Contract smileContract = new SmilePreferringContract(contract);
+    private static final Encoder smileEncoder = new SmileDelegateEncoder(encoder, smileMapper);
+    private static final Decoder smileDecoder = new TextDelegateDecoder(
+            new SmileDelegateDecoder(new JacksonDecoder(mapper), smileMapper));
+
     private AtlasDbHttpClients() {
         // Utility class
     }
@@ -123,32 +131,51 @@ public final class AtlasDbHttpClients {
             Collection<String> endpointUris,
             Class<T> type,
             String userAgent) {
+        return createProxyWithFailover(sslSocketFactory, endpointUris, type, userAgent, HttpTransport.JSON);
+    }
+
+    /**
+     * As {@link #createProxyWithFailover(Optional, Collection, Class, String)}, but communicating with the servers
+     * using the given transport.
+     */
+    public static <T> T createProxyWithFailover(
+            Optional<SSLSocketFactory> sslSocketFactory,
+            Collection<String> endpointUris,
+            Class<T> type,
+            String userAgent,
+            HttpTransport transport) {
         return createProxyWithFailover(
                 sslSocketFactory,
                 endpointUris,
                 DEFAULT_FEIGN_OPTIONS,
                 FailoverFeignTarget.DEFAULT_MAX_BACKOFF_MILLIS,
                 type,
-                userAgent);
+                userAgent,
+                transport);
     }
 
     /**
      * @param feignOptions      Options to configure Feign timeouts.
      * @param maxBackoffMillis  Passed through to the FailoverFeignTarget, this configures the maximum time that a
      *                          backoff will be for.
+     * @param transport         Whether to use Smile where the service allows it, and connections shared with other
+     *                          proxies, rather than JSON and connections of its own.
      */
     private static <T> T createProxyWithFailover(
             Optional<SSLSocketFactory> sslSocketFactory, Collection<String> endpointUris,
-            Request.Options feignOptions, int maxBackoffMillis, Class<T> type, String userAgent) {
+            Request.Options feignOptions, int maxBackoffMillis, Class<T> type, String userAgent,
+            HttpTransport transport) {
+        boolean smile = transport == HttpTransport.SMILE;
         FailoverFeignTarget<T> failoverFeignTarget = new FailoverFeignTarget<>(endpointUris, maxBackoffMillis, type);
-        Client client = failoverFeignTarget.wrapClient(
-                FeignOkHttpClients.newOkHttpClient(sslSocketFactory, userAgent, type));
+        Client client = failoverFeignTarget.wrapClient(smile
+                ? FeignOkHttpClients.newMultiplexingOkHttpClient(sslSocketFactory, userAgent, type)
+                : FeignOkHttpClients.newOkHttpClient(sslSocketFactory, userAgent, type));
         return AtlasDbMetrics.instrument(
                 type,
                 Feign.builder()
-                        .contract(contract)
-                        .encoder(encoder)
-                        .decoder(decoder)
+                        .contract(smile ? smileContract : contract)
+                        .encoder(smile ? smileEncoder : encoder)
+                        .decoder(smile ? smileDecoder : decoder)
                         .errorDecoder(errorDecoder)
                         .client(client)
                         .retryer(failoverFeignTarget)
@@ -167,6 +194,7 @@ public final class AtlasDbHttpClients {
                 options,
                 QUICK_MAX_BACKOFF_MILLIS,
                 type,
-                UserAgents.DEFAULT_USER_AGENT);
+                UserAgents.DEFAULT_USER_AGENT,
+                HttpTransport.JSON);
     }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.http;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.jaxrs.smile.JacksonSmileProvider;
+import com.palantir.common.remoting.AtlasDbMediaTypes;
+
+/**
+ * Reads and writes {@link AtlasDbMediaTypes#APPLICATION_JACKSON_SMILE} bodies, so that clients configured with the
+ * {@link com.palantir.atlasdb.config.HttpTransport#SMILE} transport can talk to the resources it is registered with.
+ * Every server of the lock and timestamp services should register one.
+ */
+@Provider
+@Consumes(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE)
+@Produces(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE)
+public class AtlasDbSmileProvider extends JacksonSmileProvider {
+    public AtlasDbSmileProvider() {
+        super(new ObjectMapper(new SmileFactory()).registerModule(new Jdk8Module()));
+    }
+}
@@ -17,14 +17,22 @@ package com.palantir.atlasdb.http;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import com.google.common.net.HostAndPort;
+import com.palantir.common.remoting.ServiceNotAvailableException;
 import com.palantir.remoting2.errors.SerializableError;
 
 public final class ExceptionMappers {
+    /**
+     * Header naming the node that the responding server believes can serve the request, if it knows of one.
+     */
+    public static final String LEADER_HINT_HEADER = "Atlas-Leader-Hint";
+
     private ExceptionMappers() {
         // utility
     }
@@ -48,6 +56,21 @@ public final class ExceptionMappers {
                 .build();
     }
 
+    /**
+     * As {@link #encode503ResponseWithRetryAfter(Exception)}, but if the exception carries a hint as to which node
+     * can serve the request, it is also included in a {@link #LEADER_HINT_HEADER} header, so that clients can send
+     * their retry straight to that node.
+     */
+    public static Response encode503ResponseWithRetryAfterAndServiceHint(ServiceNotAvailableException exception) {
+        Response.ResponseBuilder builder = encode503ResponseInternal(exception)
+                .header(HttpHeaders.RETRY_AFTER, "0");
+        Optional<HostAndPort> serviceHint = exception.getServiceHint();
+        if (serviceHint.isPresent()) {
+            builder.header(LEADER_HINT_HEADER, serviceHint.get().toString());
+        }
+        return builder.build();
+    }
+
     private static Response.ResponseBuilder encode503ResponseInternal(Exception exception) {
         return encodeExceptionResponse(exception, 503);
     }
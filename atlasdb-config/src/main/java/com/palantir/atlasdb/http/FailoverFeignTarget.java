@@ -16,7 +16,10 @@
 package com.palantir.atlasdb.http;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.Collection;
+import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -29,6 +32,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.net.HostAndPort;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import feign.Client;
@@ -40,6 +44,11 @@ import feign.RetryableException;
 import feign.Retryer;
 import feign.Target;
 
+/**
+ * Sends requests to one server at a time, failing over to the next on failure. If a failed response names the node
+ * that can serve the request (see {@link ExceptionMappers#LEADER_HINT_HEADER}), and that node is one of our servers,
+ * we switch to it straight away and retry without backing off; subsequent requests keep going to it until it fails.
+ */
 public class FailoverFeignTarget<T> implements Target<T>, Retryer {
     private static final Logger log = LoggerFactory.getLogger(FailoverFeignTarget.class);
 
@@ -49,6 +58,7 @@ public class FailoverFeignTarget<T> implements Target<T>, Retryer {
     private static final double GOLDEN_RATIO = (Math.sqrt(5) + 1.0) / 2.0;
 
     private final ImmutableList<String> servers;
+    private final ImmutableList<Optional<HostAndPort>> serverAddresses;
     private final Class<T> type;
     private final AtomicInteger failoverCount = new AtomicInteger();
     @VisibleForTesting
@@ -60,6 +70,8 @@ public class FailoverFeignTarget<T> implements Target<T>, Retryer {
     private final AtomicLong failuresSinceLastSwitch = new AtomicLong();
     private final AtomicLong numSwitches = new AtomicLong();
     private final AtomicLong startTimeOfFastFailover = new AtomicLong();
+    // Bounds how many hints we follow without a successful call, in case the servers disagree on who the leader is
+    private final AtomicLong hintsFollowedSinceLastSuccess = new AtomicLong();
 
     private final ThreadLocal<Integer> mostRecentServerIndex = new ThreadLocal<>();
 
@@ -70,6 +82,11 @@ public class FailoverFeignTarget<T> implements Target<T>, Retryer {
     public FailoverFeignTarget(Collection<String> servers, int maxBackoffMillis, Class<T> type) {
         Preconditions.checkArgument(maxBackoffMillis > 0);
         this.servers = ImmutableList.copyOf(ImmutableSet.copyOf(servers));
+        ImmutableList.Builder<Optional<HostAndPort>> addresses = ImmutableList.builder();
+        for (String server : this.servers) {
+            addresses.add(parseAddress(server));
+        }
+        this.serverAddresses = addresses.build();
         this.type = type;
         this.maxBackoffMillis = maxBackoffMillis;
     }
@@ -78,16 +95,24 @@ public class FailoverFeignTarget<T> implements Target<T>, Retryer {
         numSwitches.set(0);
         failuresSinceLastSwitch.set(0);
         startTimeOfFastFailover.set(0);
+        hintsFollowedSinceLastSuccess.set(0);
     }
 
     @Override
     public void continueOrPropagate(RetryableException ex) {
         ExceptionRetryBehaviour retryBehaviour = ExceptionRetryBehaviour.getRetryBehaviourForException(ex);
+        int hintedServerIndex = retryBehaviour.shouldBackoffAndTryOtherNodes() ? getHintedServerIndex(ex) : -1;
+        boolean followingHint = false;
 
         synchronized (this) {
-            // Only fail over if this failure was to the current server.
-            // This means that no one on another thread has failed us over already.
-            if (mostRecentServerIndex.get() != null && mostRecentServerIndex.get() == failoverCount.get()) {
+            if (hintedServerIndex >= 0 && hintsFollowedSinceLastSuccess.get() < servers.size()) {
+                // The server told us where to go, so go there even if another thread already failed us over.
+                hintsFollowedSinceLastSuccess.incrementAndGet();
+                failoverToNode(hintedServerIndex);
+                followingHint = true;
+            } else if (mostRecentServerIndex.get() != null && mostRecentServerIndex.get() == failoverCount.get()) {
+                // Only fail over if this failure was to the current server.
+                // This means that no one on another thread has failed us over already.
                 long failures = failuresSinceLastSwitch.incrementAndGet();
                 if (shouldSwitchNode(retryBehaviour, failures)) {
                     failoverToNextNode(retryBehaviour);
@@ -98,7 +123,9 @@ public class FailoverFeignTarget<T> implements Target<T>, Retryer {
         }
 
         checkAndHandleFailure(ex);
-        if (retryBehaviour.shouldBackoffAndTryOtherNodes()) {
+        if (followingHint) {
+            log.trace("Retrying immediately on hinted server {}", servers.get(hintedServerIndex));
+        } else if (retryBehaviour.shouldBackoffAndTryOtherNodes()) {
             int numFailovers = failoverCount.get();
             if (numFailovers > 0 && numFailovers % servers.size() == 0) {
 
@@ -134,6 +161,59 @@ public class FailoverFeignTarget<T> implements Target<T>, Retryer {
         failoverCount.incrementAndGet();
     }
 
+    private void failoverToNode(int serverIndex) {
+        numSwitches.set(0);
+        startTimeOfFastFailover.compareAndSet(0, System.currentTimeMillis());
+        failuresSinceLastSwitch.set(0);
+        int currentCount = failoverCount.get();
+        // Keep the count increasing, as callers compare it against the index they hit to detect failovers.
+        failoverCount.set(currentCount + Math.floorMod(serverIndex - currentCount, servers.size()));
+    }
+
+    @VisibleForTesting
+    int getHintedServerIndex(RetryableException ex) {
+        if (!(ex instanceof RetryableExceptionWithServiceHint)) {
+            return -1;
+        }
+        Optional<HostAndPort> hint = parseAddress(((RetryableExceptionWithServiceHint) ex).getServiceHint());
+        if (!hint.isPresent()) {
+            return -1;
+        }
+        for (int i = 0; i < serverAddresses.size(); i++) {
+            if (serverAddresses.get(i).equals(hint)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses either a host and port, or a URL such as a server's base URL, into a host and port. Leaders
+     * identify each other by their configured URLs, which Guava parses as a bracketed host.
+     */
+    @VisibleForTesting
+    static Optional<HostAndPort> parseAddress(String address) {
+        try {
+            String hostOrUrl = address;
+            if (hostOrUrl.startsWith("[")) {
+                hostOrUrl = HostAndPort.fromString(hostOrUrl).getHostText();
+            }
+            if (!hostOrUrl.contains("://")) {
+                return Optional.of(HostAndPort.fromString(hostOrUrl));
+            }
+            URI uri = new URI(hostOrUrl);
+            if (uri.getHost() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(uri.getPort() == -1
+                    ? HostAndPort.fromHost(uri.getHost())
+                    : HostAndPort.fromParts(uri.getHost(), uri.getPort()));
+        } catch (IllegalArgumentException | URISyntaxException e) {
+            log.debug("Could not parse {} as an address", address, e);
+            return Optional.empty();
+        }
+    }
+
     private void checkAndHandleFailure(RetryableException ex) {
         final long fastFailoverStartTime = startTimeOfFastFailover.get();
         final long currentTime = System.currentTimeMillis();
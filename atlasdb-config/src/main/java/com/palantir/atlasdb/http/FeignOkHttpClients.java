@@ -34,6 +34,7 @@ import okhttp3.CipherSuite;
 import okhttp3.ConnectionPool;
 import okhttp3.ConnectionSpec;
 import okhttp3.Interceptor;
+import okhttp3.Protocol;
 import okhttp3.Response;
 import okhttp3.TlsVersion;
 
@@ -86,6 +87,13 @@ public final class FeignOkHttpClients {
                     .build(),
             ConnectionSpec.CLEARTEXT);
 
+    private static final ImmutableList<Protocol> HTTP_2_PREFERRING_PROTOCOLS =
+            ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1);
+
+    // Connections are pooled by address, so sharing the pool between clients is safe.
+    private static final ConnectionPool SHARED_CONNECTION_POOL =
+            new ConnectionPool(CONNECTION_POOL_SIZE, KEEP_ALIVE_TIME_MILLIS, TimeUnit.MILLISECONDS);
+
     private FeignOkHttpClients() {
         // factory
     }
@@ -98,16 +106,34 @@ public final class FeignOkHttpClients {
             Optional<SSLSocketFactory> sslSocketFactory,
             String userAgent,
             Class<T> clazz) {
-        return newOkHttpClient(sslSocketFactory, userAgent, shouldAllowRetrying(clazz));
+        return newOkHttpClient(sslSocketFactory, userAgent, shouldAllowRetrying(clazz),
+                new okhttp3.OkHttpClient.Builder()
+                        .connectionPool(new ConnectionPool(
+                                CONNECTION_POOL_SIZE, KEEP_ALIVE_TIME_MILLIS, TimeUnit.MILLISECONDS)));
+    }
+
+    /**
+     * Returns a feign {@link Client} as {@link #newOkHttpClient(Optional, String, Class)} does, except that it
+     * prefers HTTP/2, and shares its connections with the other clients returned by this method. Over HTTP/2, all
+     * concurrent calls to a server are multiplexed over a single connection; HTTP/2 is negotiated over TLS, so
+     * cleartext connections remain HTTP/1.1.
+     */
+    public static <T> Client newMultiplexingOkHttpClient(
+            Optional<SSLSocketFactory> sslSocketFactory,
+            String userAgent,
+            Class<T> clazz) {
+        return newOkHttpClient(sslSocketFactory, userAgent, shouldAllowRetrying(clazz),
+                new okhttp3.OkHttpClient.Builder()
+                        .connectionPool(SHARED_CONNECTION_POOL)
+                        .protocols(HTTP_2_PREFERRING_PROTOCOLS));
     }
 
     private static Client newOkHttpClient(
             Optional<SSLSocketFactory> sslSocketFactory,
             String userAgent,
-            boolean retryOnConnectionFailure) {
-        okhttp3.OkHttpClient.Builder builder = new okhttp3.OkHttpClient.Builder()
-                .connectionSpecs(CONNECTION_SPEC_WITH_CYPHER_SUITES)
-                .connectionPool(new ConnectionPool(CONNECTION_POOL_SIZE, KEEP_ALIVE_TIME_MILLIS, TimeUnit.MILLISECONDS))
+            boolean retryOnConnectionFailure,
+            okhttp3.OkHttpClient.Builder builder) {
+        builder.connectionSpecs(CONNECTION_SPEC_WITH_CYPHER_SUITES)
                 .retryOnConnectionFailure(retryOnConnectionFailure);
         if (sslSocketFactory.isPresent()) {
             builder.sslSocketFactory(sslSocketFactory.get());
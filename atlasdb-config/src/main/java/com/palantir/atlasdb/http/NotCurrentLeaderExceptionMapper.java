@@ -28,10 +28,11 @@ import com.palantir.leader.NotCurrentLeaderException;
 public class NotCurrentLeaderExceptionMapper implements ExceptionMapper<NotCurrentLeaderException> {
 
     /**
-     * Returns a 503 response, with body corresponding to the serialized exception.
+     * Returns a 503 response, with body corresponding to the serialized exception, and a header naming the
+     * suspected leader if there is one.
      */
     @Override
     public Response toResponse(NotCurrentLeaderException exception) {
-        return ExceptionMappers.encode503ResponseWithRetryAfter(exception);
+        return ExceptionMappers.encode503ResponseWithRetryAfterAndServiceHint(exception);
     }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.http;
+
+import java.util.Date;
+
+import feign.RetryableException;
+
+/**
+ * A {@link RetryableException} for a response naming the node that the responding server believes can serve the
+ * request, as sent in the {@link ExceptionMappers#LEADER_HINT_HEADER} header.
+ */
+class RetryableExceptionWithServiceHint extends RetryableException {
+    private static final long serialVersionUID = 1L;
+
+    private final String serviceHint;
+
+    RetryableExceptionWithServiceHint(String message, Throwable cause, Date retryAfter, String serviceHint) {
+        super(message, cause, retryAfter);
+        this.serviceHint = serviceHint;
+    }
+
+    String getServiceHint() {
+        return serviceHint;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.http;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.net.HttpHeaders;
+import com.palantir.common.remoting.AtlasDbMediaTypes;
+
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+/**
+ * If the request has a Content-Type of {@link AtlasDbMediaTypes#APPLICATION_JACKSON_SMILE}, then this encoder writes
+ * the body with the given Smile object mapper. Otherwise, it falls back to the delegate.
+ */
+public class SmileDelegateEncoder implements Encoder {
+    private final Encoder delegate;
+    private final ObjectMapper smileMapper;
+
+    public SmileDelegateEncoder(Encoder delegate, ObjectMapper smileMapper) {
+        this.delegate = delegate;
+        this.smileMapper = smileMapper;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        Collection<String> contentTypes = template.headers().get(HttpHeaders.CONTENT_TYPE);
+        if (contentTypes == null || !contentTypes.contains(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE)) {
+            delegate.encode(object, bodyType, template);
+            return;
+        }
+        try {
+            template.body(smileMapper.writerFor(smileMapper.constructType(bodyType)).writeValueAsBytes(object), null);
+        } catch (JsonProcessingException e) {
+            throw new EncodeException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.http;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import com.google.common.collect.Maps;
+import com.google.common.net.HttpHeaders;
+import com.palantir.common.remoting.AtlasDbMediaTypes;
+
+import feign.Contract;
+import feign.Feign;
+import feign.MethodMetadata;
+
+/**
+ * Wraps a JAX-RS contract, which sends the first media type that a method produces or consumes, so that methods that
+ * also produce or consume {@link AtlasDbMediaTypes#APPLICATION_JACKSON_SMILE} ask for and send Smile instead.
+ * JSON is still accepted in responses, in case the server cannot write Smile.
+ */
+public class SmilePreferringContract implements Contract {
+    private static final String ACCEPT_SMILE_OR_JSON =
+            AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE + ", " + MediaType.APPLICATION_JSON + ";q=0.5";
+
+    private final Contract delegate;
+
+    public SmilePreferringContract(Contract delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<MethodMetadata> parseAndValidatateMetadata(Class<?> targetType) {
+        List<MethodMetadata> metadata = delegate.parseAndValidatateMetadata(targetType);
+        Map<String, MethodMetadata> metadataByConfigKey = Maps.uniqueIndex(metadata, MethodMetadata::configKey);
+        for (Method method : targetType.getMethods()) {
+            MethodMetadata data = metadataByConfigKey.get(Feign.configKey(targetType, method));
+            if (data == null) {
+                continue;
+            }
+            Produces produces = method.getAnnotation(Produces.class);
+            if (produces != null && includesSmile(produces.value())) {
+                data.template().header(HttpHeaders.ACCEPT, ACCEPT_SMILE_OR_JSON);
+            }
+            Consumes consumes = method.getAnnotation(Consumes.class);
+            if (consumes != null && includesSmile(consumes.value())) {
+                data.template().header(HttpHeaders.CONTENT_TYPE, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE);
+            }
+        }
+        return metadata;
+    }
+
+    private static boolean includesSmile(String[] mediaTypes) {
+        return Arrays.asList(mediaTypes).contains(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE);
+    }
+}
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.factory;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -54,6 +55,7 @@ import com.palantir.atlasdb.config.ImmutableServerListConfig;
 import com.palantir.atlasdb.config.ImmutableTimeLockClientConfig;
 import com.palantir.atlasdb.config.ServerListConfig;
 import com.palantir.atlasdb.config.TimeLockClientConfig;
+import com.palantir.atlasdb.http.AtlasDbSmileProvider;
 import com.palantir.atlasdb.memory.InMemoryAtlasDbConfig;
 import com.palantir.lock.LockMode;
 import com.palantir.lock.LockRequest;
@@ -154,6 +156,19 @@ public class TransactionManagersTest {
         verifyUserAgentOnRawTimestampAndLockRequests();
     }
 
+    @Test
+    public void registersSmileProviderWithEmbeddedServices() {
+        TransactionManagers.createLockAndTimestampServices(
+                config,
+                environment,
+                LockServiceImpl::create,
+                InMemoryTimestampService::new,
+                invalidator,
+                USER_AGENT);
+
+        verify(environment).register(isA(AtlasDbSmileProvider.class));
+    }
+
     @Test
     public void setsGlobalDefaultLockTimeout() {
         TimeDuration expectedTimeout = SimpleTimeDuration.of(47, TimeUnit.SECONDS);
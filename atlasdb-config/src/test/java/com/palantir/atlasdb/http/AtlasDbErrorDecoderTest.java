@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.http;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertNull;
@@ -48,6 +49,10 @@ public class AtlasDbErrorDecoderTest {
     private static final Map<String, Collection<String>> EMPTY_HEADERS = ImmutableMap.of();
     private static final Map<String, Collection<String>> HEADERS_WITH_RETRY_AFTER = ImmutableMap.of(
             HttpHeaders.RETRY_AFTER, ImmutableList.of(String.valueOf(RETRY_AFTER_DATE.getTime())));
+    private static final String LEADER_HINT = "server2:8421";
+    private static final Map<String, Collection<String>> HEADERS_WITH_RETRY_AFTER_AND_LEADER_HINT = ImmutableMap.of(
+            HttpHeaders.RETRY_AFTER, ImmutableList.of(String.valueOf(RETRY_AFTER_DATE.getTime())),
+            ExceptionMappers.LEADER_HINT_HEADER, ImmutableList.of(LEADER_HINT));
     private static final String EMPTY_REASON = "";
     private static final byte[] EMPTY_BODY = new byte[0];
 
@@ -107,6 +112,18 @@ public class AtlasDbErrorDecoderTest {
         assertThat(((RetryableException) exception).retryAfter(), is(RETRY_AFTER_DATE));
     }
 
+    @Test
+    public void shouldCreateRetryableExceptionWithServiceHintWhen503WithLeaderHintAndNotRetryableException() {
+        Response response = makeDefaultDecoderReplyWithHeadersWhenReceivingResponse(
+                STATUS_503,
+                NON_RETRYABLE_EXCEPTION,
+                HEADERS_WITH_RETRY_AFTER_AND_LEADER_HINT);
+        Exception exception = atlasDbDecoder.decode(EMPTY_METHOD_KEY, response);
+        assertThat(exception, is(instanceOf(RetryableExceptionWithServiceHint.class)));
+        assertThat(((RetryableExceptionWithServiceHint) exception).getServiceHint(), is(LEADER_HINT));
+        assertThat(((RetryableException) exception).retryAfter(), is(RETRY_AFTER_DATE));
+    }
+
     @Test
     public void shouldDelegateToDefaultDecoderWhen503AndRetryableException() {
         Response response = makeDefaultDecoderReplyWhenReceivingResponse(STATUS_503, RETRYABLE_EXCEPTION);
@@ -24,7 +24,9 @@ import org.apache.http.HttpStatus;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.net.HostAndPort;
 import com.google.common.net.HttpHeaders;
+import com.palantir.common.remoting.ServiceNotAvailableException;
 import com.palantir.remoting2.errors.SerializableError;
 
 public class ExceptionMappersTest {
@@ -84,6 +86,23 @@ public class ExceptionMappersTest {
                 .containsEntry(HttpHeaders.RETRY_AFTER, ImmutableList.of("0"));
     }
 
+    @Test
+    public void responseWithServiceHintShouldHaveRetryAfterAndLeaderHintHeaders() {
+        ServiceNotAvailableException exception =
+                new ServiceNotAvailableException("foo", HostAndPort.fromParts("server2", 8421));
+        assertThat(ExceptionMappers.encode503ResponseWithRetryAfterAndServiceHint(exception).getStringHeaders())
+                .containsEntry(HttpHeaders.RETRY_AFTER, ImmutableList.of("0"))
+                .containsEntry(ExceptionMappers.LEADER_HINT_HEADER, ImmutableList.of("server2:8421"));
+    }
+
+    @Test
+    public void responseWithoutServiceHintShouldNotHaveLeaderHintHeader() {
+        ServiceNotAvailableException exception = new ServiceNotAvailableException("foo");
+        assertThat(ExceptionMappers.encode503ResponseWithRetryAfterAndServiceHint(exception).getStringHeaders())
+                .containsEntry(HttpHeaders.RETRY_AFTER, ImmutableList.of("0"))
+                .doesNotContainKey(ExceptionMappers.LEADER_HINT_HEADER);
+    }
+
     private static void assertSerializedFormOfRuntimeException(Object entity) {
         SerializableError error = (SerializableError) entity;
         assertThat(error.getErrorName()).isEqualTo(RUNTIME_EXCEPTION.getClass().getName());
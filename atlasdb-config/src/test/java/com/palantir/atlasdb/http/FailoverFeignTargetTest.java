@@ -22,9 +22,11 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.longThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,6 +41,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.net.HostAndPort;
 import com.palantir.atlasdb.http.errors.AtlasDbRemoteException;
 import com.palantir.lock.remoting.BlockingTimeoutException;
 import com.palantir.remoting2.errors.RemoteException;
@@ -61,6 +64,10 @@ public class FailoverFeignTargetTest {
     private static final RetryableException EXCEPTION_WITHOUT_RETRY_AFTER = mock(RetryableException.class);
     private static final RetryableException BLOCKING_TIMEOUT_EXCEPTION = mock(RetryableException.class);
 
+    private static final RetryableException EXCEPTION_HINTING_SERVER_2 = createExceptionWithHint(SERVER_2);
+    private static final RetryableException EXCEPTION_HINTING_SERVER_3 = createExceptionWithHint(SERVER_3);
+    private static final RetryableException EXCEPTION_HINTING_UNKNOWN_SERVER = createExceptionWithHint("server4");
+
     private static final long LOWER_BACKOFF_BOUND = FailoverFeignTarget.BACKOFF_BEFORE_ROUND_ROBIN_RETRY_MILLIS / 2;
     private static final long UPPER_BACKOFF_BOUND =
             (FailoverFeignTarget.BACKOFF_BEFORE_ROUND_ROBIN_RETRY_MILLIS * 3) / 2;
@@ -216,6 +223,82 @@ public class FailoverFeignTargetTest {
         }
     }
 
+    @Test
+    public void followsHintToHintedServerWithoutBackingOff() {
+        simulateRequest(spiedTarget);
+        spiedTarget.continueOrPropagate(EXCEPTION_HINTING_SERVER_3);
+
+        assertThat(spiedTarget.url()).isEqualTo(SERVER_3);
+        verify(spiedTarget, never()).pauseForBackoff(any(), anyLong());
+    }
+
+    @Test
+    public void keepsSendingRequestsToHintedServer() {
+        simulateRequest(normalTarget);
+        normalTarget.continueOrPropagate(EXCEPTION_HINTING_SERVER_3);
+        normalTarget.sucessfulCall();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertThat(normalTarget.url()).isEqualTo(SERVER_3);
+        }
+    }
+
+    @Test
+    public void followsHintEvenIfAnotherThreadHasAlreadyFailedOver() {
+        simulateRequest(normalTarget);
+        normalTarget.continueOrPropagate(EXCEPTION_WITH_RETRY_AFTER);
+        normalTarget.continueOrPropagate(EXCEPTION_HINTING_SERVER_3);
+
+        assertThat(normalTarget.url()).isEqualTo(SERVER_3);
+    }
+
+    @Test
+    public void failsOverAsUsualOnHintForUnknownServer() {
+        simulateRequest(normalTarget);
+        normalTarget.continueOrPropagate(EXCEPTION_HINTING_UNKNOWN_SERVER);
+
+        assertThat(normalTarget.url()).isEqualTo(SERVER_2);
+    }
+
+    @Test
+    public void stopsFollowingHintsAfterFollowingOnePerServerWithoutSuccess() {
+        for (int i = 0; i < CLUSTER_SIZE; i++) {
+            simulateRequest(normalTarget);
+            RetryableException exception = i % 2 == 0 ? EXCEPTION_HINTING_SERVER_3 : EXCEPTION_HINTING_SERVER_2;
+            normalTarget.continueOrPropagate(exception);
+        }
+        assertThat(normalTarget.url()).isEqualTo(SERVER_3);
+
+        normalTarget.continueOrPropagate(EXCEPTION_HINTING_SERVER_3);
+        assertThat(normalTarget.url()).isEqualTo(SERVER_1);
+
+        normalTarget.sucessfulCall();
+        normalTarget.continueOrPropagate(EXCEPTION_HINTING_SERVER_3);
+        assertThat(normalTarget.url()).isEqualTo(SERVER_3);
+    }
+
+    @Test
+    public void matchesHintsGivenAsUrlsAgainstServerUrls() {
+        FailoverFeignTarget<Object> target = new FailoverFeignTarget<>(
+                ImmutableList.of("https://host1:8421/api", "https://host2:8421/api"), Object.class);
+
+        assertThat(target.getHintedServerIndex(createExceptionWithHint("[https://host2:8421]"))).isEqualTo(1);
+        assertThat(target.getHintedServerIndex(createExceptionWithHint("host1:8421"))).isEqualTo(0);
+        assertThat(target.getHintedServerIndex(createExceptionWithHint("host1:8422"))).isEqualTo(-1);
+        assertThat(target.getHintedServerIndex(createExceptionWithHint("not a :host"))).isEqualTo(-1);
+    }
+
+    @Test
+    public void parsesAddressesFromUrls() {
+        assertThat(FailoverFeignTarget.parseAddress("https://host:8421/api"))
+                .contains(HostAndPort.fromParts("host", 8421));
+        assertThat(FailoverFeignTarget.parseAddress("http://host/api")).contains(HostAndPort.fromHost("host"));
+    }
+
+    private static RetryableException createExceptionWithHint(String hint) {
+        return new RetryableExceptionWithServiceHint("foo", null, Date.valueOf(LocalDate.MAX), hint);
+    }
+
     private void simulateRequest(FailoverFeignTarget target) {
         // This method is called as a part of a request being invoked.
         // We need to update the mostRecentServerIndex, for the FailoverFeignTarget to track failures properly.
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.HttpHeaders;
+import com.palantir.common.remoting.AtlasDbMediaTypes;
+import com.palantir.lock.LockRefreshToken;
+import com.palantir.timestamp.TimestampRange;
+
+import feign.RequestTemplate;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+
+public class SmileDelegateDecoderTest {
+    private static final int HTTP_OK = 200;
+    private static final String REASON = "reason";
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final Decoder delegate = mock(Decoder.class);
+    private final SmileDelegateDecoder decoder = new SmileDelegateDecoder(delegate, smileMapper);
+    private final SmileDelegateEncoder encoder = new SmileDelegateEncoder(mock(Encoder.class), smileMapper);
+
+    @Test
+    public void decodesWhatTheEncoderEncodes() throws IOException {
+        LockRefreshToken token = new LockRefreshToken(BigInteger.valueOf(42L), 1234L);
+        assertThat(roundTrip(token, LockRefreshToken.class)).isEqualTo(token);
+
+        TimestampRange range = TimestampRange.createInclusiveRange(10L, 20L);
+        TimestampRange decodedRange = (TimestampRange) roundTrip(range, TimestampRange.class);
+        assertThat(decodedRange.getLowerBound()).isEqualTo(10L);
+        assertThat(decodedRange.getUpperBound()).isEqualTo(20L);
+    }
+
+    @Test
+    public void delegatesJsonContent() throws IOException {
+        Response response = createResponse(MediaType.APPLICATION_JSON, new byte[0]);
+        decoder.decode(response, mock(Type.class));
+        verify(delegate).decode(any(), any());
+    }
+
+    @Test
+    public void delegatesEncodingOfJsonContent() {
+        Encoder jsonEncoder = mock(Encoder.class);
+        RequestTemplate template = new RequestTemplate().header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+        new SmileDelegateEncoder(jsonEncoder, smileMapper).encode("foo", String.class, template);
+        verify(jsonEncoder).encode("foo", String.class, template);
+    }
+
+    private Object roundTrip(Object object, Type type) throws IOException {
+        RequestTemplate template = new RequestTemplate()
+                .header(HttpHeaders.CONTENT_TYPE, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE);
+        encoder.encode(object, type, template);
+        return decoder.decode(createResponse(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE, template.body()), type);
+    }
+
+    private static Response createResponse(String contentType, byte[] body) {
+        return Response.create(HTTP_OK, REASON,
+                ImmutableMap.of(HttpHeaders.CONTENT_TYPE, ImmutableList.of(contentType)), body);
+    }
+}
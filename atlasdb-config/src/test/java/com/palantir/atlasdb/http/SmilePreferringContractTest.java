@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+import com.google.common.net.HttpHeaders;
+import com.palantir.common.remoting.AtlasDbMediaTypes;
+import com.palantir.leader.PingableLeader;
+import com.palantir.lock.RemoteLockService;
+import com.palantir.timestamp.TimestampService;
+
+import feign.MethodMetadata;
+import feign.jaxrs.JAXRSContract;
+
+public class SmilePreferringContractTest {
+    private final SmilePreferringContract contract = new SmilePreferringContract(new JAXRSContract());
+
+    @Test
+    public void asksForSmileFromMethodsThatProduceIt() {
+        Map<String, Collection<String>> headers =
+                headersByMethod(TimestampService.class).get("TimestampService#getFreshTimestamps(int)");
+        assertThat(headers.get(HttpHeaders.ACCEPT)).hasSize(1);
+        assertThat(headers.get(HttpHeaders.ACCEPT).iterator().next())
+                .startsWith(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE)
+                .contains(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    public void sendsSmileToMethodsThatConsumeIt() {
+        Map<String, Collection<String>> headers =
+                headersByMethod(RemoteLockService.class).get("RemoteLockService#lock(String,LockRequest)");
+        assertThat(headers.get(HttpHeaders.CONTENT_TYPE)).containsExactly(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE);
+    }
+
+    @Test
+    public void leavesJsonOnlyMethodsAlone() {
+        Map<String, Map<String, Collection<String>>> smileHeaders = headersByMethod(PingableLeader.class);
+        Map<String, Map<String, Collection<String>>> jsonHeaders = Maps.transformValues(
+                Maps.uniqueIndex(new JAXRSContract().parseAndValidatateMetadata(PingableLeader.class),
+                        MethodMetadata::configKey),
+                data -> data.template().headers());
+        assertThat(smileHeaders).isEqualTo(jsonHeaders);
+    }
+
+    private Map<String, Map<String, Collection<String>>> headersByMethod(Class<?> type) {
+        List<MethodMetadata> metadata = contract.parseAndValidatateMetadata(type);
+        return Maps.transformValues(
+                Maps.uniqueIndex(metadata, MethodMetadata::configKey),
+                data -> data.template().headers());
+    }
+}
@@ -76,6 +76,8 @@ public class TransactionManagerModule {
                 .setBackgroundScrubFrequencyMillis(atlasDbConfig.getBackgroundScrubFrequencyMillis())
                 .setBackgroundScrubThreads(atlasDbConfig.getBackgroundScrubThreads())
                 .setPunchIntervalMillis(atlasDbConfig.getPunchIntervalMillis())
+                .setEnablePunchTimestampIndex(atlasDbConfig.enablePunchTimestampIndex())
+                .setEnableTimestampBucketedScrubQueue(atlasDbConfig.enableTimestampBucketedScrubQueue())
                 .setTransactionReadTimeout(atlasDbConfig.getTransactionReadTimeoutMillis())
                 .buildCleaner();
     }
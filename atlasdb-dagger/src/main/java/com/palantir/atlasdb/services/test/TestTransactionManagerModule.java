@@ -77,6 +77,8 @@ public class TestTransactionManagerModule {
                 .setBackgroundScrubFrequencyMillis(atlasDbConfig.getBackgroundScrubFrequencyMillis())
                 .setBackgroundScrubThreads(atlasDbConfig.getBackgroundScrubThreads())
                 .setPunchIntervalMillis(atlasDbConfig.getPunchIntervalMillis())
+                .setEnablePunchTimestampIndex(atlasDbConfig.enablePunchTimestampIndex())
+                .setEnableTimestampBucketedScrubQueue(atlasDbConfig.enableTimestampBucketedScrubQueue())
                 .setTransactionReadTimeout(atlasDbConfig.getTransactionReadTimeoutMillis())
                 .buildCleaner();
     }
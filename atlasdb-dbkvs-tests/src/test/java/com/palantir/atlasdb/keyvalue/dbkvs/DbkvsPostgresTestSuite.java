@@ -39,6 +39,7 @@ import com.palantir.nexus.db.pool.config.ImmutablePostgresConnectionConfig;
 @RunWith(Suite.class)
 @SuiteClasses({
         DbkvsPostgresKeyValueServiceTest.class,
+        DbkvsPostgresStreamingRangeScanKeyValueServiceTest.class,
         DbkvsPostgresSerializableTransactionTest.class,
         DbkvsPostgresSweepTaskRunnerTest.class,
         DbkvsBackgroundSweeperIntegrationTest.class,
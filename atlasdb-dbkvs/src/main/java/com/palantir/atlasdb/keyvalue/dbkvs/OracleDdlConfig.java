@@ -54,6 +54,14 @@ public abstract class OracleDdlConfig extends DdlConfig {
 
     public abstract OverflowMigrationState overflowMigrationState();
 
+    /**
+     * The total size of the recently read overflow values to keep in memory. Zero, the default, disables caching.
+     */
+    @Value.Default
+    public long overflowValueCacheSizeBytes() {
+        return 0L;
+    }
+
     @Value.Default
     public boolean enableOracleEnterpriseFeatures() {
         return false;
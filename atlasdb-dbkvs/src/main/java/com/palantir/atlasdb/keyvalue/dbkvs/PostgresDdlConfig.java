@@ -36,6 +36,15 @@ public abstract class PostgresDdlConfig extends DdlConfig {
         return AtlasDbConstants.DEFAULT_METADATA_TABLE;
     }
 
+    /**
+     * If true, each range scan runs its queries on a single connection, which it keeps between batches, so that
+     * the query is only prepared once per scan rather than once for every page.
+     */
+    @Value.Default
+    public boolean streamRangeScans() {
+        return false;
+    }
+
     @Override
     public final String type() {
         return TYPE;
@@ -38,7 +38,7 @@ public abstract class AbstractDbWriteTable implements DbWriteTable {
     protected final DdlConfig config;
     protected final ConnectionSupplier conns;
     protected final TableReference tableRef;
-    private final PrefixedTableNames prefixedTableNames;
+    protected final PrefixedTableNames prefixedTableNames;
 
     protected AbstractDbWriteTable(
             DdlConfig config,
@@ -73,7 +73,11 @@ public abstract class AbstractDbWriteTable implements DbWriteTable {
         put(args);
     }
 
-    private void put(List<Object[]> args) {
+    /**
+     * Inserts rows of (row_name, col_name, ts, val), throwing {@link KeyAlreadyExistsException} if any of them
+     * already exists.
+     */
+    protected void put(List<Object[]> args) {
         try {
             String prefixedTableName = prefixedTableNames.get(tableRef, conns);
             conns.get().insertManyUnregisteredQuery("/* INSERT_ONE (" + prefixedTableName + ") */"
@@ -35,8 +35,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -48,6 +46,7 @@ import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Preconditions;
@@ -108,11 +107,12 @@ import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
 import com.palantir.atlasdb.keyvalue.impl.GetCandidateCellsForSweepingShim;
 import com.palantir.atlasdb.keyvalue.impl.LocalRowColumnRangeIterator;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
 import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
 import com.palantir.common.base.Throwables;
-import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.BoundedExecutorService;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.exception.PalantirSqlException;
 import com.palantir.nexus.db.sql.AgnosticLightResultRow;
@@ -126,6 +126,7 @@ import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 public final class DbKvs extends AbstractKeyValueService {
     private static final Logger log = LoggerFactory.getLogger(DbKvs.class);
+    private static final int MAX_QUEUED_READS_PER_THREAD = 4;
 
     public static final String ROW = "row_name";
     public static final String COL = "col_name";
@@ -184,9 +185,10 @@ public final class DbKvs extends AbstractKeyValueService {
                 config,
                 tableFactory,
                 connections,
-                new ParallelTaskRunner(newFixedThreadPool(config.poolSize()), config.fetchBatchSize()),
+                new ParallelTaskRunner(newReaderThreadPool(config.poolSize()), config.fetchBatchSize()),
                 (conns, tbl, ids) -> Collections.emptyMap(), // no overflow on postgres
-                new PostgresGetRange(prefixedTableNames, connections, tableMetadataCache));
+                new PostgresGetRange(
+                        prefixedTableNames, connections, tableMetadataCache, config.streamRangeScans()));
     }
 
     private static DbKvs createOracle(ExecutorService executor,
@@ -195,7 +197,8 @@ public final class DbKvs extends AbstractKeyValueService {
         OracleTableNameGetter tableNameGetter = new OracleTableNameGetter(oracleDdlConfig);
         OraclePrefixedTableNames prefixedTableNames = new OraclePrefixedTableNames(tableNameGetter);
         TableValueStyleCache valueStyleCache = new TableValueStyleCache();
-        OverflowValueLoader overflowValueLoader = new OracleOverflowValueLoader(oracleDdlConfig, tableNameGetter);
+        OracleOverflowValueLoader overflowValueLoader = new OracleOverflowValueLoader(
+                oracleDdlConfig, tableNameGetter, connections, newReaderThreadPool(oracleDdlConfig.poolSize()));
         DbKvsGetRange getRange = new OracleGetRange(
                 connections, overflowValueLoader, tableNameGetter, valueStyleCache, oracleDdlConfig);
         return new DbKvs(
@@ -224,14 +227,11 @@ public final class DbKvs extends AbstractKeyValueService {
         this.getRangeStrategy = getRangeStrategy;
     }
 
-    private static ThreadPoolExecutor newFixedThreadPool(int maxPoolSize) {
-        ThreadPoolExecutor pool = PTExecutors.newThreadPoolExecutor(maxPoolSize, maxPoolSize,
-                15L, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(),
-                new NamedThreadFactory("Atlas DbKvs reader", true /* daemon */));
-
-        pool.allowCoreThreadTimeOut(false);
-        return pool;
+    // Once this many batches per thread are queued, readers load their own batches rather than queue more.
+    private static ExecutorService newReaderThreadPool(int maxPoolSize) {
+        return PTExecutors.newBoundedWorkStealingPool("Atlas DbKvs reader", maxPoolSize,
+                maxPoolSize * MAX_QUEUED_READS_PER_THREAD, BoundedExecutorService.OverloadPolicy.CALLER_RUNS,
+                AtlasDbMetrics.instrumentExecutor(MetricRegistry.name(DbKvs.class, "reader")));
     }
 
     private void init() {
@@ -266,6 +266,7 @@ public final class DbKvs extends AbstractKeyValueService {
         dbTables.close();
         connections.close();
         batchingQueryRunner.close();
+        overflowValueLoader.close();
     }
 
     @Override
@@ -556,7 +557,7 @@ public final class DbKvs extends AbstractKeyValueService {
             TableReference tableRef,
             RangeRequest rangeRequest,
             long timestamp) {
-        return ClosableIterators.wrap(getRangeStrategy.getRange(tableRef, rangeRequest, timestamp));
+        return getRangeStrategy.getRange(tableRef, rangeRequest, timestamp);
     }
 
     public void setMaxRangeOfTimestampsBatchSize(long newValue) {
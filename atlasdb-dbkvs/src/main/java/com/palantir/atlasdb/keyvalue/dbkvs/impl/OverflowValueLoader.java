@@ -24,4 +24,8 @@ public interface OverflowValueLoader {
     Map<Long, byte[]> loadOverflowValues(ConnectionSupplier conns,
                                          TableReference tableRef,
                                          Collection<Long> overflowIds);
+
+    default void close() {
+        // nothing to do
+    }
 }
@@ -21,14 +21,19 @@ import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresDdlTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresPrefixedTableNames;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresQueryFactory;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresTableInitializer;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresVersionCheck;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresWriteTable;
 import com.palantir.nexus.db.DBType;
+import com.palantir.nexus.db.sql.AgnosticResultSet;
 
 public class PostgresDbTableFactory implements DbTableFactory {
 
     private final PostgresDdlConfig config;
     private final PostgresPrefixedTableNames prefixedTableNames;
 
+    // whether the server supports INSERT ... ON CONFLICT, read from the first connection that needs it
+    private volatile Boolean supportsOnConflict;
+
     public PostgresDbTableFactory(PostgresDdlConfig config,
                                   PostgresPrefixedTableNames prefixedTableNames) {
         this.config = config;
@@ -59,7 +64,16 @@ public class PostgresDbTableFactory implements DbTableFactory {
 
     @Override
     public DbWriteTable createWrite(TableReference tableRef, ConnectionSupplier conns) {
-        return new PostgresWriteTable(config, conns, tableRef, prefixedTableNames);
+        return new PostgresWriteTable(config, conns, tableRef, prefixedTableNames, () -> supportsOnConflict(conns));
+    }
+
+    private boolean supportsOnConflict(ConnectionSupplier conns) {
+        if (supportsOnConflict == null) {
+            AgnosticResultSet result = conns.get().selectResultSetUnregisteredQuery("SHOW server_version_num");
+            int serverVersionNum = Integer.parseInt(result.get(0).getString("server_version_num"));
+            supportsOnConflict = PostgresVersionCheck.supportsOnConflict(serverVersionNum);
+        }
+        return supportsOnConflict;
     }
 
     @Override
@@ -17,12 +17,14 @@ package com.palantir.atlasdb.keyvalue.dbkvs.impl.oracle;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
@@ -40,7 +42,6 @@ import com.palantir.atlasdb.keyvalue.dbkvs.OracleDdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.OracleTableNameGetter;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.FullQuery;
-import com.palantir.atlasdb.keyvalue.dbkvs.impl.OverflowValueLoader;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.SqlConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.TableValueStyle;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.TableValueStyleCache;
@@ -48,6 +49,7 @@ import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.DbKvsGetRange;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangeBoundPredicates;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangeHelpers;
 import com.palantir.atlasdb.keyvalue.impl.TableMappingNotFoundException;
+import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
 import com.palantir.nexus.db.sql.AgnosticLightResultRow;
@@ -128,13 +130,13 @@ import com.palantir.nexus.db.sql.AgnosticLightResultSet;
  */
 public class OracleGetRange implements DbKvsGetRange {
     private final SqlConnectionSupplier connectionPool;
-    private final OverflowValueLoader overflowValueLoader;
+    private final OracleOverflowValueLoader overflowValueLoader;
     private final OracleTableNameGetter tableNameGetter;
     private final TableValueStyleCache valueStyleCache;
     private final OracleDdlConfig config;
 
     public OracleGetRange(SqlConnectionSupplier connectionPool,
-                          OverflowValueLoader overflowValueLoader,
+                          OracleOverflowValueLoader overflowValueLoader,
                           OracleTableNameGetter tableNameGetter,
                           TableValueStyleCache valueStyleCache,
                           OracleDdlConfig config) {
@@ -146,9 +148,11 @@ public class OracleGetRange implements DbKvsGetRange {
     }
 
     @Override
-    public Iterator<RowResult<Value>> getRange(TableReference tableRef, RangeRequest rangeRequest, long timestamp) {
+    public ClosableIterator<RowResult<Value>> getRange(TableReference tableRef,
+                                                       RangeRequest rangeRequest,
+                                                       long timestamp) {
         boolean haveOverflow = checkIfTableHasOverflowUsingNewConnection(tableRef);
-        return Iterators.concat(new PageIterator(
+        return ClosableIterators.wrap(Iterators.concat(new PageIterator(
                 rangeRequest.getStartInclusive(),
                 rangeRequest.getEndExclusive(),
                 rangeRequest.getColumnNames(),
@@ -156,7 +160,7 @@ public class OracleGetRange implements DbKvsGetRange {
                 tableRef,
                 haveOverflow,
                 RangeHelpers.getMaxRowsPerPage(rangeRequest),
-                timestamp));
+                timestamp)));
     }
 
     private boolean checkIfTableHasOverflowUsingNewConnection(TableReference tableRef) {
@@ -194,31 +198,43 @@ public class OracleGetRange implements DbKvsGetRange {
             if (endOfResults) {
                 return endOfData();
             } else {
+                List<Future<Map<Long, byte[]>>> overflowValueFutures = new ArrayList<>();
+                List<RawSqlRow> sqlRows;
+                Map<Long, byte[]> overflowValues;
                 try (ConnectionSupplier conns = new ConnectionSupplier(connectionPool)) {
-                    List<RawSqlRow> sqlRows = loadSqlRows(conns);
-                    Map<Long, byte[]> overflowValues = overflowValueLoader.loadOverflowValues(
-                            conns,
-                            tableRef,
-                            sqlRows.stream()
-                                    .map(r -> r.overflowId)
-                                    .filter(Objects::nonNull)
-                                    .collect(Collectors.toList()));
-                    List<RowResult<Value>> rowResults = createRowResults(sqlRows, overflowValues, maxRowsPerPage);
-                    if (rowResults.isEmpty()) {
-                        endOfResults = true;
-                    } else {
-                        byte[] lastRowName = rowResults.get(rowResults.size() - 1).getRowName();
-                        startInclusive = RangeRequests.getNextStartRowUnlessTerminal(reverse, lastRowName);
-                        endOfResults = (rowResults.size() < maxRowsPerPage) || startInclusive == null;
-                    }
-                    return rowResults.iterator();
+                    List<Long> overflowIdsToLoad = new ArrayList<>();
+                    sqlRows = loadSqlRows(conns, overflowIdsToLoad, overflowValueFutures);
+                    overflowValues = new HashMap<>(
+                            overflowValueLoader.loadOverflowValues(conns, tableRef, overflowIdsToLoad));
+                }
+                // Only wait for the values loaded on other connections once this page's connection has been
+                // released: those loads may themselves be waiting for a connection to become available.
+                for (Future<Map<Long, byte[]>> future : overflowValueFutures) {
+                    overflowValues.putAll(getFutureUnchecked(future));
                 }
+                List<RowResult<Value>> rowResults = createRowResults(sqlRows, overflowValues, maxRowsPerPage);
+                if (rowResults.isEmpty()) {
+                    endOfResults = true;
+                } else {
+                    byte[] lastRowName = rowResults.get(rowResults.size() - 1).getRowName();
+                    startInclusive = RangeRequests.getNextStartRowUnlessTerminal(reverse, lastRowName);
+                    endOfResults = (rowResults.size() < maxRowsPerPage) || startInclusive == null;
+                }
+                return rowResults.iterator();
             }
         }
 
+        /**
+         * Reads the next page, starting to load the overflow values for each full batch of overflow ids as soon as
+         * it has been read, so that they are fetched while the rest of the page is still being read. Overflow ids
+         * which are not being loaded asynchronously are left in {@code overflowIdsToLoad}.
+         */
         @SuppressWarnings("deprecation")
-        private List<RawSqlRow> loadSqlRows(ConnectionSupplier conns) {
+        private List<RawSqlRow> loadSqlRows(ConnectionSupplier conns,
+                                            @Output List<Long> overflowIdsToLoad,
+                                            @Output List<Future<Map<Long, byte[]>>> overflowValueFutures) {
             List<RawSqlRow> sqlRows = new ArrayList<>();
+            List<Long> pendingOverflowIds = new ArrayList<>();
             try (ClosableIterator<AgnosticLightResultRow> rangeResults = selectNextPage(conns)) {
                 while (rangeResults.hasNext()) {
                     AgnosticLightResultRow row = rangeResults.next();
@@ -227,8 +243,22 @@ public class OracleGetRange implements DbKvsGetRange {
                     byte[] val = row.getBytes("val");
                     Long overflowId = haveOverflowValues ? row.getLongObject("overflow") : null;
                     sqlRows.add(new RawSqlRow(cell, ts, val, overflowId));
+                    if (overflowId != null) {
+                        pendingOverflowIds.add(overflowId);
+                        if (pendingOverflowIds.size() >= config.fetchBatchSize()) {
+                            Optional<Future<Map<Long, byte[]>>> future =
+                                    overflowValueLoader.loadOverflowValuesAsync(tableRef, pendingOverflowIds);
+                            if (future.isPresent()) {
+                                overflowValueFutures.add(future.get());
+                            } else {
+                                overflowIdsToLoad.addAll(pendingOverflowIds);
+                            }
+                            pendingOverflowIds = new ArrayList<>();
+                        }
+                    }
                 }
             }
+            overflowIdsToLoad.addAll(pendingOverflowIds);
             return sqlRows;
         }
 
@@ -298,6 +328,17 @@ public class OracleGetRange implements DbKvsGetRange {
         return rowResults;
     }
 
+    private static <T> T getFutureUnchecked(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
     private static byte[] getValue(RawSqlRow sqlRow, Map<Long, byte[]> overflowValues) {
         if (sqlRow.overflowId != null) {
             return Preconditions.checkNotNull(overflowValues.get(sqlRow.overflowId),
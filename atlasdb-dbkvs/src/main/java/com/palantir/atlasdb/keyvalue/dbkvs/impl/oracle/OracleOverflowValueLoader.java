@@ -19,9 +19,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
@@ -31,22 +39,47 @@ import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.FullQuery;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.OverflowMigrationState;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.OverflowValueLoader;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.SqlConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.impl.TableMappingNotFoundException;
+import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
 import com.palantir.db.oracle.JdbcHandler.ArrayHandler;
 import com.palantir.nexus.db.sql.AgnosticLightResultRow;
 import com.palantir.nexus.db.sql.AgnosticLightResultSet;
 
+/**
+ * Loads overflow values in batches of at most {@link OracleDdlConfig#fetchBatchSize()} ids. Synchronous loads run
+ * on the caller's connection, and {@link #loadOverflowValuesAsync} lets a reader start loading the values for part
+ * of a page on another connection before it has read the rest. Recently read values are cached, up to
+ * {@link OracleDdlConfig#overflowValueCacheSizeBytes()}; this is safe because an overflow id is never reused for a
+ * different value.
+ * <p>
+ * Asynchronous loads hold at most {@link OracleDdlConfig#poolSize()} - 1 connections between them, so that they can
+ * never take every connection of the pool away from the readers waiting for them.
+ */
 public class OracleOverflowValueLoader implements OverflowValueLoader {
 
     private final OracleDdlConfig config;
     private final OracleTableNameGetter tableNameGetter;
+    private final SqlConnectionSupplier connectionPool;
+    private final ExecutorService executor;
+    private final Semaphore asyncConnectionBudget;
+    private final Cache<Long, byte[]> recentlyLoadedValues;
 
     public OracleOverflowValueLoader(OracleDdlConfig config,
-                                     OracleTableNameGetter tableNameGetter) {
+                                     OracleTableNameGetter tableNameGetter,
+                                     SqlConnectionSupplier connectionPool,
+                                     ExecutorService executor) {
         this.config = config;
         this.tableNameGetter = tableNameGetter;
+        this.connectionPool = connectionPool;
+        this.executor = executor;
+        this.asyncConnectionBudget = new Semaphore(Math.max(config.poolSize() - 1, 0));
+        this.recentlyLoadedValues = CacheBuilder.newBuilder()
+                .maximumWeight(config.overflowValueCacheSizeBytes())
+                .weigher((Long id, byte[] value) -> value.length)
+                .build();
     }
 
     @Override
@@ -57,22 +90,98 @@ public class OracleOverflowValueLoader implements OverflowValueLoader {
             return Collections.emptyMap();
         } else {
             Map<Long, byte[]> ret = Maps.newHashMapWithExpectedSize(overflowIds.size());
-            for (FullQuery query : getOverflowQueries(conns, tableRef, overflowIds)) {
-                try (ClosableIterator<AgnosticLightResultRow> overflowIter = select(conns, query)) {
-                    while (overflowIter.hasNext()) {
-                        AgnosticLightResultRow row = overflowIter.next();
-                        // QA-94468 LONG RAW typed columns ("val" in this case) must be retrieved first from the result
-                        // set. See https://docs.oracle.com/cd/B19306_01/java.102/b14355/jstreams.htm#i1007581
-                        byte[] val = row.getBytes("val");
-                        long id = row.getLong("id");
-                        ret.put(id, val);
-                    }
-                }
+            List<Long> idsToLoad = getCachedValues(overflowIds, ret);
+            // The caller is holding a connection, so borrowing more here and waiting for them could exhaust the pool.
+            for (List<Long> batch : Iterables.partition(idsToLoad, config.fetchBatchSize())) {
+                ret.putAll(loadUncachedValues(conns, tableRef, batch));
             }
             return ret;
         }
     }
 
+    /**
+     * Starts loading the given overflow values on a connection of their own, so that they can be read while the
+     * caller carries on with its own connection. The ids should fit in a single batch.
+     * <p>
+     * The caller must release its own connection before waiting for the result, as the load may have to wait for a
+     * connection to become available.
+     *
+     * @return the values being loaded, or empty if asynchronous loads already hold as many connections as they may,
+     * in which case the caller should load the values itself
+     */
+    public Optional<Future<Map<Long, byte[]>>> loadOverflowValuesAsync(TableReference tableRef,
+                                                                       Collection<Long> overflowIds) {
+        if (!asyncConnectionBudget.tryAcquire()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(executor.submit(() -> {
+                try {
+                    Map<Long, byte[]> ret = Maps.newHashMapWithExpectedSize(overflowIds.size());
+                    List<Long> idsToLoad = getCachedValues(overflowIds, ret);
+                    ret.putAll(loadUncachedValuesUsingNewConnection(tableRef, idsToLoad));
+                    return ret;
+                } finally {
+                    asyncConnectionBudget.release();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            asyncConnectionBudget.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private List<Long> getCachedValues(Collection<Long> overflowIds, @Output Map<Long, byte[]> values) {
+        List<Long> uncachedIds = Lists.newArrayListWithCapacity(overflowIds.size());
+        for (Long overflowId : overflowIds) {
+            byte[] value = recentlyLoadedValues.getIfPresent(overflowId);
+            if (value != null) {
+                values.put(overflowId, value);
+            } else {
+                uncachedIds.add(overflowId);
+            }
+        }
+        return uncachedIds;
+    }
+
+    private Map<Long, byte[]> loadUncachedValuesUsingNewConnection(TableReference tableRef,
+                                                                   Collection<Long> overflowIds) {
+        if (overflowIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try (ConnectionSupplier conns = new ConnectionSupplier(connectionPool)) {
+            return loadUncachedValues(conns, tableRef, overflowIds);
+        }
+    }
+
+    private Map<Long, byte[]> loadUncachedValues(ConnectionSupplier conns,
+                                                 TableReference tableRef,
+                                                 Collection<Long> overflowIds) {
+        if (overflowIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, byte[]> ret = Maps.newHashMapWithExpectedSize(overflowIds.size());
+        for (FullQuery query : getOverflowQueries(conns, tableRef, overflowIds)) {
+            try (ClosableIterator<AgnosticLightResultRow> overflowIter = select(conns, query)) {
+                while (overflowIter.hasNext()) {
+                    AgnosticLightResultRow row = overflowIter.next();
+                    // QA-94468 LONG RAW typed columns ("val" in this case) must be retrieved first from the result
+                    // set. See https://docs.oracle.com/cd/B19306_01/java.102/b14355/jstreams.htm#i1007581
+                    byte[] val = row.getBytes("val");
+                    long id = row.getLong("id");
+                    ret.put(id, val);
+                }
+            }
+        }
+        recentlyLoadedValues.putAll(ret);
+        return ret;
+    }
+
     private ClosableIterator<AgnosticLightResultRow> select(ConnectionSupplier conns, FullQuery query) {
         AgnosticLightResultSet results = conns.get().selectLightResultSetUnregisteredQuery(
                 query.getQuery(), query.getArgs());
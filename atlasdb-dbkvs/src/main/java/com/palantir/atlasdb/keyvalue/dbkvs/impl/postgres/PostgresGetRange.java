@@ -17,17 +17,24 @@ package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
 import com.palantir.atlasdb.AtlasDbPerformanceConstants;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
@@ -45,6 +52,8 @@ import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.nexus.db.sql.AgnosticLightResultRow;
 import com.palantir.nexus.db.sql.AgnosticLightResultSet;
 
@@ -121,27 +130,45 @@ import com.palantir.nexus.db.sql.AgnosticLightResultSet;
  *
  */
 public class PostgresGetRange implements DbKvsGetRange {
+    private static final long IDLE_CONNECTION_TIMEOUT_MILLIS = 5_000;
+    private static final ScheduledExecutorService IDLE_CONNECTION_RELEASER =
+            PTExecutors.newSingleThreadScheduledExecutor(
+                    new NamedThreadFactory("Atlas Postgres range scan connection releaser", true));
+
     private final PostgresPrefixedTableNames prefixedTableNames;
     private final SqlConnectionSupplier connectionPool;
     private final TableMetadataCache tableMetadataCache;
+    private final boolean streamRangeScans;
 
     public PostgresGetRange(PostgresPrefixedTableNames prefixedTableNames,
                             SqlConnectionSupplier connectionPool,
                             TableMetadataCache tableMetadataCache) {
+        this(prefixedTableNames, connectionPool, tableMetadataCache, false);
+    }
+
+    public PostgresGetRange(PostgresPrefixedTableNames prefixedTableNames,
+                            SqlConnectionSupplier connectionPool,
+                            TableMetadataCache tableMetadataCache,
+                            boolean streamRangeScans) {
         this.prefixedTableNames = prefixedTableNames;
         this.connectionPool = connectionPool;
         this.tableMetadataCache = tableMetadataCache;
+        this.streamRangeScans = streamRangeScans;
     }
 
     @Override
-    public Iterator<RowResult<Value>> getRange(TableReference tableRef,
-                                               RangeRequest rangeRequest,
-                                               long timestamp) {
+    public ClosableIterator<RowResult<Value>> getRange(TableReference tableRef,
+                                                       RangeRequest rangeRequest,
+                                                       long timestamp) {
         int maxRowsPerPage = RangeHelpers.getMaxRowsPerPage(rangeRequest);
         int cellsPerRowEstimate = getCellsPerRowEstimate(tableRef, rangeRequest);
         int maxCellsPerPage = Math.min(
                 AtlasDbPerformanceConstants.MAX_BATCH_SIZE, maxRowsPerPage * cellsPerRowEstimate) + 1;
         String tableName = DbKvs.internalTableName(tableRef);
+        if (streamRangeScans) {
+            return new StreamingRowIterator(
+                    rangeRequest, timestamp, maxCellsPerPage, tableName, prefixedTableNames.get(tableRef));
+        }
         Iterator<Iterator<RowResult<Value>>> pageIterator = new PageIterator(
                 rangeRequest.getStartInclusive(),
                 rangeRequest.getEndExclusive(),
@@ -152,7 +179,7 @@ public class PostgresGetRange implements DbKvsGetRange {
                 maxCellsPerPage,
                 tableName,
                 prefixedTableNames.get(tableRef));
-        return Iterators.concat(pageIterator);
+        return ClosableIterators.wrap(Iterators.concat(pageIterator));
     }
 
     private int getCellsPerRowEstimate(TableReference tableRef, RangeRequest rangeRequest) {
@@ -278,22 +305,185 @@ public class PostgresGetRange implements DbKvsGetRange {
                     .endRowExclusive(endExclusive)
                     .columnSelection(columnSelection)
                     .build();
-            String direction = reverse ? "DESC" : "ASC";
-            String query = "/* GET_RANGE(" + tableName + ") */"
-                    + "  SELECT wrap.row_name, wrap.col_name, wrap.ts, wrap.val"
-                    + "  FROM " + prefixedTableName + " wrap, ("
-                    + "    SELECT row_name, col_name, MAX(ts) AS ts FROM " + prefixedTableName
-                    + "    WHERE ts < ? " + bounds.predicates
-                    + "    GROUP BY row_name, col_name"
-                    + "    ORDER BY row_name " + direction + ", col_name " + direction
-                    + "    LIMIT " + maxCellsPerPage
-                    + "  ) i"
-                    + "  WHERE wrap.row_name = i.row_name"
-                    + "    AND wrap.col_name = i.col_name"
-                    + "    AND wrap.ts = i.ts"
-                    + "  ORDER BY row_name " + direction + ", col_name " + direction;
-            return new FullQuery(query).withArg(ts).withArgs(bounds.args);
+            return PostgresGetRange.getRangeQuery(
+                    tableName, prefixedTableName, bounds, reverse, ts, "    LIMIT " + maxCellsPerPage);
         }
     }
 
+    /**
+     * Reads the range in fetches of at most {@code fetchSize} cells, each a bounded query that starts from the cell
+     * after the last one read, and groups the cells into rows as they are consumed. Every fetch runs the same
+     * statement on the same connection, so the driver reuses its prepared statement rather than preparing and
+     * planning it again. No transaction is left open between fetches, and the connection goes back to the pool
+     * once the iterator is exhausted or closed, or after it has gone {@link #IDLE_CONNECTION_TIMEOUT_MILLIS}
+     * without a fetch, so an iterator that is dropped without being closed does not keep it.
+     */
+    private class StreamingRowIterator extends AbstractIterator<RowResult<Value>>
+            implements ClosableIterator<RowResult<Value>> {
+        private final ConnectionSupplier conns = new ConnectionSupplier(connectionPool);
+        private final byte[] endExclusive;
+        private final Set<byte[]> columnSelection;
+        private final boolean reverse;
+        private final long ts;
+        private final int fetchSize;
+        private final String tableName;
+        private final String prefixedTableName;
+
+        private byte[] nextStartRowName;
+        private byte[] nextStartColumnName = PtBytes.EMPTY_BYTE_ARRAY;
+        private boolean lastFetch = false;
+        private boolean closed = false;
+        private ScheduledFuture<?> pendingRelease;
+        private Iterator<Map.Entry<Cell, Value>> cells = Collections.emptyIterator();
+
+        private byte[] currentRowName;
+        private ImmutableSortedMap.Builder<byte[], Value> currentRowCells = RangeHelpers.newColumnMap();
+
+        StreamingRowIterator(RangeRequest rangeRequest, long ts, int fetchSize, String tableName,
+                             String prefixedTableName) {
+            this.nextStartRowName = rangeRequest.getStartInclusive();
+            this.endExclusive = rangeRequest.getEndExclusive();
+            this.columnSelection = rangeRequest.getColumnNames();
+            this.reverse = rangeRequest.isReverse();
+            this.ts = ts;
+            this.fetchSize = fetchSize;
+            this.tableName = tableName;
+            this.prefixedTableName = prefixedTableName;
+        }
+
+        @Override
+        protected RowResult<Value> computeNext() {
+            if (closed) {
+                return endOfData();
+            }
+            while (true) {
+                if (!cells.hasNext()) {
+                    if (lastFetch) {
+                        close();
+                        return currentRowName == null ? endOfData() : takeCurrentRow();
+                    }
+                    cells = fetchNextCells();
+                    continue;
+                }
+                Map.Entry<Cell, Value> cell = cells.next();
+                byte[] rowName = cell.getKey().getRowName();
+                RowResult<Value> finishedRow = null;
+                if (currentRowName != null && !Arrays.equals(currentRowName, rowName)) {
+                    finishedRow = takeCurrentRow();
+                }
+                currentRowName = rowName;
+                currentRowCells.put(cell.getKey().getColumnName(), cell.getValue());
+                if (finishedRow != null) {
+                    return finishedRow;
+                }
+            }
+        }
+
+        private RowResult<Value> takeCurrentRow() {
+            RowResult<Value> result = RowResult.create(currentRowName, currentRowCells.build());
+            currentRowName = null;
+            currentRowCells = RangeHelpers.newColumnMap();
+            return result;
+        }
+
+        @SuppressWarnings("deprecation")
+        private synchronized Iterator<Map.Entry<Cell, Value>> fetchNextCells() {
+            cancelPendingRelease();
+            List<Map.Entry<Cell, Value>> fetched = new ArrayList<>(fetchSize);
+            try (ClosableIterator<AgnosticLightResultRow> sqlRows = selectNextCells()) {
+                while (sqlRows.hasNext()) {
+                    AgnosticLightResultRow sqlRow = sqlRows.next();
+                    byte[] rowName = sqlRow.getBytes("row_name");
+                    byte[] colName = Preconditions.checkNotNull(sqlRow.getBytes("col_name"),
+                            "received a null col_name from the database");
+                    fetched.add(Maps.immutableEntry(Cell.create(rowName, colName),
+                            Value.create(sqlRow.getBytes("val"), sqlRow.getLong("ts"))));
+                }
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            if (fetched.size() < fetchSize) {
+                lastFetch = true;
+                close();
+            } else {
+                computeNextStartCell(fetched.get(fetched.size() - 1).getKey());
+                pendingRelease = IDLE_CONNECTION_RELEASER.schedule(
+                        this::releaseConnection, IDLE_CONNECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return fetched.iterator();
+        }
+
+        private ClosableIterator<AgnosticLightResultRow> selectNextCells() {
+            RangeBoundPredicates bounds = RangeBoundPredicates.builder(reverse)
+                    .startCellInclusive(nextStartRowName, nextStartColumnName)
+                    .endRowExclusive(endExclusive)
+                    .columnSelection(columnSelection)
+                    .build();
+            FullQuery query = getRangeQuery(
+                    tableName, prefixedTableName, bounds, reverse, ts, "    LIMIT " + fetchSize);
+            AgnosticLightResultSet rs = conns.get().selectLightResultSetUnregisteredQuery(
+                    query.getQuery(), query.getArgs());
+            return ClosableIterators.wrap(rs.iterator(), rs);
+        }
+
+        private void computeNextStartCell(Cell lastCell) {
+            nextStartRowName = lastCell.getRowName();
+            nextStartColumnName = RangeRequests.getNextStartRowUnlessTerminal(reverse, lastCell.getColumnName());
+            // We need to handle the edge case where the column was lexicographically last
+            if (nextStartColumnName == null) {
+                nextStartRowName = RangeRequests.getNextStartRowUnlessTerminal(reverse, lastCell.getRowName());
+                nextStartColumnName = PtBytes.EMPTY_BYTE_ARRAY;
+                if (nextStartRowName == null) {
+                    lastFetch = true;
+                    close();
+                }
+            }
+        }
+
+        private synchronized void releaseConnection() {
+            pendingRelease = null;
+            conns.close();
+        }
+
+        private void cancelPendingRelease() {
+            if (pendingRelease != null) {
+                pendingRelease.cancel(false);
+                pendingRelease = null;
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            cancelPendingRelease();
+            conns.close();
+        }
+    }
+
+    private static FullQuery getRangeQuery(String tableName,
+                                           String prefixedTableName,
+                                           RangeBoundPredicates bounds,
+                                           boolean reverse,
+                                           long ts,
+                                           String limitClause) {
+        String direction = reverse ? "DESC" : "ASC";
+        String query = "/* GET_RANGE(" + tableName + ") */"
+                + "  SELECT wrap.row_name, wrap.col_name, wrap.ts, wrap.val"
+                + "  FROM " + prefixedTableName + " wrap, ("
+                + "    SELECT row_name, col_name, MAX(ts) AS ts FROM " + prefixedTableName
+                + "    WHERE ts < ? " + bounds.predicates
+                + "    GROUP BY row_name, col_name"
+                + "    ORDER BY row_name " + direction + ", col_name " + direction
+                + limitClause
+                + "  ) i"
+                + "  WHERE wrap.row_name = i.row_name"
+                + "    AND wrap.col_name = i.col_name"
+                + "    AND wrap.ts = i.ts"
+                + "  ORDER BY row_name " + direction + ", col_name " + direction;
+        return new FullQuery(query).withArg(ts).withArgs(bounds.args);
+    }
 }
@@ -21,6 +21,7 @@ import com.palantir.util.VersionStrings;
 
 public final class PostgresVersionCheck {
     private static final String MIN_POSTGRES_VERSION = "9.2";
+    private static final int MIN_VERSION_NUM_WITH_ON_CONFLICT = 90500;
 
     private PostgresVersionCheck() {}
 
@@ -38,4 +39,11 @@ public final class PostgresVersionCheck {
                             + "Please update your Postgres distribution.");
         }
     }
+
+    /**
+     * Whether the server, identified by its {@code server_version_num}, supports {@code INSERT ... ON CONFLICT}.
+     */
+    public static boolean supportsOnConflict(int serverVersionNum) {
+        return serverVersionNum >= MIN_VERSION_NUM_WITH_ON_CONFLICT;
+    }
 }
@@ -15,18 +15,111 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
+import java.util.List;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.dbkvs.DdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.AbstractDbWriteTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.PrefixedTableNames;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.ExceptionCheck;
 
+/**
+ * Writes each batch of cells with a single multi-row INSERT rather than a JDBC batch of single-row INSERTs, so
+ * that a batch costs one statement on the server and is inserted atomically. Sentinels are written with
+ * ON CONFLICT DO NOTHING where the server supports it, instead of retrying on constraint violations.
+ */
 public class PostgresWriteTable extends AbstractDbWriteTable {
+    // Postgres allows at most 32767 bind parameters in a statement, and each row takes four.
+    private static final int MAX_ROWS_PER_INSERT = Short.MAX_VALUE / 4;
+    private static final int SENTINEL_BATCH_SIZE = 1000;
+
+    private final Supplier<Boolean> supportsOnConflict;
+
     public PostgresWriteTable(
             DdlConfig config,
             ConnectionSupplier conns,
             TableReference tableRef,
             PrefixedTableNames prefixedTableNames) {
+        this(config, conns, tableRef, prefixedTableNames, () -> false);
+    }
+
+    public PostgresWriteTable(
+            DdlConfig config,
+            ConnectionSupplier conns,
+            TableReference tableRef,
+            PrefixedTableNames prefixedTableNames,
+            Supplier<Boolean> supportsOnConflict) {
         super(config, conns, tableRef, prefixedTableNames);
+        this.supportsOnConflict = supportsOnConflict;
+    }
+
+    @Override
+    protected void put(List<Object[]> args) {
+        String prefixedTableName = prefixedTableNames.get(tableRef, conns);
+        for (List<Object[]> batch : Lists.partition(args, MAX_ROWS_PER_INSERT)) {
+            try {
+                conns.get().insertOneUnregisteredQuery(
+                        "/* INSERT_MANY (" + prefixedTableName + ") */"
+                                + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val) "
+                                + valuesClause(batch.size()),
+                        flatten(batch));
+            } catch (PalantirSqlException e) {
+                if (ExceptionCheck.isUniqueConstraintViolation(e)) {
+                    throw new KeyAlreadyExistsException("primary key violation", e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void putSentinels(Iterable<Cell> cells) {
+        if (!supportsOnConflict.get()) {
+            super.putSentinels(cells);
+            return;
+        }
+        byte[] value = new byte[0];
+        long ts = Value.INVALID_VALUE_TIMESTAMP;
+        String prefixedTableName = prefixedTableNames.get(tableRef, conns);
+        for (List<Cell> batch : Iterables.partition(Ordering.natural().immutableSortedCopy(cells),
+                SENTINEL_BATCH_SIZE)) {
+            List<Object[]> args = Lists.newArrayListWithCapacity(batch.size());
+            for (Cell cell : batch) {
+                args.add(new Object[] {cell.getRowName(), cell.getColumnName(), ts, value});
+            }
+            conns.get().insertOneUnregisteredQuery(
+                    "/* INSERT_MANY_IF_NOT_EXISTS (" + prefixedTableName + ") */"
+                            + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val) "
+                            + valuesClause(batch.size())
+                            + " ON CONFLICT DO NOTHING",
+                    flatten(args));
+        }
+    }
+
+    private static String valuesClause(int numRows) {
+        StringBuilder values = new StringBuilder(" VALUES ");
+        for (int i = 0; i < numRows; i++) {
+            values.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        return values.toString();
+    }
+
+    private static Object[] flatten(List<Object[]> rows) {
+        Object[] args = new Object[rows.size() * 4];
+        int index = 0;
+        for (Object[] row : rows) {
+            System.arraycopy(row, 0, args, index, 4);
+            index += 4;
+        }
+        return args;
     }
 }
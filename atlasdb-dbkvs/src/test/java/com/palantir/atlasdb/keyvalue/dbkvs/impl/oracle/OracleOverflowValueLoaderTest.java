@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.oracle;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Longs;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.dbkvs.ImmutableOracleDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.OracleDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.OracleTableNameGetter;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.OverflowMigrationState;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.SqlConnectionSupplier;
+import com.palantir.db.oracle.JdbcHandler;
+import com.palantir.db.oracle.JdbcHandler.ArrayHandler;
+import com.palantir.nexus.db.sql.AgnosticLightResultRow;
+import com.palantir.nexus.db.sql.AgnosticLightResultSet;
+import com.palantir.nexus.db.sql.SqlConnection;
+
+public class OracleOverflowValueLoaderTest {
+    private static final TableReference TEST_TABLE = TableReference.createFromFullyQualifiedName("ns.test_table");
+
+    private final JdbcHandler jdbcHandler = mock(JdbcHandler.class);
+    private final SqlConnectionSupplier connectionPool = mock(SqlConnectionSupplier.class);
+    private final ConnectionSupplier callerConnection = mock(ConnectionSupplier.class);
+    private final Map<ArrayHandler, List<Long>> idsByQueryArgument = new ConcurrentHashMap<>();
+
+    private OracleOverflowValueLoader loader;
+
+    @Before
+    public void setup() {
+        when(jdbcHandler.createStructArray(anyString(), anyString(), anyListOf(Object[].class))).thenAnswer(
+                invocation -> {
+                    @SuppressWarnings("unchecked")
+                    List<Object[]> elements = (List<Object[]>) invocation.getArguments()[2];
+                    ArrayHandler arrayHandler = mock(ArrayHandler.class);
+                    idsByQueryArgument.put(arrayHandler, elements.stream()
+                            .map(element -> (Long) element[2])
+                            .collect(Collectors.toList()));
+                    return arrayHandler;
+                });
+        when(connectionPool.get()).thenAnswer(invocation -> createSqlConnection());
+        SqlConnection callerSqlConnection = createSqlConnection();
+        when(callerConnection.get()).thenReturn(callerSqlConnection);
+
+        loader = createLoader(2);
+    }
+
+    @After
+    public void tearDown() {
+        loader.close();
+    }
+
+    @Test
+    public void loadsSmallRequestsOnTheCallersConnection() {
+        assertValuesAreLoaded(loader.loadOverflowValues(callerConnection, TEST_TABLE, ImmutableList.of(1L, 2L)),
+                1L, 2L);
+        verify(callerConnection, times(1)).get();
+        verify(connectionPool, never()).get();
+    }
+
+    @Test
+    public void loadsLargeRequestsInBatchesOnTheCallersConnection() {
+        assertValuesAreLoaded(loader.loadOverflowValues(callerConnection, TEST_TABLE,
+                ImmutableList.of(1L, 2L, 3L, 4L, 5L)), 1L, 2L, 3L, 4L, 5L);
+        assertThat(idsByQueryArgument.size(), is(3));
+        verify(callerConnection, times(3)).get();
+        verify(connectionPool, never()).get();
+    }
+
+    @Test
+    public void doesNotReadCachedValuesAgain() {
+        loader.loadOverflowValues(callerConnection, TEST_TABLE, ImmutableList.of(1L, 2L));
+        assertValuesAreLoaded(loader.loadOverflowValues(callerConnection, TEST_TABLE, ImmutableList.of(2L, 3L)),
+                2L, 3L);
+        assertThat(idsByQueryArgument.size(), is(2));
+        assertThat(idsByQueryArgument.values().stream().anyMatch(ids -> ids.equals(ImmutableList.of(3L))), is(true));
+    }
+
+    @Test
+    public void loadsValuesAsynchronouslyOnAConnectionOfTheirOwn() throws Exception {
+        assertValuesAreLoaded(loader.loadOverflowValuesAsync(TEST_TABLE, ImmutableList.of(1L, 2L)).get().get(),
+                1L, 2L);
+        verify(connectionPool, times(1)).get();
+        verify(callerConnection, never()).get();
+    }
+
+    @Test
+    public void doesNotLoadAsynchronouslyWithoutAConnectionToSpare() {
+        loader.close();
+        loader = createLoader(1);
+        assertThat(loader.loadOverflowValuesAsync(TEST_TABLE, ImmutableList.of(1L, 2L)).isPresent(), is(false));
+        verify(connectionPool, never()).get();
+    }
+
+    private OracleOverflowValueLoader createLoader(int poolSize) {
+        OracleDdlConfig config = ImmutableOracleDdlConfig.builder()
+                .jdbcHandler(jdbcHandler)
+                .overflowMigrationState(OverflowMigrationState.UNSTARTED)
+                .fetchBatchSize(2)
+                .poolSize(poolSize)
+                .overflowValueCacheSizeBytes(1024L)
+                .build();
+        return new OracleOverflowValueLoader(
+                config, mock(OracleTableNameGetter.class), connectionPool, Executors.newFixedThreadPool(2));
+    }
+
+    private SqlConnection createSqlConnection() {
+        SqlConnection sqlConnection = mock(SqlConnection.class);
+        when(sqlConnection.getUnderlyingConnection()).thenReturn(mock(Connection.class));
+        when(sqlConnection.selectLightResultSetUnregisteredQuery(anyString(), anyVararg())).thenAnswer(
+                invocation -> createResultSet(idsByQueryArgument.get(invocation.getArguments()[1])));
+        return sqlConnection;
+    }
+
+    private static AgnosticLightResultSet createResultSet(List<Long> ids) {
+        List<AgnosticLightResultRow> rows = ids.stream().map(id -> {
+            AgnosticLightResultRow row = mock(AgnosticLightResultRow.class);
+            when(row.getBytes("val")).thenReturn(Longs.toByteArray(id));
+            when(row.getLong("id")).thenReturn(id);
+            return row;
+        }).collect(Collectors.toList());
+        AgnosticLightResultSet resultSet = mock(AgnosticLightResultSet.class);
+        when(resultSet.iterator()).thenReturn(rows.iterator());
+        return resultSet;
+    }
+
+    private static void assertValuesAreLoaded(Map<Long, byte[]> values, long... ids) {
+        assertThat(values.size(), is(ids.length));
+        for (long id : ids) {
+            assertArrayEquals(Longs.toByteArray(id), values.get(id));
+        }
+    }
+}
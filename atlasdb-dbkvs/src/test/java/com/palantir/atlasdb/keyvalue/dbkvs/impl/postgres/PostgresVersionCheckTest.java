@@ -15,6 +15,8 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.contains;
 
 import org.junit.Rule;
@@ -70,4 +72,15 @@ public class PostgresVersionCheckTest {
         Mockito.verifyNoMoreInteractions(log);
     }
 
+    @Test
+    public void onConflictIsNotSupportedBefore_9_5() {
+        assertFalse(PostgresVersionCheck.supportsOnConflict(90224));
+        assertFalse(PostgresVersionCheck.supportsOnConflict(90410));
+    }
+
+    @Test
+    public void onConflictIsSupportedFrom_9_5() {
+        assertTrue(PostgresVersionCheck.supportsOnConflict(90502));
+        assertTrue(PostgresVersionCheck.supportsOnConflict(100001));
+    }
 }
@@ -575,7 +575,7 @@ public final class CheckAndSetTable implements
     }
 
     public BatchingVisitableView<CheckAndSetRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, CheckAndSetRowResult>() {
             @Override
             public CheckAndSetRowResult apply(RowResult<byte[]> input) {
@@ -29,6 +29,9 @@ import com.palantir.lock.RemoteLockService;
 import com.palantir.timestamp.TimestampService;
 
 public class DefaultCleanerBuilder {
+    // about a week of punches at the default punch interval
+    private static final int MAX_PUNCHES_IN_MEMORY = 10_000;
+
     private final KeyValueService keyValueService;
     private final RemoteLockService lockService;
     private final TimestampService timestampService;
@@ -43,6 +46,9 @@ public class DefaultCleanerBuilder {
     private int backgroundScrubReadThreads = AtlasDbConstants.DEFAULT_BACKGROUND_SCRUB_READ_THREADS;
     private long backgroundScrubFrequencyMillis = AtlasDbConstants.DEFAULT_BACKGROUND_SCRUB_FREQUENCY_MILLIS;
     private int backgroundScrubBatchSize = AtlasDbConstants.DEFAULT_BACKGROUND_SCRUB_BATCH_SIZE;
+    private boolean enablePunchTimestampIndex = AtlasDbConstants.DEFAULT_ENABLE_PUNCH_TIMESTAMP_INDEX;
+    private boolean enableTimestampBucketedScrubQueue =
+            AtlasDbConstants.DEFAULT_ENABLE_TIMESTAMP_BUCKETED_SCRUB_QUEUE;
 
     public DefaultCleanerBuilder(KeyValueService keyValueService,
                                  RemoteLockService lockService,
@@ -93,14 +99,26 @@ public class DefaultCleanerBuilder {
         return this;
     }
 
+    public DefaultCleanerBuilder setEnablePunchTimestampIndex(boolean enablePunchTimestampIndex) {
+        this.enablePunchTimestampIndex = enablePunchTimestampIndex;
+        return this;
+    }
+
+    public DefaultCleanerBuilder setEnableTimestampBucketedScrubQueue(boolean enableTimestampBucketedScrubQueue) {
+        this.enableTimestampBucketedScrubQueue = enableTimestampBucketedScrubQueue;
+        return this;
+    }
+
     private Puncher buildPuncher() {
-        KeyValueServicePuncherStore keyValuePuncherStore = KeyValueServicePuncherStore.create(keyValueService);
-        PuncherStore cachingPuncherStore = CachingPuncherStore.create(
+        KeyValueServicePuncherStore keyValuePuncherStore =
+                KeyValueServicePuncherStore.create(keyValueService, enablePunchTimestampIndex);
+        PuncherStore indexedPuncherStore = IndexedPuncherStore.create(
                 keyValuePuncherStore,
+                MAX_PUNCHES_IN_MEMORY,
                 punchIntervalMillis * 3);
         Clock clock = GlobalClock.create(lockService);
         SimplePuncher simplePuncher = SimplePuncher.create(
-                cachingPuncherStore,
+                indexedPuncherStore,
                 clock,
                 Suppliers.ofInstance(transactionReadTimeout));
         return AsyncPuncher.create(simplePuncher, punchIntervalMillis);
@@ -108,7 +126,8 @@ public class DefaultCleanerBuilder {
 
     private Scrubber buildScrubber(Supplier<Long> unreadableTimestampSupplier,
                                    Supplier<Long> immutableTimestampSupplier) {
-        ScrubberStore scrubberStore = KeyValueServiceScrubberStore.create(keyValueService);
+        ScrubberStore scrubberStore = KeyValueServiceScrubberStore.create(
+                keyValueService, enableTimestampBucketedScrubQueue);
         return Scrubber.create(
                 keyValueService,
                 scrubberStore,
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.palantir.common.time.Clock;
+import com.palantir.common.time.SystemClock;
+
+/**
+ * Wrap a KeyValueServicePuncherStore, answering both #get() and #getMillisForTimestamp() from the
+ * latest punches held in memory. The punches are read once when the store is created; after that,
+ * punches made through this store are added as they are made, and punches made by other clients
+ * are read at most once every refreshIntervalMillis of local time, when a lookup falls after the
+ * latest punch known. Until then, lookups may return an earlier timestamp than the underlying store would,
+ * which is safe for the same reason that rounding down in {@link CachingPuncherStore} is.
+ * <p>
+ * At most twice maxPunchesInMemory punches are held; lookups older than them go to the underlying
+ * store.
+ */
+public final class IndexedPuncherStore implements PuncherStore {
+    public static IndexedPuncherStore create(KeyValueServicePuncherStore puncherStore,
+                                             int maxPunchesInMemory,
+                                             long refreshIntervalMillis) {
+        return create(puncherStore, maxPunchesInMemory, refreshIntervalMillis, new SystemClock());
+    }
+
+    @VisibleForTesting
+    static IndexedPuncherStore create(KeyValueServicePuncherStore puncherStore,
+                                      int maxPunchesInMemory,
+                                      long refreshIntervalMillis,
+                                      Clock clock) {
+        Preconditions.checkArgument(maxPunchesInMemory > 0, "maxPunchesInMemory must be positive");
+        IndexedPuncherStore indexedPuncherStore =
+                new IndexedPuncherStore(puncherStore, maxPunchesInMemory, refreshIntervalMillis, clock);
+        indexedPuncherStore.refresh();
+        return indexedPuncherStore;
+    }
+
+    private final KeyValueServicePuncherStore puncherStore;
+    private final int maxPunchesInMemory;
+    private final long refreshIntervalMillis;
+    private final Clock clock;
+
+    private volatile PunchHistory history = new PunchHistory();
+    // whether history holds every punch in the underlying store, as of the last refresh
+    private volatile boolean complete = false;
+    private volatile long lastRefreshMillis;
+
+    private IndexedPuncherStore(KeyValueServicePuncherStore puncherStore,
+                                int maxPunchesInMemory,
+                                long refreshIntervalMillis,
+                                Clock clock) {
+        this.puncherStore = puncherStore;
+        this.maxPunchesInMemory = maxPunchesInMemory;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public void put(long timestamp, long timeMillis) {
+        puncherStore.put(timestamp, timeMillis);
+        PunchHistory currentHistory = history;
+        currentHistory.add(timestamp, timeMillis);
+        if (currentHistory.size() > 2 * maxPunchesInMemory) {
+            dropOldestPunches();
+        }
+    }
+
+    @Override
+    public Long get(Long timeMillis) {
+        PunchHistory currentHistory = history;
+        if (currentHistory.isEmpty() || timeMillis > currentHistory.getLatestMillis()) {
+            refreshIfStale();
+            currentHistory = history;
+        }
+        if (!complete && (currentHistory.isEmpty() || timeMillis < currentHistory.getEarliestMillis())) {
+            return puncherStore.get(timeMillis);
+        }
+        Long timestamp = currentHistory.getTimestampAt(timeMillis);
+        return timestamp == null ? Long.MIN_VALUE : timestamp;
+    }
+
+    @Override
+    public long getMillisForTimestamp(long timestamp) {
+        PunchHistory currentHistory = history;
+        if (currentHistory.isEmpty()
+                || timestamp > currentHistory.getLatestTimestamp()
+                || (!complete && timestamp < currentHistory.getEarliestTimestamp())) {
+            // a later punch made by another client may have a later time
+            return puncherStore.getMillisForTimestamp(timestamp);
+        }
+        Long timeMillis = currentHistory.getMillisAt(timestamp);
+        return timeMillis == null ? 0L : timeMillis;
+    }
+
+    private synchronized void refreshIfStale() {
+        if (clock.getTimeMillis() - lastRefreshMillis >= refreshIntervalMillis) {
+            refresh();
+        }
+    }
+
+    private synchronized void refresh() {
+        PunchHistory currentHistory = history;
+        long latestMillis = currentHistory.isEmpty() ? -1L : currentHistory.getLatestMillis();
+        SortedMap<Long, Long> punches = puncherStore.getPunchesAfter(latestMillis, maxPunchesInMemory);
+        if (currentHistory.isEmpty() || punches.size() >= maxPunchesInMemory) {
+            // either the first load, or too many punches were missed to keep the ones already known
+            PunchHistory newHistory = new PunchHistory();
+            addAll(newHistory, punches);
+            complete = currentHistory.isEmpty() && punches.size() < maxPunchesInMemory;
+            history = newHistory;
+        } else {
+            addAll(currentHistory, punches);
+        }
+        lastRefreshMillis = clock.getTimeMillis();
+    }
+
+    private synchronized void dropOldestPunches() {
+        PunchHistory newHistory = new PunchHistory();
+        addAll(newHistory, puncherStore.getPunchesAfter(-1L, maxPunchesInMemory));
+        complete = false;
+        history = newHistory;
+    }
+
+    private static void addAll(PunchHistory history, SortedMap<Long, Long> punches) {
+        // in increasing order of time, so that the punches are appended without copying
+        for (Map.Entry<Long, Long> punch : punches.entrySet()) {
+            history.add(punch.getValue(), punch.getKey());
+        }
+    }
+}
@@ -16,10 +16,14 @@
 package com.palantir.atlasdb.cleaner;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SortedMap;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
@@ -44,21 +48,42 @@ import com.palantir.common.base.ClosableIterator;
  */
 public final class KeyValueServicePuncherStore implements PuncherStore {
     private static final byte[] COLUMN = "t".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INDEX_COLUMN = "m".getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_PUNCHES_PER_BATCH = 1000;
 
     public static KeyValueServicePuncherStore create(KeyValueService keyValueService) {
+        return create(keyValueService, AtlasDbConstants.DEFAULT_ENABLE_PUNCH_TIMESTAMP_INDEX);
+    }
+
+    /**
+     * If {@code indexTimestamps} is set, punches are also written to a table keyed by timestamp, which lets
+     * {@link #getMillisForTimestamp(long)} look up a single row rather than scan the punch table. The index only
+     * holds punches made while it is enabled, so every client writing punches must enable it.
+     */
+    public static KeyValueServicePuncherStore create(KeyValueService keyValueService, boolean indexTimestamps) {
         keyValueService.createTable(AtlasDbConstants.PUNCH_TABLE, new TableMetadata(
                 NameMetadataDescription.create(ImmutableList.of(
                         new NameComponentDescription("time", ValueType.VAR_LONG, ValueByteOrder.DESCENDING))),
                 new ColumnMetadataDescription(ImmutableList.of(
                         new NamedColumnDescription("t", "t", ColumnValueDescription.forType(ValueType.VAR_LONG)))),
                         ConflictHandler.IGNORE_ALL).persistToBytes());
-        return new KeyValueServicePuncherStore(keyValueService);
+        if (indexTimestamps) {
+            keyValueService.createTable(AtlasDbConstants.PUNCH_TIMESTAMP_INDEX_TABLE, new TableMetadata(
+                    NameMetadataDescription.create(ImmutableList.of(
+                            new NameComponentDescription("timestamp", ValueType.VAR_LONG, ValueByteOrder.DESCENDING))),
+                    new ColumnMetadataDescription(ImmutableList.of(
+                            new NamedColumnDescription("m", "m", ColumnValueDescription.forType(ValueType.VAR_LONG)))),
+                    ConflictHandler.IGNORE_ALL).persistToBytes());
+        }
+        return new KeyValueServicePuncherStore(keyValueService, indexTimestamps);
     }
 
     private final KeyValueService keyValueService;
+    private final boolean indexTimestamps;
 
-    private KeyValueServicePuncherStore(KeyValueService keyValueService) {
+    private KeyValueServicePuncherStore(KeyValueService keyValueService, boolean indexTimestamps) {
         this.keyValueService = keyValueService;
+        this.indexTimestamps = indexTimestamps;
     }
 
     @Override
@@ -68,6 +93,42 @@ public final class KeyValueServicePuncherStore implements PuncherStore {
         Cell cell = Cell.create(row, COLUMN);
         byte[] value = EncodingUtils.encodeUnsignedVarLong(timestamp);
         keyValueService.put(AtlasDbConstants.PUNCH_TABLE, ImmutableMap.of(cell, value), timestamp);
+        if (indexTimestamps) {
+            indexPunch(timestamp, timeMillis);
+        }
+    }
+
+    /**
+     * Each index row holds the latest time punched at or before its timestamp, which is what
+     * getMillisForTimestamp returns. A punch sets its own row, and raises every later row holding an earlier time,
+     * so the index stays correct when punches are written out of order. Rows are written with their time as the
+     * key value service timestamp, so the latest version of a row is also the latest time written to it, even when
+     * clients punch concurrently.
+     */
+    private void indexPunch(long timestamp, long timeMillis) {
+        Map<Cell, byte[]> raisedRows = Maps.newHashMap();
+        RangeRequest laterRows = RangeRequest.builder()
+                .startRowInclusive(descendingRowName(Long.MAX_VALUE))
+                .endRowExclusive(descendingRowName(timestamp))
+                .build();
+        try (ClosableIterator<RowResult<Value>> result = keyValueService.getRange(
+                AtlasDbConstants.PUNCH_TIMESTAMP_INDEX_TABLE, laterRows, Long.MAX_VALUE)) {
+            // normally empty, as punches are made in timestamp order
+            while (result.hasNext()) {
+                RowResult<Value> row = result.next();
+                if (decodeIndexedMillis(row) < timeMillis) {
+                    raisedRows.put(Cell.create(row.getRowName(), INDEX_COLUMN),
+                            EncodingUtils.encodeUnsignedVarLong(timeMillis));
+                }
+            }
+        }
+        long indexedMillis = Math.max(timeMillis, getIndexedMillis(timestamp));
+        Cell indexCell = Cell.create(descendingRowName(timestamp), INDEX_COLUMN);
+        keyValueService.put(AtlasDbConstants.PUNCH_TIMESTAMP_INDEX_TABLE,
+                ImmutableMap.of(indexCell, EncodingUtils.encodeUnsignedVarLong(indexedMillis)), indexedMillis);
+        if (!raisedRows.isEmpty()) {
+            keyValueService.put(AtlasDbConstants.PUNCH_TIMESTAMP_INDEX_TABLE, raisedRows, timeMillis);
+        }
     }
 
     @Override
@@ -91,9 +152,42 @@ public final class KeyValueServicePuncherStore implements PuncherStore {
 
     @Override
     public long getMillisForTimestamp(long timestamp) {
+        if (indexTimestamps && timestamp >= 0) {
+            long timeMillis = getIndexedMillis(timestamp);
+            if (timeMillis != 0L) {
+                return timeMillis;
+            }
+            // nothing at or before the timestamp was punched since the index was enabled
+        }
         return getMillisForTimestamp(keyValueService, timestamp);
     }
 
+    /**
+     * Returns up to {@code limit} punches made after the given time, starting from the latest, as a map from
+     * wall clock time to timestamp. A negative time returns the latest punches regardless of when they were made.
+     */
+    public SortedMap<Long, Long> getPunchesAfter(long timeMillisExclusive, int limit) {
+        RangeRequest rangeRequest = RangeRequest.builder()
+                .startRowInclusive(descendingRowName(Long.MAX_VALUE))
+                .endRowExclusive(timeMillisExclusive < 0
+                        ? PtBytes.EMPTY_BYTE_ARRAY
+                        : descendingRowName(timeMillisExclusive))
+                .batchHint(Math.min(limit, MAX_PUNCHES_PER_BATCH))
+                .build();
+        SortedMap<Long, Long> punches = Maps.newTreeMap();
+        try (ClosableIterator<RowResult<Value>> result =
+                keyValueService.getRange(AtlasDbConstants.PUNCH_TABLE, rangeRequest, Long.MAX_VALUE)) {
+            while (result.hasNext() && punches.size() < limit) {
+                RowResult<Value> row = result.next();
+                byte[] encodedMillis = row.getRowName();
+                EncodingUtils.flipAllBitsInPlace(encodedMillis);
+                punches.put(EncodingUtils.decodeUnsignedVarLong(encodedMillis),
+                        EncodingUtils.decodeUnsignedVarLong(row.getColumns().get(COLUMN).getContents()));
+            }
+        }
+        return punches;
+    }
+
     public static long getMillisForTimestamp(KeyValueService kvs, long timestamp) {
         long timestampExclusive = timestamp + 1;
         // punch table is keyed by the real value we're trying to find so we have to do a whole table
@@ -118,4 +212,26 @@ public final class KeyValueServicePuncherStore implements PuncherStore {
         }
     }
 
+    private long getIndexedMillis(long timestamp) {
+        RangeRequest rangeRequest =
+                RangeRequest.builder().startRowInclusive(descendingRowName(timestamp)).batchHint(1).build();
+        try (ClosableIterator<RowResult<Value>> result = keyValueService.getRange(
+                AtlasDbConstants.PUNCH_TIMESTAMP_INDEX_TABLE, rangeRequest, Long.MAX_VALUE)) {
+            if (result.hasNext()) {
+                return decodeIndexedMillis(result.next());
+            } else {
+                return 0L;
+            }
+        }
+    }
+
+    private static long decodeIndexedMillis(RowResult<Value> row) {
+        return EncodingUtils.decodeUnsignedVarLong(row.getColumns().get(INDEX_COLUMN).getContents());
+    }
+
+    private static byte[] descendingRowName(long value) {
+        byte[] row = EncodingUtils.encodeUnsignedVarLong(value);
+        EncodingUtils.flipAllBitsInPlace(row);
+        return row;
+    }
 }
@@ -15,7 +15,9 @@
  */
 package com.palantir.atlasdb.cleaner;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,8 +29,12 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -48,29 +54,43 @@ import com.palantir.atlasdb.table.description.ValueType;
 import com.palantir.atlasdb.transaction.api.ConflictHandler;
 import com.palantir.common.base.AbstractBatchingVisitable;
 import com.palantir.common.base.BatchingVisitable;
-import com.palantir.common.base.BatchingVisitableFromIterable;
 import com.palantir.common.base.BatchingVisitableView;
 import com.palantir.common.base.ClosableIterator;
 
 /**
  *
  * A ScrubberStore implemented as a table in the KeyValueService.
- *
+ * <p>
+ * By default cells are queued in a table keyed by the cell being scrubbed, so reading the cells that can be
+ * scrubbed below a timestamp scans the whole queue. If {@code bucketByTimestamp} is set, cells are instead queued
+ * in a table keyed by the first byte of the row being scrubbed, then by the bucket of
+ * {@link #TIMESTAMPS_PER_BUCKET} timestamps their scrub timestamp falls in, then by the row itself. Reading the
+ * queue then only scans the buckets below the maximum scrub timestamp, so cells queued by recent hard deletes are
+ * not read again on every pass. The unbucketed table is still read on every pass, so that cells queued by clients
+ * without the option, such as those not yet upgraded during a rolling enable, are scrubbed too. Once every client
+ * has the option enabled that table stays empty, and reading it is a single empty range scan.
  *
  * @author ejin
  */
 public final class KeyValueServiceScrubberStore implements ScrubberStore {
+    private static final long TIMESTAMPS_PER_BUCKET = 1L << 20;
+    private static final int BUCKET_PREFIX_LENGTH = 1 + Longs.BYTES;
+    private static final int NUM_SHARDS = 256;
+
     private final KeyValueService keyValueService;
+    private final boolean bucketByTimestamp;
 
     public static ScrubberStore create(KeyValueService keyValueService) {
-        keyValueService.createTable(AtlasDbConstants.SCRUB_TABLE, new TableMetadata(
-                NameMetadataDescription.create(ImmutableList.of(new NameComponentDescription("cell", ValueType.BLOB))),
-                new ColumnMetadataDescription(new DynamicColumnDescription(
-                        NameMetadataDescription.create(ImmutableList.of(
-                                new NameComponentDescription("name", ValueType.STRING))),
-                        ColumnValueDescription.forType(ValueType.STRING))),
-                        ConflictHandler.IGNORE_ALL).persistToBytes());
-        return new KeyValueServiceScrubberStore(keyValueService);
+        return create(keyValueService, AtlasDbConstants.DEFAULT_ENABLE_TIMESTAMP_BUCKETED_SCRUB_QUEUE);
+    }
+
+    public static ScrubberStore create(KeyValueService keyValueService, boolean bucketByTimestamp) {
+        keyValueService.createTable(AtlasDbConstants.SCRUB_TABLE, scrubTableMetadata("cell"));
+        if (bucketByTimestamp) {
+            keyValueService.createTable(
+                    AtlasDbConstants.SCRUB_TIMESTAMP_BUCKET_TABLE, scrubTableMetadata("bucketedCell"));
+        }
+        return new KeyValueServiceScrubberStore(keyValueService, bucketByTimestamp);
     }
 
     public static ScrubberStore createWithInMemoryKvs() {
@@ -78,8 +98,20 @@ public final class KeyValueServiceScrubberStore implements ScrubberStore {
         return create(inMemoryKvs);
     }
 
-    private KeyValueServiceScrubberStore(KeyValueService keyValueService) {
+    private static byte[] scrubTableMetadata(String rowComponentName) {
+        return new TableMetadata(
+                NameMetadataDescription.create(ImmutableList.of(
+                        new NameComponentDescription(rowComponentName, ValueType.BLOB))),
+                new ColumnMetadataDescription(new DynamicColumnDescription(
+                        NameMetadataDescription.create(ImmutableList.of(
+                                new NameComponentDescription("name", ValueType.STRING))),
+                        ColumnValueDescription.forType(ValueType.STRING))),
+                        ConflictHandler.IGNORE_ALL).persistToBytes();
+    }
+
+    private KeyValueServiceScrubberStore(KeyValueService keyValueService, boolean bucketByTimestamp) {
         this.keyValueService = keyValueService;
+        this.bucketByTimestamp = bucketByTimestamp;
     }
 
     @Override
@@ -94,7 +126,7 @@ public final class KeyValueServiceScrubberStore implements ScrubberStore {
             // Doing the join here is safe--queueCellsForScrubbing is only called once per transaction
             // so we'll have all the table names for a given scrubTimestamp
             String joined = StringUtils.join(tableRefs, AtlasDbConstants.SCRUB_TABLE_SEPARATOR_CHAR);
-            values.put(cell, PtBytes.toBytes(joined));
+            values.put(bucketByTimestamp ? toBucketedCell(cell, scrubTimestamp) : cell, PtBytes.toBytes(joined));
         }
         for (List<Entry<Cell, byte[]>> batch : Iterables.partition(values.entrySet(), batchSize)) {
             Map<Cell, byte[]> batchMap = Maps.newHashMap();
@@ -102,7 +134,7 @@ public final class KeyValueServiceScrubberStore implements ScrubberStore {
                 batchMap.put(e.getKey(), e.getValue());
             }
             keyValueService.put(
-                    AtlasDbConstants.SCRUB_TABLE,
+                    queueTable(),
                     batchMap,
                     scrubTimestamp);
         }
@@ -110,13 +142,24 @@ public final class KeyValueServiceScrubberStore implements ScrubberStore {
 
     @Override
     public void markCellsAsScrubbed(Multimap<Cell, Long> cellToScrubTimestamp, int batchSize) {
+        delete(AtlasDbConstants.SCRUB_TABLE, cellToScrubTimestamp, batchSize);
+        if (bucketByTimestamp) {
+            Multimap<Cell, Long> bucketedCellToScrubTimestamp = HashMultimap.create();
+            for (Entry<Cell, Long> e : cellToScrubTimestamp.entries()) {
+                bucketedCellToScrubTimestamp.put(toBucketedCell(e.getKey(), e.getValue()), e.getValue());
+            }
+            delete(AtlasDbConstants.SCRUB_TIMESTAMP_BUCKET_TABLE, bucketedCellToScrubTimestamp, batchSize);
+        }
+    }
+
+    private void delete(TableReference tableRef, Multimap<Cell, Long> cellToScrubTimestamp, int batchSize) {
         for (List<Entry<Cell, Long>> batch : Iterables.partition(cellToScrubTimestamp.entries(), batchSize)) {
             Multimap<Cell, Long> batchMultimap = HashMultimap.create();
             for (Entry<Cell, Long> e : batch) {
                 batchMultimap.put(e.getKey(), e.getValue());
             }
             keyValueService.delete(
-                    AtlasDbConstants.SCRUB_TABLE,
+                    tableRef,
                     batchMultimap);
         }
     }
@@ -127,26 +170,37 @@ public final class KeyValueServiceScrubberStore implements ScrubberStore {
             long maxScrubTimestamp /* exclusive */,
             byte[] startRow,
             byte[] endRow) {
-        ClosableIterator<RowResult<Value>> iterator =
-                getIteratorToScrub(cellsToScrubBatchSize, maxScrubTimestamp, startRow, endRow);
-        final BatchingVisitable<RowResult<Value>> results = BatchingVisitableFromIterable.create(iterator);
+        List<QueueRange> ranges = getRangesToScrub(cellsToScrubBatchSize, maxScrubTimestamp, startRow, endRow);
         return BatchingVisitableView.of(
                 new AbstractBatchingVisitable<SortedMap<Long, Multimap<TableReference, Cell>>>() {
                     @Override
                     protected <K extends Exception> void batchAcceptSizeHint(
                             int batchSizeHint,
                             ConsistentVisitor<SortedMap<Long, Multimap<TableReference, Cell>>, K> visitor) throws K {
-                        results.batchAccept(cellsToScrubBatchSize, batch ->
-                                visitor.visit(ImmutableList.of(transformRows(batch))));
+                        for (QueueRange range : ranges) {
+                            try (ClosableIterator<RowResult<Value>> iterator = keyValueService.getRange(
+                                    range.tableRef, range.request, maxScrubTimestamp)) {
+                                Iterator<List<RowResult<Value>>> batches =
+                                        Iterators.partition(iterator, cellsToScrubBatchSize);
+                                while (batches.hasNext()) {
+                                    SortedMap<Long, Multimap<TableReference, Cell>> cells =
+                                            transformRows(range.tableRef, batches.next());
+                                    if (!visitor.visit(ImmutableList.of(cells))) {
+                                        return;
+                                    }
+                                }
+                            }
+                        }
                     }
                 });
     }
 
-    private ClosableIterator<RowResult<Value>> getIteratorToScrub(
+    private List<QueueRange> getRangesToScrub(
             int cellsToScrubBatchSize,
             long maxScrubTimestamp,
             byte[] startRow,
             byte[] endRow) {
+        List<QueueRange> ranges = Lists.newArrayList();
         RangeRequest.Builder range = RangeRequest.builder();
         if (startRow != null) {
             range = range.startRowInclusive(startRow);
@@ -154,17 +208,62 @@ public final class KeyValueServiceScrubberStore implements ScrubberStore {
         if (endRow != null) {
             range = range.endRowExclusive(endRow);
         }
-        return keyValueService.getRange(
-                AtlasDbConstants.SCRUB_TABLE,
-                range.batchHint(cellsToScrubBatchSize).build(),
-                maxScrubTimestamp);
+        ranges.add(new QueueRange(AtlasDbConstants.SCRUB_TABLE, range.batchHint(cellsToScrubBatchSize).build()));
+        if (bucketByTimestamp && maxScrubTimestamp > 0) {
+            // only the buckets which may hold scrub timestamps below maxScrubTimestamp
+            long endBucketExclusive = (maxScrubTimestamp - 1) / TIMESTAMPS_PER_BUCKET + 1;
+            for (int shard = 0; shard < NUM_SHARDS; shard++) {
+                if (isShardInRange(shard, startRow, endRow)) {
+                    ranges.add(new QueueRange(AtlasDbConstants.SCRUB_TIMESTAMP_BUCKET_TABLE, RangeRequest.builder()
+                            .startRowInclusive(bucketPrefix(shard, 0L))
+                            .endRowExclusive(bucketPrefix(shard, endBucketExclusive))
+                            .batchHint(cellsToScrubBatchSize)
+                            .build()));
+                }
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Each shard is read by the range its single byte falls in, so that the ranges the scrubber reads
+     * in parallel, which partition the rows being scrubbed, also partition the shards.
+     */
+    private static boolean isShardInRange(int shard, byte[] startRow, byte[] endRow) {
+        byte[] shardRow = new byte[] {(byte) shard};
+        return (startRow == null || UnsignedBytes.lexicographicalComparator().compare(shardRow, startRow) >= 0)
+                && (endRow == null || endRow.length == 0
+                        || UnsignedBytes.lexicographicalComparator().compare(shardRow, endRow) < 0);
+    }
+
+    private static Cell toBucketedCell(Cell cell, long scrubTimestamp) {
+        byte[] row = cell.getRowName();
+        return Cell.create(Bytes.concat(bucketPrefix(row[0] & 0xff, scrubTimestamp / TIMESTAMPS_PER_BUCKET), row),
+                cell.getColumnName());
+    }
+
+    private static Cell fromBucketedCell(Cell bucketedCell) {
+        byte[] bucketedRow = bucketedCell.getRowName();
+        return Cell.create(Arrays.copyOfRange(bucketedRow, BUCKET_PREFIX_LENGTH, bucketedRow.length),
+                bucketedCell.getColumnName());
     }
 
-    private SortedMap<Long, Multimap<TableReference, Cell>> transformRows(List<RowResult<Value>> input) {
+    private static byte[] bucketPrefix(int shard, long bucket) {
+        return Bytes.concat(new byte[] {(byte) shard}, Longs.toByteArray(bucket));
+    }
+
+    private TableReference queueTable() {
+        return bucketByTimestamp ? AtlasDbConstants.SCRUB_TIMESTAMP_BUCKET_TABLE : AtlasDbConstants.SCRUB_TABLE;
+    }
+
+    private SortedMap<Long, Multimap<TableReference, Cell>> transformRows(
+            TableReference queueTableRef,
+            List<RowResult<Value>> input) {
+        boolean bucketed = queueTableRef.equals(AtlasDbConstants.SCRUB_TIMESTAMP_BUCKET_TABLE);
         SortedMap<Long, Multimap<TableReference, Cell>> scrubTimestampToTableNameToCell = Maps.newTreeMap();
         for (RowResult<Value> rowResult : input) {
             for (Map.Entry<Cell, Value> entry : rowResult.getCells()) {
-                Cell cell = entry.getKey();
+                Cell cell = bucketed ? fromBucketedCell(entry.getKey()) : entry.getKey();
                 Value value = entry.getValue();
                 long scrubTimestamp = value.getTimestamp();
                 String[] tableNames = StringUtils.split(
@@ -184,12 +283,26 @@ public final class KeyValueServiceScrubberStore implements ScrubberStore {
 
     @Override
     public int getNumberRemainingScrubCells(int maxCellsToScan) {
-        ClosableIterator<RowResult<Value>> iterator = getIteratorToScrub(maxCellsToScan, Long.MAX_VALUE, null, null);
-        try {
-            return Iterators.size(Iterators.limit(iterator, maxCellsToScan));
-        } finally {
-            iterator.close();
+        int remaining = 0;
+        for (QueueRange range : getRangesToScrub(maxCellsToScan, Long.MAX_VALUE, null, null)) {
+            try (ClosableIterator<RowResult<Value>> iterator =
+                    keyValueService.getRange(range.tableRef, range.request, Long.MAX_VALUE)) {
+                remaining += Iterators.size(Iterators.limit(iterator, maxCellsToScan - remaining));
+            }
+            if (remaining >= maxCellsToScan) {
+                break;
+            }
         }
+        return remaining;
     }
 
+    private static final class QueueRange {
+        private final TableReference tableRef;
+        private final RangeRequest request;
+
+        QueueRange(TableReference tableRef, RangeRequest request) {
+            this.tableRef = tableRef;
+            this.request = request;
+        }
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * Punches held in memory as sorted pairs of {@code long} arrays, one pair keyed by wall clock time and one keyed by
+ * timestamp, so that both directions are answered by binary search.
+ * <p>
+ * Punches normally arrive in increasing order of both time and timestamp, in which case they are appended to the
+ * arrays without copying them. Punches arriving out of order cause the arrays to be copied. Readers work on an
+ * immutable snapshot and never lock.
+ */
+final class PunchHistory {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile Snapshot snapshot = new Snapshot(SortedPairs.EMPTY, SortedPairs.EMPTY);
+
+    synchronized void add(long timestamp, long timeMillis) {
+        snapshot = new Snapshot(
+                snapshot.timestampsByMillis.with(timeMillis, timestamp, false),
+                snapshot.maxMillisByTimestamp.with(timestamp, timeMillis, true));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int size() {
+        return snapshot.timestampsByMillis.size;
+    }
+
+    /**
+     * @return the timestamp punched at the latest time at or before timeMillis, or null if there is none
+     */
+    @Nullable
+    Long getTimestampAt(long timeMillis) {
+        return snapshot.timestampsByMillis.getFloorValue(timeMillis);
+    }
+
+    /**
+     * @return the latest time at which a timestamp at or before the given one was punched, or null if there is none
+     */
+    @Nullable
+    Long getMillisAt(long timestamp) {
+        return snapshot.maxMillisByTimestamp.getFloorValue(timestamp);
+    }
+
+    long getEarliestMillis() {
+        return snapshot.timestampsByMillis.getFirstKey();
+    }
+
+    long getLatestMillis() {
+        return snapshot.timestampsByMillis.getLastKey();
+    }
+
+    long getEarliestTimestamp() {
+        return snapshot.maxMillisByTimestamp.getFirstKey();
+    }
+
+    long getLatestTimestamp() {
+        return snapshot.maxMillisByTimestamp.getLastKey();
+    }
+
+    private static final class Snapshot {
+        private final SortedPairs timestampsByMillis;
+        private final SortedPairs maxMillisByTimestamp;
+
+        Snapshot(SortedPairs timestampsByMillis, SortedPairs maxMillisByTimestamp) {
+            this.timestampsByMillis = timestampsByMillis;
+            this.maxMillisByTimestamp = maxMillisByTimestamp;
+        }
+    }
+
+    /**
+     * Unique keys in increasing order with a value for each. If a key is added twice, the greater value is kept.
+     * When {@code cumulativeMax} is set on insertion, each value is also made at least as large as the values
+     * before it, so that it is the maximum of all values added with keys up to its own.
+     * <p>
+     * Appending shares the arrays with the previous instance, which never reads past its own size.
+     */
+    private static final class SortedPairs {
+        static final SortedPairs EMPTY = new SortedPairs(new long[0], new long[0], 0);
+
+        private final long[] keys;
+        private final long[] values;
+        private final int size;
+
+        private SortedPairs(long[] keys, long[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        @Nullable
+        Long getFloorValue(long key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            int floorIndex = index >= 0 ? index : -index - 2;
+            return floorIndex < 0 ? null : values[floorIndex];
+        }
+
+        long getFirstKey() {
+            return keys[0];
+        }
+
+        long getLastKey() {
+            return keys[size - 1];
+        }
+
+        SortedPairs with(long key, long value, boolean cumulativeMax) {
+            if (size > 0 && key <= keys[size - 1]) {
+                return withOutOfOrder(key, value, cumulativeMax);
+            }
+            long[] newKeys = keys;
+            long[] newValues = values;
+            if (size == keys.length) {
+                newKeys = Arrays.copyOf(keys, Math.max(INITIAL_CAPACITY, 2 * size));
+                newValues = Arrays.copyOf(values, newKeys.length);
+            }
+            newKeys[size] = key;
+            newValues[size] = cumulativeMax && size > 0 ? Math.max(values[size - 1], value) : value;
+            return new SortedPairs(newKeys, newValues, size + 1);
+        }
+
+        private SortedPairs withOutOfOrder(long key, long value, boolean cumulativeMax) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            boolean present = index >= 0;
+            int position = present ? index : -index - 1;
+            int newSize = present ? size : size + 1;
+
+            long[] newKeys = new long[Math.max(newSize, keys.length)];
+            long[] newValues = new long[newKeys.length];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(values, 0, newValues, 0, position);
+            int rest = present ? position + 1 : position;
+            System.arraycopy(keys, rest, newKeys, position + 1, size - rest);
+            System.arraycopy(values, rest, newValues, position + 1, size - rest);
+
+            newKeys[position] = key;
+            long newValue = present ? Math.max(values[index], value) : value;
+            if (cumulativeMax) {
+                if (position > 0) {
+                    newValue = Math.max(newValues[position - 1], newValue);
+                }
+                for (int i = position + 1; i < newSize; i++) {
+                    newValues[i] = Math.max(newValues[i], newValue);
+                }
+            }
+            newValues[position] = newValue;
+            return new SortedPairs(newKeys, newValues, newSize);
+        }
+    }
+}
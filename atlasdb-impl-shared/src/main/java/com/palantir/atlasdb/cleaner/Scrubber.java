@@ -29,22 +29,23 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
 
 import javax.annotation.concurrent.GuardedBy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Functions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
@@ -66,10 +67,12 @@ import com.palantir.atlasdb.transaction.api.TransactionFailedRetriableException;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.atlasdb.transaction.impl.TransactionConstants;
 import com.palantir.atlasdb.transaction.service.TransactionService;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
 import com.palantir.common.base.BatchingVisitable;
 import com.palantir.common.base.BatchingVisitableView;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.collect.Maps2;
+import com.palantir.common.concurrent.BoundedExecutorService;
 import com.palantir.common.concurrent.ExecutorInheritableThreadLocal;
 import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.common.concurrent.PTExecutors;
@@ -108,6 +111,7 @@ public final class Scrubber {
     private final int readThreadCount;
     private final ExecutorService readerExec;
     private final ExecutorService exec;
+    private final ScrubberMetrics metrics = new ScrubberMetrics();
 
     private static final String SCRUBBER_THREAD_PREFIX = "AtlasScrubber";
 
@@ -174,7 +178,10 @@ public final class Scrubber {
         this.followers = followers;
         NamedThreadFactory threadFactory = new NamedThreadFactory(SCRUBBER_THREAD_PREFIX, true);
         this.readerExec = Tracers.wrap(PTExecutors.newFixedThreadPool(readThreadCount, threadFactory));
-        this.exec = Tracers.wrap(PTExecutors.newFixedThreadPool(threadCount, threadFactory));
+        // Readers and callers of scrub run the deletes themselves rather than queue without bound.
+        this.exec = Tracers.wrap(PTExecutors.newBoundedWorkStealingPool(SCRUBBER_THREAD_PREFIX, threadCount,
+                threadCount, BoundedExecutorService.OverloadPolicy.CALLER_RUNS,
+                AtlasDbMetrics.instrumentExecutor(MetricRegistry.name(Scrubber.class, "deletes"))));
     }
 
     /**
@@ -248,25 +255,38 @@ public final class Scrubber {
         }
         rangeBoundaries.add(PtBytes.EMPTY_BYTE_ARRAY);
 
+        // Queue entries are gathered until there are enough cells to give every scrub thread a full batch,
+        // so that the deletes for many entries are made together, per table.
+        final int cellsPerScrub = batchSizeSupplier.get() * threadCount;
+
         List<Future<Void>> readerFutures = Lists.newArrayList();
         final AtomicInteger totalCellsRead = new AtomicInteger(0);
+        final LongAccumulator oldestScrubTimestamp = new LongAccumulator(Math::min, maxScrubTimestamp);
         for (int i = 0; i < rangeBoundaries.size() - 1; i++) {
             final byte[] startRow = rangeBoundaries.get(i);
             final byte[] endRow = rangeBoundaries.get(i + 1);
             readerFutures.add(readerExec.submit(() -> {
                 BatchingVisitable<SortedMap<Long, Multimap<TableReference, Cell>>> scrubQueue = scrubberStore
                         .getBatchingVisitableScrubQueue(batchSize, maxScrubTimestamp, startRow, endRow);
+                SortedMap<Long, Multimap<TableReference, Cell>> pending = Maps.newTreeMap();
+                AtomicInteger numPending = new AtomicInteger(0);
                 // Take one at a time since we already batched them together in KeyValueServiceScrubberStore.
-                BatchingVisitableView.of(scrubQueue).batchAccept(1, batch -> {
+                boolean scrubEnabled = BatchingVisitableView.of(scrubQueue).batchAccept(1, batch -> {
                     for (SortedMap<Long, Multimap<TableReference, Cell>> cells : batch) {
+                        for (Map.Entry<Long, Multimap<TableReference, Cell>> entry : cells.entrySet()) {
+                            pending.computeIfAbsent(entry.getKey(), ts -> HashMultimap.create())
+                                    .putAll(entry.getValue());
+                            numPending.addAndGet(entry.getValue().size());
+                        }
+                        if (numPending.get() < cellsPerScrub) {
+                            continue;
+                        }
                         // We may actually get more cells than the batch size. The batch size is used
                         // for pulling off the scrub queue, and a single entry in the scrub queue may
                         // match multiple tables. These will get broken down into smaller batches later
                         // on when we actually do deletes.
-                        int numCellsRead = scrubSomeCells(cells, txManager, maxScrubTimestamp);
-                        int totalRead = totalCellsRead.addAndGet(numCellsRead);
-                        log.debug("Scrub task processed {} cells in a batch, total {} processed so far.",
-                                  numCellsRead, totalRead);
+                        scrubPendingCells(pending, numPending, txManager, maxScrubTimestamp,
+                                totalCellsRead, oldestScrubTimestamp);
                         if (!isScrubEnabled.get()) {
                             log.debug("Stopping scrub for banned hours.");
                             break;
@@ -274,6 +294,10 @@ public final class Scrubber {
                     }
                     return isScrubEnabled.get();
                 });
+                if (scrubEnabled && !pending.isEmpty()) {
+                    scrubPendingCells(pending, numPending, txManager, maxScrubTimestamp,
+                            totalCellsRead, oldestScrubTimestamp);
+                }
                 return null;
             }));
         }
@@ -282,12 +306,28 @@ public final class Scrubber {
             Futures.getUnchecked(readerFuture);
         }
 
+        metrics.finishedPass(maxScrubTimestamp, oldestScrubTimestamp.get());
         log.debug("Scrub background task running at timestamp {} processed a total of {} cells",
                   maxScrubTimestamp, totalCellsRead.get());
 
         log.debug("Finished scrub task");
     }
 
+    private void scrubPendingCells(SortedMap<Long, Multimap<TableReference, Cell>> pending,
+                                   AtomicInteger numPending,
+                                   TransactionManager txManager,
+                                   long maxScrubTimestamp,
+                                   AtomicInteger totalCellsRead,
+                                   LongAccumulator oldestScrubTimestamp) {
+        oldestScrubTimestamp.accumulate(pending.firstKey());
+        int numCellsRead = scrubSomeCells(pending, txManager, maxScrubTimestamp);
+        int totalRead = totalCellsRead.addAndGet(numCellsRead);
+        log.debug("Scrub task processed {} cells in a batch, total {} processed so far.",
+                  numCellsRead, totalRead);
+        pending.clear();
+        numPending.set(0);
+    }
+
     /* package */ void scrubImmediately(final TransactionManager txManager,
                                         final Multimap<TableReference, Cell> tableNameToCell,
                                         final long scrubTimestamp,
@@ -426,9 +466,12 @@ public final class Scrubber {
         }
 
         Multimap<Long, Cell> toRemoveFromScrubQueue = HashMultimap.create();
+        // The cells to scrub in each table, each with the latest scrub timestamp it was queued at. Scrubbing a
+        // cell at its latest scrub timestamp also deletes the values an earlier hard delete would have.
+        Map<TableReference, Map<Cell, Long>> tableToCellToScrubTimestamp = Maps.newHashMap();
 
         int numCellsReadFromScrubTable = 0;
-        List<Future<Void>> scrubFutures = Lists.newArrayList();
+        int numCellsDeferred = 0;
         for (Map.Entry<Long, Multimap<TableReference, Cell>> entry : scrubTimestampToTableNameToCell.entrySet()) {
             final long scrubTimestamp = entry.getKey();
             final Multimap<TableReference, Cell> tableNameToCell = entry.getValue();
@@ -438,28 +481,39 @@ public final class Scrubber {
             long commitTimestamp = getCommitTimestampRollBackIfNecessary(scrubTimestamp, tableNameToCell);
             if (commitTimestamp >= maxScrubTimestamp) {
                 // We cannot scrub this yet because not all transactions can read this value.
+                numCellsDeferred += tableNameToCell.size();
                 continue;
             } else if (commitTimestamp != TransactionConstants.FAILED_COMMIT_TS) {
                 // This is CRITICAL; don't scrub if the hard delete transaction didn't actually finish
                 // (we still remove it from the _scrub table with the call to markCellsAsScrubbed though),
                 // or else we could cause permanent data loss if the hard delete transaction failed after
                 // queuing cells to scrub but before successfully committing
-                for (final List<Entry<TableReference, Cell>> batch :
-                        Iterables.partition(tableNameToCell.entries(), batchSizeSupplier.get())) {
-                    final Multimap<TableReference, Cell> batchMultimap = HashMultimap.create();
-                    for (Entry<TableReference, Cell> e : batch) {
-                        batchMultimap.put(e.getKey(), e.getValue());
-                    }
-                    scrubFutures.add(exec.submit(() -> {
-                        scrubCells(txManager, batchMultimap,
-                                scrubTimestamp,
-                                aggressiveScrub ? TransactionType.AGGRESSIVE_HARD_DELETE : TransactionType.HARD_DELETE);
-                        return null;
-                    }));
+                for (Entry<TableReference, Cell> e : tableNameToCell.entries()) {
+                    tableToCellToScrubTimestamp.computeIfAbsent(e.getKey(), table -> Maps.newHashMap())
+                            .merge(e.getValue(), scrubTimestamp, Math::max);
                 }
             }
             toRemoveFromScrubQueue.putAll(scrubTimestamp, tableNameToCell.values());
         }
+        metrics.readCells(numCellsReadFromScrubTable);
+        metrics.deferredCells(numCellsDeferred);
+
+        List<Future<Void>> scrubFutures = Lists.newArrayList();
+        for (Map.Entry<TableReference, Map<Cell, Long>> entry : tableToCellToScrubTimestamp.entrySet()) {
+            final TableReference tableRef = entry.getKey();
+            for (final List<Entry<Cell, Long>> batch :
+                    Iterables.partition(entry.getValue().entrySet(), batchSizeSupplier.get())) {
+                final Map<Cell, Long> batchMap = Maps.newHashMap();
+                for (Entry<Cell, Long> e : batch) {
+                    batchMap.put(e.getKey(), e.getValue());
+                }
+                scrubFutures.add(exec.submit(() -> {
+                    scrubCells(txManager, tableRef, batchMap,
+                            aggressiveScrub ? TransactionType.AGGRESSIVE_HARD_DELETE : TransactionType.HARD_DELETE);
+                    return null;
+                }));
+            }
+        }
 
         for (Future<Void> future : scrubFutures) {
             Futures.getUnchecked(future);
@@ -495,20 +549,35 @@ public final class Scrubber {
             TableReference tableRef = entry.getKey();
             log.debug("Attempting to immediately scrub {} cells from table {}", entry.getValue().size(), tableRef);
             for (List<Cell> cells : Iterables.partition(entry.getValue(), batchSizeSupplier.get())) {
-                Multimap<Cell, Long> timestampsToDelete = HashMultimap.create(
-                        keyValueService.getAllTimestamps(tableRef, ImmutableSet.copyOf(cells), scrubTimestamp));
-                for (Cell cell : ImmutableList.copyOf(timestampsToDelete.keySet())) {
-                    // Don't scrub garbage collection sentinels
-                    timestampsToDelete.remove(cell, Value.INVALID_VALUE_TIMESTAMP);
-                }
-                // If transactionType == TransactionType.AGGRESSIVE_HARD_DELETE this might
-                // force other transactions to abort or retry
-                deleteCellsAtTimestamps(txManager, tableRef, timestampsToDelete, transactionType);
+                scrubCells(txManager, tableRef, Maps2.createConstantValueMap(cells, scrubTimestamp), transactionType);
             }
             log.debug("Immediately scrubbed {} cells from table {}", entry.getValue().size(), tableRef);
         }
     }
 
+    /**
+     * Deletes the values of each cell written before the scrub timestamp it is mapped to.
+     */
+    private void scrubCells(TransactionManager txManager,
+                            TableReference tableRef,
+                            Map<Cell, Long> cellToScrubTimestamp,
+                            Transaction.TransactionType transactionType) {
+        long maxScrubTimestamp = Collections.max(cellToScrubTimestamp.values());
+        Multimap<Cell, Long> allTimestamps =
+                keyValueService.getAllTimestamps(tableRef, cellToScrubTimestamp.keySet(), maxScrubTimestamp);
+        Multimap<Cell, Long> timestampsToDelete = HashMultimap.create();
+        for (Entry<Cell, Long> e : allTimestamps.entries()) {
+            // Don't scrub garbage collection sentinels
+            if (e.getValue() != Value.INVALID_VALUE_TIMESTAMP && e.getValue() < cellToScrubTimestamp.get(e.getKey())) {
+                timestampsToDelete.put(e.getKey(), e.getValue());
+            }
+        }
+        // If transactionType == TransactionType.AGGRESSIVE_HARD_DELETE this might
+        // force other transactions to abort or retry
+        deleteCellsAtTimestamps(txManager, tableRef, timestampsToDelete, transactionType);
+        metrics.deletedValues(timestampsToDelete.size());
+    }
+
     private void deleteCellsAtTimestamps(TransactionManager txManager,
                                          TableReference tableRef,
                                          Multimap<Cell, Long> cellToTimestamp,
@@ -535,6 +604,7 @@ public final class Scrubber {
     }
 
     public void shutdown() {
+        metrics.deregister();
         exec.shutdown();
         readerExec.shutdown();
         service.shutdownNow();
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.palantir.atlasdb.util.MetricsManager;
+
+@SuppressWarnings("checkstyle:FinalClass")
+class ScrubberMetrics {
+    private final MetricsManager metricsManager = new MetricsManager();
+
+    private final Meter cellsReadMeter = metricsManager.registerMeter(Scrubber.class, null, "cellsRead");
+    private final Meter cellsDeferredMeter = metricsManager.registerMeter(Scrubber.class, null, "cellsDeferred");
+    private final Meter valuesDeletedMeter = metricsManager.registerMeter(Scrubber.class, null, "valuesDeleted");
+
+    private final AtomicLong lastMaxScrubTimestamp = new AtomicLong();
+    private final AtomicLong lastOldestScrubTimestamp = new AtomicLong();
+
+    ScrubberMetrics() {
+        metricsManager.registerMetric(Scrubber.class, "maxScrubTimestamp",
+                (Gauge<Long>) lastMaxScrubTimestamp::get);
+        metricsManager.registerMetric(Scrubber.class, "oldestScrubTimestamp",
+                (Gauge<Long>) lastOldestScrubTimestamp::get);
+        metricsManager.registerMetric(Scrubber.class, "scrubLag",
+                (Gauge<Long>) () -> lastMaxScrubTimestamp.get() - lastOldestScrubTimestamp.get());
+    }
+
+    void readCells(long numRead) {
+        cellsReadMeter.mark(numRead);
+    }
+
+    void deferredCells(long numDeferred) {
+        cellsDeferredMeter.mark(numDeferred);
+    }
+
+    void deletedValues(long numDeleted) {
+        valuesDeletedMeter.mark(numDeleted);
+    }
+
+    /**
+     * Records a finished background scrub pass. The lag is how far the oldest scrub timestamp read during the
+     * pass trails the timestamp the pass scrubbed up to, or zero if nothing was read.
+     */
+    void finishedPass(long maxScrubTimestamp, long oldestScrubTimestamp) {
+        lastMaxScrubTimestamp.set(maxScrubTimestamp);
+        lastOldestScrubTimestamp.set(Math.min(oldestScrubTimestamp, maxScrubTimestamp));
+    }
+
+    void deregister() {
+        metricsManager.deregisterMetrics();
+    }
+}
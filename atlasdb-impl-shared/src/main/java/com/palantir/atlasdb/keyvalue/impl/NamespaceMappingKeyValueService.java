@@ -153,6 +153,13 @@ public class NamespaceMappingKeyValueService extends ForwardingObject implements
         return delegate().getFirstBatchForRanges(tableRef, rangeRequests, timestamp);
     }
 
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        return delegate().partitionRange(tableRef, rangeRequest, desiredPartitions);
+    }
+
     @Override
     public void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp) {
         delegate().put(tableRef, values, timestamp);
@@ -216,6 +216,13 @@ public final class TableSplittingKeyValueService implements KeyValueService {
         return getDelegate(tableRef).getFirstBatchForRanges(tableRef, rangeRequests, timestamp);
     }
 
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        return getDelegate(tableRef).partitionRange(tableRef, rangeRequest, desiredPartitions);
+    }
+
     @Override
     public Map<Cell, Long> getLatestTimestamps(TableReference tableRef, Map<Cell, Long> timestampByCell) {
         return getDelegate(tableRef).getLatestTimestamps(tableRef, timestampByCell);
@@ -180,6 +180,13 @@ public class ThrowingKeyValueService implements KeyValueService {
         throw throwEx();
     }
 
+    @Override
+    public List<RangeRequest> partitionRange(TableReference tableRef,
+                                             RangeRequest rangeRequest,
+                                             int desiredPartitions) {
+        throw throwEx();
+    }
+
     @Override
     @Idempotent
     public void dropTable(TableReference tableRef) {
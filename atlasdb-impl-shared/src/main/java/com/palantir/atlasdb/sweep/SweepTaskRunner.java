@@ -25,11 +25,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
 import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -94,11 +97,30 @@ public class SweepTaskRunner {
     public SweepResults dryRun(TableReference tableRef,
                                SweepBatchConfig batchConfig,
                                byte[] startRow) {
-        return runInternal(tableRef, batchConfig, startRow, RunType.DRY);
+        return dryRun(tableRef, batchConfig, startRow, PtBytes.EMPTY_BYTE_ARRAY);
+    }
+
+    public SweepResults dryRun(TableReference tableRef,
+                               SweepBatchConfig batchConfig,
+                               byte[] startRow,
+                               byte[] endRowExclusive) {
+        return runInternal(tableRef, batchConfig, startRow, endRowExclusive, RunType.DRY);
     }
 
     public SweepResults run(TableReference tableRef, SweepBatchConfig batchConfig, byte[] startRow) {
-        return runInternal(tableRef, batchConfig, startRow, RunType.FULL);
+        return run(tableRef, batchConfig, startRow, PtBytes.EMPTY_BYTE_ARRAY);
+    }
+
+    /**
+     * Sweeps a batch of the rows from {@code startRow} up to, but not including, {@code endRowExclusive}, which
+     * is empty to sweep to the end of the table. The results have no next start row once the range has been swept,
+     * so that separate ranges of a table can be swept independently, and in parallel.
+     */
+    public SweepResults run(TableReference tableRef,
+                            SweepBatchConfig batchConfig,
+                            byte[] startRow,
+                            byte[] endRowExclusive) {
+        return runInternal(tableRef, batchConfig, startRow, endRowExclusive, RunType.FULL);
     }
 
     public long getConservativeSweepTimestamp() {
@@ -110,6 +132,7 @@ public class SweepTaskRunner {
             TableReference tableRef,
             SweepBatchConfig batchConfig,
             byte[] startRow,
+            byte[] endRowExclusive,
             RunType runType) {
         Preconditions.checkNotNull(tableRef, "tableRef cannot be null");
         Preconditions.checkState(!AtlasDbConstants.hiddenTables.contains(tableRef));
@@ -132,12 +155,13 @@ public class SweepTaskRunner {
         if (!sweeper.isPresent()) {
             return SweepResults.createEmptySweepResult();
         }
-        return doRun(tableRef, batchConfig, startRow, runType, sweeper.get());
+        return doRun(tableRef, batchConfig, startRow, endRowExclusive, runType, sweeper.get());
     }
 
     private SweepResults doRun(TableReference tableRef,
                                SweepBatchConfig batchConfig,
                                byte[] startRow,
+                               byte[] endRowExclusive,
                                RunType runType,
                                Sweeper sweeper) {
         // Earliest start timestamp of any currently open transaction, with two caveats:
@@ -167,8 +191,9 @@ public class SweepTaskRunner {
         try (ClosableIterator<List<CandidateCellForSweeping>> candidates = keyValueService.getCandidateCellsForSweeping(
                     tableRef, request)) {
             ExaminedCellLimit limit = new ExaminedCellLimit(startRow, batchConfig.maxCellTsPairsToExamine());
+            CandidatesBeforeRow candidatesInRange = new CandidatesBeforeRow(candidates, endRowExclusive);
             Iterator<BatchOfCellsToSweep> batchesToSweep = getBatchesToSweep(
-                        candidates, batchConfig, sweepableCellFilter, limit);
+                        candidatesInRange, batchConfig, sweepableCellFilter, limit);
             long totalCellTsPairsExamined = 0;
             long totalCellTsPairsDeleted = 0;
             byte[] lastRow = startRow;
@@ -180,7 +205,9 @@ public class SweepTaskRunner {
             }
             return SweepResults.builder()
                     .previousStartRow(Optional.of(startRow))
-                    .nextStartRow(Arrays.equals(startRow, lastRow) ? Optional.empty() : Optional.of(lastRow))
+                    .nextStartRow(Arrays.equals(startRow, lastRow) || candidatesInRange.reachedEndRow()
+                            ? Optional.empty()
+                            : Optional.of(lastRow))
                     .cellTsPairsExamined(totalCellTsPairsExamined)
                     .staleValuesDeleted(totalCellTsPairsDeleted)
                     .sweptTimestamp(sweepTs)
@@ -216,4 +243,42 @@ public class SweepTaskRunner {
         return startTimestampsToSweepPerCell.size();
     }
 
+    /**
+     * Passes on the candidate cells in rows before the end row, and then stops reading further candidates.
+     * Candidates are read a batch at a time, so the final batch is one that contains the end row.
+     */
+    private static final class CandidatesBeforeRow extends AbstractIterator<List<CandidateCellForSweeping>> {
+        private final Iterator<List<CandidateCellForSweeping>> candidates;
+        private final byte[] endRowExclusive;
+        private boolean reachedEndRow = false;
+
+        CandidatesBeforeRow(Iterator<List<CandidateCellForSweeping>> candidates, byte[] endRowExclusive) {
+            this.candidates = candidates;
+            this.endRowExclusive = endRowExclusive;
+        }
+
+        boolean reachedEndRow() {
+            return reachedEndRow;
+        }
+
+        @Override
+        protected List<CandidateCellForSweeping> computeNext() {
+            if (reachedEndRow || !candidates.hasNext()) {
+                return endOfData();
+            }
+            List<CandidateCellForSweeping> batch = candidates.next();
+            if (endRowExclusive.length == 0) {
+                return batch;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (UnsignedBytes.lexicographicalComparator().compare(
+                        batch.get(i).cell().getRowName(), endRowExclusive) >= 0) {
+                    reachedEndRow = true;
+                    return batch.subList(0, i);
+                }
+            }
+            return batch;
+        }
+    }
+
 }
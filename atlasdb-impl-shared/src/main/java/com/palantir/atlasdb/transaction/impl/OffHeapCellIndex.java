@@ -0,0 +1,430 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import com.palantir.atlasdb.keyvalue.api.Cell;
+
+/**
+ * A skip list from cell to the address of a value, whose nodes and keys live in an {@link OffHeapWriteBuffer}
+ * rather than on the java heap. Keys are compared in place, so a lookup or an insert allocates no more than the
+ * {@link Cell}s it hands back.
+ * <p>
+ * Each node holds the address of its value, the cell's TTL, the lengths of the row and column names, its level,
+ * one forward pointer per level and then the row and column names themselves. Removed nodes are unlinked but
+ * keep their forward pointers, so an iterator positioned on one can carry on; the space is only reclaimed when the
+ * buffer is closed. Operations are serialised by a read/write lock, and each holds off closing the buffer while it
+ * runs.
+ */
+final class OffHeapCellIndex {
+    static final long NIL = -1L;
+
+    private static final int VALUE_OFFSET = 0;
+    private static final int TTL_OFFSET = VALUE_OFFSET + Long.BYTES;
+    private static final int ROW_LENGTH_OFFSET = TTL_OFFSET + Long.BYTES;
+    private static final int COLUMN_LENGTH_OFFSET = ROW_LENGTH_OFFSET + Integer.BYTES;
+    private static final int LEVEL_OFFSET = COLUMN_LENGTH_OFFSET + Integer.BYTES;
+    private static final int NEXT_OFFSET = LEVEL_OFFSET + Integer.BYTES;
+
+    private static final int MAX_LEVEL = 16;
+
+    private final OffHeapWriteBuffer buffer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long head = NIL;
+    private int size = 0;
+
+    OffHeapCellIndex(OffHeapWriteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * A key and the address of its value, as read from a node at some point.
+     */
+    static final class IndexEntry {
+        private final long node;
+        private final Cell key;
+        private final long valueAddress;
+
+        private IndexEntry(long node, Cell key, long valueAddress) {
+            this.node = node;
+            this.key = key;
+            this.valueAddress = valueAddress;
+        }
+
+        Cell getKey() {
+            return key;
+        }
+
+        long getValueAddress() {
+            return valueAddress;
+        }
+    }
+
+    int size() {
+        return read(() -> size);
+    }
+
+    void clear() {
+        write(() -> {
+            head = NIL;
+            size = 0;
+            return NIL;
+        });
+    }
+
+    /**
+     * @return the address of the key's value, or {@link #NIL} if it has none
+     */
+    long get(Cell key) {
+        return readLong(() -> {
+            long node = findNode(key, null);
+            return node == NIL ? NIL : valueOf(node);
+        });
+    }
+
+    /**
+     * @return the address of the key's previous value, or {@link #NIL} if it had none
+     */
+    long put(Cell key, long valueAddress) {
+        return write(() -> {
+            long[] preds = new long[MAX_LEVEL];
+            long node = findNode(key, preds);
+            if (node != NIL) {
+                long previous = valueOf(node);
+                buffer.putLong(node, VALUE_OFFSET, valueAddress);
+                return previous;
+            }
+            insert(key, valueAddress, preds);
+            return NIL;
+        });
+    }
+
+    /**
+     * @return the address of the key's current value if it has one, otherwise {@link #NIL} having stored the given
+     * value
+     */
+    long putIfAbsent(Cell key, long valueAddress) {
+        return write(() -> {
+            long[] preds = new long[MAX_LEVEL];
+            long node = findNode(key, preds);
+            if (node != NIL) {
+                return valueOf(node);
+            }
+            insert(key, valueAddress, preds);
+            return NIL;
+        });
+    }
+
+    /**
+     * @return the address of the key's previous value, or {@link #NIL} if it had none and so was not stored
+     */
+    long replace(Cell key, long valueAddress) {
+        return write(() -> {
+            long node = findNode(key, null);
+            if (node == NIL) {
+                return NIL;
+            }
+            long previous = valueOf(node);
+            buffer.putLong(node, VALUE_OFFSET, valueAddress);
+            return previous;
+        });
+    }
+
+    boolean replace(Cell key, long expectedValueAddress, long valueAddress) {
+        return write(() -> {
+            long node = findNode(key, null);
+            if (node == NIL || valueOf(node) != expectedValueAddress) {
+                return 0L;
+            }
+            buffer.putLong(node, VALUE_OFFSET, valueAddress);
+            return 1L;
+        }) == 1L;
+    }
+
+    /**
+     * @return the address of the key's previous value, or {@link #NIL} if it had none
+     */
+    long remove(Cell key) {
+        return write(() -> {
+            long[] preds = new long[MAX_LEVEL];
+            long node = findNode(key, preds);
+            if (node == NIL) {
+                return NIL;
+            }
+            long previous = valueOf(node);
+            unlink(node, preds);
+            return previous;
+        });
+    }
+
+    boolean remove(Cell key, long expectedValueAddress) {
+        return write(() -> {
+            long[] preds = new long[MAX_LEVEL];
+            long node = findNode(key, preds);
+            if (node == NIL || valueOf(node) != expectedValueAddress) {
+                return 0L;
+            }
+            unlink(node, preds);
+            return 1L;
+        }) == 1L;
+    }
+
+    /**
+     * @return the entry with the least key greater than (or equal to, if inclusive) the given key, or with the
+     * least key of all if the key is null
+     */
+    @Nullable
+    IndexEntry ceiling(@Nullable Cell key, boolean inclusive) {
+        return read(() -> {
+            if (head == NIL) {
+                return null;
+            }
+            long node = nextOf(key == null ? head : findPredecessor(key), 0);
+            if (!inclusive && key != null && node != NIL && compare(node, key) == 0) {
+                node = nextOf(node, 0);
+            }
+            return entryAt(node);
+        });
+    }
+
+    /**
+     * @return the entry with the greatest key less than (or equal to, if inclusive) the given key, or with the
+     * greatest key of all if the key is null
+     */
+    @Nullable
+    IndexEntry floor(@Nullable Cell key, boolean inclusive) {
+        return read(() -> {
+            if (head == NIL) {
+                return null;
+            }
+            if (key == null) {
+                return entryAt(findLast());
+            }
+            long pred = findPredecessor(key);
+            long next = nextOf(pred, 0);
+            if (inclusive && next != NIL && compare(next, key) == 0) {
+                return entryAt(next);
+            }
+            return pred == head ? null : entryAt(pred);
+        });
+    }
+
+    /**
+     * @return the entry following the given one in key order, or null if there is none. If the given entry has
+     * since been removed, entries inserted after its removal may be skipped.
+     */
+    @Nullable
+    IndexEntry next(IndexEntry entry) {
+        return read(() -> {
+            long node = nextOf(entry.node, 0);
+            // a removed node keeps pointing at what followed it; skip anything since removed as well
+            while (node != NIL && valueOf(node) == NIL) {
+                node = nextOf(node, 0);
+            }
+            return entryAt(node);
+        });
+    }
+
+    private long findNode(Cell key, @Nullable long[] preds) {
+        if (head == NIL) {
+            return NIL;
+        }
+        long node = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            for (long next = nextOf(node, level); next != NIL && compare(next, key) < 0; next = nextOf(node, level)) {
+                node = next;
+            }
+            if (preds != null) {
+                preds[level] = node;
+            }
+        }
+        long next = nextOf(node, 0);
+        return next != NIL && compare(next, key) == 0 ? next : NIL;
+    }
+
+    private long findPredecessor(Cell key) {
+        long node = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            for (long next = nextOf(node, level); next != NIL && compare(next, key) < 0; next = nextOf(node, level)) {
+                node = next;
+            }
+        }
+        return node;
+    }
+
+    private long findLast() {
+        long node = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            for (long next = nextOf(node, level); next != NIL; next = nextOf(node, level)) {
+                node = next;
+            }
+        }
+        return node == head ? NIL : node;
+    }
+
+    private void insert(Cell key, long valueAddress, long[] preds) {
+        if (head == NIL) {
+            head = buffer.allocate(NEXT_OFFSET + MAX_LEVEL * Long.BYTES);
+            buffer.putInt(head, LEVEL_OFFSET, MAX_LEVEL);
+            for (int level = 0; level < MAX_LEVEL; level++) {
+                buffer.putLong(head, NEXT_OFFSET + level * Long.BYTES, NIL);
+                preds[level] = head;
+            }
+        }
+        byte[] row = key.getRowName();
+        byte[] column = key.getColumnName();
+        int nodeLevel = randomLevel();
+        int keyOffset = NEXT_OFFSET + nodeLevel * Long.BYTES;
+        long node = buffer.allocate(keyOffset + row.length + column.length);
+        buffer.putLong(node, VALUE_OFFSET, valueAddress);
+        buffer.putLong(node, TTL_OFFSET, key.getTtlDurationMillis());
+        buffer.putInt(node, ROW_LENGTH_OFFSET, row.length);
+        buffer.putInt(node, COLUMN_LENGTH_OFFSET, column.length);
+        buffer.putInt(node, LEVEL_OFFSET, nodeLevel);
+        buffer.putBytes(node, keyOffset, row);
+        buffer.putBytes(node, keyOffset + row.length, column);
+        for (int level = 0; level < nodeLevel; level++) {
+            setNext(node, level, nextOf(preds[level], level));
+            setNext(preds[level], level, node);
+        }
+        size++;
+    }
+
+    private void unlink(long node, long[] preds) {
+        int nodeLevel = buffer.getInt(node, LEVEL_OFFSET);
+        for (int level = 0; level < nodeLevel; level++) {
+            setNext(preds[level], level, nextOf(node, level));
+        }
+        buffer.putLong(node, VALUE_OFFSET, NIL);
+        size--;
+    }
+
+    private static int randomLevel() {
+        int level = 1;
+        while (level < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            level++;
+        }
+        return level;
+    }
+
+    private long valueOf(long node) {
+        return buffer.getLong(node, VALUE_OFFSET);
+    }
+
+    private long nextOf(long node, int level) {
+        return buffer.getLong(node, NEXT_OFFSET + level * Long.BYTES);
+    }
+
+    private void setNext(long node, int level, long next) {
+        buffer.putLong(node, NEXT_OFFSET + level * Long.BYTES, next);
+    }
+
+    /**
+     * Compares the key of a node with the given cell, in the order of {@link Cell#compareTo}.
+     */
+    private int compare(long node, Cell key) {
+        int rowLength = buffer.getInt(node, ROW_LENGTH_OFFSET);
+        int keyOffset = NEXT_OFFSET + buffer.getInt(node, LEVEL_OFFSET) * Long.BYTES;
+        int cmp = compareBytes(node, keyOffset, rowLength, key.getRowName());
+        if (cmp != 0) {
+            return cmp;
+        }
+        return compareBytes(node, keyOffset + rowLength, buffer.getInt(node, COLUMN_LENGTH_OFFSET),
+                key.getColumnName());
+    }
+
+    private int compareBytes(long node, int offset, int length, byte[] other) {
+        int minLength = Math.min(length, other.length);
+        for (int i = 0; i < minLength; i++) {
+            int cmp = Integer.compare(buffer.getByte(node, offset + i) & 0xFF, other[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, other.length);
+    }
+
+    @Nullable
+    private IndexEntry entryAt(long node) {
+        if (node == NIL) {
+            return null;
+        }
+        int rowLength = buffer.getInt(node, ROW_LENGTH_OFFSET);
+        int keyOffset = NEXT_OFFSET + buffer.getInt(node, LEVEL_OFFSET) * Long.BYTES;
+        byte[] row = buffer.getBytes(node, keyOffset, rowLength);
+        byte[] column = buffer.getBytes(node, keyOffset + rowLength, buffer.getInt(node, COLUMN_LENGTH_OFFSET));
+        long ttl = buffer.getLong(node, TTL_OFFSET);
+        Cell key = ttl == Cell.INVALID_TTL
+                ? Cell.create(row, column)
+                : Cell.create(row, column, ttl, TimeUnit.MILLISECONDS);
+        return new IndexEntry(node, key, valueOf(node));
+    }
+
+    private <T> T read(Supplier<T> action) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            Lock access = buffer.lockForAccess();
+            try {
+                return action.get();
+            } finally {
+                access.unlock();
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private long readLong(LongSupplier action) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            Lock access = buffer.lockForAccess();
+            try {
+                return action.getAsLong();
+            } finally {
+                access.unlock();
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private long write(LongSupplier action) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            Lock access = buffer.lockForAccess();
+            try {
+                return action.getAsLong();
+            } finally {
+                access.unlock();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
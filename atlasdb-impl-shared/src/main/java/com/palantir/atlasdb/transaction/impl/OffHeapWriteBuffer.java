@@ -0,0 +1,256 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+/**
+ * An append-only arena holding the writes of a transaction outside of the java heap. Values are written
+ * length-prefixed into direct buffers by {@link #append}, and the nodes of {@link OffHeapCellIndex} are carved out of
+ * the same buffers by {@link #allocate}; once {@code spillThresholdBytes} bytes are held in memory, further
+ * allocations go to memory-mapped regions of a temporary file which is deleted when the buffer is closed.
+ * <p>
+ * Allocations are serialised, but may be read concurrently with allocations: an address must be published to
+ * readers through a thread safe structure. Closing the buffer releases its memory straight away rather than waiting
+ * for the direct buffers to be garbage collected, so it may no longer be read from afterwards; the raw accessors
+ * may only be called while holding the lock returned by {@link #lockForAccess}, which holds off closing.
+ */
+final class OffHeapWriteBuffer implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(OffHeapWriteBuffer.class);
+
+    static final int CHUNK_SIZE_BYTES = 1 << 20;
+
+    private final long spillThresholdBytes;
+    private final int chunkSizeBytes;
+    private final List<ByteBuffer> chunks = new CopyOnWriteArrayList<>();
+    /* Guards reads against the chunks being released underneath them. */
+    private final ReentrantReadWriteLock releaseLock = new ReentrantReadWriteLock();
+
+    private ByteBuffer currentChunk;
+    private long bytesInMemory = 0;
+    private FileChannel spillFile;
+    private long bytesSpilled = 0;
+    private volatile boolean closed = false;
+
+    OffHeapWriteBuffer(long spillThresholdBytes) {
+        this(spillThresholdBytes, CHUNK_SIZE_BYTES);
+    }
+
+    OffHeapWriteBuffer(long spillThresholdBytes, int chunkSizeBytes) {
+        Preconditions.checkArgument(chunkSizeBytes > Integer.BYTES, "Chunks must be able to hold a value");
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.chunkSizeBytes = chunkSizeBytes;
+    }
+
+    /**
+     * @return the address to read the value back with
+     */
+    synchronized long append(byte[] value) {
+        long address = allocate(Integer.BYTES + value.length);
+        ByteBuffer chunk = chunk(address).duplicate();
+        chunk.position(offset(address));
+        chunk.putInt(value.length);
+        chunk.put(value);
+        return address;
+    }
+
+    byte[] get(long address) {
+        Lock access = lockForAccess();
+        try {
+            return getBytes(address, Integer.BYTES, getInt(address, 0));
+        } finally {
+            access.unlock();
+        }
+    }
+
+    /**
+     * Reserves {@code size} contiguous bytes, which are zeroed and never span two chunks.
+     *
+     * @return the address of the first byte
+     */
+    synchronized long allocate(int size) {
+        Preconditions.checkState(!closed, "Cannot write to a closed write buffer.");
+        if (currentChunk == null || currentChunk.remaining() < size) {
+            currentChunk = allocateChunk(Math.max(size, chunkSizeBytes));
+            chunks.add(currentChunk);
+        }
+        int offset = currentChunk.position();
+        currentChunk.position(offset + size);
+        return ((long) (chunks.size() - 1) << Integer.SIZE) | offset;
+    }
+
+    /**
+     * Holds off closing the buffer until the returned lock is released.
+     *
+     * @throws IllegalStateException if the buffer has been closed
+     */
+    Lock lockForAccess() {
+        Lock readLock = releaseLock.readLock();
+        readLock.lock();
+        if (closed) {
+            readLock.unlock();
+            throw new IllegalStateException("Cannot read from a closed write buffer.");
+        }
+        return readLock;
+    }
+
+    long getLong(long address, int offset) {
+        return chunk(address).getLong(offset(address) + offset);
+    }
+
+    void putLong(long address, int offset, long value) {
+        chunk(address).putLong(offset(address) + offset, value);
+    }
+
+    int getInt(long address, int offset) {
+        return chunk(address).getInt(offset(address) + offset);
+    }
+
+    void putInt(long address, int offset, int value) {
+        chunk(address).putInt(offset(address) + offset, value);
+    }
+
+    byte getByte(long address, int offset) {
+        return chunk(address).get(offset(address) + offset);
+    }
+
+    byte[] getBytes(long address, int offset, int length) {
+        ByteBuffer chunk = chunk(address).duplicate();
+        chunk.position(offset(address) + offset);
+        byte[] bytes = new byte[length];
+        chunk.get(bytes);
+        return bytes;
+    }
+
+    void putBytes(long address, int offset, byte[] bytes) {
+        ByteBuffer chunk = chunk(address).duplicate();
+        chunk.position(offset(address) + offset);
+        chunk.put(bytes);
+    }
+
+    private ByteBuffer chunk(long address) {
+        return chunks.get((int) (address >>> Integer.SIZE));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    synchronized boolean hasSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Stops further appends and reads, frees the direct buffers and removes the spill file.
+     */
+    @Override
+    public void close() {
+        // take the release lock before the monitor: readers holding the release lock may allocate
+        Lock writeLock = releaseLock.writeLock();
+        writeLock.lock();
+        try {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                for (ByteBuffer chunk : chunks) {
+                    release(chunk);
+                }
+                chunks.clear();
+                currentChunk = null;
+                if (spillFile != null) {
+                    try {
+                        spillFile.close();
+                    } catch (IOException e) {
+                        log.warn("Failed to close the spill file of a transaction's write buffer.", e);
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Frees a direct or mapped buffer without waiting for it to be garbage collected. If the running jvm does not
+     * allow this, the buffer is left for the garbage collector.
+     */
+    private static void release(ByteBuffer chunk) {
+        try {
+            Method cleanerMethod = chunk.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(chunk);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            releaseWithUnsafe(chunk);
+        }
+    }
+
+    private static void releaseWithUnsafe(ByteBuffer chunk) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), chunk);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not free a direct buffer of a transaction's write buffer; leaving it to the gc.", e);
+        }
+    }
+
+    private ByteBuffer allocateChunk(int size) {
+        if (bytesInMemory + size <= spillThresholdBytes) {
+            bytesInMemory += size;
+            return ByteBuffer.allocateDirect(size);
+        }
+        try {
+            if (spillFile == null) {
+                spillFile = FileChannel.open(Files.createTempFile("atlasdb-writes", ".tmp"),
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+                log.info("A transaction has buffered more than {} bytes of writes in memory;"
+                        + " spilling further writes to disk.", spillThresholdBytes);
+            }
+            ByteBuffer chunk = spillFile.map(FileChannel.MapMode.READ_WRITE, bytesSpilled, size);
+            bytesSpilled += size;
+            return chunk;
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+}
@@ -0,0 +1,673 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.transaction.impl.OffHeapCellIndex.IndexEntry;
+
+/**
+ * The local writes of a single table, kept in an {@link OffHeapCellIndex} from cell to the address of its value in
+ * an {@link OffHeapWriteBuffer}. Both the index and the values live in the buffer, so a buffered write leaves nothing
+ * on the java heap; cells and values are copied out of the buffer when read, so callers (range and column range
+ * merges, constraint checks and the final multiPut) see an ordinary sorted map.
+ * <p>
+ * Sub-maps and the descending map are views over the same index, bounded in the same way as those of
+ * {@link java.util.concurrent.ConcurrentSkipListMap}, and their iterators are weakly consistent. Overwriting a
+ * cell leaves its previous value in the buffer. Conditional removes and replaces compare values by content, and
+ * are atomic because every append gets a fresh address.
+ */
+final class OffHeapWriteBufferMap extends AbstractMap<Cell, byte[]> implements ConcurrentNavigableMap<Cell, byte[]> {
+    private final OffHeapCellIndex index;
+    private final OffHeapWriteBuffer buffer;
+
+    @Nullable
+    private final Cell lo;
+    private final boolean loInclusive;
+    @Nullable
+    private final Cell hi;
+    private final boolean hiInclusive;
+    private final boolean descending;
+
+    OffHeapWriteBufferMap(OffHeapWriteBuffer buffer) {
+        this(new OffHeapCellIndex(buffer), buffer, null, false, null, false, false);
+    }
+
+    private OffHeapWriteBufferMap(OffHeapCellIndex index,
+                                  OffHeapWriteBuffer buffer,
+                                  @Nullable Cell lo,
+                                  boolean loInclusive,
+                                  @Nullable Cell hi,
+                                  boolean hiInclusive,
+                                  boolean descending) {
+        this.index = index;
+        this.buffer = buffer;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    @Override
+    public int size() {
+        if (isUnbounded()) {
+            return index.size();
+        }
+        int size = 0;
+        for (IndexEntry entry = first(); entry != null; entry = following(entry)) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return first() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Cell cell = (Cell) Preconditions.checkNotNull(key);
+        return inRange(cell) && index.get(cell) != OffHeapCellIndex.NIL;
+    }
+
+    @Override
+    public byte[] get(Object key) {
+        Cell cell = (Cell) Preconditions.checkNotNull(key);
+        return inRange(cell) ? readValue(index.get(cell)) : null;
+    }
+
+    @Override
+    public byte[] put(Cell key, byte[] value) {
+        checkInRange(key);
+        return readValue(index.put(key, buffer.append(value)));
+    }
+
+    @Override
+    public byte[] putIfAbsent(Cell key, byte[] value) {
+        checkInRange(key);
+        long address = index.get(key);
+        if (address != OffHeapCellIndex.NIL) {
+            return buffer.get(address);
+        }
+        return readValue(index.putIfAbsent(key, buffer.append(value)));
+    }
+
+    @Override
+    public byte[] remove(Object key) {
+        Cell cell = (Cell) Preconditions.checkNotNull(key);
+        return inRange(cell) ? readValue(index.remove(cell)) : null;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Cell cell = (Cell) Preconditions.checkNotNull(key);
+        if (!(value instanceof byte[]) || !inRange(cell)) {
+            return false;
+        }
+        while (true) {
+            long address = index.get(cell);
+            if (address == OffHeapCellIndex.NIL || !Arrays.equals(buffer.get(address), (byte[]) value)) {
+                return false;
+            }
+            if (index.remove(cell, address)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(Cell key, byte[] oldValue, byte[] newValue) {
+        checkInRange(key);
+        long newAddress = OffHeapCellIndex.NIL;
+        while (true) {
+            long address = index.get(key);
+            if (address == OffHeapCellIndex.NIL || !Arrays.equals(buffer.get(address), oldValue)) {
+                return false;
+            }
+            if (newAddress == OffHeapCellIndex.NIL) {
+                newAddress = buffer.append(newValue);
+            }
+            if (index.replace(key, address, newAddress)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public byte[] replace(Cell key, byte[] value) {
+        checkInRange(key);
+        if (index.get(key) == OffHeapCellIndex.NIL) {
+            return null;
+        }
+        return readValue(index.replace(key, buffer.append(value)));
+    }
+
+    @Override
+    public void clear() {
+        if (isUnbounded()) {
+            index.clear();
+            return;
+        }
+        for (IndexEntry entry = first(); entry != null; entry = following(entry)) {
+            index.remove(entry.getKey());
+        }
+    }
+
+    @Override
+    public Set<Entry<Cell, byte[]>> entrySet() {
+        return new AbstractSet<Entry<Cell, byte[]>>() {
+            @Override
+            public Iterator<Entry<Cell, byte[]>> iterator() {
+                return Iterators.transform(new EntryIterator(), OffHeapWriteBufferMap.this::readEntry);
+            }
+
+            @Override
+            public int size() {
+                return OffHeapWriteBufferMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return OffHeapWriteBufferMap.this.isEmpty();
+            }
+
+            @Override
+            public void clear() {
+                OffHeapWriteBufferMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<Cell> keySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public NavigableSet<Cell> navigableKeySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public NavigableSet<Cell> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Comparator<? super Cell> comparator() {
+        return descending ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public Cell firstKey() {
+        return keyOrThrow(first());
+    }
+
+    @Override
+    public Cell lastKey() {
+        return keyOrThrow(last());
+    }
+
+    @Override
+    public Cell lowerKey(Cell key) {
+        return keyOf(lower(key));
+    }
+
+    @Override
+    public Cell floorKey(Cell key) {
+        return keyOf(floor(key));
+    }
+
+    @Override
+    public Cell ceilingKey(Cell key) {
+        return keyOf(ceiling(key));
+    }
+
+    @Override
+    public Cell higherKey(Cell key) {
+        return keyOf(higher(key));
+    }
+
+    @Override
+    public Entry<Cell, byte[]> lowerEntry(Cell key) {
+        return readEntry(lower(key));
+    }
+
+    @Override
+    public Entry<Cell, byte[]> floorEntry(Cell key) {
+        return readEntry(floor(key));
+    }
+
+    @Override
+    public Entry<Cell, byte[]> ceilingEntry(Cell key) {
+        return readEntry(ceiling(key));
+    }
+
+    @Override
+    public Entry<Cell, byte[]> higherEntry(Cell key) {
+        return readEntry(higher(key));
+    }
+
+    @Override
+    public Entry<Cell, byte[]> firstEntry() {
+        return readEntry(first());
+    }
+
+    @Override
+    public Entry<Cell, byte[]> lastEntry() {
+        return readEntry(last());
+    }
+
+    @Override
+    public Entry<Cell, byte[]> pollFirstEntry() {
+        for (IndexEntry entry = first(); entry != null; entry = first()) {
+            if (index.remove(entry.getKey(), entry.getValueAddress())) {
+                return readEntry(entry);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Entry<Cell, byte[]> pollLastEntry() {
+        for (IndexEntry entry = last(); entry != null; entry = last()) {
+            if (index.remove(entry.getKey(), entry.getValueAddress())) {
+                return readEntry(entry);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ConcurrentNavigableMap<Cell, byte[]> subMap(Cell fromKey, boolean fromInclusive,
+                                                       Cell toKey, boolean toInclusive) {
+        Preconditions.checkNotNull(fromKey);
+        Preconditions.checkNotNull(toKey);
+        return view(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<Cell, byte[]> headMap(Cell toKey, boolean inclusive) {
+        Preconditions.checkNotNull(toKey);
+        return view(null, false, toKey, inclusive);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<Cell, byte[]> tailMap(Cell fromKey, boolean inclusive) {
+        Preconditions.checkNotNull(fromKey);
+        return view(fromKey, inclusive, null, false);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<Cell, byte[]> subMap(Cell fromKey, Cell toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<Cell, byte[]> headMap(Cell toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<Cell, byte[]> tailMap(Cell fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<Cell, byte[]> descendingMap() {
+        return new OffHeapWriteBufferMap(index, buffer, lo, loInclusive, hi, hiInclusive, !descending);
+    }
+
+    /**
+     * Returns a view bounded by the given keys, in this map's order, which must lie within this map's bounds.
+     */
+    private OffHeapWriteBufferMap view(@Nullable Cell fromKey, boolean fromInclusive,
+                                       @Nullable Cell toKey, boolean toInclusive) {
+        Cell newLo = descending ? toKey : fromKey;
+        boolean newLoInclusive = descending ? toInclusive : fromInclusive;
+        Cell newHi = descending ? fromKey : toKey;
+        boolean newHiInclusive = descending ? fromInclusive : toInclusive;
+        if (lo != null) {
+            if (newLo == null) {
+                newLo = lo;
+                newLoInclusive = loInclusive;
+            } else {
+                int cmp = newLo.compareTo(lo);
+                Preconditions.checkArgument(cmp > 0 || (cmp == 0 && (loInclusive || !newLoInclusive)),
+                        "key out of range");
+            }
+        }
+        if (hi != null) {
+            if (newHi == null) {
+                newHi = hi;
+                newHiInclusive = hiInclusive;
+            } else {
+                int cmp = newHi.compareTo(hi);
+                Preconditions.checkArgument(cmp < 0 || (cmp == 0 && (hiInclusive || !newHiInclusive)),
+                        "key out of range");
+            }
+        }
+        Preconditions.checkArgument(newLo == null || newHi == null || newLo.compareTo(newHi) <= 0,
+                "inconsistent range");
+        return new OffHeapWriteBufferMap(index, buffer, newLo, newLoInclusive, newHi, newHiInclusive, descending);
+    }
+
+    private boolean isUnbounded() {
+        return lo == null && hi == null;
+    }
+
+    private boolean tooLow(Cell key) {
+        if (lo == null) {
+            return false;
+        }
+        int cmp = key.compareTo(lo);
+        return cmp < 0 || (cmp == 0 && !loInclusive);
+    }
+
+    private boolean tooHigh(Cell key) {
+        if (hi == null) {
+            return false;
+        }
+        int cmp = key.compareTo(hi);
+        return cmp > 0 || (cmp == 0 && !hiInclusive);
+    }
+
+    private boolean inRange(Cell key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    private void checkInRange(Cell key) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkArgument(inRange(key), "key out of range");
+    }
+
+    /* Lookups in ascending key order, restricted to this map's bounds. */
+
+    @Nullable
+    private IndexEntry lowest() {
+        return belowHi(index.ceiling(lo, lo == null || loInclusive));
+    }
+
+    @Nullable
+    private IndexEntry highest() {
+        return aboveLo(index.floor(hi, hi == null || hiInclusive));
+    }
+
+    @Nullable
+    private IndexEntry absCeiling(Cell key, boolean inclusive) {
+        Preconditions.checkNotNull(key);
+        if (tooLow(key)) {
+            return lowest();
+        }
+        return belowHi(index.ceiling(key, inclusive));
+    }
+
+    @Nullable
+    private IndexEntry absFloor(Cell key, boolean inclusive) {
+        Preconditions.checkNotNull(key);
+        if (tooHigh(key)) {
+            return highest();
+        }
+        return aboveLo(index.floor(key, inclusive));
+    }
+
+    @Nullable
+    private IndexEntry belowHi(@Nullable IndexEntry entry) {
+        return entry == null || tooHigh(entry.getKey()) ? null : entry;
+    }
+
+    @Nullable
+    private IndexEntry aboveLo(@Nullable IndexEntry entry) {
+        return entry == null || tooLow(entry.getKey()) ? null : entry;
+    }
+
+    /* Lookups in this map's order. */
+
+    @Nullable
+    private IndexEntry first() {
+        return descending ? highest() : lowest();
+    }
+
+    @Nullable
+    private IndexEntry last() {
+        return descending ? lowest() : highest();
+    }
+
+    @Nullable
+    private IndexEntry ceiling(Cell key) {
+        return descending ? absFloor(key, true) : absCeiling(key, true);
+    }
+
+    @Nullable
+    private IndexEntry higher(Cell key) {
+        return descending ? absFloor(key, false) : absCeiling(key, false);
+    }
+
+    @Nullable
+    private IndexEntry floor(Cell key) {
+        return descending ? absCeiling(key, true) : absFloor(key, true);
+    }
+
+    @Nullable
+    private IndexEntry lower(Cell key) {
+        return descending ? absCeiling(key, false) : absFloor(key, false);
+    }
+
+    @Nullable
+    private IndexEntry following(IndexEntry entry) {
+        return descending ? aboveLo(index.floor(entry.getKey(), false)) : belowHi(index.next(entry));
+    }
+
+    @Nullable
+    private byte[] readValue(long address) {
+        return address == OffHeapCellIndex.NIL ? null : buffer.get(address);
+    }
+
+    @Nullable
+    private Entry<Cell, byte[]> readEntry(@Nullable IndexEntry entry) {
+        return entry == null ? null : Maps.immutableEntry(entry.getKey(), buffer.get(entry.getValueAddress()));
+    }
+
+    @Nullable
+    private static Cell keyOf(@Nullable IndexEntry entry) {
+        return entry == null ? null : entry.getKey();
+    }
+
+    private static Cell keyOrThrow(@Nullable IndexEntry entry) {
+        if (entry == null) {
+            throw new NoSuchElementException();
+        }
+        return entry.getKey();
+    }
+
+    private final class EntryIterator implements Iterator<IndexEntry> {
+        private IndexEntry next = first();
+        private Cell lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public IndexEntry next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            IndexEntry current = next;
+            next = following(current);
+            lastReturned = current.getKey();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            Preconditions.checkState(lastReturned != null, "next() has not been called");
+            OffHeapWriteBufferMap.this.remove(lastReturned);
+            lastReturned = null;
+        }
+    }
+
+    private final class KeySet extends AbstractSet<Cell> implements NavigableSet<Cell> {
+        @Override
+        public Iterator<Cell> iterator() {
+            return Iterators.transform(new EntryIterator(), IndexEntry::getKey);
+        }
+
+        @Override
+        public Iterator<Cell> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return OffHeapWriteBufferMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return OffHeapWriteBufferMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return containsKey(key);
+        }
+
+        @Override
+        public boolean remove(Object key) {
+            return OffHeapWriteBufferMap.this.remove(key) != null;
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> keys) {
+            boolean changed = false;
+            for (Object key : keys) {
+                changed |= remove(key);
+            }
+            return changed;
+        }
+
+        @Override
+        public void clear() {
+            OffHeapWriteBufferMap.this.clear();
+        }
+
+        @Override
+        public Cell lower(Cell key) {
+            return lowerKey(key);
+        }
+
+        @Override
+        public Cell floor(Cell key) {
+            return floorKey(key);
+        }
+
+        @Override
+        public Cell ceiling(Cell key) {
+            return ceilingKey(key);
+        }
+
+        @Override
+        public Cell higher(Cell key) {
+            return higherKey(key);
+        }
+
+        @Override
+        public Cell pollFirst() {
+            return keyOfEntry(pollFirstEntry());
+        }
+
+        @Override
+        public Cell pollLast() {
+            return keyOfEntry(pollLastEntry());
+        }
+
+        @Override
+        public Comparator<? super Cell> comparator() {
+            return OffHeapWriteBufferMap.this.comparator();
+        }
+
+        @Override
+        public Cell first() {
+            return firstKey();
+        }
+
+        @Override
+        public Cell last() {
+            return lastKey();
+        }
+
+        @Override
+        public NavigableSet<Cell> descendingSet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<Cell> subSet(Cell fromElement, boolean fromInclusive,
+                                         Cell toElement, boolean toInclusive) {
+            return subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<Cell> headSet(Cell toElement, boolean inclusive) {
+            return headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<Cell> tailSet(Cell fromElement, boolean inclusive) {
+            return tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<Cell> subSet(Cell fromElement, Cell toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<Cell> headSet(Cell toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<Cell> tailSet(Cell fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        private Cell keyOfEntry(@Nullable Entry<Cell, byte[]> entry) {
+            return entry == null ? null : entry.getKey();
+        }
+    }
+}
@@ -21,11 +21,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -36,6 +43,7 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -46,6 +54,9 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.Cleaner;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
@@ -58,6 +69,7 @@ import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
 import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
 import com.palantir.atlasdb.transaction.api.ConflictHandler;
@@ -71,6 +83,8 @@ import com.palantir.common.base.BatchingVisitable;
 import com.palantir.common.base.BatchingVisitableView;
 import com.palantir.common.collect.IterableUtils;
 import com.palantir.common.collect.Maps2;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.LockRefreshToken;
 import com.palantir.lock.RemoteLockService;
 import com.palantir.timestamp.TimestampService;
@@ -90,6 +104,20 @@ public class SerializableTransaction extends SnapshotTransaction {
     private static final Logger log = LoggerFactory.getLogger(SerializableTransaction.class);
 
     private static final int BATCH_SIZE = 1000;
+    private static final int MAX_VERIFICATION_THREADS = 16;
+
+    /**
+     * Verifications for different tables and read types are independent, so they are run concurrently.
+     * When all threads are busy the committing thread runs the verification itself rather than queueing it.
+     */
+    private static final ExecutorService verificationExecutor = PTExecutors.newThreadPoolExecutor(
+            0,
+            MAX_VERIFICATION_THREADS,
+            1,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new NamedThreadFactory("serializable-verification", true /* daemon */),
+            new ThreadPoolExecutor.CallerRunsPolicy());
 
     final ConcurrentMap<TableReference, ConcurrentNavigableMap<Cell, byte[]>> readsByTable = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, ConcurrentMap<RangeRequest, byte[]>> rangeEndByTable = Maps.newConcurrentMap();
@@ -97,6 +125,7 @@ public class SerializableTransaction extends SnapshotTransaction {
             columnRangeEndsByTable = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, Set<Cell>> cellsRead = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, Set<RowRead>> rowsRead = Maps.newConcurrentMap();
+    final ConcurrentMap<TableReference, ConcurrentMap<Cell, Long>> versionsReadByTable = Maps.newConcurrentMap();
 
     public SerializableTransaction(KeyValueService keyValueService,
                                    RemoteLockService lockService,
@@ -113,6 +142,40 @@ public class SerializableTransaction extends SnapshotTransaction {
                                    TransactionReadSentinelBehavior readSentinelBehavior,
                                    boolean allowHiddenTableAccess,
                                    TimestampCache timestampCache) {
+        this(keyValueService,
+                lockService,
+                timestampService,
+                transactionService,
+                cleaner,
+                startTimeStamp,
+                conflictDetectionManager,
+                sweepStrategyManager,
+                immutableTimestamp,
+                tokensValidForCommit,
+                constraintCheckingMode,
+                transactionTimeoutMillis,
+                readSentinelBehavior,
+                allowHiddenTableAccess,
+                timestampCache,
+                Optional.empty());
+    }
+
+    public SerializableTransaction(KeyValueService keyValueService,
+                                   RemoteLockService lockService,
+                                   TimestampService timestampService,
+                                   TransactionService transactionService,
+                                   Cleaner cleaner,
+                                   Supplier<Long> startTimeStamp,
+                                   ConflictDetectionManager conflictDetectionManager,
+                                   SweepStrategyManager sweepStrategyManager,
+                                   long immutableTimestamp,
+                                   Iterable<LockRefreshToken> tokensValidForCommit,
+                                   AtlasDbConstraintCheckingMode constraintCheckingMode,
+                                   Long transactionTimeoutMillis,
+                                   TransactionReadSentinelBehavior readSentinelBehavior,
+                                   boolean allowHiddenTableAccess,
+                                   TimestampCache timestampCache,
+                                   Optional<Long> offHeapWriteSpillThresholdBytes) {
         super(keyValueService,
               lockService,
               timestampService,
@@ -127,7 +190,8 @@ public class SerializableTransaction extends SnapshotTransaction {
               transactionTimeoutMillis,
               readSentinelBehavior,
               allowHiddenTableAccess,
-              timestampCache);
+              timestampCache,
+              offHeapWriteSpillThresholdBytes);
     }
 
     @Override
@@ -195,6 +259,16 @@ public class SerializableTransaction extends SnapshotTransaction {
         return Iterables.transform(zip, pair -> wrapRange(tableRef, pair.lhSide, pair.rhSide));
     }
 
+    @Override
+    @Idempotent
+    public Iterable<BatchingVisitable<RowResult<byte[]>>> getRanges(final TableReference tableRef,
+                                                                    Iterable<RangeRequest> rangeRequests,
+                                                                    int concurrencyLevel) {
+        Iterable<BatchingVisitable<RowResult<byte[]>>> ret = super.getRanges(tableRef, rangeRequests, concurrencyLevel);
+        Iterable<Pair<RangeRequest, BatchingVisitable<RowResult<byte[]>>>> zip = IterableUtils.zip(rangeRequests, ret);
+        return Iterables.transform(zip, pair -> wrapRange(tableRef, pair.lhSide, pair.rhSide));
+    }
+
     private BatchingVisitable<RowResult<byte[]>> wrapRange(final TableReference tableRef,
                                                            final RangeRequest rangeRequest,
                                                            final BatchingVisitable<RowResult<byte[]>> ret) {
@@ -337,6 +411,21 @@ public class SerializableTransaction extends SnapshotTransaction {
         cellsForTable.addAll(searched);
     }
 
+    @Override
+    protected void markVisibleVersionsRead(TableReference table, Map<Cell, Value> visibleValues) {
+        if (!isSerializableTable(table)) {
+            return;
+        }
+        ConcurrentMap<Cell, Long> versions = versionsReadByTable.get(table);
+        if (versions == null) {
+            versionsReadByTable.putIfAbsent(table, Maps.newConcurrentMap());
+            versions = versionsReadByTable.get(table);
+        }
+        for (Map.Entry<Cell, Value> e : visibleValues.entrySet()) {
+            versions.put(e.getKey(), e.getValue().getTimestamp());
+        }
+    }
+
     private void markRangeRead(TableReference table, RangeRequest range, List<RowResult<byte[]>> result) {
         if (!isSerializableTable(table)) {
             return;
@@ -423,28 +512,61 @@ public class SerializableTransaction extends SnapshotTransaction {
     @Override
     protected void throwIfReadWriteConflictForSerializable(long commitTimestamp) {
         Transaction ro = getReadOnlyTransaction(commitTimestamp);
-        verifyRanges(ro);
-        verifyColumnRanges(ro);
-        verifyCells(ro);
-        verifyRows(ro);
-    }
-
-    private void verifyRows(Transaction ro) {
-        for (Map.Entry<TableReference, Set<RowRead>> tableAndRowsEntry : rowsRead.entrySet()) {
-            TableReference table = tableAndRowsEntry.getKey();
-            Set<RowRead> rows = tableAndRowsEntry.getValue();
-
-            ConcurrentNavigableMap<Cell, byte[]> readsForTable = getReadsForTable(table);
-            Multimap<ColumnSelection, byte[]> rowsReadByColumns = Multimaps.newSortedSetMultimap(
-                    Maps.newHashMap(),
-                    () -> Sets.newTreeSet(UnsignedBytes.lexicographicalComparator()));
-            for (RowRead r : rows) {
-                rowsReadByColumns.putAll(r.cols, r.rows);
+        List<Runnable> verifications = Lists.newArrayList();
+        for (Entry<TableReference, ConcurrentMap<RangeRequest, byte[]>> e : rangeEndByTable.entrySet()) {
+            verifications.add(() -> verifyRanges(ro, e.getKey(), e.getValue()));
+        }
+        for (Entry<TableReference, ConcurrentMap<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>>> e
+                : columnRangeEndsByTable.entrySet()) {
+            verifications.add(() -> verifyColumnRanges(ro, e.getKey(), e.getValue()));
+        }
+        for (Entry<TableReference, Set<Cell>> e : cellsRead.entrySet()) {
+            verifications.add(() -> verifyCells(ro, commitTimestamp, e.getKey(), e.getValue()));
+        }
+        for (Entry<TableReference, Set<RowRead>> e : rowsRead.entrySet()) {
+            verifications.add(() -> verifyRows(ro, e.getKey(), e.getValue()));
+        }
+        runVerifications(verifications);
+    }
+
+    /**
+     * Runs all but the first verification on {@link #verificationExecutor} and the first one on the calling
+     * thread. Any conflict found is rethrown on the calling thread, and once one has been found the
+     * verifications which have not yet started are cancelled.
+     */
+    private static void runVerifications(List<Runnable> verifications) {
+        if (verifications.size() <= 1) {
+            verifications.forEach(Runnable::run);
+            return;
+        }
+        List<Future<?>> futures = Lists.newArrayListWithCapacity(verifications.size() - 1);
+        try {
+            for (Runnable verification : verifications.subList(1, verifications.size())) {
+                futures.add(verificationExecutor.submit(verification));
+            }
+            verifications.get(0).run();
+            for (Future<?> future : futures) {
+                Futures.getUnchecked(future);
             }
-            for (ColumnSelection cols : rowsReadByColumns.keySet()) {
-                verifyColumns(ro, table, readsForTable, rowsReadByColumns, cols);
+        } catch (UncheckedExecutionException | ExecutionError e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
             }
+        }
+    }
 
+    private void verifyRows(Transaction ro, TableReference table, Set<RowRead> rows) {
+        ConcurrentNavigableMap<Cell, byte[]> readsForTable = getReadsForTable(table);
+        Multimap<ColumnSelection, byte[]> rowsReadByColumns = Multimaps.newSortedSetMultimap(
+                Maps.newHashMap(),
+                () -> Sets.newTreeSet(UnsignedBytes.lexicographicalComparator()));
+        for (RowRead r : rows) {
+            rowsReadByColumns.putAll(r.cols, r.rows);
+        }
+        for (ColumnSelection cols : rowsReadByColumns.keySet()) {
+            verifyColumns(ro, table, readsForTable, rowsReadByColumns, cols);
         }
     }
 
@@ -521,61 +643,74 @@ public class SerializableTransaction extends SnapshotTransaction {
         return true;
     }
 
-    private void verifyCells(Transaction readOnlyTransaction) {
-        for (Entry<TableReference, Set<Cell>> tableAndCellsEntry : cellsRead.entrySet()) {
-            TableReference table = tableAndCellsEntry.getKey();
-            Set<Cell> cells = tableAndCellsEntry.getValue();
-
-            final ConcurrentNavigableMap<Cell, byte[]> readsForTable = getReadsForTable(table);
-            for (Iterable<Cell> batch : Iterables.partition(cells, BATCH_SIZE)) {
-                // We don't want to verify any reads that we wrote to cause we will just read our own values.
-                // NB: If the value has changed between read and write, our normal SI checking handles this case
-                Iterable<Cell> batchWithoutWrites = writesByTable.get(table) != null
-                        ? Iterables.filter(batch, Predicates.not(Predicates.in(writesByTable.get(table).keySet())))
-                        : batch;
-                ImmutableSet<Cell> batchWithoutWritesSet = ImmutableSet.copyOf(batchWithoutWrites);
-                Map<Cell, byte[]> currentBatch = readOnlyTransaction.get(table, batchWithoutWritesSet);
-                ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
-                        Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
-                        Functions.forMap(readsForTable));
-                if (!areMapsEqual(currentBatch, originalReads)) {
-                    throw TransactionSerializableConflictException.create(
-                            table,
-                            getTimestamp(),
-                            System.currentTimeMillis() - timeCreated);
-                }
+    private void verifyCells(Transaction readOnlyTransaction, long commitTimestamp, TableReference table,
+                             Set<Cell> cells) {
+        final ConcurrentNavigableMap<Cell, byte[]> readsForTable = getReadsForTable(table);
+        for (Iterable<Cell> batch : Iterables.partition(cells, BATCH_SIZE)) {
+            // We don't want to verify any reads that we wrote to cause we will just read our own values.
+            // NB: If the value has changed between read and write, our normal SI checking handles this case
+            Iterable<Cell> batchWithoutWrites = writesByTable.get(table) != null
+                    ? Iterables.filter(batch, Predicates.not(Predicates.in(writesByTable.get(table).keySet())))
+                    : batch;
+            Set<Cell> cellsToCompare = getCellsWithNewerVersions(
+                    table, commitTimestamp, ImmutableSet.copyOf(batchWithoutWrites));
+            if (cellsToCompare.isEmpty()) {
+                continue;
+            }
+            Map<Cell, byte[]> currentBatch = readOnlyTransaction.get(table, cellsToCompare);
+            ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
+                    Sets.intersection(cellsToCompare, readsForTable.keySet()),
+                    Functions.forMap(readsForTable));
+            if (!areMapsEqual(currentBatch, originalReads)) {
+                throw TransactionSerializableConflictException.create(
+                        table,
+                        getTimestamp(),
+                        System.currentTimeMillis() - timeCreated);
             }
         }
     }
 
-    private void verifyRanges(Transaction readOnlyTransaction) {
+    /**
+     * Filters out the cells whose latest version as of our commit timestamp is still the version we read, so
+     * that only those cells need their values to be read again and compared. A cell for which we saw no value
+     * is unchanged if it still has no versions at all. This only looks at write timestamps, so a newer version
+     * from a transaction that failed or has not committed will still cause the values to be compared.
+     */
+    private Set<Cell> getCellsWithNewerVersions(TableReference table, long commitTimestamp, Set<Cell> cells) {
+        if (cells.isEmpty()) {
+            return cells;
+        }
+        Map<Cell, Long> versionsRead = versionsReadByTable.getOrDefault(table, Maps.newConcurrentMap());
+        Map<Cell, Long> latestTimestamps =
+                keyValueService.getLatestTimestamps(table, Cells.constantValueMap(cells, commitTimestamp + 1));
+        return ImmutableSet.copyOf(Sets.filter(cells,
+                cell -> !Objects.equals(versionsRead.get(cell), latestTimestamps.get(cell))));
+    }
+
+    private void verifyRanges(Transaction readOnlyTransaction, TableReference table,
+                              Map<RangeRequest, byte[]> rangeEnds) {
         // verify each set of reads to ensure they are the same.
-        for (Entry<TableReference, ConcurrentMap<RangeRequest, byte[]>> tableAndRange : rangeEndByTable.entrySet()) {
-            TableReference table = tableAndRange.getKey();
-            Map<RangeRequest, byte[]> rangeEnds = tableAndRange.getValue();
-
-            for (Entry<RangeRequest, byte[]> rangeAndRangeEndEntry : rangeEnds.entrySet()) {
-                RangeRequest range = rangeAndRangeEndEntry.getKey();
-                byte[] rangeEnd = rangeAndRangeEndEntry.getValue();
-
-                if (rangeEnd.length != 0 && !RangeRequests.isTerminalRow(range.isReverse(), rangeEnd)) {
-                    range = range.getBuilder()
-                            .endRowExclusive(RangeRequests.getNextStartRow(range.isReverse(), rangeEnd))
-                            .build();
-                }
+        for (Entry<RangeRequest, byte[]> rangeAndRangeEndEntry : rangeEnds.entrySet()) {
+            RangeRequest range = rangeAndRangeEndEntry.getKey();
+            byte[] rangeEnd = rangeAndRangeEndEntry.getValue();
+
+            if (rangeEnd.length != 0 && !RangeRequests.isTerminalRow(range.isReverse(), rangeEnd)) {
+                range = range.getBuilder()
+                        .endRowExclusive(RangeRequests.getNextStartRow(range.isReverse(), rangeEnd))
+                        .build();
+            }
 
-                ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
-                BatchingVisitableView<RowResult<byte[]>> bv = BatchingVisitableView.of(
-                        readOnlyTransaction.getRange(table, range));
-                NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
-                        getReadsInRange(table, range),
-                        ByteBuffer::wrap);
-                if (!bv.transformBatch(input -> filterWritesFromRows(input, writes)).isEqual(readsInRange.entrySet())) {
-                    throw TransactionSerializableConflictException.create(
-                            table,
-                            getTimestamp(),
-                            System.currentTimeMillis() - timeCreated);
-                }
+            ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
+            BatchingVisitableView<RowResult<byte[]>> bv = BatchingVisitableView.of(
+                    readOnlyTransaction.getRange(table, range));
+            NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
+                    getReadsInRange(table, range),
+                    ByteBuffer::wrap);
+            if (!bv.transformBatch(input -> filterWritesFromRows(input, writes)).isEqual(readsInRange.entrySet())) {
+                throw TransactionSerializableConflictException.create(
+                        table,
+                        getTimestamp(),
+                        System.currentTimeMillis() - timeCreated);
             }
         }
     }
@@ -605,56 +740,50 @@ public class SerializableTransaction extends SnapshotTransaction {
         return reads;
     }
 
-    private void verifyColumnRanges(Transaction readOnlyTransaction) {
+    private void verifyColumnRanges(Transaction readOnlyTransaction, TableReference table,
+                                    Map<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>> columnRangeEnds) {
         // verify each set of reads to ensure they are the same.
-        for (Entry<TableReference,
-                ConcurrentMap<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>>> tableAndRange :
-                columnRangeEndsByTable.entrySet()) {
-            TableReference table = tableAndRange.getKey();
-            Map<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>> columnRangeEnds = tableAndRange.getValue();
-
-            Map<Cell, byte[]> writes = writesByTable.get(table);
-            Map<BatchColumnRangeSelection, List<byte[]>> rangesToRows = Maps.newHashMap();
-            for (Entry<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>> rowAndRangeEnds :
-                    columnRangeEnds.entrySet()) {
-                byte[] row = rowAndRangeEnds.getKey();
-                Map<BatchColumnRangeSelection, byte[]> rangeEnds = columnRangeEnds.get(row);
-
-                for (Entry<BatchColumnRangeSelection, byte[]> e : rangeEnds.entrySet()) {
-                    BatchColumnRangeSelection range = e.getKey();
-                    byte[] rangeEnd = e.getValue();
-                    if (rangeEnd.length != 0 && !RangeRequests.isTerminalRow(false, rangeEnd)) {
-                        range = BatchColumnRangeSelection.create(
-                                range.getStartCol(),
-                                RangeRequests.getNextStartRow(false, rangeEnd),
-                                range.getBatchHint());
-                    }
-                    if (rangesToRows.get(range) != null) {
-                        rangesToRows.get(range).add(row);
-                    } else {
-                        rangesToRows.put(range, ImmutableList.of(row));
-                    }
+        Map<Cell, byte[]> writes = writesByTable.get(table);
+        Map<BatchColumnRangeSelection, List<byte[]>> rangesToRows = Maps.newHashMap();
+        for (Entry<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>> rowAndRangeEnds :
+                columnRangeEnds.entrySet()) {
+            byte[] row = rowAndRangeEnds.getKey();
+            Map<BatchColumnRangeSelection, byte[]> rangeEnds = columnRangeEnds.get(row);
+
+            for (Entry<BatchColumnRangeSelection, byte[]> e : rangeEnds.entrySet()) {
+                BatchColumnRangeSelection range = e.getKey();
+                byte[] rangeEnd = e.getValue();
+                if (rangeEnd.length != 0 && !RangeRequests.isTerminalRow(false, rangeEnd)) {
+                    range = BatchColumnRangeSelection.create(
+                            range.getStartCol(),
+                            RangeRequests.getNextStartRow(false, rangeEnd),
+                            range.getBatchHint());
+                }
+                if (rangesToRows.get(range) != null) {
+                    rangesToRows.get(range).add(row);
+                } else {
+                    rangesToRows.put(range, ImmutableList.of(row));
                 }
             }
-            for (Entry<BatchColumnRangeSelection, List<byte[]>> e : rangesToRows.entrySet()) {
-                BatchColumnRangeSelection range = e.getKey();
-                List<byte[]> rows = e.getValue();
-                Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
-                        readOnlyTransaction.getRowsColumnRange(table, rows, range);
-                for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> res : result.entrySet()) {
-                    byte[] row = res.getKey();
-                    BatchingVisitableView<Entry<Cell, byte[]>> bv = BatchingVisitableView.of(res.getValue());
-                    NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
-                            getReadsInColumnRange(table, row, range),
-                            input -> ByteBuffer.wrap(input));
-                    boolean isEqual = bv.transformBatch(input -> filterWritesFromCells(input, writes))
-                            .isEqual(readsInRange.entrySet());
-                    if (!isEqual) {
-                        throw TransactionSerializableConflictException.create(
-                                table,
-                                getTimestamp(),
-                                System.currentTimeMillis() - timeCreated);
-                    }
+        }
+        for (Entry<BatchColumnRangeSelection, List<byte[]>> e : rangesToRows.entrySet()) {
+            BatchColumnRangeSelection range = e.getKey();
+            List<byte[]> rows = e.getValue();
+            Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
+                    readOnlyTransaction.getRowsColumnRange(table, rows, range);
+            for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> res : result.entrySet()) {
+                byte[] row = res.getKey();
+                BatchingVisitableView<Entry<Cell, byte[]>> bv = BatchingVisitableView.of(res.getValue());
+                NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
+                        getReadsInColumnRange(table, row, range),
+                        input -> ByteBuffer.wrap(input));
+                boolean isEqual = bv.transformBatch(input -> filterWritesFromCells(input, writes))
+                        .isEqual(readsInRange.entrySet());
+                if (!isEqual) {
+                    throw TransactionSerializableConflictException.create(
+                            table,
+                            getTimestamp(),
+                            System.currentTimeMillis() - timeCreated);
                 }
             }
         }
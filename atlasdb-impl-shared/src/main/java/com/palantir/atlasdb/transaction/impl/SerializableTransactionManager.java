@@ -15,6 +15,8 @@
  */
 package com.palantir.atlasdb.transaction.impl;
 
+import java.util.Optional;
+
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.palantir.atlasdb.cleaner.Cleaner;
@@ -60,6 +62,30 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                                           SweepStrategyManager sweepStrategyManager,
                                           Cleaner cleaner,
                                           boolean allowHiddenTableAccess) {
+        this(keyValueService,
+                timestampService,
+                lockClient,
+                lockService,
+                transactionService,
+                constraintModeSupplier,
+                conflictDetectionManager,
+                sweepStrategyManager,
+                cleaner,
+                allowHiddenTableAccess,
+                Optional.empty());
+    }
+
+    public SerializableTransactionManager(KeyValueService keyValueService,
+                                          TimestampService timestampService,
+                                          LockClient lockClient,
+                                          RemoteLockService lockService,
+                                          TransactionService transactionService,
+                                          Supplier<AtlasDbConstraintCheckingMode> constraintModeSupplier,
+                                          ConflictDetectionManager conflictDetectionManager,
+                                          SweepStrategyManager sweepStrategyManager,
+                                          Cleaner cleaner,
+                                          boolean allowHiddenTableAccess,
+                                          Optional<Long> offHeapWriteSpillThresholdBytes) {
         super(
                 keyValueService,
                 timestampService,
@@ -70,7 +96,8 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 conflictDetectionManager,
                 sweepStrategyManager,
                 cleaner,
-                allowHiddenTableAccess);
+                allowHiddenTableAccess,
+                offHeapWriteSpillThresholdBytes);
     }
 
     @Override
@@ -92,7 +119,8 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 cleaner.getTransactionReadTimeoutMillis(),
                 TransactionReadSentinelBehavior.THROW_EXCEPTION,
                 allowHiddenTableAccess,
-                timestampValidationReadCache);
+                timestampValidationReadCache,
+                offHeapWriteSpillThresholdBytes);
     }
 
 }
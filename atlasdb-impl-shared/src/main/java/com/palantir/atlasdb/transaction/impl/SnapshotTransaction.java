@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.transaction.impl;
 
+import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -23,12 +24,21 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -52,6 +62,8 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Collections2;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
@@ -67,7 +79,9 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.PeekingIterator;
+import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
+import com.google.common.math.IntMath;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.AtlasDbPerformanceConstants;
@@ -118,6 +132,8 @@ import com.palantir.common.base.Throwables;
 import com.palantir.common.collect.IterableUtils;
 import com.palantir.common.collect.IteratorUtils;
 import com.palantir.common.collect.MapEntries;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.AtlasCellLockDescriptor;
 import com.palantir.lock.AtlasRowLockDescriptor;
 import com.palantir.lock.LockClient;
@@ -151,6 +167,14 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     private static final Logger constraintLogger = LoggerFactory.getLogger("dualschema.constraints");
 
     private static final int BATCH_SIZE_GET_FIRST_PAGE = 1000;
+    private static final int MAX_UNORDERED_RANGE_PARTITIONS = 16;
+    private static final int GET_RANGES_THREAD_POOL_SIZE = 16;
+    private static final int UNORDERED_RANGE_THREAD_POOL_SIZE = 2 * MAX_UNORDERED_RANGE_PARTITIONS;
+
+    private static final ExecutorService getRangesExecutor = PTExecutors.newFixedThreadPool(
+            GET_RANGES_THREAD_POOL_SIZE, new NamedThreadFactory("snapshot-get-ranges", true));
+    private static final ExecutorService unorderedRangeExecutor = PTExecutors.newFixedThreadPool(
+            UNORDERED_RANGE_THREAD_POOL_SIZE, new NamedThreadFactory("unordered-range-scan", true));
 
     private enum State {
         UNCOMMITTED,
@@ -186,6 +210,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
     private final AtomicReference<State> state = new AtomicReference<>(State.UNCOMMITTED);
     private final AtomicLong numWriters = new AtomicLong();
+    /* Fetches submitted to the get ranges executor which have not completed yet. */
+    private final Set<Future<?>> pendingRangeFetches = Sets.newConcurrentHashSet();
     protected final SweepStrategyManager sweepStrategyManager;
     protected final Long transactionReadTimeoutMillis;
     private final TransactionReadSentinelBehavior readSentinelBehavior;
@@ -194,6 +220,13 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     protected final Stopwatch transactionTimer = Stopwatch.createStarted();
     protected final TimestampCache timestampValidationReadCache;
 
+    private final TransactionReadCache readCache =
+            new TransactionReadCache(TransactionReadCache.DEFAULT_MAX_CACHED_BYTES);
+
+    private final Optional<Long> offHeapWriteSpillThresholdBytes;
+    /* Only created on the first write, and only if writes should be buffered off-heap. */
+    private OffHeapWriteBuffer offHeapWriteBuffer;
+
     private final MetricRegistry metricRegistry = AtlasDbMetrics.getMetricRegistry();
     private final Timer.Context transactionTimerContext = getTimer("transactionMillis").time();
 
@@ -218,6 +251,32 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                                TransactionReadSentinelBehavior readSentinelBehavior,
                                boolean allowHiddenTableAccess,
                                TimestampCache timestampValidationReadCache) {
+        this(keyValueService, lockService, timestampService, transactionService, cleaner, startTimeStamp,
+                conflictDetectionManager, sweepStrategyManager, immutableTimestamp, tokensValidForCommit,
+                constraintCheckingMode, transactionTimeoutMillis, readSentinelBehavior, allowHiddenTableAccess,
+                timestampValidationReadCache, Optional.empty());
+    }
+
+    /**
+     * @param offHeapWriteSpillThresholdBytes If present, the values this transaction writes are buffered outside
+     *                                        of the java heap, and spilled to disk past this many bytes.
+     */
+    /* package */ SnapshotTransaction(KeyValueService keyValueService,
+                               RemoteLockService lockService,
+                               TimestampService timestampService,
+                               TransactionService transactionService,
+                               Cleaner cleaner,
+                               Supplier<Long> startTimeStamp,
+                               ConflictDetectionManager conflictDetectionManager,
+                               SweepStrategyManager sweepStrategyManager,
+                               long immutableTimestamp,
+                               Iterable<LockRefreshToken> tokensValidForCommit,
+                               AtlasDbConstraintCheckingMode constraintCheckingMode,
+                               Long transactionTimeoutMillis,
+                               TransactionReadSentinelBehavior readSentinelBehavior,
+                               boolean allowHiddenTableAccess,
+                               TimestampCache timestampValidationReadCache,
+                               Optional<Long> offHeapWriteSpillThresholdBytes) {
         this.keyValueService = keyValueService;
         this.timestampService = timestampService;
         this.defaultTransactionService = transactionService;
@@ -233,6 +292,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.readSentinelBehavior = readSentinelBehavior;
         this.allowHiddenTableAccess = allowHiddenTableAccess;
         this.timestampValidationReadCache = timestampValidationReadCache;
+        this.offHeapWriteSpillThresholdBytes = offHeapWriteSpillThresholdBytes;
     }
 
     // TEST ONLY
@@ -261,6 +321,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.readSentinelBehavior = readSentinelBehavior;
         this.allowHiddenTableAccess = false;
         this.timestampValidationReadCache = timestampValidationReadCache;
+        this.offHeapWriteSpillThresholdBytes = Optional.empty();
     }
 
     /**
@@ -301,6 +362,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.readSentinelBehavior = readSentinelBehavior;
         this.allowHiddenTableAccess = allowHiddenTableAccess;
         this.timestampValidationReadCache = timestampValidationReadCache;
+        this.offHeapWriteSpillThresholdBytes = Optional.empty();
     }
 
     @Override
@@ -340,8 +402,6 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             return AbstractTransaction.EMPTY_SORTED_ROWS;
         }
         Map<Cell, byte[]> result = Maps.newHashMap();
-        Map<Cell, Value> rawResults = Maps.newHashMap(
-                keyValueService.getRows(tableRef, rows, columnSelection, getStartTimestamp()));
         SortedMap<Cell, byte[]> writes = writesByTable.get(tableRef);
         if (writes != null) {
             for (byte[] row : rows) {
@@ -349,10 +409,25 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             }
         }
 
+        Map<Cell, byte[]> cachedReads = Maps.newHashMap();
+        List<byte[]> rowsToLoad = readCache.getRows(tableRef, rows, columnSelection, cachedReads);
+        Map<Cell, Value> rawResults = rowsToLoad.isEmpty()
+                ? Maps.newHashMap()
+                : Maps.newHashMap(keyValueService.getRows(tableRef, rowsToLoad, columnSelection, getStartTimestamp()));
+
         // We don't need to do work postFiltering if we have a write locally.
         rawResults.keySet().removeAll(result.keySet());
 
-        SortedMap<byte[], RowResult<byte[]>> results = filterRowResults(tableRef, rawResults, result);
+        Map<Cell, byte[]> loadedReads = Maps.newHashMapWithExpectedSize(rawResults.size());
+        getWithPostFiltering(tableRef, rawResults, loadedReads, Value.GET_VALUE);
+        readCache.cacheRows(tableRef, rowsToLoad, columnSelection, loadedReads);
+
+        // Cached reads may predate our local writes, which must take precedence.
+        cachedReads.keySet().removeAll(result.keySet());
+        result.putAll(cachedReads);
+        result.putAll(loadedReads);
+        SortedMap<byte[], RowResult<byte[]>> results = RowResults.viewOfSortedMap(
+                Cells.breakCellsUpByRow(Maps.filterValues(result, Predicates.not(Value.IS_EMPTY))));
         long getRowsMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
         if (perfLogger.isDebugEnabled()) {
             perfLogger.debug("getRows({}, {} rows) found {} rows, took {} ms",
@@ -370,10 +445,24 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         if (Iterables.isEmpty(rows)) {
             return ImmutableMap.of();
         }
-        Map<byte[], RowColumnRangeIterator> rawResults = keyValueService.getRowsColumnRange(tableRef, rows,
+        Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> postFilteredResults = Maps.newHashMap();
+        List<byte[]> rowsToLoad = Lists.newArrayList();
+        for (byte[] row : rows) {
+            SortedMap<Cell, byte[]> cachedColumns = readCache.getColumnRange(
+                    tableRef, row, toColumnRangeSelection(columnRangeSelection));
+            if (cachedColumns == null) {
+                rowsToLoad.add(row);
+            } else {
+                Iterator<Map.Entry<Cell, byte[]>> mergedIterator = mergeInLocalWritesForColumnRange(
+                        tableRef, columnRangeSelection, row, cachedColumns.entrySet().iterator());
+                postFilteredResults.put(row, BatchingVisitableFromIterable.create(mergedIterator));
+            }
+        }
+        if (rowsToLoad.isEmpty()) {
+            return postFilteredResults;
+        }
+        Map<byte[], RowColumnRangeIterator> rawResults = keyValueService.getRowsColumnRange(tableRef, rowsToLoad,
                 columnRangeSelection, getStartTimestamp());
-        Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> postFilteredResults =
-                Maps.newHashMapWithExpectedSize(rawResults.size());
         for (Entry<byte[], RowColumnRangeIterator> e : rawResults.entrySet()) {
             byte[] row = e.getKey();
             RowColumnRangeIterator rawIterator = e.getValue();
@@ -392,6 +481,23 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         if (Iterables.isEmpty(rows)) {
             return Collections.emptyIterator();
         }
+        BatchColumnRangeSelection batchColumnRangeSelection =
+                BatchColumnRangeSelection.create(columnRangeSelection, batchHint);
+        List<Iterator<Map.Entry<Cell, byte[]>>> cachedResults = Lists.newArrayList();
+        for (byte[] row : rows) {
+            SortedMap<Cell, byte[]> cachedColumns = readCache.getColumnRange(tableRef, row, columnRangeSelection);
+            if (cachedColumns == null) {
+                cachedResults = null;
+                break;
+            }
+            cachedResults.add(mergeInLocalWritesForColumnRange(
+                    tableRef, batchColumnRangeSelection, row, cachedColumns.entrySet().iterator()));
+        }
+        if (cachedResults != null) {
+            // Every row has been read before, so there is nothing to load.
+            return Iterators.concat(cachedResults.iterator());
+        }
+
         RowColumnRangeIterator rawResults =
                 keyValueService.getRowsColumnRange(tableRef,
                                                    rows,
@@ -406,8 +512,6 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         Iterator<Iterator<Map.Entry<Cell, byte[]>>> postFiltered = Iterators.transform(rawResultsByRow, e -> {
             byte[] row = e.getKey();
             RowColumnRangeIterator rawIterator = e.getValue();
-            BatchColumnRangeSelection batchColumnRangeSelection =
-                    BatchColumnRangeSelection.create(columnRangeSelection, batchHint);
             return getPostFilteredColumns(tableRef, batchColumnRangeSelection, row, rawIterator);
         });
         return Iterators.concat(postFiltered);
@@ -420,6 +524,14 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             RowColumnRangeIterator rawIterator) {
         Iterator<Map.Entry<Cell, byte[]>> postFilterIterator =
                 getRowColumnRangePostFiltered(tableRef, row, batchColumnRangeSelection, rawIterator);
+        return mergeInLocalWritesForColumnRange(tableRef, batchColumnRangeSelection, row, postFilterIterator);
+    }
+
+    private Iterator<Map.Entry<Cell, byte[]>> mergeInLocalWritesForColumnRange(
+            TableReference tableRef,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            byte[] row,
+            Iterator<Map.Entry<Cell, byte[]>> postFilterIterator) {
         SortedMap<Cell, byte[]> localWrites = getLocalWritesForColumnRange(tableRef, batchColumnRangeSelection, row);
         Iterator<Map.Entry<Cell, byte[]>> localIterator = localWrites.entrySet().iterator();
         Iterator<Map.Entry<Cell, byte[]>> mergedIterator =
@@ -443,6 +555,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 batchProvider, columnRangeSelection.getBatchHint(), ClosableIterators.wrap(rawIterator));
         Iterator<Iterator<Map.Entry<Cell, byte[]>>> postFilteredBatches =
                 new AbstractIterator<Iterator<Map.Entry<Cell, byte[]>>>() {
+            private boolean allBatchesCached = true;
+
             @Override
             protected Iterator<Map.Entry<Cell, byte[]>> computeNext() {
                 ImmutableMap.Builder<Cell, Value> rawBuilder = ImmutableMap.builder();
@@ -453,10 +567,14 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 Map<Cell, Value> raw = rawBuilder.build();
                 validateExternalAndCommitLocksIfNecessary(tableRef);
                 if (raw.isEmpty()) {
+                    if (allBatchesCached) {
+                        readCache.markColumnRangeRead(tableRef, row, toColumnRangeSelection(columnRangeSelection));
+                    }
                     return endOfData();
                 }
                 Map<Cell, byte[]> post = new LinkedHashMap<>();
                 getWithPostFiltering(tableRef, raw, post, Value.GET_VALUE);
+                allBatchesCached &= readCache.cacheColumnRangePage(tableRef, post);
                 batchIterator.markNumResultsNotDeleted(post.keySet().size());
                 return post.entrySet().iterator();
             }
@@ -464,6 +582,10 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return Iterators.concat(postFilteredBatches);
     }
 
+    private static ColumnRangeSelection toColumnRangeSelection(BatchColumnRangeSelection batchColumnRangeSelection) {
+        return new ColumnRangeSelection(batchColumnRangeSelection.getStartCol(), batchColumnRangeSelection.getEndCol());
+    }
+
     /**
      * Partitions a {@link RowColumnRangeIterator} into contiguous blocks that share the same row name.
      * {@link KeyValueService#getRowsColumnRange(TableReference, Iterable, ColumnRangeSelection, int, long)} guarantees
@@ -575,8 +697,13 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             }
         }
 
-        // We don't need to read any cells that were written locally.
-        result.putAll(getFromKeyValueService(tableRef, Sets.difference(cells, result.keySet())));
+        // We don't need to read any cells that were written locally, or that we have already read.
+        Set<Cell> cellsToLoad = readCache.getCells(tableRef, Sets.difference(cells, result.keySet()), result);
+        if (!cellsToLoad.isEmpty()) {
+            Map<Cell, byte[]> loadedReads = getFromKeyValueService(tableRef, cellsToLoad);
+            readCache.cacheCells(tableRef, cellsToLoad, loadedReads);
+            result.putAll(loadedReads);
+        }
 
         long getMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
         if (perfLogger.isDebugEnabled()) {
@@ -606,13 +733,29 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
      * this will be included here and needs to be filtered out.
      */
     private Map<Cell, byte[]> getFromKeyValueService(TableReference tableRef, Set<Cell> cells) {
-        Map<Cell, byte[]> result = Maps.newHashMap();
         Map<Cell, Long> toRead = Cells.constantValueMap(cells, getStartTimestamp());
         Map<Cell, Value> rawResults = keyValueService.get(tableRef, toRead);
-        getWithPostFiltering(tableRef, rawResults, result, Value.GET_VALUE);
+        Map<Cell, Value> visibleValues = Maps.newHashMapWithExpectedSize(rawResults.size());
+        getWithPostFiltering(tableRef, rawResults, visibleValues, Functions.<Value>identity());
+        markVisibleVersionsRead(tableRef, visibleValues);
+
+        Map<Cell, byte[]> result = Maps.newHashMapWithExpectedSize(visibleValues.size());
+        for (Map.Entry<Cell, Value> e : visibleValues.entrySet()) {
+            result.put(e.getKey(), e.getValue().getContents());
+        }
         return result;
     }
 
+    /**
+     * Called with the values that were visible to this transaction when cells were loaded from the key
+     * value service by {@link #get(TableReference, Set)}. Cells with no visible value are not included.
+     * <p>
+     * This is protected to allow subclasses to remember the versions they have read.
+     */
+    protected void markVisibleVersionsRead(TableReference tableRef, Map<Cell, Value> visibleValues) {
+        // Nothing to remember for snapshot isolation.
+    }
+
     private static byte[] getNextStartRowName(
             RangeRequest range,
             TokenBackedBasicResultsPage<RowResult<Value>, byte[]> prePostFilter) {
@@ -634,62 +777,162 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         }
 
         return FluentIterable.from(Iterables.partition(rangeRequests, BATCH_SIZE_GET_FIRST_PAGE))
-                .transformAndConcat(new Function<List<RangeRequest>, List<BatchingVisitable<RowResult<byte[]>>>>() {
-                    @Override
-                    public List<BatchingVisitable<RowResult<byte[]>>> apply(List<RangeRequest> input) {
-                        Timer.Context timer = getTimer("processedRangeMillis").time();
-                        Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> firstPages =
-                                keyValueService.getFirstBatchForRanges(tableRef, input, getStartTimestamp());
-                        validateExternalAndCommitLocksIfNecessary(tableRef);
-
-                        SortedMap<Cell, byte[]> postFiltered = postFilterPages(
-                                tableRef,
-                                firstPages.values());
-
-                        List<BatchingVisitable<RowResult<byte[]>>> ret = Lists.newArrayListWithCapacity(input.size());
-                        for (RangeRequest rangeRequest : input) {
-                            TokenBackedBasicResultsPage<RowResult<Value>, byte[]> prePostFilter =
-                                    firstPages.get(rangeRequest);
-                            byte[] nextStartRowName = getNextStartRowName(
-                                    rangeRequest,
-                                    prePostFilter);
-                            List<Entry<Cell, byte[]>> mergeIterators = getPostFilteredWithLocalWrites(
-                                    tableRef,
-                                    postFiltered,
-                                    rangeRequest,
-                                    prePostFilter.getResults(),
-                                    nextStartRowName);
-                            ret.add(new AbstractBatchingVisitable<RowResult<byte[]>>() {
-                                @Override
-                                protected <K extends Exception> void batchAcceptSizeHint(
-                                        int batchSizeHint,
-                                        ConsistentVisitor<RowResult<byte[]>, K> visitor)
-                                        throws K {
-                                    checkGetPreconditions(tableRef);
-                                    final Iterator<RowResult<byte[]>> rowResults = Cells.createRowView(mergeIterators);
-                                    while (rowResults.hasNext()) {
-                                        if (!visitor.visit(ImmutableList.of(rowResults.next()))) {
-                                            return;
-                                        }
-                                    }
-                                    if ((nextStartRowName.length == 0) || !prePostFilter.moreResultsAvailable()) {
-                                        return;
-                                    }
-                                    RangeRequest newRange = rangeRequest.getBuilder()
-                                            .startRowInclusive(nextStartRowName)
-                                            .build();
-                                    getRange(tableRef, newRange)
-                                            .batchAccept(batchSizeHint, visitor);
-                                }
-                            });
+                .transformAndConcat(input -> getFirstPages(tableRef, input));
+    }
+
+    /**
+     * Spreads the ranges over up to {@code concurrencyLevel} batches whose first pages are fetched and post-filtered
+     * on the get ranges executor once the caller starts iterating. Later pages of a range are only fetched when the
+     * visitor asks for more rows than its first page holds, as in {@link #getRanges(TableReference, Iterable)}.
+     */
+    @Override
+    public Iterable<BatchingVisitable<RowResult<byte[]>>> getRanges(final TableReference tableRef,
+                                                                    Iterable<RangeRequest> rangeRequests,
+                                                                    int concurrencyLevel) {
+        checkGetPreconditions(tableRef);
+        Preconditions.checkArgument(concurrencyLevel > 0, "concurrencyLevel must be positive");
+        List<RangeRequest> requests = ImmutableList.copyOf(rangeRequests);
+        if (requests.isEmpty()) {
+            return ImmutableList.of();
+        }
+
+        if (perfLogger.isDebugEnabled()) {
+            perfLogger.debug("Passed {} ranges to getRanges({}, {}) with concurrency {}",
+                    requests.size(), tableRef, requests, concurrencyLevel);
+        }
+
+        int batchSize = Math.min(BATCH_SIZE_GET_FIRST_PAGE,
+                IntMath.divide(requests.size(), concurrencyLevel, RoundingMode.CEILING));
+        ConcurrentFirstPages firstPages =
+                new ConcurrentFirstPages(tableRef, Lists.partition(requests, batchSize), concurrencyLevel);
+        return FluentIterable.from(ContiguousSet.create(
+                Range.closedOpen(0, firstPages.getNumBatches()), DiscreteDomain.integers()))
+                .transformAndConcat(firstPages::get);
+    }
+
+    /**
+     * The first pages of batches of ranges, of which up to {@code concurrencyLevel} are fetched ahead of the batch
+     * being visited.
+     */
+    private final class ConcurrentFirstPages {
+        private final TableReference tableRef;
+        private final List<List<RangeRequest>> batches;
+        private final int concurrencyLevel;
+        private final List<Future<List<BatchingVisitable<RowResult<byte[]>>>>> firstPages;
+
+        ConcurrentFirstPages(TableReference tableRef, List<List<RangeRequest>> batches, int concurrencyLevel) {
+            this.tableRef = tableRef;
+            this.batches = batches;
+            this.concurrencyLevel = concurrencyLevel;
+            this.firstPages = Lists.newArrayListWithCapacity(batches.size());
+        }
+
+        int getNumBatches() {
+            return batches.size();
+        }
+
+        List<BatchingVisitable<RowResult<byte[]>>> get(int batch) {
+            checkGetPreconditions(tableRef);
+            return getDone(submitUpTo(batch + concurrencyLevel).get(batch));
+        }
+
+        private synchronized List<Future<List<BatchingVisitable<RowResult<byte[]>>>>> submitUpTo(int numBatches) {
+            while (firstPages.size() < Math.min(numBatches, batches.size())) {
+                List<RangeRequest> batch = batches.get(firstPages.size());
+                firstPages.add(submitRangeFetch(tableRef, () -> getFirstPages(tableRef, batch)));
+            }
+            return firstPages;
+        }
+    }
+
+    /**
+     * Runs a fetch on the get ranges executor once the transaction has been checked to still allow reads. The fetch
+     * is cancelled if the transaction commits or aborts before it has started.
+     */
+    private <T> Future<T> submitRangeFetch(TableReference tableRef, Callable<T> fetch) {
+        FutureTask<T> task = new FutureTask<T>(() -> {
+            checkGetPreconditions(tableRef);
+            return fetch.call();
+        }) {
+            @Override
+            protected void done() {
+                pendingRangeFetches.remove(this);
+            }
+        };
+        pendingRangeFetches.add(task);
+        getRangesExecutor.execute(task);
+        return task;
+    }
+
+    private void cancelPendingRangeFetches() {
+        for (Future<?> pendingRangeFetch : pendingRangeFetches) {
+            pendingRangeFetch.cancel(false);
+        }
+    }
+
+    private List<BatchingVisitable<RowResult<byte[]>>> getFirstPages(TableReference tableRef,
+                                                                     List<RangeRequest> input) {
+        Timer.Context timer = getTimer("processedRangeMillis").time();
+        Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> firstPages =
+                keyValueService.getFirstBatchForRanges(tableRef, input, getStartTimestamp());
+        validateExternalAndCommitLocksIfNecessary(tableRef);
+
+        SortedMap<Cell, byte[]> postFiltered = postFilterPages(
+                tableRef,
+                firstPages.values());
+
+        List<BatchingVisitable<RowResult<byte[]>>> ret = Lists.newArrayListWithCapacity(input.size());
+        for (RangeRequest rangeRequest : input) {
+            TokenBackedBasicResultsPage<RowResult<Value>, byte[]> prePostFilter =
+                    firstPages.get(rangeRequest);
+            byte[] nextStartRowName = getNextStartRowName(
+                    rangeRequest,
+                    prePostFilter);
+            List<Entry<Cell, byte[]>> mergeIterators = getPostFilteredWithLocalWrites(
+                    tableRef,
+                    postFiltered,
+                    rangeRequest,
+                    prePostFilter.getResults(),
+                    nextStartRowName);
+            ret.add(new AbstractBatchingVisitable<RowResult<byte[]>>() {
+                @Override
+                protected <K extends Exception> void batchAcceptSizeHint(
+                        int batchSizeHint,
+                        ConsistentVisitor<RowResult<byte[]>, K> visitor)
+                        throws K {
+                    checkGetPreconditions(tableRef);
+                    final Iterator<RowResult<byte[]>> rowResults = Cells.createRowView(mergeIterators);
+                    while (rowResults.hasNext()) {
+                        if (!visitor.visit(ImmutableList.of(rowResults.next()))) {
+                            return;
                         }
-                        long processedRangeMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
-                        log.trace("Processed {} range requests for {} in {}ms",
-                                input.size(), tableRef, processedRangeMillis);
-                        return ret;
                     }
+                    if ((nextStartRowName.length == 0) || !prePostFilter.moreResultsAvailable()) {
+                        return;
+                    }
+                    RangeRequest newRange = rangeRequest.getBuilder()
+                            .startRowInclusive(nextStartRowName)
+                            .build();
+                    getRange(tableRef, newRange)
+                            .batchAccept(batchSizeHint, visitor);
+                }
+            });
+        }
+        long processedRangeMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
+        log.trace("Processed {} range requests for {} in {}ms",
+                input.size(), tableRef, processedRangeMillis);
+        return ret;
+    }
 
-                });
+    private static <T> T getDone(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        }
     }
 
     private void validateExternalAndCommitLocksIfNecessary(TableReference tableRef) {
@@ -756,6 +999,104 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         };
     }
 
+    /**
+     * Splits the range along the partitions suggested by the key value service, and scans each of them with
+     * {@link #getRange} on a shared, bounded pool. Batches are handed to the visitor in the order they are read.
+     */
+    @Override
+    public BatchingVisitable<RowResult<byte[]>> getRangeUnordered(final TableReference tableRef,
+                                                                  final RangeRequest range) {
+        checkGetPreconditions(tableRef);
+        Validate.isTrue(!range.isReverse(), "we currently do not support reverse ranges");
+        if (range.isEmptyRange()) {
+            return BatchingVisitables.emptyBatchingVisitable();
+        }
+
+        final List<RangeRequest> partitions =
+                keyValueService.partitionRange(tableRef, range, MAX_UNORDERED_RANGE_PARTITIONS);
+        if (partitions.size() <= 1) {
+            return getRange(tableRef, range);
+        }
+        return new AbstractBatchingVisitable<RowResult<byte[]>>() {
+            @Override
+            protected <K extends Exception> void batchAcceptSizeHint(
+                    int batchSizeHint,
+                    ConsistentVisitor<RowResult<byte[]>, K> visitor)
+                    throws K {
+                visitPartitionsConcurrently(tableRef, partitions, batchSizeHint, visitor);
+            }
+        };
+    }
+
+    private <K extends Exception> void visitPartitionsConcurrently(
+            TableReference tableRef,
+            List<RangeRequest> partitions,
+            int batchSizeHint,
+            AbortingVisitor<List<RowResult<byte[]>>, K> visitor) throws K {
+        BlockingQueue<PartitionBatch> batches = new ArrayBlockingQueue<>(2 * partitions.size());
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        try {
+            for (RangeRequest partition : partitions) {
+                unorderedRangeExecutor.execute(() -> {
+                    PartitionBatch last = PartitionBatch.DONE;
+                    try {
+                        getRange(tableRef, partition).batchAccept(batchSizeHint,
+                                batch -> offerUnlessStopped(batches, new PartitionBatch(batch, null), stopped));
+                    } catch (Throwable t) {
+                        last = new PartitionBatch(null, t);
+                    }
+                    try {
+                        offerUnlessStopped(batches, last, stopped);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            int remainingPartitions = partitions.size();
+            while (remainingPartitions > 0) {
+                PartitionBatch next = batches.take();
+                if (next.failure != null) {
+                    throw Throwables.rewrapAndThrowUncheckedException(next.failure);
+                } else if (next == PartitionBatch.DONE) {
+                    remainingPartitions--;
+                } else if (!visitor.visit(next.rows)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        } finally {
+            // Rather than interrupting the scans, which could leave connections to the key value service in a bad
+            // state, they are left to notice that they should stop the next time they have a batch to hand over.
+            stopped.set(true);
+        }
+    }
+
+    private static boolean offerUnlessStopped(BlockingQueue<PartitionBatch> batches,
+                                              PartitionBatch batch,
+                                              AtomicBoolean stopped) throws InterruptedException {
+        while (!stopped.get()) {
+            if (batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class PartitionBatch {
+        static final PartitionBatch DONE = new PartitionBatch(ImmutableList.of(), null);
+
+        final List<RowResult<byte[]>> rows;
+        final Throwable failure;
+
+        PartitionBatch(List<RowResult<byte[]>> rows, Throwable failure) {
+            this.rows = rows == null ? null : ImmutableList.copyOf(rows);
+            this.failure = failure;
+        }
+    }
+
     private <K extends Exception> boolean getBatchingVisitableFromIterator(
             TableReference tableRef,
             RangeRequest range,
@@ -855,7 +1196,9 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     private ConcurrentNavigableMap<Cell, byte[]> getLocalWrites(TableReference tableRef) {
         ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(tableRef);
         if (writes == null) {
-            writes = new ConcurrentSkipListMap<Cell, byte[]>();
+            writes = offHeapWriteSpillThresholdBytes.isPresent()
+                    ? new OffHeapWriteBufferMap(getOffHeapWriteBuffer())
+                    : new ConcurrentSkipListMap<Cell, byte[]>();
             ConcurrentNavigableMap<Cell, byte[]> previous = writesByTable.putIfAbsent(tableRef, writes);
             if (previous != null) {
                 writes = previous;
@@ -864,6 +1207,19 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return writes;
     }
 
+    private synchronized OffHeapWriteBuffer getOffHeapWriteBuffer() {
+        if (offHeapWriteBuffer == null) {
+            offHeapWriteBuffer = new OffHeapWriteBuffer(offHeapWriteSpillThresholdBytes.get());
+        }
+        return offHeapWriteBuffer;
+    }
+
+    private synchronized void closeOffHeapWriteBuffer() {
+        if (offHeapWriteBuffer != null) {
+            offHeapWriteBuffer.close();
+        }
+    }
+
     /**
      * This includes deleted writes as zero length byte arrays, be sure to strip them out.
      */
@@ -1131,6 +1487,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         while (true) {
             Preconditions.checkState(state.get() == State.UNCOMMITTED, "Transaction must be uncommitted.");
             if (state.compareAndSet(State.UNCOMMITTED, State.ABORTED)) {
+                cancelPendingRangeFetches();
+                closeOffHeapWriteBuffer();
                 if (hasWrites()) {
                     throwIfExternalAndCommitLocksNotValid(null);
                 }
@@ -1172,6 +1530,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 break;
             }
         }
+        cancelPendingRangeFetches();
 
         // This must be done BEFORE we commit (otherwise if the system goes down after
         // we commit but before we queue cells for scrubbing, then we will lose track of
@@ -1200,6 +1559,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         } finally {
             // Once we are in state committing, we need to try/finally to set the state to a terminal state.
             state.set(success ? State.COMMITTED : State.FAILED);
+            closeOffHeapWriteBuffer();
         }
     }
 
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.transaction.impl;
 
 import java.util.Collections;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nullable;
@@ -65,6 +66,7 @@ import com.palantir.timestamp.TimestampService;
     final AtomicLong recentImmutableTs = new AtomicLong(-1L);
     final Cleaner cleaner;
     final boolean allowHiddenTableAccess;
+    final Optional<Long> offHeapWriteSpillThresholdBytes;
 
     protected SnapshotTransactionManager(
             KeyValueService keyValueService,
@@ -91,6 +93,27 @@ import com.palantir.timestamp.TimestampService;
             SweepStrategyManager sweepStrategyManager,
             Cleaner cleaner,
             boolean allowHiddenTableAccess) {
+        this(keyValueService, timestampService, lockClient, lockService, transactionService,
+                constraintModeSupplier, conflictDetectionManager, sweepStrategyManager, cleaner,
+                allowHiddenTableAccess, Optional.empty());
+    }
+
+    /**
+     * @param offHeapWriteSpillThresholdBytes If present, transactions buffer the values they write outside of the
+     *                                        java heap, and spill them to disk past this many bytes.
+     */
+    protected SnapshotTransactionManager(
+            KeyValueService keyValueService,
+            TimestampService timestampService,
+            LockClient lockClient,
+            RemoteLockService lockService,
+            TransactionService transactionService,
+            Supplier<AtlasDbConstraintCheckingMode> constraintModeSupplier,
+            ConflictDetectionManager conflictDetectionManager,
+            SweepStrategyManager sweepStrategyManager,
+            Cleaner cleaner,
+            boolean allowHiddenTableAccess,
+            Optional<Long> offHeapWriteSpillThresholdBytes) {
         Preconditions.checkArgument(lockClient != LockClient.ANONYMOUS);
         this.keyValueService = keyValueService;
         this.timestampService = timestampService;
@@ -102,6 +125,7 @@ import com.palantir.timestamp.TimestampService;
         this.constraintModeSupplier = constraintModeSupplier;
         this.cleaner = cleaner;
         this.allowHiddenTableAccess = allowHiddenTableAccess;
+        this.offHeapWriteSpillThresholdBytes = offHeapWriteSpillThresholdBytes;
     }
 
     @Override
@@ -192,7 +216,8 @@ import com.palantir.timestamp.TimestampService;
                 cleaner.getTransactionReadTimeoutMillis(),
                 TransactionReadSentinelBehavior.THROW_EXCEPTION,
                 allowHiddenTableAccess,
-                timestampValidationReadCache);
+                timestampValidationReadCache,
+                offHeapWriteSpillThresholdBytes);
     }
 
     @Override
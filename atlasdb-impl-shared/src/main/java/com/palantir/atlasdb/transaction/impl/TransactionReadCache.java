@@ -0,0 +1,359 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.common.annotation.Output;
+
+/**
+ * Remembers the post-filtered values a {@link SnapshotTransaction} has read from the key value service so that
+ * reading them again does not go back to the key value service. Everything a transaction reads is as of its start
+ * timestamp, so cached values never go stale; local writes are not cached here and must still be merged on top.
+ * <p>
+ * As well as individual cells (including cells confirmed to be absent), this tracks rows which have been read in
+ * full and column ranges of a row which have been read to the end, so reads of any cell in them can be answered.
+ * The cache is bounded by the bytes it holds: each cached cell is charged for its row, column and value, and each
+ * row or column range remembered as read for its row and column names, plus a fixed overhead per entry. Once
+ * {@code maxCachedBytes} are held nothing more is added; this only costs extra reads.
+ */
+final class TransactionReadCache {
+    static final long DEFAULT_MAX_CACHED_BYTES = 4 * 1024 * 1024;
+    // rough heap cost of an entry besides its names and value: the map node, the cell and the array headers
+    private static final long ENTRY_OVERHEAD_BYTES = 64;
+
+    private final long maxCachedBytes;
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final ConcurrentMap<TableReference, TableCache> tables = Maps.newConcurrentMap();
+
+    TransactionReadCache(long maxCachedBytes) {
+        this.maxCachedBytes = maxCachedBytes;
+    }
+
+    /**
+     * Puts the cached values of the given cells into {@code result}, leaving out cells known to be absent.
+     *
+     * @return the cells that are not known to the cache and must be loaded
+     */
+    Set<Cell> getCells(TableReference tableRef, Set<Cell> cells, @Output Map<Cell, byte[]> result) {
+        TableCache table = tables.get(tableRef);
+        if (table == null) {
+            return cells;
+        }
+        Set<Cell> toLoad = Sets.newHashSetWithExpectedSize(0);
+        for (Cell cell : cells) {
+            byte[] value = table.get(cell);
+            if (value == null) {
+                toLoad.add(cell);
+            } else if (value.length != 0) {
+                result.put(cell, value);
+            }
+        }
+        return toLoad;
+    }
+
+    /**
+     * Caches the values loaded for the given cells. Loaded cells without a value are cached as absent.
+     */
+    void cacheCells(TableReference tableRef, Set<Cell> loaded, Map<Cell, byte[]> values) {
+        TableCache table = getTable(tableRef);
+        for (Cell cell : loaded) {
+            byte[] value = values.get(cell);
+            if (!table.put(cell, value == null ? PtBytes.EMPTY_BYTE_ARRAY : value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Puts the cached values of the given rows into {@code result}. A row can only be answered from the cache if
+     * it was read in full or if every selected column of it is cached.
+     *
+     * @return the rows that must be loaded
+     */
+    List<byte[]> getRows(TableReference tableRef,
+                         Iterable<byte[]> rows,
+                         ColumnSelection columnSelection,
+                         @Output Map<Cell, byte[]> result) {
+        TableCache table = tables.get(tableRef);
+        if (table == null) {
+            return Lists.newArrayList(rows);
+        }
+        List<byte[]> toLoad = Lists.newArrayList();
+        for (byte[] row : rows) {
+            if (table.isRowFullyRead(row)) {
+                for (Map.Entry<Cell, byte[]> e : table.getRow(row).entrySet()) {
+                    if (e.getValue().length != 0 && columnSelection.contains(e.getKey().getColumnName())) {
+                        result.put(e.getKey(), e.getValue());
+                    }
+                }
+            } else if (!columnSelection.allColumnsSelected()) {
+                Map<Cell, byte[]> cachedColumns = Maps.newHashMap();
+                Set<Cell> missing = getCells(tableRef,
+                        getSelectedCells(row, columnSelection),
+                        cachedColumns);
+                if (missing.isEmpty()) {
+                    result.putAll(cachedColumns);
+                } else {
+                    toLoad.add(row);
+                }
+            } else {
+                toLoad.add(row);
+            }
+        }
+        return toLoad;
+    }
+
+    /**
+     * Caches the values loaded for the given rows. Selected columns without a value are cached as absent, and
+     * rows loaded with all columns selected are remembered as read in full.
+     */
+    void cacheRows(TableReference tableRef,
+                   Iterable<byte[]> rows,
+                   ColumnSelection columnSelection,
+                   Map<Cell, byte[]> values) {
+        TableCache table = getTable(tableRef);
+        if (!columnSelection.allColumnsSelected()) {
+            for (byte[] row : rows) {
+                cacheCells(tableRef, getSelectedCells(row, columnSelection), values);
+            }
+            return;
+        }
+        for (Map.Entry<Cell, byte[]> e : values.entrySet()) {
+            if (!table.put(e.getKey(), e.getValue())) {
+                return;
+            }
+        }
+        for (byte[] row : rows) {
+            table.markRowFullyRead(row);
+        }
+    }
+
+    /**
+     * Returns the cached cells of the column range, or null if the range has not been read to the end.
+     */
+    @Nullable
+    SortedMap<Cell, byte[]> getColumnRange(TableReference tableRef, byte[] row, ColumnRangeSelection range) {
+        TableCache table = tables.get(tableRef);
+        if (table == null || !table.isColumnRangeRead(row, range)) {
+            return null;
+        }
+        return Maps.filterValues(getCellsInColumnRange(table.getRow(row), row, range), value -> value.length != 0);
+    }
+
+    /**
+     * Caches a page of cells read from a column range.
+     *
+     * @return false if the cache was full and not every cell of the page could be cached
+     */
+    boolean cacheColumnRangePage(TableReference tableRef, Map<Cell, byte[]> values) {
+        TableCache table = getTable(tableRef);
+        for (Map.Entry<Cell, byte[]> e : values.entrySet()) {
+            if (!table.put(e.getKey(), e.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remembers that the column range has been read to the end; all its pages must already have been cached.
+     */
+    void markColumnRangeRead(TableReference tableRef, byte[] row, ColumnRangeSelection range) {
+        getTable(tableRef).markColumnRangeRead(row, range);
+    }
+
+    /**
+     * Returns false, charging nothing, if the bytes would not fit in the cache.
+     */
+    private boolean reserve(long bytes) {
+        if (cachedBytes.addAndGet(bytes) > maxCachedBytes) {
+            cachedBytes.addAndGet(-bytes);
+            return false;
+        }
+        return true;
+    }
+
+    private void release(long bytes) {
+        cachedBytes.addAndGet(-bytes);
+    }
+
+    private TableCache getTable(TableReference tableRef) {
+        TableCache table = tables.get(tableRef);
+        if (table == null) {
+            tables.putIfAbsent(tableRef, new TableCache());
+            table = tables.get(tableRef);
+        }
+        return table;
+    }
+
+    private static NavigableMap<Cell, byte[]> getCellsInColumnRange(NavigableMap<Cell, byte[]> rowCells,
+                                                                  byte[] row,
+                                                                  ColumnRangeSelection range) {
+        NavigableMap<Cell, byte[]> cells = rowCells;
+        if (range.getStartCol().length != 0) {
+            cells = cells.tailMap(Cell.create(row, range.getStartCol()), true);
+        }
+        if (range.getEndCol().length != 0) {
+            cells = cells.headMap(Cell.create(row, range.getEndCol()), false);
+        }
+        return cells;
+    }
+
+    private static Set<Cell> getSelectedCells(byte[] row, ColumnSelection columnSelection) {
+        Set<Cell> cells = Sets.newHashSetWithExpectedSize(columnSelection.getSelectedColumns().size());
+        for (byte[] column : columnSelection.getSelectedColumns()) {
+            cells.add(Cell.create(row, column));
+        }
+        return cells;
+    }
+
+    private static boolean containsColumn(ColumnRangeSelection range, byte[] column) {
+        return (range.getStartCol().length == 0
+                        || UnsignedBytes.lexicographicalComparator().compare(range.getStartCol(), column) <= 0)
+                && (range.getEndCol().length == 0
+                        || UnsignedBytes.lexicographicalComparator().compare(column, range.getEndCol()) < 0);
+    }
+
+    private static boolean contains(ColumnRangeSelection outer, ColumnRangeSelection inner) {
+        boolean startContained = outer.getStartCol().length == 0
+                || (inner.getStartCol().length != 0
+                        && UnsignedBytes.lexicographicalComparator().compare(
+                                outer.getStartCol(), inner.getStartCol()) <= 0);
+        boolean endContained = outer.getEndCol().length == 0
+                || (inner.getEndCol().length != 0
+                        && UnsignedBytes.lexicographicalComparator().compare(
+                                inner.getEndCol(), outer.getEndCol()) <= 0);
+        return startContained && endContained;
+    }
+
+    private final class TableCache {
+        /* Absent cells are cached as empty arrays. */
+        private final ConcurrentNavigableMap<Cell, byte[]> cells = new ConcurrentSkipListMap<>();
+        private final Set<byte[]> fullyReadRows =
+                new ConcurrentSkipListSet<>(UnsignedBytes.lexicographicalComparator());
+        private final ConcurrentNavigableMap<byte[], Set<ColumnRangeSelection>> readColumnRanges =
+                new ConcurrentSkipListMap<>(UnsignedBytes.lexicographicalComparator());
+
+        @Nullable
+        byte[] get(Cell cell) {
+            byte[] value = cells.get(cell);
+            if (value != null) {
+                return value;
+            }
+            byte[] row = cell.getRowName();
+            if (isRowFullyRead(row)) {
+                return PtBytes.EMPTY_BYTE_ARRAY;
+            }
+            Set<ColumnRangeSelection> ranges = readColumnRanges.get(row);
+            if (ranges != null) {
+                for (ColumnRangeSelection range : ranges) {
+                    if (containsColumn(range, cell.getColumnName())) {
+                        return PtBytes.EMPTY_BYTE_ARRAY;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns false if the cache is full.
+         */
+        boolean put(Cell cell, byte[] value) {
+            if (cells.containsKey(cell)) {
+                return true;
+            }
+            long bytes = cell.getRowName().length + cell.getColumnName().length + value.length + ENTRY_OVERHEAD_BYTES;
+            if (!reserve(bytes)) {
+                return false;
+            }
+            if (cells.putIfAbsent(cell, value) != null) {
+                release(bytes);
+            }
+            return true;
+        }
+
+        NavigableMap<Cell, byte[]> getRow(byte[] row) {
+            return cells.subMap(Cells.createSmallestCellForRow(row), true, Cells.createLargestCellForRow(row), true);
+        }
+
+        boolean isRowFullyRead(byte[] row) {
+            return fullyReadRows.contains(row);
+        }
+
+        void markRowFullyRead(byte[] row) {
+            if (isRowFullyRead(row)) {
+                return;
+            }
+            long bytes = row.length + ENTRY_OVERHEAD_BYTES;
+            if (reserve(bytes) && !fullyReadRows.add(row)) {
+                release(bytes);
+            }
+        }
+
+        boolean isColumnRangeRead(byte[] row, ColumnRangeSelection range) {
+            if (isRowFullyRead(row)) {
+                return true;
+            }
+            Set<ColumnRangeSelection> ranges = readColumnRanges.get(row);
+            if (ranges == null) {
+                return false;
+            }
+            for (ColumnRangeSelection readRange : ranges) {
+                if (contains(readRange, range)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void markColumnRangeRead(byte[] row, ColumnRangeSelection range) {
+            long bytes = row.length + range.getStartCol().length + range.getEndCol().length + ENTRY_OVERHEAD_BYTES;
+            if (!reserve(bytes)) {
+                return;
+            }
+            Set<ColumnRangeSelection> ranges = readColumnRanges.get(row);
+            if (ranges == null) {
+                readColumnRanges.putIfAbsent(row, Sets.newConcurrentHashSet());
+                ranges = readColumnRanges.get(row);
+            }
+            if (!ranges.add(range)) {
+                release(bytes);
+            }
+        }
+    }
+}
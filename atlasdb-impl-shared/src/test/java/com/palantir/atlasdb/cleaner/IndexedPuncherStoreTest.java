@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+
+public class IndexedPuncherStoreTest {
+    private static final int MAX_PUNCHES_IN_MEMORY = 3;
+    private static final long REFRESH_INTERVAL_MILLIS = 1000L;
+
+    private final AtomicLong clockMillis = new AtomicLong();
+    private final KeyValueServicePuncherStore kvsPuncherStore =
+            KeyValueServicePuncherStore.create(new InMemoryKeyValueService(false));
+
+    @Test
+    public void loadsTheLatestPunchesAndReadsOlderOnesFromTheStore() {
+        for (long i = 1; i <= 10; i++) {
+            kvsPuncherStore.put(10 * i, 100 * i);
+        }
+        PuncherStore puncherStore = createIndexedPuncherStore();
+
+        assertThat(puncherStore.get(950L)).isEqualTo(90L);
+        assertThat(puncherStore.get(150L)).isEqualTo(10L);
+        assertThat(puncherStore.get(50L)).isEqualTo(Long.MIN_VALUE);
+        assertThat(puncherStore.getMillisForTimestamp(95L)).isEqualTo(900L);
+        assertThat(puncherStore.getMillisForTimestamp(15L)).isEqualTo(100L);
+        assertThat(puncherStore.getMillisForTimestamp(5L)).isEqualTo(0L);
+    }
+
+    @Test
+    public void dropsTheOldestPunchesOnceTooManyAreHeld() {
+        PuncherStore puncherStore = createIndexedPuncherStore();
+        for (long i = 1; i <= 10; i++) {
+            puncherStore.put(10 * i, 100 * i);
+        }
+
+        assertThat(puncherStore.get(1050L)).isEqualTo(100L);
+        assertThat(puncherStore.get(150L)).isEqualTo(10L);
+        assertThat(puncherStore.getMillisForTimestamp(15L)).isEqualTo(100L);
+    }
+
+    @Test
+    public void readsPunchesMadeElsewhereOncePerRefreshInterval() {
+        kvsPuncherStore.put(10L, 100L);
+        PuncherStore puncherStore = createIndexedPuncherStore();
+        assertThat(puncherStore.get(150L)).isEqualTo(10L);
+
+        kvsPuncherStore.put(20L, 200L);
+        assertThat(puncherStore.get(250L)).isEqualTo(10L);
+        assertThat(puncherStore.get(150L + REFRESH_INTERVAL_MILLIS)).isEqualTo(10L);
+
+        clockMillis.addAndGet(REFRESH_INTERVAL_MILLIS);
+        assertThat(puncherStore.get(250L)).isEqualTo(20L);
+    }
+
+    @Test
+    public void readsTimesForTimestampsPunchedElsewhereFromTheStore() {
+        kvsPuncherStore.put(10L, 100L);
+        PuncherStore puncherStore = createIndexedPuncherStore();
+
+        kvsPuncherStore.put(20L, 200L);
+        assertThat(puncherStore.getMillisForTimestamp(25L)).isEqualTo(200L);
+    }
+
+    private PuncherStore createIndexedPuncherStore() {
+        return IndexedPuncherStore.create(
+                kvsPuncherStore, MAX_PUNCHES_IN_MEMORY, REFRESH_INTERVAL_MILLIS, clockMillis::get);
+    }
+}
@@ -17,14 +17,22 @@ package com.palantir.atlasdb.cleaner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
 
+@RunWith(Parameterized.class)
 public class KeyValueServicePuncherStoreTest {
     private static final long TIMESTAMP_1 = 10L;
     private static final long TIMESTAMP_2 = 20L;
@@ -44,8 +52,25 @@ public class KeyValueServicePuncherStoreTest {
             TIMESTAMP_1, WALL_CLOCK_2,
             TIMESTAMP_2, WALL_CLOCK_1);
 
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> parameters() {
+        Function<KeyValueService, PuncherStore> unindexed = KeyValueServicePuncherStore::create;
+        Function<KeyValueService, PuncherStore> indexed = kvs -> KeyValueServicePuncherStore.create(kvs, true);
+        Function<KeyValueService, PuncherStore> inMemory = kvs -> IndexedPuncherStore.create(
+                KeyValueServicePuncherStore.create(kvs), 2, 0L);
+        return ImmutableList.of(
+                new Object[] { "unindexed", unindexed },
+                new Object[] { "indexed", indexed },
+                new Object[] { "in memory", inMemory });
+    }
+
+    private final Function<KeyValueService, PuncherStore> puncherStoreFactory;
     private PuncherStore puncherStore;
 
+    public KeyValueServicePuncherStoreTest(String name, Function<KeyValueService, PuncherStore> puncherStoreFactory) {
+        this.puncherStoreFactory = puncherStoreFactory;
+    }
+
     @Before
     public void setUp() {
         puncherStore = initializePuncherStore(PUNCHER_HISTORY);
@@ -97,6 +122,15 @@ public class KeyValueServicePuncherStoreTest {
                 .isEqualTo(WALL_CLOCK_BETWEEN_1_AND_2);
     }
 
+    @Test
+    public void punchWithEarlierTimestampAndLaterTimeIsReturnedForLaterTimestamps() {
+        puncherStore = initializePuncherStore(ImmutableMap.of(TIMESTAMP_2, WALL_CLOCK_1));
+        puncherStore.put(TIMESTAMP_1, WALL_CLOCK_2);
+        assertThat(puncherStore.getMillisForTimestamp(TIMESTAMP_1)).isEqualTo(WALL_CLOCK_2);
+        assertThat(puncherStore.getMillisForTimestamp(TIMESTAMP_2)).isEqualTo(WALL_CLOCK_2);
+        assertThat(puncherStore.getMillisForTimestamp(TIMESTAMP_3)).isEqualTo(WALL_CLOCK_2);
+    }
+
     @Test
     public void returnsGreatestPunchedTimeBeforeTimestampEvenIfNotAssociatedWithGreatestEligibleTimestamp() {
         puncherStore = initializePuncherStore(PUNCHER_HISTORY_WITH_CLOCK_DRIFT);
@@ -117,8 +151,8 @@ public class KeyValueServicePuncherStoreTest {
         return (first + second) / 2;
     }
 
-    private static PuncherStore initializePuncherStore(Map<Long, Long> timestampMap) {
-        PuncherStore puncherStore = KeyValueServicePuncherStore.create(new InMemoryKeyValueService(false));
+    private PuncherStore initializePuncherStore(Map<Long, Long> timestampMap) {
+        PuncherStore puncherStore = puncherStoreFactory.apply(new InMemoryKeyValueService(false));
         timestampMap.entrySet().forEach(entry -> puncherStore.put(entry.getKey(), entry.getValue()));
         return puncherStore;
     }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.SortedMap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+
+@RunWith(Parameterized.class)
+public class KeyValueServiceScrubberStoreTest {
+    private static final TableReference TABLE_1 = TableReference.createFromFullyQualifiedName("ns.table1");
+    private static final TableReference TABLE_2 = TableReference.createFromFullyQualifiedName("ns.table2");
+    private static final Cell CELL_1 = Cell.create(PtBytes.toBytes("apple"), PtBytes.toBytes("c"));
+    private static final Cell CELL_2 = Cell.create(new byte[] {(byte) 0xf0, 1}, PtBytes.toBytes("c"));
+    private static final byte[] MIDDLE_ROW = new byte[] {(byte) 0x80};
+    private static final int BATCH_SIZE = 10;
+
+    @Parameters(name = "bucketByTimestamp={0}")
+    public static Collection<Object[]> parameters() {
+        return ImmutableList.of(new Object[] {false}, new Object[] {true});
+    }
+
+    private final KeyValueService kvs = new InMemoryKeyValueService(false);
+    private final ScrubberStore scrubberStore;
+
+    public KeyValueServiceScrubberStoreTest(boolean bucketByTimestamp) {
+        scrubberStore = KeyValueServiceScrubberStore.create(kvs, bucketByTimestamp);
+    }
+
+    @Test
+    public void readsCellsQueuedBeforeTheMaxScrubTimestamp() {
+        scrubberStore.queueCellsForScrubbing(ImmutableMultimap.of(CELL_1, TABLE_1, CELL_1, TABLE_2), 10L, BATCH_SIZE);
+        scrubberStore.queueCellsForScrubbing(ImmutableMultimap.of(CELL_2, TABLE_1), 2_000_000L, BATCH_SIZE);
+
+        SortedMap<Long, Multimap<TableReference, Cell>> queue = readQueue(100L, null, null);
+        assertThat(queue.keySet()).containsExactly(10L);
+        assertThat(queue.get(10L)).isEqualTo(ImmutableSetMultimap.of(TABLE_1, CELL_1, TABLE_2, CELL_1));
+
+        assertThat(readQueue(Long.MAX_VALUE, null, null).keySet()).containsExactly(10L, 2_000_000L);
+    }
+
+    @Test
+    public void rangesPartitionTheQueue() {
+        scrubberStore.queueCellsForScrubbing(ImmutableMultimap.of(CELL_1, TABLE_1), 10L, BATCH_SIZE);
+        scrubberStore.queueCellsForScrubbing(ImmutableMultimap.of(CELL_2, TABLE_1), 20L, BATCH_SIZE);
+
+        assertThat(readQueue(100L, new byte[0], MIDDLE_ROW).keySet()).containsExactly(10L);
+        assertThat(readQueue(100L, MIDDLE_ROW, new byte[0]).keySet()).containsExactly(20L);
+    }
+
+    @Test
+    public void cellsMarkedAsScrubbedAreNotReadAgain() {
+        scrubberStore.queueCellsForScrubbing(ImmutableMultimap.of(CELL_1, TABLE_1, CELL_2, TABLE_1), 10L, BATCH_SIZE);
+        assertThat(scrubberStore.getNumberRemainingScrubCells(BATCH_SIZE)).isEqualTo(2);
+
+        scrubberStore.markCellsAsScrubbed(ImmutableMultimap.of(CELL_1, 10L), BATCH_SIZE);
+
+        assertThat(scrubberStore.getNumberRemainingScrubCells(BATCH_SIZE)).isEqualTo(1);
+        assertThat(readQueue(100L, null, null).get(10L).values()).containsExactly(CELL_2);
+    }
+
+    @Test
+    public void readsCellsQueuedWithoutBuckets() {
+        KeyValueServiceScrubberStore.create(kvs, false)
+                .queueCellsForScrubbing(ImmutableMultimap.of(CELL_1, TABLE_1), 10L, BATCH_SIZE);
+        ScrubberStore bucketedStore = KeyValueServiceScrubberStore.create(kvs, true);
+        bucketedStore.queueCellsForScrubbing(ImmutableMultimap.of(CELL_2, TABLE_1), 20L, BATCH_SIZE);
+
+        assertThat(bucketedStore.getNumberRemainingScrubCells(BATCH_SIZE)).isEqualTo(2);
+        bucketedStore.markCellsAsScrubbed(ImmutableMultimap.of(CELL_1, 10L, CELL_2, 20L), BATCH_SIZE);
+        assertThat(bucketedStore.getNumberRemainingScrubCells(BATCH_SIZE)).isEqualTo(0);
+    }
+
+    @Test
+    public void readsCellsQueuedWithoutBucketsAfterTheBucketedStoreIsCreated() {
+        ScrubberStore bucketedStore = KeyValueServiceScrubberStore.create(kvs, true);
+        KeyValueServiceScrubberStore.create(kvs, false)
+                .queueCellsForScrubbing(ImmutableMultimap.of(CELL_1, TABLE_1), 10L, BATCH_SIZE);
+
+        assertThat(bucketedStore.getNumberRemainingScrubCells(BATCH_SIZE)).isEqualTo(1);
+        bucketedStore.markCellsAsScrubbed(ImmutableMultimap.of(CELL_1, 10L), BATCH_SIZE);
+        assertThat(bucketedStore.getNumberRemainingScrubCells(BATCH_SIZE)).isEqualTo(0);
+    }
+
+    private SortedMap<Long, Multimap<TableReference, Cell>> readQueue(
+            long maxScrubTimestamp,
+            byte[] startRow,
+            byte[] endRow) {
+        SortedMap<Long, Multimap<TableReference, Cell>> queue = Maps.newTreeMap();
+        scrubberStore.getBatchingVisitableScrubQueue(BATCH_SIZE, maxScrubTimestamp, startRow, endRow)
+                .batchAccept(1, batch -> {
+                    for (SortedMap<Long, Multimap<TableReference, Cell>> cells : batch) {
+                        cells.forEach((scrubTimestamp, tableToCell) -> queue
+                                .computeIfAbsent(scrubTimestamp, ts -> HashMultimap.create())
+                                .putAll(tableToCell));
+                    }
+                    return true;
+                });
+        return queue;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class PunchHistoryTest {
+    private final PunchHistory history = new PunchHistory();
+
+    @Test
+    public void emptyHistoryHasNoPunches() {
+        assertThat(history.isEmpty()).isTrue();
+        assertThat(history.getTimestampAt(Long.MAX_VALUE)).isNull();
+        assertThat(history.getMillisAt(Long.MAX_VALUE)).isNull();
+    }
+
+    @Test
+    public void looksUpTheLatestPunchAtOrBeforeTheQuery() {
+        for (long i = 1; i <= 1000; i++) {
+            history.add(10 * i, 100 * i);
+        }
+        assertThat(history.size()).isEqualTo(1000);
+        assertThat(history.getTimestampAt(99L)).isNull();
+        assertThat(history.getTimestampAt(100L)).isEqualTo(10L);
+        assertThat(history.getTimestampAt(55_555L)).isEqualTo(5550L);
+        assertThat(history.getMillisAt(9L)).isNull();
+        assertThat(history.getMillisAt(5559L)).isEqualTo(55_500L);
+        assertThat(history.getEarliestMillis()).isEqualTo(100L);
+        assertThat(history.getLatestTimestamp()).isEqualTo(10_000L);
+    }
+
+    @Test
+    public void insertsPunchesArrivingOutOfOrder() {
+        history.add(30L, 300L);
+        history.add(10L, 100L);
+        history.add(20L, 200L);
+        assertThat(history.getTimestampAt(250L)).isEqualTo(20L);
+        assertThat(history.getMillisAt(25L)).isEqualTo(200L);
+        assertThat(history.getEarliestTimestamp()).isEqualTo(10L);
+    }
+
+    @Test
+    public void returnsTheLatestTimePunchedAtOrBeforeTimestampDespiteClockDrift() {
+        history.add(10L, 200L);
+        history.add(20L, 100L);
+        history.add(30L, 300L);
+        assertThat(history.getMillisAt(20L)).isEqualTo(200L);
+        assertThat(history.getTimestampAt(250L)).isEqualTo(10L);
+
+        history.add(5L, 250L);
+        assertThat(history.getMillisAt(10L)).isEqualTo(250L);
+        assertThat(history.getMillisAt(20L)).isEqualTo(250L);
+        assertThat(history.getMillisAt(30L)).isEqualTo(300L);
+    }
+
+    @Test
+    public void earlierSnapshotsAreUnaffectedByAppends() {
+        PunchHistory other = new PunchHistory();
+        history.add(10L, 100L);
+        other.add(20L, 200L);
+        assertThat(history.getTimestampAt(Long.MAX_VALUE)).isEqualTo(10L);
+        assertThat(other.getTimestampAt(Long.MAX_VALUE)).isEqualTo(20L);
+    }
+}
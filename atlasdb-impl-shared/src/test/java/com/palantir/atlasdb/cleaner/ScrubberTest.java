@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.atlasdb.transaction.impl.TransactionTables;
+import com.palantir.atlasdb.transaction.service.TransactionService;
+import com.palantir.atlasdb.transaction.service.TransactionServices;
+
+public class ScrubberTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("ns.table");
+    private static final Cell CELL_1 = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("c"));
+    private static final Cell CELL_2 = Cell.create(PtBytes.toBytes("row2"), PtBytes.toBytes("c"));
+    private static final long MAX_SCRUB_TIMESTAMP = 100L;
+
+    private final KeyValueService kvs = new InMemoryKeyValueService(false);
+    private final TransactionService transactionService = TransactionServices.createTransactionService(kvs);
+    private Scrubber scrubber;
+
+    @Before
+    public void setUp() {
+        TransactionTables.createTables(kvs);
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        scrubber = Scrubber.create(
+                kvs,
+                KeyValueServiceScrubberStore.create(kvs, true),
+                Suppliers.ofInstance(Long.MAX_VALUE),
+                Suppliers.ofInstance(true),
+                Suppliers.ofInstance(MAX_SCRUB_TIMESTAMP),
+                Suppliers.ofInstance(MAX_SCRUB_TIMESTAMP),
+                transactionService,
+                false,
+                Suppliers.ofInstance(1),
+                2,
+                2,
+                ImmutableList.of());
+    }
+
+    @After
+    public void tearDown() {
+        scrubber.shutdown();
+    }
+
+    @Test
+    public void scrubsEachCellBelowTheTimestampItWasQueuedAt() {
+        putValues(CELL_1, 10L, 20L, 30L);
+        putValues(CELL_2, 10L, 20L, 30L);
+        queueCommittedHardDelete(CELL_1, 25L, 26L);
+        queueCommittedHardDelete(CELL_2, 15L, 16L);
+
+        scrubber.runBackgroundScrubTask(null);
+
+        assertThat(getTimestamps(CELL_1)).containsOnly(Value.INVALID_VALUE_TIMESTAMP, 30L);
+        assertThat(getTimestamps(CELL_2)).containsOnly(Value.INVALID_VALUE_TIMESTAMP, 20L, 30L);
+        assertThat(scrubberStoreSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void doesNotScrubCellsWhoseHardDeleteCommittedAfterTheMaxScrubTimestamp() {
+        putValues(CELL_1, 10L, 20L);
+        queueCommittedHardDelete(CELL_1, 50L, MAX_SCRUB_TIMESTAMP + 1);
+
+        scrubber.runBackgroundScrubTask(null);
+
+        assertThat(getTimestamps(CELL_1)).containsOnly(10L, 20L);
+        assertThat(scrubberStoreSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void doesNotScrubCellsWhoseHardDeleteDidNotCommit() {
+        putValues(CELL_1, 10L, 20L);
+        scrubber.queueCellsForScrubbing(ImmutableMultimap.of(CELL_1, TABLE), 50L);
+
+        scrubber.runBackgroundScrubTask(null);
+
+        assertThat(getTimestamps(CELL_1)).containsOnly(10L, 20L);
+        assertThat(scrubberStoreSize()).isEqualTo(0);
+    }
+
+    private void putValues(Cell cell, long... timestamps) {
+        for (long timestamp : timestamps) {
+            kvs.put(TABLE, ImmutableMap.of(cell, PtBytes.toBytes(timestamp)), timestamp);
+        }
+    }
+
+    private void queueCommittedHardDelete(Cell cell, long startTimestamp, long commitTimestamp) {
+        scrubber.queueCellsForScrubbing(ImmutableMultimap.of(cell, TABLE), startTimestamp);
+        transactionService.putUnlessExists(startTimestamp, commitTimestamp);
+    }
+
+    private Collection<Long> getTimestamps(Cell cell) {
+        return kvs.getAllTimestamps(TABLE, ImmutableSet.of(cell), Long.MAX_VALUE).get(cell);
+    }
+
+    private int scrubberStoreSize() {
+        return KeyValueServiceScrubberStore.create(kvs, true).getNumberRemainingScrubCells(100);
+    }
+}
@@ -53,6 +53,7 @@ public class CassandraKeyValueServiceInstrumentation extends KeyValueServiceInst
                 .mutationBatchCount(10000)
                 .mutationBatchSizeBytes(10000000)
                 .fetchBatchCount(1000)
+                .rangeReadAheadPages(2)
                 .safetyDisabled(false)
                 .autoRefreshNodes(false)
                 .build();
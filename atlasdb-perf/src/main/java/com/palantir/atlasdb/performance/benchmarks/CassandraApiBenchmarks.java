@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
+import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfigManager;
+import com.palantir.atlasdb.cassandra.ImmutableCassandraKeyValueServiceConfig;
+import com.palantir.atlasdb.config.ImmutableLeaderConfig;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.cassandra.CassandraKeyValueService;
+import com.palantir.atlasdb.keyvalue.cassandra.CqlKeyValueService;
+import com.palantir.atlasdb.performance.backend.AtlasDbServicesConnector;
+import com.palantir.atlasdb.performance.backend.CassandraKeyValueServiceInstrumentation;
+import com.palantir.atlasdb.performance.backend.DockerizedDatabaseUri;
+import com.palantir.atlasdb.performance.backend.KeyValueServiceInstrumentation;
+
+/**
+ * Compares the Thrift {@link CassandraKeyValueService} with the CQL {@link CqlKeyValueService} on the same
+ * Cassandra node. Against any other backend, both variants run against that backend's own key value service.
+ */
+@State(Scope.Benchmark)
+public class CassandraApiBenchmarks {
+    private static final TableReference TABLE_REF = TableReference.createFromFullyQualifiedName("performance.api");
+    private static final byte[] COLUMN = "value".getBytes(StandardCharsets.UTF_8);
+    private static final int CQL_NATIVE_PORT = 9042;
+    private static final int NUM_ROWS = 1000;
+    private static final int VALUE_SIZE = 100;
+
+    /**
+     * Edit this instance variable name ("uri") with care as it must match {@code BenchmarkParam.URI}.getKey().
+     */
+    @Param("")
+    private String uri;
+
+    @Param({"THRIFT", "CQL"})
+    private String api;
+
+    private final AtomicLong timestamp = new AtomicLong(Long.MAX_VALUE / 2);
+    private KeyValueService kvs;
+    private List<byte[]> rows;
+    private Map<Cell, Long> cells;
+
+    @Setup(Level.Trial)
+    public void setup(AtlasDbServicesConnector connector) {
+        kvs = createKeyValueService(connector);
+        kvs.createTable(TABLE_REF, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        kvs.truncateTable(TABLE_REF);
+
+        Map<Cell, byte[]> values = createValues(0);
+        kvs.put(TABLE_REF, values, timestamp.incrementAndGet());
+        rows = Lists.newArrayListWithCapacity(NUM_ROWS);
+        cells = Maps.newHashMapWithExpectedSize(NUM_ROWS);
+        for (Cell cell : values.keySet()) {
+            rows.add(cell.getRowName());
+            cells.put(cell, Long.MAX_VALUE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() {
+        kvs.dropTable(TABLE_REF);
+        if (!isCassandra()) {
+            // closed by the connector
+            return;
+        }
+        kvs.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5)
+    @Measurement(time = 20)
+    public Object getRows() {
+        Map<Cell, Value> result = kvs.getRows(TABLE_REF, rows, ColumnSelection.all(), Long.MAX_VALUE);
+        Preconditions.checkState(result.size() == NUM_ROWS,
+                "Should be %s rows, but were: %s", NUM_ROWS, result.size());
+        return result;
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5)
+    @Measurement(time = 20)
+    public Object getCells() {
+        Map<Cell, Value> result = kvs.get(TABLE_REF, cells);
+        Preconditions.checkState(result.size() == NUM_ROWS,
+                "Should be %s cells, but were: %s", NUM_ROWS, result.size());
+        return result;
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5)
+    @Measurement(time = 20)
+    public void putCells() {
+        kvs.put(TABLE_REF, createValues(NUM_ROWS), timestamp.incrementAndGet());
+    }
+
+    private boolean isCassandra() {
+        return DockerizedDatabaseUri.fromUriString(uri).getKeyValueServiceInstrumentation()
+                instanceof CassandraKeyValueServiceInstrumentation;
+    }
+
+    private KeyValueService createKeyValueService(AtlasDbServicesConnector connector) {
+        if (!isCassandra()) {
+            return connector.connect().getKeyValueService();
+        }
+
+        DockerizedDatabaseUri dburi = DockerizedDatabaseUri.fromUriString(uri);
+        KeyValueServiceInstrumentation instrumentation = dburi.getKeyValueServiceInstrumentation();
+
+        InetSocketAddress addr = dburi.getAddress();
+        CassandraKeyValueServiceConfig thriftConfig =
+                (CassandraKeyValueServiceConfig) instrumentation.getKeyValueServiceConfig(addr);
+        if (api.equals("THRIFT")) {
+            return CassandraKeyValueService.create(
+                    CassandraKeyValueServiceConfigManager.createSimpleManager(thriftConfig),
+                    Optional.of(ImmutableLeaderConfig.builder()
+                            .quorumSize(1)
+                            .localServer(addr.getHostString())
+                            .leaders(ImmutableSet.of(addr.getHostString()))
+                            .build()));
+        }
+        CassandraKeyValueServiceConfig cqlConfig = ImmutableCassandraKeyValueServiceConfig.builder()
+                .from(thriftConfig)
+                .servers(ImmutableSet.of(new InetSocketAddress(addr.getHostString(), CQL_NATIVE_PORT)))
+                .keyspace("atlasdb_cql")
+                .build();
+        return CqlKeyValueService.create(CassandraKeyValueServiceConfigManager.createSimpleManager(cqlConfig));
+    }
+
+    private static Map<Cell, byte[]> createValues(int seed) {
+        Map<Cell, byte[]> values = Maps.newHashMapWithExpectedSize(NUM_ROWS);
+        for (int i = 0; i < NUM_ROWS; i++) {
+            byte[] value = new byte[VALUE_SIZE];
+            value[0] = (byte) (seed + i);
+            values.put(Cell.create(Ints.toByteArray(i), COLUMN), value);
+        }
+        return values;
+    }
+}
@@ -15,8 +15,10 @@
  */
 package com.palantir.atlasdb.performance.benchmarks;
 
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.core.MediaType;
@@ -31,8 +33,12 @@ import org.openjdk.jmh.infra.Blackhole;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.net.HttpHeaders;
+import com.palantir.atlasdb.performance.benchmarks.endpoint.HttpRoundTripEndpoint;
 import com.palantir.common.remoting.HeaderAccessUtils;
+import com.palantir.lock.LockRefreshToken;
+import com.palantir.timestamp.TimestampRange;
 
 @State(Scope.Thread)
 public class HttpBenchmarks {
@@ -51,6 +57,11 @@ public class HttpBenchmarks {
                     .put(HttpHeaders.EXPECT.toLowerCase(), ImmutableList.of("12391572384129734"))
                     .build();
 
+    private static final Set<LockRefreshToken> LOCK_REFRESH_TOKENS = ImmutableSet.of(
+            new LockRefreshToken(new BigInteger("12345678901234567890"), 1_500_000_000_000L),
+            new LockRefreshToken(new BigInteger("12345678901234567891"), 1_500_000_000_000L),
+            new LockRefreshToken(new BigInteger("12345678901234567892"), 1_500_000_000_000L));
+
     @Benchmark
     @Threads(1)
     @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
@@ -61,4 +72,36 @@ public class HttpBenchmarks {
                 LOWERCASE_CONTENT_TYPE,
                 MediaType.TEXT_PLAIN));
     }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public long getFreshTimestamp(HttpRoundTripEndpoint endpoint) {
+        return endpoint.getFreshTimestamp();
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public long getFreshTimestampConcurrently(HttpRoundTripEndpoint endpoint) {
+        return endpoint.getFreshTimestamp();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public TimestampRange getFreshTimestamps(HttpRoundTripEndpoint endpoint) {
+        return endpoint.getFreshTimestamps(10_000);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Set<LockRefreshToken> refreshLockRefreshTokens(HttpRoundTripEndpoint endpoint) {
+        return endpoint.refreshLockRefreshTokens(LOCK_REFRESH_TOKENS);
+    }
 }
@@ -44,7 +44,14 @@ import com.palantir.util.paging.TokenBackedBasicResultsPage;
 public class KvsGetRangeBenchmarks {
 
     private Object getSingleRangeInner(ConsecutiveNarrowTable table, int sliceSize) {
-        RangeRequest request = Iterables.getOnlyElement(table.getRangeRequests(1, sliceSize));
+        return getSingleRangeInner(table, sliceSize, 1 + sliceSize);
+    }
+
+    private Object getSingleRangeInner(ConsecutiveNarrowTable table, int sliceSize, int pageSize) {
+        RangeRequest request = Iterables.getOnlyElement(table.getRangeRequests(1, sliceSize))
+                .getBuilder()
+                .batchHint(pageSize)
+                .build();
         int startRow = Ints.fromByteArray(request.getStartInclusive());
         ClosableIterator<RowResult<Value>> result =
                 table.getKvs().getRange(table.getTableRef(), request, Long.MAX_VALUE);
@@ -111,6 +118,18 @@ public class KvsGetRangeBenchmarks {
         return getSingleRangeInner(table, 1000);
     }
 
+    /**
+     * Reads a large range a page at a time, so that the time taken is dominated by round trips to the key value
+     * service. This is what reading pages ahead of the caller (as enabled in the Cassandra benchmarks) speeds up.
+     */
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 2, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Object getSingleLargeRangeInSmallPages(ConsecutiveNarrowTable.CleanNarrowTable table) {
+        return getSingleRangeInner(table, 1000, 20);
+    }
+
     @Benchmark
     @Threads(1)
     @Warmup(time = 20, timeUnit = TimeUnit.SECONDS)
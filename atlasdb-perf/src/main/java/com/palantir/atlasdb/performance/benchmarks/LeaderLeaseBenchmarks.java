@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.net.HostAndPort;
+import com.palantir.leader.LeaderElectionService;
+import com.palantir.leader.NotCurrentLeaderException;
+import com.palantir.leader.proxy.AwaitingLeadershipProxy;
+import com.palantir.timestamp.InMemoryTimestampService;
+import com.palantir.timestamp.TimestampService;
+
+/**
+ * Measures the latency of getFreshTimestamp through an {@link AwaitingLeadershipProxy}, with and without leader
+ * leases, against a leader election service whose leadership confirmations take a simulated quorum round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LeaderLeaseBenchmarks {
+    private static final long LEADERSHIP_TIMEOUT_MILLIS = 60_000L;
+
+    @Param({"0", "2000"})
+    public long leaseDurationMs;
+
+    @Param({"500"})
+    public long quorumRoundTripMicros;
+
+    private TimestampService timestampService;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        timestampService = AwaitingLeadershipProxy.newProxyInstance(
+                TimestampService.class,
+                InMemoryTimestampService::new,
+                new SimulatedLeaderElectionService(TimeUnit.MICROSECONDS.toNanos(quorumRoundTripMicros)),
+                leaseDurationMs,
+                leaseDurationMs / 10);
+        long deadline = System.currentTimeMillis() + LEADERSHIP_TIMEOUT_MILLIS;
+        while (true) {
+            try {
+                timestampService.getFreshTimestamp();
+                return;
+            } catch (NotCurrentLeaderException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Timed out waiting for the proxy to gain leadership", e);
+                }
+                Thread.sleep(10L);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() throws IOException {
+        ((Closeable) timestampService).close();
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public long singleThreadGetFreshTimestamp() {
+        return timestampService.getFreshTimestamp();
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(16)
+    public long manyThreadsGetFreshTimestamp() {
+        return timestampService.getFreshTimestamp();
+    }
+
+    private static final class SimulatedLeaderElectionService implements LeaderElectionService {
+        private static final LeadershipToken TOKEN = new LeadershipToken() {
+            @Override
+            public boolean sameAs(LeadershipToken token) {
+                return token == this;
+            }
+        };
+
+        private final long roundTripNanos;
+
+        SimulatedLeaderElectionService(long roundTripNanos) {
+            this.roundTripNanos = roundTripNanos;
+        }
+
+        @Override
+        public LeadershipToken blockOnBecomingLeader() {
+            return TOKEN;
+        }
+
+        @Override
+        public StillLeadingStatus isStillLeading(LeadershipToken token) {
+            LockSupport.parkNanos(roundTripNanos);
+            return StillLeadingStatus.LEADING;
+        }
+
+        @Override
+        public Optional<HostAndPort> getSuspectedLeaderInMemory() {
+            return Optional.empty();
+        }
+    }
+}
@@ -18,11 +18,14 @@ package com.palantir.atlasdb.performance.benchmarks;
 import java.util.concurrent.TimeUnit;
 
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 
+import com.palantir.atlasdb.performance.benchmarks.endpoint.InProcessTimestampServiceEndpoint;
 import com.palantir.atlasdb.performance.benchmarks.endpoint.TimestampServiceEndpoint;
 import com.palantir.timestamp.TimestampRange;
 
@@ -67,4 +70,31 @@ public class TimestampServiceBenchmarks {
     public TimestampRange manyThreadsGetBatchOfTimestamps(TimestampServiceEndpoint timestampService) {
         return timestampService.getFreshTimestamps(500);
     }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(4)
+    public long fewThreadsIssueTimestampsInProcess(InProcessTimestampServiceEndpoint timestampService) {
+        return timestampService.getFreshTimestamp();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(64)
+    public long manyThreadsIssueTimestampsInProcess(InProcessTimestampServiceEndpoint timestampService) {
+        return timestampService.getFreshTimestamp();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(64)
+    public TimestampRange manyThreadsIssueBatchesInProcess(InProcessTimestampServiceEndpoint timestampService) {
+        return timestampService.getFreshTimestamps(500);
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks.endpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.core.MediaType;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.atlasdb.config.HttpTransport;
+import com.palantir.atlasdb.http.AtlasDbHttpClients;
+import com.palantir.atlasdb.http.UserAgents;
+import com.palantir.common.remoting.AtlasDbMediaTypes;
+import com.palantir.lock.LockRefreshToken;
+import com.palantir.lock.RemoteLockService;
+import com.palantir.timestamp.TimestampRange;
+import com.palantir.timestamp.TimestampService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Feign clients of the timestamp and lock services, talking to a local HTTP server that answers straight from memory,
+ * for measuring what a round trip costs with each {@link HttpTransport}. The server is the JDK's own, since there is
+ * no Jersey server on this classpath; like one, it writes Smile when the client asks for it and JSON otherwise.
+ */
+@State(Scope.Benchmark)
+public class HttpRoundTripEndpoint {
+    private static final int SERVER_THREADS = 16;
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+    private static final TypeReference<Set<LockRefreshToken>> LOCK_REFRESH_TOKENS =
+            new TypeReference<Set<LockRefreshToken>>() {};
+
+    @Param({"JSON", "SMILE"})
+    private String transport;
+
+    private final AtomicLong timestamp = new AtomicLong();
+
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private TimestampService timestampService;
+    private RemoteLockService lockService;
+
+    public long getFreshTimestamp() {
+        return timestampService.getFreshTimestamp();
+    }
+
+    public TimestampRange getFreshTimestamps(int num) {
+        return timestampService.getFreshTimestamps(num);
+    }
+
+    public Set<LockRefreshToken> refreshLockRefreshTokens(Iterable<LockRefreshToken> tokens) {
+        return lockService.refreshLockRefreshTokens(tokens);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // Otherwise Nagle's algorithm holds back each response body until the client acks its headers, which adds
+        // the client's delayed ack time (40ms on Linux) to every call. The server reads this once, when it starts.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        serverExecutor = Executors.newFixedThreadPool(SERVER_THREADS,
+                new ThreadFactoryBuilder().setNameFormat("http-round-trip-server-%d").setDaemon(true).build());
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/timestamp/fresh-timestamp", exchange -> respond(exchange, timestamp.incrementAndGet()));
+        server.createContext("/timestamp/fresh-timestamps", exchange -> {
+            int number = Integer.parseInt(queryParameters(exchange).get("number"));
+            long upperBound = timestamp.addAndGet(number);
+            respond(exchange, TimestampRange.createInclusiveRange(upperBound - number + 1, upperBound));
+        });
+        server.createContext("/lock/refresh-lock-tokens", exchange -> {
+            Set<LockRefreshToken> tokens;
+            try (InputStream body = exchange.getRequestBody()) {
+                tokens = mapperFor(exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_TYPE))
+                        .readValue(body, LOCK_REFRESH_TOKENS);
+            }
+            respond(exchange, tokens);
+        });
+        server.start();
+
+        String uri = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        HttpTransport httpTransport = HttpTransport.valueOf(transport);
+        timestampService = AtlasDbHttpClients.createProxyWithFailover(Optional.empty(), ImmutableList.of(uri),
+                TimestampService.class, UserAgents.DEFAULT_USER_AGENT, httpTransport);
+        lockService = AtlasDbHttpClients.createProxyWithFailover(Optional.empty(), ImmutableList.of(uri),
+                RemoteLockService.class, UserAgents.DEFAULT_USER_AGENT, httpTransport);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, Object value) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT);
+        boolean smile = accept != null && accept.startsWith(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE);
+        byte[] body = (smile ? SMILE_MAPPER : JSON_MAPPER).writeValueAsBytes(value);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE,
+                smile ? AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE : MediaType.APPLICATION_JSON);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static ObjectMapper mapperFor(String contentType) {
+        return contentType != null && contentType.startsWith(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE)
+                ? SMILE_MAPPER
+                : JSON_MAPPER;
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        return Splitter.on('&').withKeyValueSeparator('=').split(exchange.getRequestURI().getRawQuery());
+    }
+}
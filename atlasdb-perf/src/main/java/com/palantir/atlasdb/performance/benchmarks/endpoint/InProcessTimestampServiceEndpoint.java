@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks.endpoint;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.codahale.metrics.MetricRegistry;
+import com.palantir.timestamp.PersistentTimestampService;
+import com.palantir.timestamp.TimestampBoundStore;
+import com.palantir.timestamp.TimestampRange;
+
+/**
+ * A {@link PersistentTimestampService} whose bound store lives in memory, for measuring the cost of handing out
+ * timestamps without a database round trip.
+ */
+@State(Scope.Benchmark)
+public class InProcessTimestampServiceEndpoint {
+
+    @Param({"FIXED", "ADAPTIVE"})
+    private String upperLimit;
+
+    private PersistentTimestampService timestampService;
+
+    public long getFreshTimestamp() {
+        return timestampService.getFreshTimestamp();
+    }
+
+    public TimestampRange getFreshTimestamps(int num) {
+        return timestampService.getFreshTimestamps(num);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TimestampBoundStore boundStore = new InMemoryTimestampBoundStore();
+        this.timestampService = upperLimit.equals("ADAPTIVE")
+                ? PersistentTimestampService.createAdaptive(boundStore, new MetricRegistry())
+                : PersistentTimestampService.create(boundStore);
+    }
+
+    private static final class InMemoryTimestampBoundStore implements TimestampBoundStore {
+        private final AtomicLong upperLimit = new AtomicLong();
+
+        @Override
+        public long getUpperLimit() {
+            return upperLimit.get();
+        }
+
+        @Override
+        public void storeUpperLimit(long limit) {
+            upperLimit.set(limit);
+        }
+    }
+}
@@ -628,7 +628,7 @@ public final class ValueStreamHashAidxTable implements
     }
 
     public BatchingVisitableView<ValueStreamHashAidxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, ValueStreamHashAidxRowResult>() {
             @Override
             public ValueStreamHashAidxRowResult apply(RowResult<byte[]> input) {
@@ -629,7 +629,7 @@ public final class ValueStreamIdxTable implements
     }
 
     public BatchingVisitableView<ValueStreamIdxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, ValueStreamIdxRowResult>() {
             @Override
             public ValueStreamIdxRowResult apply(RowResult<byte[]> input) {
@@ -598,7 +598,7 @@ public final class ValueStreamMetadataTable implements
     }
 
     public BatchingVisitableView<ValueStreamMetadataRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, ValueStreamMetadataRowResult>() {
             @Override
             public ValueStreamMetadataRowResult apply(RowResult<byte[]> input) {
@@ -586,7 +586,7 @@ public final class ValueStreamValueTable implements
     }
 
     public BatchingVisitableView<ValueStreamValueRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, ValueStreamValueRowResult>() {
             @Override
             public ValueStreamValueRowResult apply(RowResult<byte[]> input) {
@@ -42,6 +42,14 @@ import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.CachePriority;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ExpirationStrategy;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.PartitionStrategy;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.SweepStrategy;
+import com.palantir.atlasdb.table.description.ColumnMetadataDescription;
+import com.palantir.atlasdb.table.description.NameMetadataDescription;
+import com.palantir.atlasdb.table.description.TableMetadata;
+import com.palantir.atlasdb.transaction.api.ConflictHandler;
 import com.palantir.common.base.ClosableIterator;
 
 public final class RocksDbKeyValueServiceTest {
@@ -299,6 +307,40 @@ public final class RocksDbKeyValueServiceTest {
         }
     }
 
+    @Test
+    public void testTableMetadataOptionsSurviveReopen() {
+        TableReference tunedTable = TableReference.createWithEmptyNamespace("tuned");
+        TableMetadata metadata = new TableMetadata(
+                new NameMetadataDescription(),
+                new ColumnMetadataDescription(),
+                ConflictHandler.RETRY_ON_WRITE_WRITE,
+                CachePriority.HOTTEST,
+                PartitionStrategy.ORDERED,
+                false,
+                0,
+                true,
+                SweepStrategy.CONSERVATIVE,
+                ExpirationStrategy.NEVER,
+                true,
+                false);
+        db.createTable(tunedTable, metadata.persistToBytes());
+        Cell cell = Cell.create("r1".getBytes(), COMMIT_TS_COLUMN);
+        db.putUnlessExists(tunedTable, ImmutableMap.of(cell, "v1".getBytes()));
+
+        db.close();
+        db = RocksDbKeyValueService.create("testdb");
+
+        assertEquals("v1", new String(db.get(tunedTable, ImmutableMap.of(cell, Long.MAX_VALUE)).get(cell).getContents()));
+        try {
+            db.putUnlessExists(tunedTable, ImmutableMap.of(cell, "v2".getBytes()));
+            fail("putUnlessExists should fail for an existing cell");
+        } catch (KeyAlreadyExistsException e) {
+            assertEquals(ImmutableList.of(cell), ImmutableList.copyOf(e.getExistingKeys()));
+        }
+        db.truncateTable(tunedTable);
+        assertTrue(db.get(tunedTable, ImmutableMap.of(cell, Long.MAX_VALUE)).isEmpty());
+    }
+
     private static <K, V> Map<K, V> putAll(Map<K, V> map, Iterable<? extends Map.Entry<? extends K, ? extends V>> it) {
         for (Map.Entry<? extends K, ? extends V> e : it) {
             map.put(e.getKey(), e.getValue());
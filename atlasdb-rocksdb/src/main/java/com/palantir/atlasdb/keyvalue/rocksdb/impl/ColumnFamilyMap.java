@@ -20,24 +20,35 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.Nullable;
+
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 
 import com.google.common.base.Charsets;
-import com.google.common.base.Function;
 import com.google.common.collect.Maps;
 
 public class ColumnFamilyMap {
+    /**
+     * Builds the descriptor for a column family, registering any native options it allocates with
+     * {@code nativeOptions} so that they are disposed once the column family is dropped or the database closed.
+     */
+    public interface ColumnFamilyFactory {
+        ColumnFamilyDescriptor create(String columnFamilyName, @Nullable byte[] tableMetadata, Disposer nativeOptions);
+    }
+
     public static class ColumnFamily implements AutoCloseable {
         private final long index;
         private final ColumnFamilyHandle handle;
+        private final Disposer nativeOptions;
         private final AtomicInteger refCount = new AtomicInteger();
 
-        public ColumnFamily(long index, ColumnFamilyHandle handle) {
+        public ColumnFamily(long index, ColumnFamilyHandle handle, Disposer nativeOptions) {
             this.index = index;
             this.handle = handle;
+            this.nativeOptions = nativeOptions;
         }
 
         public ColumnFamilyHandle getHandle() {
@@ -50,38 +61,41 @@ public class ColumnFamilyMap {
         }
     }
     private final Map<String, ColumnFamily> cfs = Maps.newConcurrentMap();
-    private final Function<String, ColumnFamilyDescriptor> cfFactory;
+    private final ColumnFamilyFactory cfFactory;
     private final RocksDB db;
 
-    public ColumnFamilyMap(Function<String, ColumnFamilyDescriptor> cfFactory,
+    public ColumnFamilyMap(ColumnFamilyFactory cfFactory,
                            RocksDB db) {
         this.cfFactory = cfFactory;
         this.db = db;
     }
 
     public void initialize(List<ColumnFamilyDescriptor> cfDescriptors,
-                           List<ColumnFamilyHandle> cfHandles) throws RocksDBException {
+                           List<ColumnFamilyHandle> cfHandles,
+                           List<Disposer> cfOptions) throws RocksDBException {
         for (int i = 0; i < cfDescriptors.size(); i++) {
             String fullTableName = new String(cfDescriptors.get(i).columnFamilyName(), Charsets.UTF_8);
             int nameIndex = fullTableName.lastIndexOf("__");
-            String tableName;
-            long index;
-            if (nameIndex == -1) {
-                tableName = fullTableName;
-                index = 0;
-            } else {
-                tableName = fullTableName.substring(0, nameIndex);
-                index = Long.parseLong(fullTableName.substring(nameIndex + 2));
-            }
-            ColumnFamily cf = new ColumnFamily(index, cfHandles.get(i));
+            String tableName = getTableName(fullTableName);
+            long index = nameIndex == -1 ? 0 : Long.parseLong(fullTableName.substring(nameIndex + 2));
+            ColumnFamily cf = new ColumnFamily(index, cfHandles.get(i), cfOptions.get(i));
             ColumnFamily oldCf = cfs.put(tableName, cf);
             if (oldCf != null && !tableName.equals("default")) {
                 db.dropColumnFamily(oldCf.getHandle());
                 oldCf.getHandle().dispose();
+                oldCf.nativeOptions.close();
             }
         }
     }
 
+    /**
+     * Strips the truncation index suffix from a column family name.
+     */
+    public static String getTableName(String columnFamilyName) {
+        int nameIndex = columnFamilyName.lastIndexOf("__");
+        return nameIndex == -1 ? columnFamilyName : columnFamilyName.substring(0, nameIndex);
+    }
+
     public Set<String> getTableNames() {
         return cfs.keySet();
     }
@@ -95,12 +109,18 @@ public class ColumnFamilyMap {
         return cf;
     }
 
-    public synchronized void create(String tableName) throws RocksDBException {
+    public synchronized void create(String tableName, byte[] tableMetadata) throws RocksDBException {
         ColumnFamily cf = cfs.get(tableName);
         if (cf == null) {
-            ColumnFamilyDescriptor descriptor = cfFactory.apply(tableName);
-            ColumnFamilyHandle handle = db.createColumnFamily(descriptor);
-            cfs.put(tableName, new ColumnFamily(0, handle));
+            Disposer nativeOptions = new Disposer();
+            try {
+                ColumnFamilyDescriptor descriptor = cfFactory.create(tableName, tableMetadata, nativeOptions);
+                ColumnFamilyHandle handle = db.createColumnFamily(descriptor);
+                cfs.put(tableName, new ColumnFamily(0, handle, nativeOptions));
+            } catch (RocksDBException | RuntimeException e) {
+                nativeOptions.close();
+                throw e;
+            }
         }
     }
 
@@ -109,23 +129,41 @@ public class ColumnFamilyMap {
         if (cf != null) {
             db.dropColumnFamily(cf.handle);
             cf.handle.dispose();
+            cf.nativeOptions.close();
         }
     }
 
-    public synchronized void truncate(String tableName) throws InterruptedException, RocksDBException {
+    public synchronized void truncate(String tableName, byte[] tableMetadata)
+            throws InterruptedException, RocksDBException {
         ColumnFamily oldCf = cfs.get(tableName);
         if (oldCf == null) {
             throw new IllegalArgumentException("Table " + tableName + " does not exist.");
         }
         long newIndex = (oldCf.index + 1) % 2;
         String realTableName = String.format("%s__%d", tableName, newIndex);
-        ColumnFamilyDescriptor descriptor = cfFactory.apply(realTableName);
-        ColumnFamilyHandle handle = db.createColumnFamily(descriptor);
-        cfs.put(tableName, new ColumnFamily(newIndex, handle));
+        Disposer nativeOptions = new Disposer();
+        try {
+            ColumnFamilyDescriptor descriptor = cfFactory.create(realTableName, tableMetadata, nativeOptions);
+            ColumnFamilyHandle handle = db.createColumnFamily(descriptor);
+            cfs.put(tableName, new ColumnFamily(newIndex, handle, nativeOptions));
+        } catch (RocksDBException | RuntimeException e) {
+            nativeOptions.close();
+            throw e;
+        }
         while (oldCf.refCount.get() > 0) {
             Thread.sleep(10);
         }
         db.dropColumnFamily(oldCf.handle);
         oldCf.handle.dispose();
+        oldCf.nativeOptions.close();
+    }
+
+    /**
+     * Disposes the native options of every column family. Only call this once the database has been closed.
+     */
+    public synchronized void disposeOptions() {
+        for (ColumnFamily cf : cfs.values()) {
+            cf.nativeOptions.close();
+        }
     }
 }
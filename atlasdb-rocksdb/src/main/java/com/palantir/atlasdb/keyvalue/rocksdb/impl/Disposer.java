@@ -25,15 +25,16 @@ import com.google.common.collect.Lists;
 public class Disposer implements Closeable {
     private final List<RocksObject> disposables = Lists.newArrayListWithCapacity(2);
 
-    public <T extends RocksObject> T register(T disposable) {
+    public synchronized <T extends RocksObject> T register(T disposable) {
         this.disposables.add(disposable);
         return disposable;
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         for (RocksObject disposable : disposables) {
             disposable.dispose();
         }
+        disposables.clear();
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.rocksdb.impl;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.ColumnFamilyOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.CachePriority;
+import com.palantir.atlasdb.table.description.TableMetadata;
+
+/**
+ * Derives per column family options from the table metadata hints that Cassandra honours through its
+ * column family definitions: negative lookups get a bloom filter, cache priority scales the block cache
+ * and append heavy tables use universal (size tiered) compaction.
+ */
+final class RocksDbColumnFamilyDefinitions {
+    private static final Logger log = LoggerFactory.getLogger(RocksDbColumnFamilyDefinitions.class);
+    static final int BLOOM_FILTER_BITS_PER_KEY = 10;
+
+    private RocksDbColumnFamilyDefinitions() {
+        // Utility class
+    }
+
+    /**
+     * Applies the table specific settings for the given raw metadata, which is generally obtained from the
+     * _metadata table, onto options that already carry the comparator and any user supplied settings.
+     * Native objects allocated along the way are registered with {@code nativeOptions}.
+     */
+    static ColumnFamilyOptions applyTableMetadata(ColumnFamilyOptions options,
+                                                  @Nullable byte[] rawMetadata,
+                                                  long blockCacheSize,
+                                                  Disposer nativeOptions) {
+        boolean negativeLookups = false;
+        boolean appendHeavyAndReadLight = false;
+        CachePriority cachePriority = CachePriority.WARM;
+
+        if (!isEmptyOrInvalidMetadata(rawMetadata)) {
+            try {
+                TableMetadata tableMetadata = TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(rawMetadata);
+                negativeLookups = tableMetadata.hasNegativeLookups();
+                appendHeavyAndReadLight = tableMetadata.isAppendHeavyAndReadLight();
+                cachePriority = tableMetadata.getCachePriority();
+            } catch (RuntimeException e) {
+                log.warn("Could not parse table metadata, using default column family options.", e);
+            }
+        }
+
+        BlockBasedTableConfig tableConfig = new BlockBasedTableConfig();
+        long cacheSize = getBlockCacheSize(cachePriority, blockCacheSize);
+        if (cacheSize == 0) {
+            tableConfig.setNoBlockCache(true);
+        } else {
+            tableConfig.setBlockCacheSize(cacheSize);
+        }
+        if (cachePriority == CachePriority.HOT || cachePriority == CachePriority.HOTTEST) {
+            tableConfig.setCacheIndexAndFilterBlocks(true);
+        }
+
+        if (negativeLookups) {
+            // Whole key filters are consulted by exact key lookups such as the existence
+            // check in putUnlessExists, which is where negative lookups are expected.
+            tableConfig.setFilter(nativeOptions.register(new BloomFilter(BLOOM_FILTER_BITS_PER_KEY, false)));
+            tableConfig.setWholeKeyFiltering(true);
+        }
+
+        if (appendHeavyAndReadLight) {
+            options.optimizeUniversalStyleCompaction();
+        }
+
+        return options.setTableFormatConfig(tableConfig);
+    }
+
+    /**
+     * The block cache is sized per column family; {@code blockCacheSize} is the budget of a WARM table
+     * and the other priorities are scaled from it.
+     */
+    static long getBlockCacheSize(CachePriority cachePriority, long blockCacheSize) {
+        switch (cachePriority) {
+            case COLDEST:
+                return 0L;
+            case COLD:
+                return blockCacheSize / 2;
+            case WARM:
+                return blockCacheSize;
+            case HOT:
+                return blockCacheSize * 2;
+            case HOTTEST:
+                return blockCacheSize * 4;
+            default:
+                throw new IllegalArgumentException("Unknown cache priority: " + cachePriority);
+        }
+    }
+
+    private static boolean isEmptyOrInvalidMetadata(@Nullable byte[] rawMetadata) {
+        return rawMetadata == null
+                || rawMetadata.length == 0
+                || Arrays.equals(rawMetadata, AtlasDbConstants.GENERIC_TABLE_METADATA);
+    }
+}
@@ -23,11 +23,13 @@ import java.lang.reflect.Method;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.BiFunction;
 
 import javax.annotation.Nullable;
 import javax.management.MBeanServer;
@@ -47,7 +49,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Charsets;
-import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
@@ -93,11 +94,15 @@ public class RocksDbKeyValueService implements KeyValueService {
     private static final TableReference METADATA_TABLE_NAME = TableReference.createWithEmptyNamespace("_metadata");
     private static final long PUT_UNLESS_EXISTS_TS = 0L;
     private static final String LOCK_FILE_PREFIX = ".pt_kv_lock";
+    public static final long DEFAULT_BLOCK_CACHE_SIZE = 8 * 1024 * 1024L;
     final RocksDB db;
     final ColumnFamilyMap columnFamilies;
     private final FileLock lock;
     private final RandomAccessFile lockFile;
-    private final WriteOpts writeOptions;
+    private final WriteOptions putWriteOptions;
+    private final WriteOptions commitWriteOptions;
+    private final WriteOptions syncWriteOptions;
+    private final Disposer sharedOptions;
     private final MutuallyExclusiveSetLock<Cell> lockSet = MutuallyExclusiveSetLock.<Cell>create(false);
     private volatile boolean closed = false;
 
@@ -114,10 +119,36 @@ public class RocksDbKeyValueService implements KeyValueService {
                                                 Map<String, String> cfOptions,
                                                 WriteOpts writeOpts,
                                                 String comparator) {
-        DBOptions dbOpts = new DBOptions().setCreateIfMissing(true);
+        return create(dataDir, dbOptions, cfOptions, writeOpts, comparator, DEFAULT_BLOCK_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a kvs whose column families are tuned from the metadata of the table they store, see
+     * {@link RocksDbColumnFamilyDefinitions}. {@code blockCacheSize} is the block cache budget of a WARM table.
+     */
+    public static RocksDbKeyValueService create(String dataDir,
+                                                Map<String, String> dbOptions,
+                                                Map<String, String> cfOptions,
+                                                WriteOpts writeOpts,
+                                                String comparator,
+                                                long blockCacheSize) {
+        // validate the comparator eagerly rather than on first table creation
+        getCommonOptions(comparator, cfOptions).dispose();
+        Disposer sharedOptions = new Disposer();
+        DBOptions dbOpts = sharedOptions.register(new DBOptions().setCreateIfMissing(true));
         setReflectionOpts(dbOpts, dbOptions);
-        ColumnFamilyOptions cfMetadataOpts = new ColumnFamilyOptions();
+        ColumnFamilyOptions cfMetadataOpts = sharedOptions.register(new ColumnFamilyOptions());
         setReflectionOpts(cfMetadataOpts, cfOptions);
+        BiFunction<byte[], Disposer, ColumnFamilyOptions> cfTableOpts = (rawMetadata, nativeOptions) ->
+                RocksDbColumnFamilyDefinitions.applyTableMetadata(
+                        nativeOptions.register(getCommonOptions(comparator, cfOptions)),
+                        rawMetadata,
+                        blockCacheSize,
+                        nativeOptions);
+        return create(dataDir, dbOpts, cfMetadataOpts, cfTableOpts, writeOpts, sharedOptions);
+    }
+
+    private static ColumnFamilyOptions getCommonOptions(String comparator, Map<String, String> cfOptions) {
         ColumnFamilyOptions cfCommonOpts;
         switch (comparator) {
         case "atlasdb-v2":
@@ -130,7 +161,7 @@ public class RocksDbKeyValueService implements KeyValueService {
             throw new IllegalArgumentException("Unknown comparator " + comparator);
         }
         setReflectionOpts(cfCommonOpts, cfOptions);
-        return create(dataDir, dbOpts, cfMetadataOpts, cfCommonOpts, writeOpts);
+        return cfCommonOpts;
     }
 
     private static void setReflectionOpts(Object opts,
@@ -163,16 +194,39 @@ public class RocksDbKeyValueService implements KeyValueService {
         }
     }
 
+    /**
+     * Creates a kvs that uses the same, fixed options for every table column family. The options remain owned
+     * by the caller, who must not dispose them before the kvs is closed.
+     */
     public static RocksDbKeyValueService create(String dataDir,
                                                 DBOptions dbOptions,
                                                 ColumnFamilyOptions cfMetadataOptions,
                                                 ColumnFamilyOptions cfCommonOptions,
                                                 WriteOpts writeOptions) {
+        return create(dataDir,
+                dbOptions,
+                cfMetadataOptions,
+                (rawMetadata, nativeOptions) -> cfCommonOptions,
+                writeOptions,
+                new Disposer());
+    }
+
+    /**
+     * {@code sharedOptions} holds the native options that the kvs owns and disposes once it is closed.
+     */
+    private static RocksDbKeyValueService create(String dataDir,
+                                                 DBOptions dbOptions,
+                                                 ColumnFamilyOptions cfMetadataOptions,
+                                                 BiFunction<byte[], Disposer, ColumnFamilyOptions> cfTableOptions,
+                                                 WriteOpts writeOptions,
+                                                 Disposer sharedOptions) {
         try {
-            RocksDbKeyValueService kvs = lockAndCreateDb(new File(dataDir), dbOptions, cfMetadataOptions, cfCommonOptions, writeOptions);
+            RocksDbKeyValueService kvs = lockAndCreateDb(
+                    new File(dataDir), dbOptions, cfMetadataOptions, cfTableOptions, writeOptions, sharedOptions);
             registerMBean(kvs);
             return kvs;
         } catch (Exception e) {
+            sharedOptions.close();
             throw Throwables.propagate(e);
         }
     }
@@ -192,8 +246,10 @@ public class RocksDbKeyValueService implements KeyValueService {
     private static RocksDbKeyValueService lockAndCreateDb(File dbDir,
                                                           final DBOptions dbOptions,
                                                           final ColumnFamilyOptions cfMetadataOptions,
-                                                          final ColumnFamilyOptions cfCommonOptions,
-                                                          final WriteOpts writeOpts) throws IOException, RocksDBException {
+                                                          final BiFunction<byte[], Disposer, ColumnFamilyOptions> cfTableOptions,
+                                                          final WriteOpts writeOpts,
+                                                          final Disposer sharedOptions)
+            throws IOException, RocksDBException {
         TempFileUtils.mkdirsWithRetry(dbDir);
         Preconditions.checkArgument(dbDir.exists() && dbDir.isDirectory(), "DB file must be a directory: " + dbDir);
         final RandomAccessFile randomAccessFile =
@@ -213,30 +269,43 @@ public class RocksDbKeyValueService implements KeyValueService {
                 "rws");
         final FileChannel channel = randomAccessFile.getChannel();
         boolean success = false;
+        List<Disposer> cfOptions = Lists.newArrayList();
+        RocksDB db = null;
         try {
             final FileLock lock = channel.tryLock();
             if (lock == null) {
                 throw new IOException("Cannot lock. Someone already has this database open: " + dbDir);
             }
-            List<byte[]> initialCfs = MoreObjects.firstNonNull(
-                    RocksDB.listColumnFamilies(new Options(dbOptions, cfMetadataOptions), dbDir.getAbsolutePath()), ImmutableList.<byte[]>of());
+            List<byte[]> initialCfs;
+            try (Disposer d = new Disposer()) {
+                initialCfs = MoreObjects.firstNonNull(
+                        RocksDB.listColumnFamilies(
+                                d.register(new Options(dbOptions, cfMetadataOptions)), dbDir.getAbsolutePath()),
+                        ImmutableList.<byte[]>of());
+            }
             List<ColumnFamilyDescriptor> cfDescriptors = Lists.newArrayListWithCapacity(initialCfs.size());
             List<ColumnFamilyHandle> cfHandles = Lists.newArrayListWithCapacity(1 + initialCfs.size());
-            cfDescriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY));
+            Map<String, byte[]> tableMetadata = readTableMetadata(dbDir, dbOptions, cfMetadataOptions, initialCfs);
+            Disposer defaultCfOptions = new Disposer();
+            cfOptions.add(defaultCfOptions);
+            cfDescriptors.add(new ColumnFamilyDescriptor(
+                    RocksDB.DEFAULT_COLUMN_FAMILY, defaultCfOptions.register(new ColumnFamilyOptions())));
             for (byte[] cf : initialCfs) {
                 String tableName = new String(cf, Charsets.UTF_8);
-                cfDescriptors.add(getCfDescriptor(tableName, cfMetadataOptions, cfCommonOptions));
+                byte[] rawMetadata = tableMetadata.get(ColumnFamilyMap.getTableName(tableName));
+                Disposer nativeOptions = new Disposer();
+                cfOptions.add(nativeOptions);
+                cfDescriptors.add(getCfDescriptor(tableName, rawMetadata, cfMetadataOptions, cfTableOptions, nativeOptions));
             }
-            RocksDB db = RocksDB.open(dbOptions, dbDir.getAbsolutePath(), cfDescriptors, cfHandles);
+            db = RocksDB.open(dbOptions, dbDir.getAbsolutePath(), cfDescriptors, cfHandles);
             Preconditions.checkState(cfDescriptors.size() == cfHandles.size());
-            ColumnFamilyMap columnFamilies = new ColumnFamilyMap(new Function<String, ColumnFamilyDescriptor>() {
-                @Override
-                public ColumnFamilyDescriptor apply(String tableName) {
-                    return getCfDescriptor(tableName, cfMetadataOptions, cfCommonOptions);
-                }
-            }, db);
-            columnFamilies.initialize(cfDescriptors, cfHandles);
-            RocksDbKeyValueService ret = new RocksDbKeyValueService(db, columnFamilies, lock, randomAccessFile, writeOpts);
+            ColumnFamilyMap columnFamilies = new ColumnFamilyMap(
+                    (tableName, rawMetadata, nativeOptions) ->
+                            getCfDescriptor(tableName, rawMetadata, cfMetadataOptions, cfTableOptions, nativeOptions),
+                    db);
+            columnFamilies.initialize(cfDescriptors, cfHandles, cfOptions);
+            RocksDbKeyValueService ret = new RocksDbKeyValueService(
+                    db, columnFamilies, lock, randomAccessFile, writeOpts, sharedOptions);
             ret.createTable(METADATA_TABLE_NAME, AtlasDbConstants.EMPTY_TABLE_METADATA);
             success = true;
             return ret;
@@ -244,18 +313,63 @@ public class RocksDbKeyValueService implements KeyValueService {
             throw new IOException("Cannot lock. This jvm already has this database open: " + dbDir);
         } finally {
             if (!success) {
+                if (db != null) {
+                    db.close();
+                }
+                for (Disposer nativeOptions : cfOptions) {
+                    nativeOptions.close();
+                }
                 randomAccessFile.close();
             }
         }
     }
 
+    /**
+     * Column family options are fixed when a column family is opened, so the table metadata has to be known
+     * before the database is. We get it by briefly opening the metadata column family read only.
+     */
+    private static Map<String, byte[]> readTableMetadata(File dbDir,
+                                                         DBOptions dbOptions,
+                                                         ColumnFamilyOptions cfMetadataOptions,
+                                                         List<byte[]> initialCfs) throws RocksDBException {
+        byte[] metadataCfName = METADATA_TABLE_NAME.getQualifiedName().getBytes(Charsets.UTF_8);
+        boolean hasMetadataCf = false;
+        for (byte[] cf : initialCfs) {
+            hasMetadataCf |= Arrays.equals(cf, metadataCfName);
+        }
+        if (!hasMetadataCf) {
+            return ImmutableMap.of();
+        }
+        List<ColumnFamilyDescriptor> cfDescriptors = ImmutableList.of(
+                new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY),
+                new ColumnFamilyDescriptor(metadataCfName, cfMetadataOptions));
+        List<ColumnFamilyHandle> cfHandles = Lists.newArrayListWithCapacity(cfDescriptors.size());
+        RocksDB readOnlyDb = RocksDB.openReadOnly(dbOptions, dbDir.getAbsolutePath(), cfDescriptors, cfHandles);
+        try (Disposer d = new Disposer()) {
+            Map<String, byte[]> results = Maps.newHashMap();
+            RocksIterator iter = d.register(readOnlyDb.newIterator(cfHandles.get(1)));
+            for (iter.seekToFirst(); iter.isValid(); iter.next()) {
+                results.put(new String(iter.key(), Charsets.UTF_8), iter.value());
+            }
+            return results;
+        } finally {
+            for (ColumnFamilyHandle handle : cfHandles) {
+                handle.dispose();
+            }
+            readOnlyDb.close();
+        }
+    }
+
     private static ColumnFamilyDescriptor getCfDescriptor(String tableName,
+                                                          @Nullable byte[] rawMetadata,
                                                           ColumnFamilyOptions cfMetadataOptions,
-                                                          ColumnFamilyOptions cfCommonOptions) {
+                                                          BiFunction<byte[], Disposer, ColumnFamilyOptions> cfTableOptions,
+                                                          Disposer nativeOptions) {
         if (tableName.equals(METADATA_TABLE_NAME.getQualifiedName())) {
             return new ColumnFamilyDescriptor(tableName.getBytes(Charsets.UTF_8), cfMetadataOptions);
         } else {
-            return new ColumnFamilyDescriptor(tableName.getBytes(Charsets.UTF_8), cfCommonOptions);
+            return new ColumnFamilyDescriptor(
+                    tableName.getBytes(Charsets.UTF_8), cfTableOptions.apply(rawMetadata, nativeOptions));
         }
     }
 
@@ -263,12 +377,17 @@ public class RocksDbKeyValueService implements KeyValueService {
                                    ColumnFamilyMap columnFamilies,
                                    FileLock lock,
                                    RandomAccessFile file,
-                                   WriteOpts writeOptions) {
+                                   WriteOpts writeOptions,
+                                   Disposer sharedOptions) {
         this.db = db;
         this.columnFamilies = columnFamilies;
         this.lock = lock;
         this.lockFile = file;
-        this.writeOptions = writeOptions;
+        // WriteOptions are immutable once built, so they are shared by all writes rather than allocated per call.
+        this.putWriteOptions = new WriteOptions().setSync(writeOptions.fsyncPut());
+        this.commitWriteOptions = new WriteOptions().setSync(writeOptions.fsyncCommit());
+        this.syncWriteOptions = new WriteOptions().setSync(true);
+        this.sharedOptions = sharedOptions;
     }
 
     @Override
@@ -276,6 +395,12 @@ public class RocksDbKeyValueService implements KeyValueService {
         if (!closed) {
             try {
                 getDb().close();
+                // Column family options must outlive the database that uses them.
+                columnFamilies.disposeOptions();
+                sharedOptions.close();
+                putWriteOptions.dispose();
+                commitWriteOptions.dispose();
+                syncWriteOptions.dispose();
                 lock.release();
                 lockFile.close();
             } catch (IOException e) {
@@ -345,13 +470,12 @@ public class RocksDbKeyValueService implements KeyValueService {
     public void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp) {
         try (Disposer d = new Disposer();
                 ColumnFamily table = columnFamilies.get(tableRef.getQualifiedName())) {
-            WriteOptions options = d.register(new WriteOptions().setSync(writeOptions.fsyncPut()));
             WriteBatch batch = d.register(new WriteBatch());
             for (Entry<Cell, byte[]> entry : values.entrySet()) {
                 byte[] key = RocksDbKeyValueServices.getKey(entry.getKey(), timestamp);
                 batch.put(table.getHandle(), key, entry.getValue());
             }
-            getDb().write(options, batch);
+            getDb().write(putWriteOptions, batch);
         } catch (RocksDBException e) {
             throw Throwables.propagate(e);
         }
@@ -365,7 +489,6 @@ public class RocksDbKeyValueService implements KeyValueService {
                 cfs.put(tableRef.getQualifiedName(), columnFamilies.get(tableRef.getQualifiedName()));
             }
             try (Disposer d = new Disposer()) {
-                WriteOptions options = d.register(new WriteOptions().setSync(writeOptions.fsyncPut()));
                 WriteBatch batch = d.register(new WriteBatch());
                 for (Entry<TableReference, ? extends Map<Cell, byte[]>> entry : valuesByTable.entrySet()) {
                     ColumnFamilyHandle table = cfs.get(entry.getKey().getQualifiedName()).getHandle();
@@ -374,7 +497,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                         batch.put(table, key, subEntry.getValue());
                     }
                 }
-                getDb().write(options, batch);
+                getDb().write(putWriteOptions, batch);
             } catch (RocksDBException e) {
                 throw Throwables.propagate(e);
             }
@@ -389,14 +512,13 @@ public class RocksDbKeyValueService implements KeyValueService {
     public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> cellValues) {
         try (Disposer d = new Disposer();
                 ColumnFamily table = columnFamilies.get(tableRef.getQualifiedName())) {
-            WriteOptions options = d.register(new WriteOptions().setSync(writeOptions.fsyncPut()));
             WriteBatch batch = d.register(new WriteBatch());
             for (Entry<Cell, Value> entry : cellValues.entries()) {
                 Value value = entry.getValue();
                 byte[] key = RocksDbKeyValueServices.getKey(entry.getKey(), value.getTimestamp());
                 batch.put(table.getHandle(), key, value.getContents());
             }
-            getDb().write(options, batch);
+            getDb().write(putWriteOptions, batch);
         } catch (RocksDBException e) {
             throw Throwables.propagate(e);
         }
@@ -409,18 +531,17 @@ public class RocksDbKeyValueService implements KeyValueService {
         try (Disposer d = new Disposer();
                 ColumnFamily table = columnFamilies.get(tableRef.getQualifiedName())) {
             Set<Cell> alreadyExists = Sets.newHashSetWithExpectedSize(0);
-            WriteOptions options = d.register(new WriteOptions().setSync(writeOptions.fsyncCommit()));
             WriteBatch batch = d.register(new WriteBatch());
-            RocksIterator iter = d.register(getDb().newIterator(table.getHandle()));
             for (Entry<Cell, byte[]> entry : values.entrySet()) {
                 byte[] key = RocksDbKeyValueServices.getKey(entry.getKey(), PUT_UNLESS_EXISTS_TS);
-                if (RocksDbKeyValueServices.keyExists(iter, key)) {
+                // an exact key get, unlike an iterator seek, can be answered by the table's bloom filter
+                if (getDb().get(table.getHandle(), key) != null) {
                     alreadyExists.add(entry.getKey());
                 } else {
                     batch.put(table.getHandle(), key, entry.getValue());
                 }
             }
-            getDb().write(options, batch);
+            getDb().write(commitWriteOptions, batch);
             if (!alreadyExists.isEmpty()) {
                 throw new KeyAlreadyExistsException("key already exists", alreadyExists);
             }
@@ -445,13 +566,12 @@ public class RocksDbKeyValueService implements KeyValueService {
     public void delete(TableReference tableRef, Multimap<Cell, Long> keys) {
         try (Disposer d = new Disposer();
                 ColumnFamily table = columnFamilies.get(tableRef.getQualifiedName())) {
-            WriteOptions options = d.register(new WriteOptions().setSync(writeOptions.fsyncPut()));
             WriteBatch batch = d.register(new WriteBatch());
             for (Entry<Cell, Long> entry : keys.entries()) {
                 byte[] key = RocksDbKeyValueServices.getKey(entry.getKey(), entry.getValue());
                 batch.remove(table.getHandle(), key);
             }
-            getDb().write(options, batch);
+            getDb().write(putWriteOptions, batch);
         } catch (RocksDBException e) {
             throw Throwables.propagate(e);
         }
@@ -481,7 +601,7 @@ public class RocksDbKeyValueService implements KeyValueService {
     @Override
     public void truncateTable(TableReference tableRef) {
         try {
-            columnFamilies.truncate(tableRef.getQualifiedName());
+            columnFamilies.truncate(tableRef.getQualifiedName(), getMetadataForTable(tableRef));
         } catch (RocksDBException | InterruptedException e) {
             throw Throwables.propagate(e);
         }
@@ -552,9 +672,9 @@ public class RocksDbKeyValueService implements KeyValueService {
     @Override
     public void createTables(Map<TableReference, byte[]> tableRefToTableMetadata)
             throws InsufficientConsistencyException {
-        for (TableReference tableRef : tableRefToTableMetadata.keySet()) {
+        for (Entry<TableReference, byte[]> entry : tableRefToTableMetadata.entrySet()) {
             try {
-                columnFamilies.create(tableRef.getQualifiedName());
+                columnFamilies.create(entry.getKey().getQualifiedName(), entry.getValue());
             } catch (RocksDBException e) {
                 Throwables.propagate(e);
             }
@@ -569,13 +689,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                 TableReference.createWithEmptyNamespace(new String(RocksDB.DEFAULT_COLUMN_FAMILY, Charsets.UTF_8)),
                 AtlasDbConstants.TIMESTAMP_TABLE);
         Set<TableReference> tables = Sets.newHashSet(
-                Collections2.transform(columnFamilies.getTableNames(), new Function<String, TableReference>() {
-                    @Nullable
-                    @Override
-                    public TableReference apply(@Nullable String input) {
-                        return TableReference.createUnsafe(input);
-                    }
-                }));
+                Collections2.transform(columnFamilies.getTableNames(), TableReference::createUnsafe));
         return Sets.difference(tables, hiddenTables);
     }
 
@@ -611,10 +725,8 @@ public class RocksDbKeyValueService implements KeyValueService {
 
     @Override
     public void putMetadataForTable(TableReference tableRef, byte[] metadata) {
-        try (Disposer d = new Disposer();
-                ColumnFamily metadataTable = columnFamilies.get(METADATA_TABLE_NAME.getQualifiedName())) {
-            WriteOptions options = d.register(new WriteOptions().setSync(true));
-            getDb().put(metadataTable.getHandle(), options, tableRef.getQualifiedName().getBytes(Charsets.UTF_8), metadata);
+        try (ColumnFamily metadataTable = columnFamilies.get(METADATA_TABLE_NAME.getQualifiedName())) {
+            getDb().put(metadataTable.getHandle(), syncWriteOptions, tableRef.getQualifiedName().getBytes(Charsets.UTF_8), metadata);
         } catch (RocksDBException e) {
             throw Throwables.propagate(e);
         }
@@ -624,12 +736,11 @@ public class RocksDbKeyValueService implements KeyValueService {
     public void putMetadataForTables(Map<TableReference, byte[]> tableRefToMetadata) {
         try (Disposer d = new Disposer();
                 ColumnFamily metadataTable = columnFamilies.get(METADATA_TABLE_NAME.getQualifiedName())) {
-            WriteOptions options = d.register(new WriteOptions().setSync(true));
             WriteBatch batch = d.register(new WriteBatch());
             for (Entry<TableReference, byte[]> entry : tableRefToMetadata.entrySet()) {
                 batch.put(metadataTable.getHandle(), entry.getKey().getQualifiedName().getBytes(Charsets.UTF_8), entry.getValue());
             }
-            getDb().write(options, batch);
+            getDb().write(syncWriteOptions, batch);
         } catch (RocksDBException e) {
             throw Throwables.propagate(e);
         }
@@ -641,13 +752,12 @@ public class RocksDbKeyValueService implements KeyValueService {
         try (ColumnFamily table = columnFamilies.get(tableRef.getQualifiedName())) {
             byte[] val = new byte[0];
             try (Disposer d = new Disposer()) {
-                WriteOptions options = d.register(new WriteOptions().setSync(true));
                 WriteBatch batch = d.register(new WriteBatch());
                 for (Cell cell : cells) {
                     byte[] key = RocksDbKeyValueServices.getKey(cell, Value.INVALID_VALUE_TIMESTAMP);
                     batch.put(table.getHandle(), key, val);
                 }
-                getDb().write(options, batch);
+                getDb().write(syncWriteOptions, batch);
             } catch (RocksDBException e) {
                 throw Throwables.propagate(e);
             }
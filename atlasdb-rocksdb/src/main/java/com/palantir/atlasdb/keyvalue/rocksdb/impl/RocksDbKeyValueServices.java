@@ -41,11 +41,6 @@ public class RocksDbKeyValueServices {
     }
 
 
-    static boolean keyExists(RocksIterator iter, byte[] key) {
-        iter.seek(key);
-        return iter.isValid() && Arrays.equals(key, iter.key());
-    }
-
     static void getRow(RocksIterator iter,
                        byte[] row,
                        ColumnSelection columnSelection,
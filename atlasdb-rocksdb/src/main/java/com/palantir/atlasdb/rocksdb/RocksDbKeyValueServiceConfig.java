@@ -28,6 +28,7 @@ import com.google.auto.service.AutoService;
 import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.keyvalue.rocksdb.impl.ImmutableWriteOpts;
 import com.palantir.atlasdb.keyvalue.rocksdb.impl.RocksComparatorName;
+import com.palantir.atlasdb.keyvalue.rocksdb.impl.RocksDbKeyValueService;
 import com.palantir.atlasdb.keyvalue.rocksdb.impl.WriteOpts;
 import com.palantir.atlasdb.spi.KeyValueServiceConfig;
 
@@ -50,6 +51,15 @@ public abstract class RocksDbKeyValueServiceConfig implements KeyValueServiceCon
         return ImmutableWriteOpts.builder().build();
     }
 
+    /**
+     * Block cache size in bytes of a WARM table's column family. Tables with other cache priorities
+     * get a cache scaled from this one.
+     */
+    @Value.Default
+    public long blockCacheSize() {
+        return RocksDbKeyValueService.DEFAULT_BLOCK_CACHE_SIZE;
+    }
+
     public abstract Optional<String> nativeLibTmpDir();
 
     @Value.Default
@@ -61,6 +71,8 @@ public abstract class RocksDbKeyValueServiceConfig implements KeyValueServiceCon
     protected final void check() {
         Preconditions.checkArgument(dataDir().exists() || dataDir().mkdirs(),
                 "dataDir '%s' does not exist and cannot be created.", dataDir());
+        Preconditions.checkArgument(blockCacheSize() >= 0,
+                "blockCacheSize must be non-negative, found %s", blockCacheSize());
 
         // Doing this here is not really ideal, but we need to do this very
         // early in the process to prevent the default loading of the libraries
@@ -15,13 +15,28 @@
  */
 package com.palantir.server;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Optional;
 import java.util.Random;
 
+import javax.ws.rs.core.HttpHeaders;
+
+import org.junit.Assert;
 import org.junit.ClassRule;
 import org.junit.Test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.config.HttpTransport;
+import com.palantir.atlasdb.http.AtlasDbHttpClients;
+import com.palantir.atlasdb.http.AtlasDbSmileProvider;
 import com.palantir.atlasdb.http.NotCurrentLeaderExceptionMapper;
+import com.palantir.atlasdb.http.UserAgents;
+import com.palantir.common.remoting.AtlasDbMediaTypes;
 import com.palantir.leader.NotCurrentLeaderException;
 import com.palantir.timestamp.InMemoryTimestampService;
 import com.palantir.timestamp.TimestampRange;
@@ -38,6 +53,10 @@ public class TimestampRemotingTest {
     @ClassRule
     public final static DropwizardClientRule dropwizard = new DropwizardClientRule(new InMemoryTimestampService());
 
+    @ClassRule
+    public final static DropwizardClientRule smile = new DropwizardClientRule(
+            new InMemoryTimestampService(), new AtlasDbSmileProvider());
+
     public final static Random rand = new Random(0);
 
     @ClassRule
@@ -72,6 +91,36 @@ public class TimestampRemotingTest {
         TimestampRange freshTimestamps = ts.getFreshTimestamps(100);
     }
 
+    @Test
+    public void testSmileRoundTrip() {
+        TimestampService ts = AtlasDbHttpClients.createProxyWithFailover(
+                Optional.empty(),
+                ImmutableSet.of(smile.baseUri().toString()),
+                TimestampService.class,
+                UserAgents.DEFAULT_USER_AGENT,
+                HttpTransport.SMILE);
+
+        long freshTimestamp = ts.getFreshTimestamp();
+        TimestampRange freshTimestamps = ts.getFreshTimestamps(100);
+        Assert.assertTrue(freshTimestamps.getLowerBound() > freshTimestamp);
+        Assert.assertEquals(100, freshTimestamps.size());
+    }
+
+    @Test
+    public void testRespondsWithSmileWhenAskedForSmile() throws IOException {
+        URL url = new URL(smile.baseUri() + "/timestamp/fresh-timestamps?number=10");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty(HttpHeaders.ACCEPT, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE);
+
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals(AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE, connection.getContentType());
+        try (InputStream body = connection.getInputStream()) {
+            TimestampRange range = new ObjectMapper(new SmileFactory()).readValue(body, TimestampRange.class);
+            Assert.assertEquals(10, range.size());
+        }
+    }
+
     @Test
     public void testNotLeader() {
         ObjectMapper mapper = new ObjectMapper();
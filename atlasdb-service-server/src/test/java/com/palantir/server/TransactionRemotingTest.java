@@ -15,8 +15,13 @@
  */
 package com.palantir.server;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -40,6 +45,7 @@ import com.palantir.atlasdb.api.TableCellVal;
 import com.palantir.atlasdb.api.TableRange;
 import com.palantir.atlasdb.api.TableRowResult;
 import com.palantir.atlasdb.api.TableRowSelection;
+import com.palantir.atlasdb.api.TableRowStreams;
 import com.palantir.atlasdb.api.TransactionToken;
 import com.palantir.atlasdb.factory.TransactionManagers;
 import com.palantir.atlasdb.impl.AtlasDbServiceImpl;
@@ -48,6 +54,7 @@ import com.palantir.atlasdb.jackson.AtlasJacksonModule;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.schema.AtlasSchema;
 import com.palantir.atlasdb.schema.SweepSchema;
@@ -216,6 +223,32 @@ public class TransactionRemotingTest {
 
     }
 
+    @Test
+    public void testGetRangeStreamWithColSelection() throws IOException {
+        setupMultipleValues();
+
+        TableRange range = new TableRange(
+                "sweep.priority",
+                new byte[0],
+                new byte[0],
+                ImmutableList.<byte[]>of("e".getBytes()),
+                2);
+        URL url = new URL(dropwizard.baseUri() + "/atlasdb/range-stream/" + TransactionToken.autoCommit());
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        mapper.writeValue(connection.getOutputStream(), range);
+
+        try (InputStream stream = connection.getInputStream()) {
+            List<RowResult<byte[]>> rows = ImmutableList.copyOf(TableRowStreams.readRows(stream));
+            Assert.assertEquals(3, rows.size());
+            for (RowResult<byte[]> row : rows) {
+                Assert.assertEquals(1L, SweepPriorityRowResult.of(row).getCellsExamined().longValue());
+            }
+        }
+    }
+
     private void setupMultipleValues() {
         TransactionToken txId = service.startTransaction();
         service.put(txId, new TableCellVal("sweep.priority", getSweepPriorityTableContents("foo")));
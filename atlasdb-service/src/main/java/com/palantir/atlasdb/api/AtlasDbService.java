@@ -24,6 +24,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.common.annotation.Idempotent;
@@ -78,6 +79,20 @@ public interface AtlasDbService {
     RangeToken getRange(@PathParam("token") TransactionToken token,
                         TableRange rangeRequest);
 
+    /**
+     * Reads the whole range in a single transaction, writing each row to the response as it is read rather than
+     * returning a page per call as {@link #getRange} does. Only the columns of the range are read, and its batch
+     * size is used as the batch hint for reads. Rows are encoded as described in {@link TableRowStreams}, and can
+     * be decoded with {@link TableRowStreams#readRows}.
+     */
+    @Idempotent
+    @POST
+    @Path("range-stream/{token}")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    @Consumes(MediaType.APPLICATION_JSON)
+    StreamingOutput getRangeStream(@PathParam("token") TransactionToken token,
+                                   TableRange rangeRequest);
+
     @Idempotent
     @POST
     @Path("put/{token}")
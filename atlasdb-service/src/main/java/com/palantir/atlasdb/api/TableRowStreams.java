@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.api;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.common.base.Throwables;
+
+/**
+ * The binary encoding used by {@link AtlasDbService#getRangeStream}. Each row is written as its name followed by
+ * its number of columns and then each column name and value, all as protobuf varint-prefixed byte strings. Row
+ * names are never empty, so an empty row name marks the end of the stream; a stream that stops without it was cut
+ * short by an error on the server.
+ */
+public final class TableRowStreams {
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private TableRowStreams() {
+        // utility
+    }
+
+    public static void writeRow(CodedOutputStream out, RowResult<byte[]> row) throws IOException {
+        out.writeByteArrayNoTag(row.getRowName());
+        out.writeUInt32NoTag(row.getColumns().size());
+        for (Map.Entry<byte[], byte[]> column : row.getColumns().entrySet()) {
+            out.writeByteArrayNoTag(column.getKey());
+            out.writeByteArrayNoTag(column.getValue());
+        }
+    }
+
+    public static void writeEnd(CodedOutputStream out) throws IOException {
+        out.writeByteArrayNoTag(END_OF_STREAM);
+    }
+
+    /**
+     * Lazily decodes the rows of a stream written by {@link #writeRow} and {@link #writeEnd}. The caller is
+     * responsible for closing the input stream.
+     */
+    public static Iterator<RowResult<byte[]>> readRows(InputStream stream) {
+        CodedInputStream in = CodedInputStream.newInstance(stream);
+        return new AbstractIterator<RowResult<byte[]>>() {
+            @Override
+            protected RowResult<byte[]> computeNext() {
+                try {
+                    in.resetSizeCounter();
+                    if (in.isAtEnd()) {
+                        throw new EOFException("The row stream ended before it was complete.");
+                    }
+                    byte[] rowName = in.readByteArray();
+                    if (rowName.length == 0) {
+                        return endOfData();
+                    }
+                    int numColumns = in.readRawVarint32();
+                    ImmutableSortedMap.Builder<byte[], byte[]> columns =
+                            ImmutableSortedMap.orderedBy(UnsignedBytes.lexicographicalComparator());
+                    for (int i = 0; i < numColumns; i++) {
+                        columns.put(in.readByteArray(), in.readByteArray());
+                    }
+                    SortedMap<byte[], byte[]> columnValues = columns.build();
+                    return RowResult.create(rowName, columnValues);
+                } catch (IOException e) {
+                    throw Throwables.rewrapAndThrowUncheckedException(e);
+                }
+            }
+        };
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.impl;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -24,12 +25,14 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.ws.rs.core.StreamingOutput;
 
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.CodedOutputStream;
 import com.palantir.atlasdb.api.AtlasDbService;
 import com.palantir.atlasdb.api.RangeToken;
 import com.palantir.atlasdb.api.TableCell;
@@ -37,6 +40,7 @@ import com.palantir.atlasdb.api.TableCellVal;
 import com.palantir.atlasdb.api.TableRange;
 import com.palantir.atlasdb.api.TableRowResult;
 import com.palantir.atlasdb.api.TableRowSelection;
+import com.palantir.atlasdb.api.TableRowStreams;
 import com.palantir.atlasdb.api.TransactionToken;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
@@ -52,6 +56,7 @@ import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.atlasdb.table.description.ValueType;
 import com.palantir.atlasdb.transaction.api.ConflictHandler;
 import com.palantir.atlasdb.transaction.api.RuntimeTransactionTask;
+import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.atlasdb.transaction.impl.RawTransaction;
 import com.palantir.atlasdb.transaction.impl.SerializableTransactionManager;
 import com.palantir.atlasdb.transaction.impl.TxTask;
@@ -121,12 +126,7 @@ public class AtlasDbServiceImpl implements AtlasDbService {
             final TableRange range) {
         return runReadOnly(token, transaction -> {
             int limit = range.getBatchSize() + 1;
-            RangeRequest request = RangeRequest.builder()
-                    .startRowInclusive(range.getStartRow())
-                    .endRowExclusive(range.getEndRow())
-                    .batchHint(limit)
-                    .retainColumns(range.getColumns())
-                    .build();
+            RangeRequest request = getRangeRequest(range, limit);
             BatchingVisitable<RowResult<byte[]>> visitable = transaction.getRange(getTableRef(range.getTableName()),
                     request);
             List<RowResult<byte[]>> results = BatchingVisitables.limit(visitable, limit).immutableCopy();
@@ -142,6 +142,43 @@ public class AtlasDbServiceImpl implements AtlasDbService {
         });
     }
 
+    @Override
+    public StreamingOutput getRangeStream(TransactionToken token,
+            final TableRange range) {
+        return output -> {
+            TransactionTask<Void, IOException> task = transaction -> {
+                CodedOutputStream out = CodedOutputStream.newInstance(output);
+                transaction.getRange(getTableRef(range.getTableName()), getRangeRequest(range, range.getBatchSize()))
+                        .batchAccept(range.getBatchSize(), rows -> {
+                            for (RowResult<byte[]> row : rows) {
+                                TableRowStreams.writeRow(out, row);
+                            }
+                            out.flush();
+                            return true;
+                        });
+                TableRowStreams.writeEnd(out);
+                out.flush();
+                return null;
+            };
+            if (token.shouldAutoCommit()) {
+                txManager.runTaskReadOnly(task);
+            } else {
+                RawTransaction tx = transactions.getIfPresent(token);
+                Preconditions.checkNotNull(tx, "The given transaction does not exist.");
+                task.execute(tx);
+            }
+        };
+    }
+
+    private static RangeRequest getRangeRequest(TableRange range, int batchHint) {
+        return RangeRequest.builder()
+                .startRowInclusive(range.getStartRow())
+                .endRowExclusive(range.getEndRow())
+                .batchHint(batchHint)
+                .retainColumns(range.getColumns())
+                .build();
+    }
+
     @Override
     public void put(TransactionToken token,
             final TableCellVal data) {
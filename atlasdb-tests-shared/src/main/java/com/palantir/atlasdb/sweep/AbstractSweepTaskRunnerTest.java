@@ -18,6 +18,7 @@ package com.palantir.atlasdb.sweep;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -358,6 +359,33 @@ public abstract class AbstractSweepTaskRunnerTest {
         assertThat(results.getCellTsPairsExamined()).isGreaterThanOrEqualTo(2);
     }
 
+    @Test
+    public void testSweepRowRangeOnlySweepsRowsInRange() {
+        createTable(SweepStrategy.CONSERVATIVE);
+        putIntoDefaultColumn("bar", "val1", 10);
+        putIntoDefaultColumn("bar", "val2", 20);
+        putIntoDefaultColumn("baz", "val3", 30);
+        putIntoDefaultColumn("baz", "val4", 40);
+        putIntoDefaultColumn("foo", "val5", 50);
+        putIntoDefaultColumn("foo", "val6", 60);
+        sweepTimestamp.set(175);
+
+        SweepResults results = sweepRunner.run(
+                TABLE_NAME,
+                ImmutableSweepBatchConfig.builder()
+                        .deleteBatchSize(DEFAULT_BATCH_SIZE)
+                        .candidateBatchSize(DEFAULT_BATCH_SIZE)
+                        .maxCellTsPairsToExamine(DEFAULT_BATCH_SIZE)
+                        .build(),
+                "baz".getBytes(StandardCharsets.UTF_8),
+                "foo".getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, results.getStaleValuesDeleted());
+        assertFalse(results.getNextStartRow().isPresent());
+        assertEquals(ImmutableSet.of(10L, 20L), getAllTs("bar"));
+        assertEquals(ImmutableSet.of(-1L, 40L), getAllTs("baz"));
+        assertEquals(ImmutableSet.of(50L, 60L), getAllTs("foo"));
+    }
+
     private void testSweepManyRows(SweepStrategy strategy) {
         createTable(strategy);
         putIntoDefaultColumn("foo", "bar1", 5);
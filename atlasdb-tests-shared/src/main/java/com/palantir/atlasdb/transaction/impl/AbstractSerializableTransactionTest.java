@@ -641,6 +641,71 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
         t1.commit();
     }
 
+    @Test
+    public void testCellReadRewrittenWithSameValueDoesNotConflict() {
+        Transaction t0 = startTransaction();
+        put(t0, "row1", "col1", "100");
+        t0.commit();
+
+        Transaction t1 = startTransaction();
+        assertEquals("100", getCell(t1, "row1", "col1"));
+        put(t1, "row2", "col1", "100");
+
+        // The latest timestamp for the cell changes, but the value we read does not.
+        Transaction t2 = startTransaction();
+        put(t2, "row1", "col1", "100");
+        t2.commit();
+
+        t1.commit();
+    }
+
+    @Test
+    public void testMissingCellReadWriteFailure() {
+        Transaction t1 = startTransaction();
+        assertNull(getCell(t1, "row1", "col1"));
+        put(t1, "row2", "col1", "100");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row1", "col1", "100");
+        t2.commit();
+
+        try {
+            t1.commit();
+            fail();
+        } catch (TransactionSerializableConflictException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConflictFoundAmongSeveralReadTypes() {
+        Transaction t0 = startTransaction();
+        put(t0, "row1", "col1", "100");
+        put(t0, "row2", "col1", "100");
+        put(t0, "row3", "col1", "100");
+        t0.commit();
+
+        Transaction t1 = startTransaction();
+        BatchingVisitables.copyToList(t1.getRange(TEST_TABLE, RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes("row1"))
+                .endRowExclusive(PtBytes.toBytes("row2"))
+                .build()));
+        assertEquals("100", get(t1, "row2", "col1"));
+        assertEquals("100", getCell(t1, "row3", "col1"));
+        put(t1, "row4", "col1", "100");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row3", "col1", "101");
+        t2.commit();
+
+        try {
+            t1.commit();
+            fail();
+        } catch (TransactionSerializableConflictException e) {
+            // expected
+        }
+    }
+
     private void writeColumns() {
         Transaction t1 = startTransaction();
         int totalPuts = 101;
@@ -41,6 +41,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
@@ -72,6 +73,7 @@ import com.palantir.atlasdb.transaction.api.TransactionReadSentinelBehavior;
 import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.common.base.AbortingVisitors;
 import com.palantir.common.base.BatchingVisitable;
+import com.palantir.common.base.BatchingVisitableView;
 import com.palantir.common.base.BatchingVisitables;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.Throwables;
@@ -383,6 +385,81 @@ public abstract class AbstractTransactionTest extends TransactionTestSetup {
         assertEquals("row0", PtBytes.toString(ranges.values().iterator().next().getResults().iterator().next().getRowName()));
     }
 
+    @Test
+    public void testGetRangeUnorderedReturnsTheSameRowsAsGetRange() {
+        Transaction t = startTransaction();
+        for (int i = 0; i < 200; i++) {
+            put(t, String.format("%c%03d", 'A' + i % 50, i), "col1", "v" + i);
+        }
+        t.commit();
+
+        t = startTransaction();
+        put(t, "B500", "col1", "local");
+        put(t, "c001", "col2", "local");
+        delete(t, "A000", "col1");
+        RangeRequest range = RangeRequest.builder().build();
+        List<RowResult<byte[]>> ordered = BatchingVisitables.copyToList(t.getRange(TEST_TABLE, range));
+        List<RowResult<byte[]>> unordered = BatchingVisitables.copyToList(t.getRangeUnordered(TEST_TABLE, range));
+        assertEquals(201, ordered.size());
+        assertEquals(describeRows(ordered), describeRows(unordered));
+
+        RangeRequest subRange = RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes("B"))
+                .endRowExclusive(PtBytes.toBytes("c"))
+                .build();
+        assertEquals(BatchingVisitables.copyToList(t.getRange(TEST_TABLE, subRange)).size(),
+                BatchingVisitables.copyToList(t.getRangeUnordered(TEST_TABLE, subRange)).size());
+        assertEquals(10, BatchingVisitableView.of(t.getRangeUnordered(TEST_TABLE, range)).limit(10).immutableCopy().size());
+    }
+
+    @Test
+    public void testConcurrentGetRangesReturnsTheSameRowsAsGetRanges() {
+        Transaction t = startTransaction();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 5; j++) {
+                put(t, String.format("row%03d.%d", i, j), "col1", "v" + i + "." + j);
+            }
+        }
+        t.commit();
+
+        t = startTransaction();
+        put(t, "row005.9", "col1", "local");
+        delete(t, "row006.0", "col1");
+        List<RangeRequest> ranges = Lists.newArrayList();
+        for (int i = 0; i < 100; i++) {
+            ranges.add(RangeRequest.builder()
+                    .prefixRange(PtBytes.toBytes(String.format("row%03d", i)))
+                    .batchHint(2)
+                    .build());
+        }
+        List<List<RowResult<byte[]>>> serial = Lists.newArrayList();
+        for (BatchingVisitable<RowResult<byte[]>> range : t.getRanges(TEST_TABLE, ranges)) {
+            serial.add(BatchingVisitables.copyToList(range));
+        }
+        List<List<RowResult<byte[]>>> concurrent = Lists.newArrayList();
+        for (BatchingVisitable<RowResult<byte[]>> range : t.getRanges(TEST_TABLE, ranges, 8)) {
+            concurrent.add(BatchingVisitables.copyToList(range));
+        }
+
+        assertEquals(100, concurrent.size());
+        assertEquals(6, concurrent.get(5).size());
+        assertEquals(4, concurrent.get(6).size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(describeRows(serial.get(i)), describeRows(concurrent.get(i)));
+        }
+    }
+
+    private static List<String> describeRows(List<RowResult<byte[]>> rows) {
+        List<String> described = Lists.newArrayList();
+        for (RowResult<byte[]> row : rows) {
+            for (Map.Entry<Cell, byte[]> cell : row.getCells()) {
+                described.add(PtBytes.toString(cell.getKey().getRowName()) + "/"
+                        + PtBytes.toString(cell.getKey().getColumnName()) + "=" + PtBytes.toString(cell.getValue()));
+            }
+        }
+        return Ordering.natural().sortedCopy(described);
+    }
+
     @Test
     public void testRangePagingBatchSizeOneReverse() {
         if (!supportsReverse()) {
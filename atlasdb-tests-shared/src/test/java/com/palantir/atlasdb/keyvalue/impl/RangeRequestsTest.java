@@ -16,11 +16,15 @@
 package com.palantir.atlasdb.keyvalue.impl;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 
 public class RangeRequestsTest {
@@ -37,6 +41,40 @@ public class RangeRequestsTest {
         }
     }
 
+    @Test
+    public void testSplitCoversTheRangeWithDisjointParts() {
+        RangeRequest range = RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes("b"))
+                .endRowExclusive(PtBytes.toBytes("y"))
+                .batchHint(7)
+                .build();
+        List<RangeRequest> parts = RangeRequests.split(range, ImmutableList.of(
+                PtBytes.toBytes("a"), PtBytes.toBytes("b"), PtBytes.toBytes("m"), PtBytes.toBytes("z")));
+
+        Assert.assertEquals(2, parts.size());
+        Assert.assertEquals("b", PtBytes.toString(parts.get(0).getStartInclusive()));
+        Assert.assertEquals("m", PtBytes.toString(parts.get(0).getEndExclusive()));
+        Assert.assertEquals("m", PtBytes.toString(parts.get(1).getStartInclusive()));
+        Assert.assertEquals("y", PtBytes.toString(parts.get(1).getEndExclusive()));
+        Assert.assertEquals(Integer.valueOf(7), parts.get(1).getBatchHint());
+    }
+
+    @Test
+    public void testUniformSplitPointsStayInsideTheRange() {
+        RangeRequest range = RangeRequest.builder()
+                .startRowInclusive(new byte[] {0x10})
+                .endRowExclusive(new byte[] {0x20})
+                .build();
+        List<byte[]> splitPoints = RangeRequests.getUniformSplitPoints(range, 4);
+
+        Assert.assertEquals(3, splitPoints.size());
+        Assert.assertArrayEquals(new byte[] {0x14, 0x00}, splitPoints.get(0));
+        Assert.assertArrayEquals(new byte[] {0x1c, 0x00}, splitPoints.get(2));
+        Assert.assertEquals(4, RangeRequests.split(range, splitPoints).size());
+        Assert.assertEquals(16, RangeRequests.split(RangeRequest.all(),
+                RangeRequests.getUniformSplitPoints(RangeRequest.all(), 16)).size());
+    }
+
     private byte[] generateRandomWithFreqLogLen() {
         long randomLong = random.nextLong();
         // lg(n) distrobution of len
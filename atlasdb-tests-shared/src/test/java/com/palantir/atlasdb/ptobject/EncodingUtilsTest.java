@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.SortedMap;
+import java.util.UUID;
 
 import org.junit.Test;
 
@@ -246,6 +247,14 @@ public class EncodingUtilsTest {
         }
     }
 
+    @Test
+    public void testUuidRoundTripsAtAnOffset() {
+        UUID uuid = UUID.randomUUID();
+        byte[] encoded = EncodingUtils.add(new byte[] {7}, EncodingUtils.encodeUUID(uuid));
+        assertEquals(uuid, EncodingUtils.decodeUUID(encoded, 1));
+        assertEquals(uuid, EncodingUtils.decodeFlippedUUID(EncodingUtils.flipAllBitsInPlace(encoded, 1), 1));
+    }
+
     @Test
     public void testMulti() {
         List<ValueType> valueTypes = ImmutableList.of(
@@ -834,7 +834,7 @@ public final class TwoColumnsTable implements
     }
 
     public BatchingVisitableView<TwoColumnsRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, TwoColumnsRowResult>() {
             @Override
             public TwoColumnsRowResult apply(RowResult<byte[]> input) {
@@ -1459,7 +1459,7 @@ public final class TwoColumnsTable implements
         }
 
         public BatchingVisitableView<FooToIdCondIdxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-            return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+            return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                     new Function<RowResult<byte[]>, FooToIdCondIdxRowResult>() {
                 @Override
                 public FooToIdCondIdxRowResult apply(RowResult<byte[]> input) {
@@ -2095,7 +2095,7 @@ public final class TwoColumnsTable implements
         }
 
         public BatchingVisitableView<FooToIdIdxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-            return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+            return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                     new Function<RowResult<byte[]>, FooToIdIdxRowResult>() {
                 @Override
                 public FooToIdIdxRowResult apply(RowResult<byte[]> input) {
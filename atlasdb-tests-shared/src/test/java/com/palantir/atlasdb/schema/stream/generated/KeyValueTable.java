@@ -575,7 +575,7 @@ public final class KeyValueTable implements
     }
 
     public BatchingVisitableView<KeyValueRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, KeyValueRowResult>() {
             @Override
             public KeyValueRowResult apply(RowResult<byte[]> input) {
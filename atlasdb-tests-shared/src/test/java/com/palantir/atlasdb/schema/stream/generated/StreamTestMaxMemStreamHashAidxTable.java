@@ -630,7 +630,7 @@ public final class StreamTestMaxMemStreamHashAidxTable implements
     }
 
     public BatchingVisitableView<StreamTestMaxMemStreamHashAidxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestMaxMemStreamHashAidxRowResult>() {
             @Override
             public StreamTestMaxMemStreamHashAidxRowResult apply(RowResult<byte[]> input) {
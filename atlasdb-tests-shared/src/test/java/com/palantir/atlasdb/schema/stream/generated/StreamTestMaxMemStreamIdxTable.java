@@ -630,7 +630,7 @@ public final class StreamTestMaxMemStreamIdxTable implements
     }
 
     public BatchingVisitableView<StreamTestMaxMemStreamIdxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestMaxMemStreamIdxRowResult>() {
             @Override
             public StreamTestMaxMemStreamIdxRowResult apply(RowResult<byte[]> input) {
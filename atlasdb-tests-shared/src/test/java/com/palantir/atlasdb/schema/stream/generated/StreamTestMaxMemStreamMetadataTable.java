@@ -599,7 +599,7 @@ public final class StreamTestMaxMemStreamMetadataTable implements
     }
 
     public BatchingVisitableView<StreamTestMaxMemStreamMetadataRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestMaxMemStreamMetadataRowResult>() {
             @Override
             public StreamTestMaxMemStreamMetadataRowResult apply(RowResult<byte[]> input) {
@@ -587,7 +587,7 @@ public final class StreamTestMaxMemStreamValueTable implements
     }
 
     public BatchingVisitableView<StreamTestMaxMemStreamValueRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestMaxMemStreamValueRowResult>() {
             @Override
             public StreamTestMaxMemStreamValueRowResult apply(RowResult<byte[]> input) {
@@ -630,7 +630,7 @@ public final class StreamTestStreamHashAidxTable implements
     }
 
     public BatchingVisitableView<StreamTestStreamHashAidxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestStreamHashAidxRowResult>() {
             @Override
             public StreamTestStreamHashAidxRowResult apply(RowResult<byte[]> input) {
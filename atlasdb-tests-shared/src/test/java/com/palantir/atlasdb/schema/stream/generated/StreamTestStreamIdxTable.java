@@ -630,7 +630,7 @@ public final class StreamTestStreamIdxTable implements
     }
 
     public BatchingVisitableView<StreamTestStreamIdxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestStreamIdxRowResult>() {
             @Override
             public StreamTestStreamIdxRowResult apply(RowResult<byte[]> input) {
@@ -599,7 +599,7 @@ public final class StreamTestStreamMetadataTable implements
     }
 
     public BatchingVisitableView<StreamTestStreamMetadataRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestStreamMetadataRowResult>() {
             @Override
             public StreamTestStreamMetadataRowResult apply(RowResult<byte[]> input) {
@@ -587,7 +587,7 @@ public final class StreamTestStreamValueTable implements
     }
 
     public BatchingVisitableView<StreamTestStreamValueRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestStreamValueRowResult>() {
             @Override
             public StreamTestStreamValueRowResult apply(RowResult<byte[]> input) {
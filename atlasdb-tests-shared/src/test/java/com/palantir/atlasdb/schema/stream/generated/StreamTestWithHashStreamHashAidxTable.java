@@ -630,7 +630,7 @@ public final class StreamTestWithHashStreamHashAidxTable implements
     }
 
     public BatchingVisitableView<StreamTestWithHashStreamHashAidxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestWithHashStreamHashAidxRowResult>() {
             @Override
             public StreamTestWithHashStreamHashAidxRowResult apply(RowResult<byte[]> input) {
@@ -639,7 +639,7 @@ public final class StreamTestWithHashStreamIdxTable implements
     }
 
     public BatchingVisitableView<StreamTestWithHashStreamIdxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestWithHashStreamIdxRowResult>() {
             @Override
             public StreamTestWithHashStreamIdxRowResult apply(RowResult<byte[]> input) {
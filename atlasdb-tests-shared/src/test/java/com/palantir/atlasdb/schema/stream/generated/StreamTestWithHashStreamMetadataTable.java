@@ -608,7 +608,7 @@ public final class StreamTestWithHashStreamMetadataTable implements
     }
 
     public BatchingVisitableView<StreamTestWithHashStreamMetadataRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestWithHashStreamMetadataRowResult>() {
             @Override
             public StreamTestWithHashStreamMetadataRowResult apply(RowResult<byte[]> input) {
@@ -596,7 +596,7 @@ public final class StreamTestWithHashStreamValueTable implements
     }
 
     public BatchingVisitableView<StreamTestWithHashStreamValueRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, StreamTestWithHashStreamValueRowResult>() {
             @Override
             public StreamTestWithHashStreamValueRowResult apply(RowResult<byte[]> input) {
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.impl.Cells;
+
+public class OffHeapWriteBufferMapTest {
+    private static final int NUM_ROWS = 20;
+    private static final int NUM_COLUMNS = 10;
+
+    private final OffHeapWriteBuffer buffer = new OffHeapWriteBuffer(1024, 256);
+    private final OffHeapWriteBufferMap writes = new OffHeapWriteBufferMap(buffer);
+    private final NavigableMap<Cell, byte[]> expected = new ConcurrentSkipListMap<>();
+
+    @After
+    public void tearDown() {
+        buffer.close();
+    }
+
+    @Test
+    public void readsBackWhatWasWritten() {
+        putAll();
+        assertSameContents(expected, writes);
+        Assert.assertArrayEquals(value(3, 4), writes.get(cell(3, 4)));
+        Assert.assertNull(writes.get(cell(NUM_ROWS, 0)));
+    }
+
+    @Test
+    public void overwritesReturnThePreviousValue() {
+        putAll();
+        Assert.assertArrayEquals(value(1, 1), writes.put(cell(1, 1), PtBytes.toBytes("new")));
+        Assert.assertArrayEquals(PtBytes.toBytes("new"), writes.get(cell(1, 1)));
+        Assert.assertNull(writes.put(cell(NUM_ROWS, 0), PtBytes.toBytes("new")));
+        Assert.assertEquals(NUM_ROWS * NUM_COLUMNS + 1, writes.size());
+    }
+
+    @Test
+    public void rangeAndColumnRangeViewsMatchAnOnHeapMap() {
+        putAll();
+        byte[] row = PtBytes.toBytes(row(5));
+        assertSameContents(
+                expected.subMap(Cells.createSmallestCellForRow(row), true, Cells.createLargestCellForRow(row), true),
+                writes.subMap(Cells.createSmallestCellForRow(row), true, Cells.createLargestCellForRow(row), true));
+        assertSameContents(
+                expected.subMap(cell(5, 2), cell(5, 7)),
+                writes.subMap(cell(5, 2), cell(5, 7)));
+        assertSameContents(expected.tailMap(cell(18, 3), false), writes.tailMap(cell(18, 3), false));
+        assertSameContents(expected.headMap(cell(1, 3)), writes.headMap(cell(1, 3)));
+        assertSameContents(expected.descendingMap(), writes.descendingMap());
+        Assert.assertArrayEquals(
+                expected.ceilingEntry(cell(7, 0)).getValue(),
+                writes.ceilingEntry(cell(7, 0)).getValue());
+    }
+
+    @Test
+    public void spillsToDiskPastTheThreshold() {
+        putAll();
+        Assert.assertTrue(buffer.hasSpilled());
+        assertSameContents(expected, writes);
+    }
+
+    @Test
+    public void valuesLargerThanAChunkAreStored() {
+        byte[] large = new byte[1000];
+        large[999] = 1;
+        writes.put(cell(0, 0), large);
+        Assert.assertArrayEquals(large, writes.get(cell(0, 0)));
+    }
+
+    @Test
+    public void conditionalRemovesAndReplacesCompareValues() {
+        putAll();
+        Assert.assertFalse(writes.remove(cell(2, 2), PtBytes.toBytes("other")));
+        Assert.assertTrue(writes.remove(cell(2, 2), value(2, 2)));
+        Assert.assertFalse(writes.containsKey(cell(2, 2)));
+        Assert.assertFalse(writes.remove(cell(2, 2), value(2, 2)));
+
+        Assert.assertFalse(writes.replace(cell(3, 3), PtBytes.toBytes("other"), PtBytes.toBytes("new")));
+        Assert.assertArrayEquals(value(3, 3), writes.get(cell(3, 3)));
+        Assert.assertTrue(writes.replace(cell(3, 3), value(3, 3), PtBytes.toBytes("new")));
+        Assert.assertArrayEquals(PtBytes.toBytes("new"), writes.get(cell(3, 3)));
+        Assert.assertFalse(writes.replace(cell(2, 2), value(2, 2), PtBytes.toBytes("new")));
+    }
+
+    @Test
+    public void randomUpdatesAndViewsMatchAnOnHeapMap() {
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; i++) {
+            Cell cell = cell(random.nextInt(NUM_ROWS), random.nextInt(NUM_COLUMNS));
+            byte[] value = PtBytes.toBytes("value" + i);
+            switch (random.nextInt(6)) {
+                case 0:
+                    Assert.assertEquals(toString(expected.remove(cell)), toString(writes.remove(cell)));
+                    break;
+                case 1:
+                    Assert.assertEquals(
+                            toString(expected.putIfAbsent(cell, value)), toString(writes.putIfAbsent(cell, value)));
+                    break;
+                case 2:
+                    Assert.assertEquals(
+                            toString(expected.pollFirstEntry()), toString(writes.pollFirstEntry()));
+                    break;
+                default:
+                    Assert.assertEquals(toString(expected.put(cell, value)), toString(writes.put(cell, value)));
+                    break;
+            }
+        }
+        Assert.assertEquals(expected.size(), writes.size());
+        assertSameContents(expected, writes);
+        for (int row = 0; row < NUM_ROWS; row += 3) {
+            Cell from = cell(row, 5);
+            Cell to = cell(row + 2, 1);
+            assertSameContents(expected.subMap(from, false, to, true), writes.subMap(from, false, to, true));
+            assertSameContents(expected.descendingMap().headMap(to, true), writes.descendingMap().headMap(to, true));
+            assertSameContents(
+                    expected.descendingMap().subMap(to, true, from, true).tailMap(cell(row + 1, 0)),
+                    writes.descendingMap().subMap(to, true, from, true).tailMap(cell(row + 1, 0)));
+            Assert.assertEquals(expected.lowerKey(from), writes.lowerKey(from));
+            Assert.assertEquals(expected.floorKey(from), writes.floorKey(from));
+            Assert.assertEquals(expected.higherKey(from), writes.higherKey(from));
+            Assert.assertEquals(
+                    expected.descendingMap().ceilingKey(from), writes.descendingMap().ceilingKey(from));
+            Assert.assertEquals(
+                    toString(expected.headMap(to, false).lastEntry()),
+                    toString(writes.headMap(to, false).lastEntry()));
+        }
+    }
+
+    @Test
+    public void removesThroughKeySetsAndIterators() {
+        putAll();
+        Cell from = cell(4, 0);
+        Cell to = cell(6, 0);
+        expected.subMap(from, to).clear();
+        writes.subMap(from, to).clear();
+        expected.keySet().removeAll(ImmutableList.of(cell(1, 1), cell(1, 2)));
+        writes.keySet().removeAll(ImmutableList.of(cell(1, 1), cell(1, 2)));
+        Iterator<Cell> iterator = writes.descendingKeySet().iterator();
+        iterator.next();
+        iterator.remove();
+        expected.pollLastEntry();
+        assertSameContents(expected, writes);
+    }
+
+    @Test
+    public void keepsTheTtlOfCells() {
+        Cell cell = Cell.create(PtBytes.toBytes(row(0)), PtBytes.toBytes("col"), 10, TimeUnit.SECONDS);
+        writes.put(cell, value(0, 0));
+        Assert.assertEquals(10000L, writes.firstKey().getTtlDurationMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void viewsRejectKeysOutsideTheirBounds() {
+        writes.headMap(cell(1, 0)).put(cell(2, 0), value(2, 0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotReadAfterClosing() {
+        putAll();
+        buffer.close();
+        writes.get(cell(0, 0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotWriteAfterClosing() {
+        buffer.close();
+        writes.put(cell(0, 0), value(0, 0));
+    }
+
+    private void putAll() {
+        for (int row = 0; row < NUM_ROWS; row++) {
+            for (int col = 0; col < NUM_COLUMNS; col++) {
+                writes.put(cell(row, col), value(row, col));
+                expected.put(cell(row, col), value(row, col));
+            }
+        }
+    }
+
+    private static void assertSameContents(Map<Cell, byte[]> expectedMap, Map<Cell, byte[]> actualMap) {
+        Assert.assertEquals(ImmutableList.copyOf(expectedMap.keySet()), ImmutableList.copyOf(actualMap.keySet()));
+        Assert.assertEquals(
+                Maps.transformValues(expectedMap, PtBytes::toString),
+                Maps.transformValues(actualMap, PtBytes::toString));
+    }
+
+    private static String toString(@Nullable byte[] value) {
+        return value == null ? null : PtBytes.toString(value);
+    }
+
+    private static String toString(@Nullable Map.Entry<Cell, byte[]> entry) {
+        return entry == null ? null : entry.getKey() + "=" + toString(entry.getValue());
+    }
+
+    private static Cell cell(int row, int col) {
+        return Cell.create(PtBytes.toBytes(row(row)), PtBytes.toBytes(String.format("col%02d", col)));
+    }
+
+    private static String row(int row) {
+        return String.format("row%02d", row);
+    }
+
+    private static byte[] value(int row, int col) {
+        return PtBytes.toBytes("value" + row + "." + col);
+    }
+}
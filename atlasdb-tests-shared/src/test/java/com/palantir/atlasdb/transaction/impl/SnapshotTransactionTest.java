@@ -16,8 +16,10 @@
 package com.palantir.atlasdb.transaction.impl;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertEquals;
@@ -28,6 +30,7 @@ import static org.junit.Assert.fail;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -41,6 +44,7 @@ import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.mutable.MutableInt;
@@ -60,9 +64,11 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.AtlasDbTestCase;
 import com.palantir.atlasdb.cache.TimestampCache;
@@ -74,8 +80,10 @@ import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.impl.ForwardingKeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.TrackingKeyValueService;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.CachePriority;
@@ -98,6 +106,7 @@ import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.common.base.AbortingVisitor;
 import com.palantir.common.base.AbortingVisitors;
 import com.palantir.common.base.BatchingVisitable;
+import com.palantir.common.base.BatchingVisitables;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.proxy.MultiDelegateProxy;
 import com.palantir.lock.AtlasRowLockDescriptor;
@@ -112,6 +121,7 @@ import com.palantir.lock.LockService;
 import com.palantir.lock.SimpleTimeDuration;
 import com.palantir.lock.TimeDuration;
 import com.palantir.remoting2.tracing.Tracers;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 @SuppressWarnings("checkstyle:all")
 public class SnapshotTransactionTest extends AtlasDbTestCase {
@@ -158,6 +168,84 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
             return delegate;
         }
     }
+    private static class ReadCountingKeyValueService extends ForwardingKeyValueService {
+        private final KeyValueService delegate;
+        private final AtomicInteger reads = new AtomicInteger();
+        private final AtomicInteger concurrentRangeReads = new AtomicInteger();
+        private final AtomicInteger maxConcurrentRangeReads = new AtomicInteger();
+
+        ReadCountingKeyValueService(KeyValueService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+            countRead(tableRef);
+            return super.get(tableRef, timestampByCell);
+        }
+
+        @Override
+        public Map<Cell, Value> getRows(TableReference tableRef, Iterable<byte[]> rows,
+                                        ColumnSelection columnSelection, long timestamp) {
+            countRead(tableRef);
+            return super.getRows(tableRef, rows, columnSelection, timestamp);
+        }
+
+        @Override
+        public Map<byte[], RowColumnRangeIterator> getRowsColumnRange(TableReference tableRef,
+                                                                      Iterable<byte[]> rows,
+                                                                      BatchColumnRangeSelection batchColumnRangeSelection,
+                                                                      long timestamp) {
+            countRead(tableRef);
+            return super.getRowsColumnRange(tableRef, rows, batchColumnRangeSelection, timestamp);
+        }
+
+        @Override
+        public RowColumnRangeIterator getRowsColumnRange(TableReference tableRef,
+                                                         Iterable<byte[]> rows,
+                                                         ColumnRangeSelection columnRangeSelection,
+                                                         int cellBatchHint,
+                                                         long timestamp) {
+            countRead(tableRef);
+            return super.getRowsColumnRange(tableRef, rows, columnRangeSelection, cellBatchHint, timestamp);
+        }
+
+        @Override
+        public Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRanges(
+                TableReference tableRef,
+                Iterable<RangeRequest> rangeRequests,
+                long timestamp) {
+            countRead(tableRef);
+            maxConcurrentRangeReads.accumulateAndGet(concurrentRangeReads.incrementAndGet(), Math::max);
+            try {
+                // Holds the read open for long enough that reads which are allowed to overlap do so.
+                Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+                return super.getFirstBatchForRanges(tableRef, rangeRequests, timestamp);
+            } finally {
+                concurrentRangeReads.decrementAndGet();
+            }
+        }
+
+        private void countRead(TableReference tableRef) {
+            if (tableRef.equals(TABLE)) {
+                reads.incrementAndGet();
+            }
+        }
+
+        int getReads() {
+            return reads.get();
+        }
+
+        int getMaxConcurrentRangeReads() {
+            return maxConcurrentRangeReads.get();
+        }
+
+        @Override
+        protected KeyValueService delegate() {
+            return delegate;
+        }
+    }
+
     static final TableReference TABLE = TableReference.createFromFullyQualifiedName("default.table");
     static final TableReference TABLE1 = TableReference.createFromFullyQualifiedName("default.table1");
     static final TableReference TABLE2 = TableReference.createFromFullyQualifiedName("default.table2");
@@ -772,6 +860,203 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
         }
     }
 
+    @Test
+    public void repeatedRowAndCellReadsAreServedFromTheReadCache() {
+        byte[] row = PtBytes.toBytes("row1");
+        Cell writtenCell = Cell.create(row, PtBytes.toBytes("column1"));
+        Cell emptyCell = Cell.create(row, PtBytes.toBytes("column2"));
+        Cell emptyCellInUnreadRow = Cell.create(PtBytes.toBytes("row2"), PtBytes.toBytes("column1"));
+        writeCells(TABLE, ImmutableMap.of(writtenCell, PtBytes.toBytes("value")));
+
+        ReadCountingKeyValueService countingKvs = new ReadCountingKeyValueService(keyValueService);
+        SnapshotTransaction snapshot = createSnapshotTransaction(countingKvs);
+
+        SortedMap<byte[], RowResult<byte[]>> rows = snapshot.getRows(TABLE, ImmutableList.of(row), ColumnSelection.all());
+        assertEquals(1, countingKvs.getReads());
+
+        assertEquals(rows.get(row).getCellSet(),
+                snapshot.getRows(TABLE, ImmutableList.of(row), ColumnSelection.all()).get(row).getCellSet());
+        assertEquals(ImmutableSet.of(writtenCell), snapshot.get(TABLE, ImmutableSet.of(writtenCell, emptyCell)).keySet());
+        assertEquals(1, countingKvs.getReads());
+
+        assertTrue(snapshot.get(TABLE, ImmutableSet.of(emptyCellInUnreadRow)).isEmpty());
+        assertTrue(snapshot.get(TABLE, ImmutableSet.of(emptyCellInUnreadRow)).isEmpty());
+        assertEquals(2, countingKvs.getReads());
+    }
+
+    @Test
+    public void localWritesTakePrecedenceOverTheReadCache() {
+        byte[] row = PtBytes.toBytes("row1");
+        Cell firstCell = Cell.create(row, PtBytes.toBytes("column1"));
+        Cell secondCell = Cell.create(row, PtBytes.toBytes("column2"));
+        writeCells(TABLE, ImmutableMap.of(
+                firstCell, PtBytes.toBytes("first"),
+                secondCell, PtBytes.toBytes("second")));
+
+        SnapshotTransaction snapshot = createSnapshotTransaction(keyValueService);
+        snapshot.getRows(TABLE, ImmutableList.of(row), ColumnSelection.all());
+        snapshot.put(TABLE, ImmutableMap.of(firstCell, PtBytes.toBytes("updated")));
+        snapshot.delete(TABLE, ImmutableSet.of(secondCell));
+
+        RowResult<byte[]> rowResult = snapshot.getRows(TABLE, ImmutableList.of(row), ColumnSelection.all()).get(row);
+        assertEquals(ImmutableSet.of(firstCell), rowResult.getCellSet());
+        assertEquals("updated", PtBytes.toString(rowResult.getColumns().get(PtBytes.toBytes("column1"))));
+        assertEquals(ImmutableSet.of(firstCell), snapshot.get(TABLE, ImmutableSet.of(firstCell, secondCell)).keySet());
+    }
+
+    @Test
+    public void columnRangesReadToTheEndAreServedFromTheReadCache() {
+        byte[] row = PtBytes.toBytes("row1");
+        ImmutableMap.Builder<Cell, byte[]> cells = ImmutableMap.builder();
+        for (int i = 0; i < 10; i++) {
+            cells.put(Cell.create(row, PtBytes.toBytes("column" + i)), PtBytes.toBytes("value" + i));
+        }
+        writeCells(TABLE, cells.build());
+
+        ReadCountingKeyValueService countingKvs = new ReadCountingKeyValueService(keyValueService);
+        SnapshotTransaction snapshot = createSnapshotTransaction(countingKvs);
+        ColumnRangeSelection allColumns = new ColumnRangeSelection(PtBytes.EMPTY_BYTE_ARRAY, PtBytes.EMPTY_BYTE_ARRAY);
+        List<Map.Entry<Cell, byte[]>> firstRead = ImmutableList.copyOf(
+                snapshot.getRowsColumnRange(TABLE, ImmutableList.of(row), allColumns, 3));
+        assertEquals(10, firstRead.size());
+        int readsAfterFirstRange = countingKvs.getReads();
+
+        ColumnRangeSelection someColumns = new ColumnRangeSelection(
+                PtBytes.toBytes("column2"), PtBytes.toBytes("column5"));
+        List<Map.Entry<Cell, byte[]>> cachedRead = ImmutableList.copyOf(
+                snapshot.getRowsColumnRange(TABLE, ImmutableList.of(row), someColumns, 3));
+        assertEquals(firstRead.subList(2, 5).stream().map(Map.Entry::getKey).collect(Collectors.toList()),
+                cachedRead.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+        assertEquals(readsAfterFirstRange, countingKvs.getReads());
+    }
+
+    @Test
+    public void offHeapWriteBufferServesReadsDeletesAndCommits() {
+        byte[] row = PtBytes.toBytes("row1");
+        Cell writtenCell = Cell.create(row, PtBytes.toBytes("column1"));
+        Cell deletedCell = Cell.create(row, PtBytes.toBytes("column2"));
+        writeCells(TABLE, ImmutableMap.of(deletedCell, PtBytes.toBytes("committed")));
+
+        // A threshold of one byte makes every write spill to disk.
+        long startTs = timestampService.getFreshTimestamp();
+        SnapshotTransaction snapshot = new SnapshotTransaction(
+                keyValueService,
+                lockService,
+                timestampService,
+                transactionService,
+                NoOpCleaner.INSTANCE,
+                () -> startTs,
+                TestConflictDetectionManagers.createWithStaticConflictDetection(
+                        ImmutableMap.of(TABLE, ConflictHandler.RETRY_ON_WRITE_WRITE)),
+                sweepStrategyManager,
+                startTs,
+                ImmutableList.of(),
+                AtlasDbConstraintCheckingMode.NO_CONSTRAINT_CHECKING,
+                null,
+                TransactionReadSentinelBehavior.THROW_EXCEPTION,
+                false,
+                timestampCache,
+                Optional.of(1L));
+        snapshot.put(TABLE, ImmutableMap.of(writtenCell, PtBytes.toBytes("value")));
+        snapshot.delete(TABLE, ImmutableSet.of(deletedCell));
+
+        Map<Cell, byte[]> cells = snapshot.get(TABLE, ImmutableSet.of(writtenCell, deletedCell));
+        assertEquals(ImmutableSet.of(writtenCell), cells.keySet());
+        assertEquals("value", PtBytes.toString(cells.get(writtenCell)));
+        RowResult<byte[]> rowResult = snapshot.getRows(TABLE, ImmutableList.of(row), ColumnSelection.all()).get(row);
+        assertEquals(ImmutableSet.of(writtenCell), rowResult.getCellSet());
+        snapshot.commit();
+
+        RowResult<byte[]> committedRow = readRow(row);
+        assertEquals(ImmutableSet.of(writtenCell), committedRow.getCellSet());
+        assertEquals("value", PtBytes.toString(committedRow.getColumns().get(PtBytes.toBytes("column1"))));
+    }
+
+    @Test
+    public void concurrentGetRangesOnlyReadsOnceIteratedAndAtTheGivenConcurrency() {
+        List<RangeRequest> ranges = writeSingleCellRows(20);
+        ReadCountingKeyValueService countingKvs = new ReadCountingKeyValueService(keyValueService);
+        SnapshotTransaction snapshot = createSnapshotTransaction(countingKvs);
+
+        Iterable<BatchingVisitable<RowResult<byte[]>>> visitables = snapshot.getRanges(TABLE, ranges, 4);
+        assertEquals(0, countingKvs.getReads());
+
+        int rows = 0;
+        for (BatchingVisitable<RowResult<byte[]>> visitable : visitables) {
+            rows += BatchingVisitables.copyToList(visitable).size();
+        }
+        assertEquals(20, rows);
+        assertThat(countingKvs.getReads(), greaterThan(0));
+        assertThat(countingKvs.getMaxConcurrentRangeReads(), lessThanOrEqualTo(4));
+    }
+
+    @Test
+    public void concurrentGetRangesCannotBeReadAfterCommit() {
+        List<RangeRequest> ranges = writeSingleCellRows(20);
+        ReadCountingKeyValueService countingKvs = new ReadCountingKeyValueService(keyValueService);
+        SnapshotTransaction snapshot = createSnapshotTransaction(countingKvs);
+
+        Iterable<BatchingVisitable<RowResult<byte[]>>> visitables = snapshot.getRanges(TABLE, ranges, 4);
+        snapshot.commit();
+        try {
+            Iterables.getFirst(visitables, null);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(0, countingKvs.getReads());
+    }
+
+    @Test
+    public void concurrentGetRangesCannotBeVisitedAfterAbort() {
+        List<RangeRequest> ranges = writeSingleCellRows(20);
+        ReadCountingKeyValueService countingKvs = new ReadCountingKeyValueService(keyValueService);
+        SnapshotTransaction snapshot = createSnapshotTransaction(countingKvs);
+
+        Iterator<BatchingVisitable<RowResult<byte[]>>> visitables = snapshot.getRanges(TABLE, ranges, 4).iterator();
+        BatchingVisitable<RowResult<byte[]>> firstRange = visitables.next();
+        snapshot.abort();
+        try {
+            BatchingVisitables.copyToList(firstRange);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            Iterators.getLast(visitables);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private List<RangeRequest> writeSingleCellRows(int numRows) {
+        ImmutableMap.Builder<Cell, byte[]> cells = ImmutableMap.builder();
+        List<RangeRequest> ranges = Lists.newArrayList();
+        for (int i = 0; i < numRows; i++) {
+            byte[] row = PtBytes.toBytes(String.format("row%02d", i));
+            cells.put(Cell.create(row, PtBytes.toBytes("column")), PtBytes.toBytes("value" + i));
+            ranges.add(RangeRequest.builder().prefixRange(row).batchHint(10).build());
+        }
+        writeCells(TABLE, cells.build());
+        return ranges;
+    }
+
+    private SnapshotTransaction createSnapshotTransaction(KeyValueService kvs) {
+        return new SnapshotTransaction(
+                kvs,
+                lockService,
+                timestampService,
+                transactionService,
+                NoOpCleaner.INSTANCE,
+                timestampService.getFreshTimestamp(),
+                TestConflictDetectionManagers.createWithStaticConflictDetection(
+                        ImmutableMap.of(TABLE, ConflictHandler.RETRY_ON_WRITE_WRITE)),
+                AtlasDbConstraintCheckingMode.NO_CONSTRAINT_CHECKING,
+                TransactionReadSentinelBehavior.THROW_EXCEPTION,
+                timestampCache);
+    }
+
     private void writeCells(TableReference table, ImmutableMap<Cell, byte[]> cellsToWrite) {
         Transaction writeTransaction = txManager.createNewTransaction();
         writeTransaction.put(table, cellsToWrite);
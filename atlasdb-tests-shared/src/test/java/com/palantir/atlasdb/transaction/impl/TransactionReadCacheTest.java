@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+
+public class TransactionReadCacheTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("ns.table");
+    private static final byte[] ROW = PtBytes.toBytes("row");
+    private static final Cell SMALL_CELL = Cell.create(ROW, PtBytes.toBytes("small"));
+    private static final Cell LARGE_CELL = Cell.create(ROW, PtBytes.toBytes("large"));
+    private static final byte[] SMALL_VALUE = new byte[10];
+    private static final byte[] LARGE_VALUE = new byte[1000];
+
+    private final TransactionReadCache cache = new TransactionReadCache(500);
+
+    @Test
+    public void cachesValuesWhichFit() {
+        cache.cacheCells(TABLE, ImmutableSet.of(SMALL_CELL), ImmutableMap.of(SMALL_CELL, SMALL_VALUE));
+
+        Map<Cell, byte[]> result = Maps.newHashMap();
+        Assert.assertEquals(ImmutableSet.of(), cache.getCells(TABLE, ImmutableSet.of(SMALL_CELL), result));
+        Assert.assertArrayEquals(SMALL_VALUE, result.get(SMALL_CELL));
+    }
+
+    @Test
+    public void doesNotCacheValuesPastTheByteBound() {
+        cache.cacheCells(TABLE, ImmutableSet.of(LARGE_CELL), ImmutableMap.of(LARGE_CELL, LARGE_VALUE));
+        cache.cacheCells(TABLE, ImmutableSet.of(SMALL_CELL), ImmutableMap.of(SMALL_CELL, SMALL_VALUE));
+
+        Map<Cell, byte[]> result = Maps.newHashMap();
+        Set<Cell> toLoad = cache.getCells(TABLE, ImmutableSet.of(SMALL_CELL, LARGE_CELL), result);
+        Assert.assertEquals(ImmutableSet.of(LARGE_CELL), toLoad);
+        Assert.assertEquals(ImmutableSet.of(SMALL_CELL), result.keySet());
+    }
+
+    @Test
+    public void rowsWhoseValuesDoNotFitAreNotRememberedAsRead() {
+        cache.cacheRows(TABLE, ImmutableList.of(ROW), ColumnSelection.all(),
+                ImmutableMap.of(SMALL_CELL, SMALL_VALUE, LARGE_CELL, LARGE_VALUE));
+
+        Map<Cell, byte[]> result = Maps.newHashMap();
+        Assert.assertEquals(1, cache.getRows(TABLE, ImmutableList.of(ROW), ColumnSelection.all(), result).size());
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.common.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor that runs tasks on a work-stealing {@link ForkJoinPool}, but bounds the number of tasks that may
+ * wait for a thread. The fixed pools handed out by {@link PTExecutors} queue without limit, so an overloaded
+ * pool only shows up as latency and memory; a submission to this executor that would exceed the bound is
+ * instead handled according to its {@link OverloadPolicy}.
+ * <p>
+ * Tasks are handed to the pool in submission order, and {@link ExecutorInheritableThreadLocal} variables are
+ * propagated through. Use {@link PTExecutors#newBoundedWorkStealingPool} to create one.
+ */
+public final class BoundedExecutorService extends AbstractForwardingExecutorService {
+
+    public enum OverloadPolicy {
+        /**
+         * Fail fast: the task is rejected with a {@link RejectedExecutionException}.
+         */
+        ABORT,
+        /**
+         * Apply backpressure: the task runs on the submitting thread, so the submitter cannot hand over more
+         * work until it has finished.
+         */
+        CALLER_RUNS
+    }
+
+    /**
+     * Receives the queue depth and timings of the tasks run by a {@link BoundedExecutorService}. Methods are
+     * called on the submitting and worker threads, so must be thread-safe and cheap.
+     */
+    public interface Listener {
+        Listener NO_OP = new Listener() { };
+
+        /**
+         * Called when a task is queued, with the number of tasks then waiting for a thread.
+         */
+        default void taskQueued(int queuedTasks) { }
+
+        /**
+         * Called when a task is submitted while the queue is full, before the overload policy is applied.
+         */
+        default void taskOverloaded() { }
+
+        /**
+         * Called when a task starts running, with the time it waited for a thread.
+         */
+        default void taskStarted(long waitNanos) { }
+
+        /**
+         * Called when a task finishes running, successfully or not.
+         */
+        default void taskCompleted(long runNanos) { }
+    }
+
+    private final ForkJoinPool pool;
+    private final int maxQueuedTasks;
+    private final OverloadPolicy overloadPolicy;
+    private final Listener listener;
+    private final Semaphore permits;
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+
+    BoundedExecutorService(ForkJoinPool pool, int maxQueuedTasks, OverloadPolicy overloadPolicy, Listener listener) {
+        if (maxQueuedTasks < 0) {
+            throw new IllegalArgumentException("maxQueuedTasks cannot be negative: " + maxQueuedTasks);
+        }
+        if (overloadPolicy == null || listener == null) {
+            throw new NullPointerException();
+        }
+        this.pool = pool;
+        this.maxQueuedTasks = maxQueuedTasks;
+        this.overloadPolicy = overloadPolicy;
+        this.listener = listener;
+        this.permits = new Semaphore(pool.getParallelism() + maxQueuedTasks);
+    }
+
+    @Override
+    protected ExecutorService delegate() {
+        return pool;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (!permits.tryAcquire()) {
+            listener.taskOverloaded();
+            if (overloadPolicy == OverloadPolicy.CALLER_RUNS && !pool.isShutdown()) {
+                // wrapped so that the task sees, and can change, only a copy of the caller's thread locals
+                runTask(PTExecutors.wrap(command), 0L);
+                return;
+            }
+            throw new RejectedExecutionException("Task rejected as " + queuedTasks.get()
+                    + " tasks are already waiting for one of " + pool.getParallelism()
+                    + " threads, and at most " + maxQueuedTasks + " may wait");
+        }
+        Runnable task = new QueuedTask(PTExecutors.wrap(command));
+        listener.taskQueued(queuedTasks.incrementAndGet());
+        try {
+            pool.execute(task);
+        } catch (RuntimeException | Error e) {
+            queuedTasks.decrementAndGet();
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting for a thread.
+     */
+    public int getQueuedTaskCount() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * Returns the number of tasks running on the pool's threads, excluding any run by submitting threads.
+     */
+    public int getRunningTaskCount() {
+        return pool.getParallelism() + maxQueuedTasks - permits.availablePermits() - queuedTasks.get();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getMaxQueuedTasks() {
+        return maxQueuedTasks;
+    }
+
+    private void runTask(Runnable task, long waitNanos) {
+        listener.taskStarted(waitNanos);
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            listener.taskCompleted(System.nanoTime() - start);
+        }
+    }
+
+    private final class QueuedTask implements Runnable {
+        private final Runnable delegate;
+        private final long queuedAt = System.nanoTime();
+
+        QueuedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            queuedTasks.decrementAndGet();
+            try {
+                runTask(delegate, System.nanoTime() - queuedAt);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -24,6 +24,9 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
@@ -441,6 +444,57 @@ public final class PTExecutors {
         return ret;
     }
 
+    /**
+     * Creates a work-stealing pool of <tt>parallelism</tt> daemon threads, at most <tt>maxQueuedTasks</tt>
+     * of whose tasks may wait for a thread. Unlike the fixed thread pools, a task submitted while the
+     * queue is full is handled according to the <tt>overloadPolicy</tt>: it is either rejected with a
+     * {@link java.util.concurrent.RejectedExecutionException}, or run on the submitting thread.
+     *
+     * @param threadNamePrefix the prefix of the names of the pool's threads
+     * @param parallelism the number of threads that may run tasks at once
+     * @param maxQueuedTasks the number of tasks that may wait for a thread
+     * @param overloadPolicy what to do with a task submitted while the queue is full
+     * @return the newly created thread pool
+     * @throws IllegalArgumentException if <tt>parallelism &lt;= 0</tt> or <tt>maxQueuedTasks &lt; 0</tt>
+     */
+    public static BoundedExecutorService newBoundedWorkStealingPool(String threadNamePrefix, int parallelism,
+            int maxQueuedTasks, BoundedExecutorService.OverloadPolicy overloadPolicy) {
+        return newBoundedWorkStealingPool(threadNamePrefix, parallelism, maxQueuedTasks, overloadPolicy,
+                BoundedExecutorService.Listener.NO_OP);
+    }
+
+    /**
+     * Creates a work-stealing pool of <tt>parallelism</tt> daemon threads, at most <tt>maxQueuedTasks</tt>
+     * of whose tasks may wait for a thread, and which reports its queue depth and task timings to the
+     * <tt>listener</tt>. Unlike the fixed thread pools, a task submitted while the queue is full is handled
+     * according to the <tt>overloadPolicy</tt>: it is either rejected with a {@link
+     * java.util.concurrent.RejectedExecutionException}, or run on the submitting thread.
+     *
+     * @param threadNamePrefix the prefix of the names of the pool's threads
+     * @param parallelism the number of threads that may run tasks at once
+     * @param maxQueuedTasks the number of tasks that may wait for a thread
+     * @param overloadPolicy what to do with a task submitted while the queue is full
+     * @param listener receives the queue depth and the wait and run times of tasks
+     * @return the newly created thread pool
+     * @throws IllegalArgumentException if <tt>parallelism &lt;= 0</tt> or <tt>maxQueuedTasks &lt; 0</tt>
+     */
+    public static BoundedExecutorService newBoundedWorkStealingPool(String threadNamePrefix, int parallelism,
+            int maxQueuedTasks, BoundedExecutorService.OverloadPolicy overloadPolicy,
+            BoundedExecutorService.Listener listener) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism, newForkJoinWorkerThreadFactory(threadNamePrefix),
+                null, true /* asyncMode, so that queued tasks run in submission order */);
+        return new BoundedExecutorService(pool, maxQueuedTasks, overloadPolicy, listener);
+    }
+
+    private static ForkJoinWorkerThreadFactory newForkJoinWorkerThreadFactory(final String prefix) {
+        final AtomicInteger nextThreadId = new AtomicInteger();
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(prefix + "-" + nextThreadId.getAndIncrement());
+            return thread;
+        };
+    }
+
     /**
      * Wraps the given {@code ExecutorService} so that {@link ExecutorInheritableThreadLocal}
      * variables are propagated through.
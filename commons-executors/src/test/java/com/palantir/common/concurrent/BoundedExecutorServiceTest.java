@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.common.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BoundedExecutorServiceTest {
+    private static final int PARALLELISM = 2;
+    private static final int MAX_QUEUED_TASKS = 3;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger overloads = new AtomicInteger();
+    private final AtomicInteger completions = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    private final BoundedExecutorService.Listener listener = new BoundedExecutorService.Listener() {
+        @Override
+        public void taskQueued(int queuedTasks) {
+            maxQueueDepth.accumulateAndGet(queuedTasks, Math::max);
+        }
+
+        @Override
+        public void taskOverloaded() {
+            overloads.incrementAndGet();
+        }
+
+        @Override
+        public void taskCompleted(long runNanos) {
+            completions.incrementAndGet();
+        }
+    };
+
+    private BoundedExecutorService executor;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void rejectsTasksOnceTheQueueIsFull() throws Exception {
+        executor = createExecutor(BoundedExecutorService.OverloadPolicy.ABORT);
+        fillExecutor();
+
+        try {
+            executor.submit(() -> { });
+            fail("expected the task to be rejected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        assertEquals(1, overloads.get());
+        assertEquals(MAX_QUEUED_TASKS, maxQueueDepth.get());
+    }
+
+    @Test
+    public void runsTasksOnTheCallingThreadOnceTheQueueIsFull() throws Exception {
+        executor = createExecutor(BoundedExecutorService.OverloadPolicy.CALLER_RUNS);
+        fillExecutor();
+
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.submit(() -> thread.set(Thread.currentThread())).get();
+        assertEquals(Thread.currentThread(), thread.get());
+        assertEquals(1, overloads.get());
+    }
+
+    @Test
+    public void acceptsTasksAgainOnceQueuedTasksHaveRun() throws Exception {
+        executor = createExecutor(BoundedExecutorService.OverloadPolicy.ABORT);
+        fillExecutor();
+        release.countDown();
+
+        waitForCompletions(PARALLELISM + MAX_QUEUED_TASKS);
+        assertEquals(0, executor.getQueuedTaskCount());
+        assertEquals(0, executor.getRunningTaskCount());
+        assertEquals("done", executor.submit(() -> "done").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runsTasksOnNamedThreads() throws Exception {
+        executor = createExecutor(BoundedExecutorService.OverloadPolicy.ABORT);
+        Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+        assertTrue(name.get(10, TimeUnit.SECONDS).startsWith("bounded-test-"));
+    }
+
+    private BoundedExecutorService createExecutor(BoundedExecutorService.OverloadPolicy policy) {
+        return PTExecutors.newBoundedWorkStealingPool("bounded-test", PARALLELISM, MAX_QUEUED_TASKS, policy, listener);
+    }
+
+    private void fillExecutor() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(PARALLELISM);
+        for (int i = 0; i < PARALLELISM; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                awaitRelease();
+            });
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < MAX_QUEUED_TASKS; i++) {
+            executor.execute(this::awaitRelease);
+        }
+        assertEquals(PARALLELISM, executor.getRunningTaskCount());
+        assertEquals(MAX_QUEUED_TASKS, executor.getQueuedTaskCount());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitForCompletions(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (completions.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, completions.get());
+    }
+}
@@ -630,7 +630,7 @@ public final class UserPhotosStreamHashAidxTable implements
     }
 
     public BatchingVisitableView<UserPhotosStreamHashAidxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, UserPhotosStreamHashAidxRowResult>() {
             @Override
             public UserPhotosStreamHashAidxRowResult apply(RowResult<byte[]> input) {
@@ -630,7 +630,7 @@ public final class UserPhotosStreamIdxTable implements
     }
 
     public BatchingVisitableView<UserPhotosStreamIdxRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, UserPhotosStreamIdxRowResult>() {
             @Override
             public UserPhotosStreamIdxRowResult apply(RowResult<byte[]> input) {
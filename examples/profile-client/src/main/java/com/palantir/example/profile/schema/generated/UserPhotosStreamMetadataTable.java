@@ -599,7 +599,7 @@ public final class UserPhotosStreamMetadataTable implements
     }
 
     public BatchingVisitableView<UserPhotosStreamMetadataRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, UserPhotosStreamMetadataRowResult>() {
             @Override
             public UserPhotosStreamMetadataRowResult apply(RowResult<byte[]> input) {
@@ -587,7 +587,7 @@ public final class UserPhotosStreamValueTable implements
     }
 
     public BatchingVisitableView<UserPhotosStreamValueRowResult> getAllRowsUnordered(ColumnSelection columns) {
-        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+        return BatchingVisitables.transform(t.getRangeUnordered(tableRef, RangeRequest.builder().retainColumns(columns).build()),
                 new Function<RowResult<byte[]>, UserPhotosStreamValueRowResult>() {
             @Override
             public UserPhotosStreamValueRowResult apply(RowResult<byte[]> input) {
@@ -17,12 +17,14 @@ package com.palantir.leader.proxy;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nullable;
@@ -33,8 +35,10 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.net.HostAndPort;
-import com.google.common.reflect.AbstractInvocationHandler;
+import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.common.proxy.ForwardingHooks;
+import com.palantir.common.proxy.ForwardingProxies;
 import com.palantir.common.remoting.ServiceNotAvailableException;
 import com.palantir.leader.LeaderElectionService;
 import com.palantir.leader.LeaderElectionService.LeadershipToken;
@@ -43,23 +47,42 @@ import com.palantir.leader.NotCurrentLeaderException;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.remoting2.tracing.Tracers;
 
-public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler {
+public final class AwaitingLeadershipProxy<T> implements ForwardingHooks {
 
     private static final Logger log = LoggerFactory.getLogger(AwaitingLeadershipProxy.class);
 
     public static <U> U newProxyInstance(Class<U> interfaceClass,
                                          Supplier<U> delegateSupplier,
                                          LeaderElectionService leaderElectionService) {
+        return newProxyInstance(interfaceClass, delegateSupplier, leaderElectionService, 0L, 0L);
+    }
+
+    /**
+     * If leaseDurationMs is positive, each confirmation that we are still the leader grants a lease on leadership
+     * lasting leaseDurationMs less clockDriftMarginMs from when the confirmation was started, and calls made while
+     * the lease is held do not confirm leadership again. Leases are renewed in the background before they run out.
+     * <p>
+     * So that a previous leader's lease has run out before we serve calls, we wait leaseDurationMs after gaining
+     * leadership; every leader must therefore use the same lease duration. The margin must cover how far the
+     * clocks of any two leaders may drift apart over the lease duration.
+     */
+    public static <U> U newProxyInstance(Class<U> interfaceClass,
+                                         Supplier<U> delegateSupplier,
+                                         LeaderElectionService leaderElectionService,
+                                         long leaseDurationMs,
+                                         long clockDriftMarginMs) {
+        Preconditions.checkArgument(leaseDurationMs >= 0, "leaseDurationMs must not be negative");
+        Preconditions.checkArgument(leaseDurationMs == 0 || clockDriftMarginMs < leaseDurationMs,
+                "clockDriftMarginMs must be less than leaseDurationMs");
         AwaitingLeadershipProxy<U> proxy = new AwaitingLeadershipProxy<>(
                 delegateSupplier,
                 leaderElectionService,
-                interfaceClass);
+                interfaceClass,
+                leaseDurationMs,
+                clockDriftMarginMs);
         proxy.tryToGainLeadership();
 
-        return (U) Proxy.newProxyInstance(
-                interfaceClass.getClassLoader(),
-                new Class<?>[] { interfaceClass, Closeable.class },
-                proxy);
+        return ForwardingProxies.newProxyInstance(proxy, interfaceClass, Closeable.class);
     }
 
     final Supplier<T> delegateSupplier;
@@ -73,11 +96,21 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
     final AtomicReference<LeadershipToken> leadershipTokenRef;
     final AtomicReference<T> delegateRef;
     final Class<T> interfaceClass;
+    final int closeMethodIndex;
+    // whether close is forwarded as a method of the interface, rather than of Closeable
+    final boolean interfaceDeclaresClose;
     volatile boolean isClosed;
 
+    final long leaseDurationMs;
+    final long leaseValidityNanos;
+    final AtomicReference<LeadershipLease> leaseRef;
+    @Nullable final ScheduledExecutorService leaseRenewalExecutor;
+
     private AwaitingLeadershipProxy(Supplier<T> delegateSupplier,
                                     LeaderElectionService leaderElectionService,
-                                    Class<T> interfaceClass) {
+                                    Class<T> interfaceClass,
+                                    long leaseDurationMs,
+                                    long clockDriftMarginMs) {
         Preconditions.checkNotNull(delegateSupplier, "Unable to create an AwaitingLeadershipProxy with no supplier");
         this.delegateSupplier = delegateSupplier;
         this.leaderElectionService = leaderElectionService;
@@ -85,7 +118,22 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
         this.leadershipTokenRef = new AtomicReference<>();
         this.delegateRef = new AtomicReference<>();
         this.interfaceClass = interfaceClass;
+        this.closeMethodIndex = getCloseMethodIndex(interfaceClass);
+        this.interfaceDeclaresClose = declaresClose(interfaceClass);
         this.isClosed = false;
+        this.leaseDurationMs = leaseDurationMs;
+        this.leaseValidityNanos = TimeUnit.MILLISECONDS.toNanos(leaseDurationMs - clockDriftMarginMs);
+        this.leaseRef = new AtomicReference<>();
+        if (leaseDurationMs > 0) {
+            this.leaseRenewalExecutor = PTExecutors.newSingleThreadScheduledExecutor(
+                    new NamedThreadFactory("leader-lease-renewal", true));
+            // renew well before the lease runs out, so that calls do not wait on the renewal
+            long renewalIntervalMs = Math.max(1L, (leaseDurationMs - clockDriftMarginMs) / 4);
+            leaseRenewalExecutor.scheduleWithFixedDelay(
+                    this::renewLease, renewalIntervalMs, renewalIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.leaseRenewalExecutor = null;
+        }
     }
 
     private void tryToGainLeadership() {
@@ -101,6 +149,11 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
     private void gainLeadership() {
         try {
             LeadershipToken leadershipToken = leaderElectionService.blockOnBecomingLeader();
+            if (leaseDurationMs > 0) {
+                log.info("Waiting {} ms for the lease of any previous leader to run out",
+                        SafeArg.of("leaseDurationMs", leaseDurationMs));
+                Thread.sleep(leaseDurationMs);
+            }
             // We are now the leader, we should create a delegate so we can service calls
             T delegate = null;
             while (delegate == null) {
@@ -137,29 +190,56 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
         }
     }
 
+    private static int getCloseMethodIndex(Class<?> interfaceClass) {
+        List<Method> methods = ForwardingProxies.getForwardedMethods(interfaceClass, Closeable.class);
+        for (int i = 0; i < methods.size(); i++) {
+            if (isClose(methods.get(i))) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No close method forwarded for " + interfaceClass.getName());
+    }
+
+    private static boolean declaresClose(Class<?> interfaceClass) {
+        for (Method method : interfaceClass.getMethods()) {
+            if (isClose(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isClose(Method method) {
+        return method.getName().equals("close") && method.getParameterTypes().length == 0;
+    }
+
+    /**
+     * Confirms that we are still the leader, and returns the delegate to forward the call to.
+     */
     @Override
-    protected Object handleInvocation(Object proxy, Method method, Object[] args) throws Throwable {
+    public Object beforeInvocation(int methodIndex) {
         final LeadershipToken leadershipToken = leadershipTokenRef.get();
 
         if (leadershipToken == null) {
             throw notCurrentLeaderException("method invoked on a non-leader");
         }
 
-        if (method.getName().equals("close") && args.length == 0) {
-            isClosed = true;
-            executor.shutdownNow();
-            clearDelegate();
-            return null;
+        if (methodIndex == closeMethodIndex) {
+            return close();
         }
 
         Object delegate = delegateRef.get();
-        StillLeadingStatus leading;
-        do {
-            leading = leaderElectionService.isStillLeading(leadershipToken);
-        } while (leading == StillLeadingStatus.NO_QUORUM);
+        if (!holdsLease(leadershipToken)) {
+            long confirmationStartNanos = System.nanoTime();
+            StillLeadingStatus leading;
+            do {
+                leading = leaderElectionService.isStillLeading(leadershipToken);
+            } while (leading == StillLeadingStatus.NO_QUORUM);
 
-        if (leading == StillLeadingStatus.NOT_LEADING) {
-            markAsNotLeading(leadershipToken, null /* cause */);
+            if (leading == StillLeadingStatus.NOT_LEADING) {
+                markAsNotLeading(leadershipToken, null /* cause */);
+            }
+            extendLease(leadershipToken, confirmationStartNanos);
         }
 
         if (isClosed) {
@@ -167,14 +247,83 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
         }
 
         Preconditions.checkNotNull(delegate, interfaceClass.getName() + " backing is null");
+        return delegate;
+    }
+
+    @Override
+    public Throwable onFailure(int methodIndex, long startNanos, Object target, Throwable cause) {
+        if (cause instanceof ServiceNotAvailableException || cause instanceof NotCurrentLeaderException) {
+            // A delegate is only replaced when leadership changes, so if the delegate that failed is still the
+            // current one, the current token is the one under which the call was made.
+            LeadershipToken leadershipToken = leadershipTokenRef.get();
+            if (leadershipToken != null && delegateRef.get() == target) {
+                markAsNotLeading(leadershipToken, cause);
+            }
+            return notCurrentLeaderException("method invoked on a non-leader (leadership lost)", cause);
+        }
+        return cause;
+    }
+
+    /**
+     * Closes the proxy, and returns the object to forward the call to close to: the delegate if close is a
+     * method of the interface, or otherwise a Closeable that clears the delegate.
+     */
+    private Object close() {
+        isClosed = true;
+        executor.shutdownNow();
+        if (leaseRenewalExecutor != null) {
+            leaseRenewalExecutor.shutdownNow();
+        }
+        if (interfaceDeclaresClose) {
+            Object delegate = delegateRef.getAndSet(null);
+            // closing an already closed proxy does nothing
+            return delegate != null ? delegate : newNoOpInstance();
+        }
+        Closeable closeDelegate = this::clearDelegate;
+        return closeDelegate;
+    }
+
+    private Object newNoOpInstance() {
+        return Proxy.newProxyInstance(
+                interfaceClass.getClassLoader(),
+                new Class<?>[] {interfaceClass},
+                (proxy, method, args) -> null);
+    }
+
+    private boolean holdsLease(LeadershipToken leadershipToken) {
+        LeadershipLease lease = leaseRef.get();
+        return lease != null && lease.leadershipToken == leadershipToken && lease.remainingNanos() > 0;
+    }
+
+    private void extendLease(LeadershipToken leadershipToken, long confirmationStartNanos) {
+        if (leaseDurationMs > 0) {
+            leaseRef.set(new LeadershipLease(leadershipToken, confirmationStartNanos + leaseValidityNanos));
+        }
+    }
+
+    private void renewLease() {
         try {
-            return method.invoke(delegate, args);
-        } catch (InvocationTargetException e) {
-            if (e.getCause() instanceof ServiceNotAvailableException
-                    || e.getCause() instanceof NotCurrentLeaderException) {
-                markAsNotLeading(leadershipToken, e.getCause());
+            LeadershipToken leadershipToken = leadershipTokenRef.get();
+            if (leadershipToken == null) {
+                return;
+            }
+            LeadershipLease lease = leaseRef.get();
+            if (lease != null && lease.leadershipToken == leadershipToken
+                    && lease.remainingNanos() > leaseValidityNanos / 2) {
+                return;
+            }
+            long confirmationStartNanos = System.nanoTime();
+            StillLeadingStatus leading = leaderElectionService.isStillLeading(leadershipToken);
+            if (leading == StillLeadingStatus.LEADING) {
+                extendLease(leadershipToken, confirmationStartNanos);
+            } else if (leading == StillLeadingStatus.NOT_LEADING) {
+                markAsNotLeading(leadershipToken, null /* cause */);
             }
-            throw e.getCause();
+            // without a quorum, the lease runs out and calls confirm leadership themselves
+        } catch (NotCurrentLeaderException e) {
+            // expected when we find we have lost leadership
+        } catch (Throwable t) {
+            log.warn("Failed to renew leader lease", t);
         }
     }
 
@@ -194,6 +343,7 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
 
     private void markAsNotLeading(final LeadershipToken leadershipToken, @Nullable Throwable cause) {
         log.warn("Lost leadership", cause);
+        leaseRef.set(null);
         if (leadershipTokenRef.compareAndSet(leadershipToken, null)) {
             try {
                 clearDelegate();
@@ -205,4 +355,18 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
         throw notCurrentLeaderException("method invoked on a non-leader (leadership lost)", cause);
     }
 
+    private static final class LeadershipLease {
+        private final LeadershipToken leadershipToken;
+        private final long expiresAtNanos;
+
+        LeadershipLease(LeadershipToken leadershipToken, long expiresAtNanos) {
+            this.leadershipToken = leadershipToken;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        long remainingNanos() {
+            return expiresAtNanos - System.nanoTime();
+        }
+    }
+
 }
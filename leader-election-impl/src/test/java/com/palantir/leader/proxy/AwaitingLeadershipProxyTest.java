@@ -16,10 +16,16 @@
 package com.palantir.leader.proxy;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Optional;
 
 import org.junit.Test;
@@ -27,8 +33,17 @@ import org.junit.Test;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.palantir.leader.LeaderElectionService;
+import com.palantir.leader.LeaderElectionService.LeadershipToken;
+import com.palantir.leader.LeaderElectionService.StillLeadingStatus;
+import com.palantir.leader.NotCurrentLeaderException;
 
 public class AwaitingLeadershipProxyTest {
+    private static final long LEASE_DURATION_MS = 500L;
+    private static final long CLOCK_DRIFT_MARGIN_MS = 100L;
+    private static final long TIMEOUT_MS = 5_000L;
+
+    private final LeadershipToken leadershipToken = mock(LeadershipToken.class);
+    private final LeaderElectionService mockLeader = mock(LeaderElectionService.class);
 
     @Test
     @SuppressWarnings("SelfEquals") // We're asserting that calling .equals on a proxy does not redirect the .equals call to the instance its being proxied.
@@ -67,4 +82,85 @@ public class AwaitingLeadershipProxyTest {
         assertThat(proxy.equals(null)).isFalse();
         assertThat(proxy.toString()).startsWith("com.palantir.leader.proxy.AwaitingLeadershipProxy@");
     }
+
+    @Test
+    public void shouldConfirmLeadershipOnEveryCallWithoutLeases() throws Exception {
+        Runnable proxy = createLeadingProxy(0L, 0L);
+
+        for (int i = 0; i < 10; i++) {
+            proxy.run();
+        }
+
+        // including the call made while waiting to lead
+        verify(mockLeader, times(11)).isStillLeading(leadershipToken);
+    }
+
+    @Test
+    public void shouldNotConfirmLeadershipOnCallsWithinTheLease() throws Exception {
+        Runnable proxy = createLeadingProxy(LEASE_DURATION_MS, CLOCK_DRIFT_MARGIN_MS);
+
+        for (int i = 0; i < 10; i++) {
+            proxy.run();
+        }
+
+        // the call made while waiting to lead, and possibly a renewal racing with it
+        verify(mockLeader, atMost(2)).isStillLeading(leadershipToken);
+    }
+
+    @Test
+    public void shouldStopServingCallsOnceLeadershipIsLostDespiteTheLease() throws Exception {
+        Runnable proxy = createLeadingProxy(LEASE_DURATION_MS, CLOCK_DRIFT_MARGIN_MS);
+        when(mockLeader.isStillLeading(leadershipToken)).thenReturn(StillLeadingStatus.NOT_LEADING);
+
+        Thread.sleep(LEASE_DURATION_MS);
+
+        assertThatThrownBy(proxy::run).isInstanceOf(NotCurrentLeaderException.class);
+    }
+
+    @Test
+    public void shouldCloseTheDelegateOnceWhenClosedTwice() throws Exception {
+        CloseableRunnable delegate = mock(CloseableRunnable.class);
+        CloseableRunnable proxy = createLeadingProxy(CloseableRunnable.class, delegate, 0L, 0L);
+
+        proxy.close();
+        proxy.close();
+
+        verify(delegate, times(1)).close();
+    }
+
+    public interface CloseableRunnable extends Runnable, Closeable {
+        @Override
+        void close() throws IOException;
+    }
+
+    private Runnable createLeadingProxy(long leaseDurationMs, long clockDriftMarginMs) throws Exception {
+        return createLeadingProxy(Runnable.class, mock(Runnable.class), leaseDurationMs, clockDriftMarginMs);
+    }
+
+    private <T extends Runnable> T createLeadingProxy(
+            Class<T> interfaceClass,
+            T delegate,
+            long leaseDurationMs,
+            long clockDriftMarginMs) throws Exception {
+        when(mockLeader.getSuspectedLeaderInMemory()).thenReturn(Optional.empty());
+        when(mockLeader.blockOnBecomingLeader()).thenReturn(leadershipToken);
+        when(mockLeader.isStillLeading(leadershipToken)).thenReturn(StillLeadingStatus.LEADING);
+        T proxy = AwaitingLeadershipProxy.newProxyInstance(
+                interfaceClass,
+                Suppliers.ofInstance(delegate),
+                mockLeader,
+                leaseDurationMs,
+                clockDriftMarginMs);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (true) {
+            try {
+                proxy.run();
+                return proxy;
+            } catch (NotCurrentLeaderException e) {
+                assertThat(System.currentTimeMillis()).isLessThan(deadline);
+                Thread.sleep(10L);
+            }
+        }
+    }
 }
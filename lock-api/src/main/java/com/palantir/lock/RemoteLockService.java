@@ -27,6 +27,7 @@ import javax.ws.rs.core.MediaType;
 
 import com.palantir.common.annotation.Idempotent;
 import com.palantir.common.annotation.NonIdempotent;
+import com.palantir.common.remoting.AtlasDbMediaTypes;
 import com.palantir.logsafe.Safe;
 
 @Path("/lock")
@@ -37,8 +38,8 @@ public interface RemoteLockService {
      */
     @POST
     @Path("lock/{client: .*}")
-    @Produces(MediaType.APPLICATION_JSON)
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
     @Nullable
     LockRefreshToken lock(@Safe @PathParam("client") String client, LockRequest request) throws InterruptedException;
 
@@ -48,8 +49,8 @@ public interface RemoteLockService {
      */
     @POST
     @Path("try-lock/{client: .*}")
-    @Produces(MediaType.APPLICATION_JSON)
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
     HeldLocksToken lockAndGetHeldLocks(@Safe @PathParam("client") String client, LockRequest request)
             throws InterruptedException;
 
@@ -66,8 +67,8 @@ public interface RemoteLockService {
      */
     @POST
     @Path("unlock")
-    @Produces(MediaType.APPLICATION_JSON)
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
     @NonIdempotent boolean unlock(LockRefreshToken token);
 
     /**
@@ -77,8 +78,8 @@ public interface RemoteLockService {
      */
     @POST
     @Path("refresh-lock-tokens")
-    @Produces(MediaType.APPLICATION_JSON)
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
     @Idempotent Set<LockRefreshToken> refreshLockRefreshTokens(Iterable<LockRefreshToken> tokens);
 
     /**
@@ -88,15 +89,15 @@ public interface RemoteLockService {
      */
     @POST
     @Path("min-locked-in-version/{client: .*}")
-    @Produces(MediaType.APPLICATION_JSON)
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
     @Idempotent
     @Nullable Long getMinLockedInVersionId(@Safe @PathParam("client") String client);
 
     /** Returns the current time in milliseconds on the server. */
     @POST
     @Path("current-time-millis")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.APPLICATION_JACKSON_SMILE})
     @Idempotent long currentTimeMillis();
 
     @POST
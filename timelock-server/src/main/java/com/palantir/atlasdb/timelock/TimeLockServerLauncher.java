@@ -24,6 +24,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.palantir.atlasdb.http.AtlasDbSmileProvider;
 import com.palantir.atlasdb.timelock.config.TimeLockServerConfiguration;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
 import com.palantir.remoting2.servers.jersey.HttpRemotingJerseyFeature;
@@ -75,6 +76,8 @@ public class TimeLockServerLauncher extends Application<TimeLockServerConfigurat
                         configuration.slowLockLogTriggerMillis())));
 
         environment.getObjectMapper().registerModule(new Jdk8Module());
+        // Clients configured with the SMILE transport send and ask for Smile rather than JSON
+        environment.jersey().register(new AtlasDbSmileProvider());
         environment.jersey().register(HttpRemotingJerseyFeature.DEFAULT);
         environment.jersey().register(new TimeLockResource(clientToServices));
     }
@@ -55,6 +55,37 @@ public abstract class PaxosConfiguration implements TimeLockAlgorithmConfigurati
         return 5000L;
     }
 
+    /**
+     * If positive, a confirmation that this server is still the leader is relied on for this long, less the
+     * clock drift margin, before leadership is confirmed again, rather than confirming it on every request.
+     * A server that gains leadership waits this long before serving requests, so every leader must use the
+     * same value.
+     */
+    @Value.Default
+    public long leaderLeaseDurationMs() {
+        return 0L;
+    }
+
+    /**
+     * How far the clocks of two leaders may drift apart over a lease; leases are held for this much less
+     * than their duration.
+     */
+    @Value.Default
+    public long leaderLeaseClockDriftMarginMs() {
+        return leaderLeaseDurationMs() / 10;
+    }
+
+    /**
+     * If true, the timestamp bounds of all clients are stored in a single Paxos log, and bound updates from many
+     * clients are agreed in one round, rather than each client having its own log. Every server in the cluster must
+     * use the same value, and the value cannot be changed once the cluster has handed out timestamps, because
+     * neither log knows about bounds stored in the other.
+     */
+    @Value.Default
+    public boolean multiplexClientTimestampBounds() {
+        return false;
+    }
+
     @Value.Check
     protected final void check() {
         Preconditions.checkArgument(paxosDataDir().exists() || paxosDataDir().mkdirs(),
@@ -65,6 +96,13 @@ public abstract class PaxosConfiguration implements TimeLockAlgorithmConfigurati
                 "Maximum wait before proposal must be positive; found '%s'.", maximumWaitBeforeProposalMs());
         Preconditions.checkArgument(leaderPingResponseWaitMs() > 0,
                 "Leader ping response wait interval must be positive; found '%s'.", leaderPingResponseWaitMs());
+        Preconditions.checkArgument(leaderLeaseDurationMs() >= 0,
+                "Leader lease duration must not be negative; found '%s'.", leaderLeaseDurationMs());
+        Preconditions.checkArgument(leaderLeaseDurationMs() == 0
+                        || (leaderLeaseClockDriftMarginMs() >= 0
+                                && leaderLeaseClockDriftMarginMs() < leaderLeaseDurationMs()),
+                "Leader lease clock drift margin must be at least zero and less than the lease duration; found '%s'.",
+                leaderLeaseClockDriftMarginMs());
     }
 
     @Override
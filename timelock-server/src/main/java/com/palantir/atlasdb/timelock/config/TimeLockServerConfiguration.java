@@ -74,6 +74,9 @@ public class TimeLockServerConfiguration extends Configuration {
         Preconditions.checkState(!clientNames.contains(PaxosTimeLockConstants.LEADER_ELECTION_NAMESPACE),
                 String.format("The namespace '%s' is reserved for the leader election service. Please use a different"
                         + " name.", PaxosTimeLockConstants.LEADER_ELECTION_NAMESPACE));
+        Preconditions.checkState(!clientNames.contains(PaxosTimeLockConstants.MULTIPLEXED_CLIENT_BOUNDS_NAMESPACE),
+                String.format("The namespace '%s' is reserved for the shared log of client timestamp bounds. Please"
+                        + " use a different name.", PaxosTimeLockConstants.MULTIPLEXED_CLIENT_BOUNDS_NAMESPACE));
     }
 
     public TimeLockAlgorithmConfiguration algorithm() {
@@ -0,0 +1,450 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.common.remoting.ServiceNotAvailableException;
+import com.palantir.leader.NotCurrentLeaderException;
+import com.palantir.paxos.PaxosAcceptor;
+import com.palantir.paxos.PaxosLearner;
+import com.palantir.paxos.PaxosProposer;
+import com.palantir.paxos.PaxosQuorumChecker;
+import com.palantir.paxos.PaxosResponse;
+import com.palantir.paxos.PaxosRoundFailureException;
+import com.palantir.paxos.PaxosValue;
+import com.palantir.remoting2.tracing.Tracers;
+import com.palantir.timestamp.DebugLogger;
+import com.palantir.timestamp.TimestampBoundStore;
+
+/**
+ * Stores the timestamp bounds of many clients in a single Paxos log. Most values in the log are deltas holding only
+ * the bounds changed in that round, so a round costs bytes in proportion to the clients it updates rather than to all
+ * clients. Every {@code snapshotInterval} sequence numbers the full map from client to bound is proposed instead, so
+ * recovering every client's bound needs only the values since the latest snapshot.
+ *
+ * Bound updates that arrive while a round is in progress are proposed together in the next round, so a busy
+ * server pays for one round (and one fsync on each acceptor) per batch of updates rather than per client.
+ * Each update is a compare-and-set against the bound the client last read or stored: if any other proposer
+ * changed that client's bound in the meantime, the update fails with a {@link NotCurrentLeaderException},
+ * as the per-client {@link PaxosTimestampBoundStore} does when its sequence number is taken.
+ */
+public class MultiplexedTimestampBoundStore {
+    private static final Logger log = LoggerFactory.getLogger(MultiplexedTimestampBoundStore.class);
+
+    private static final int QUORUM_OF_ONE = 1;
+    private static final boolean ONLY_LOG_ON_QUORUM_FAILURE = true;
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 100;
+
+    private final PaxosProposer proposer;
+    private final PaxosLearner knowledge;
+
+    private final List<PaxosAcceptor> acceptors;
+    private final List<PaxosLearner> learners;
+    private final long maximumWaitBeforeProposalMs;
+    private final int snapshotInterval;
+
+    private final Queue<BoundUpdate> pendingUpdates = new ConcurrentLinkedQueue<>();
+
+    @GuardedBy("this")
+    private long agreedSeq;
+    @GuardedBy("this")
+    private long agreedSnapshotSeq;
+    @GuardedBy("this")
+    @Nullable
+    private SortedMap<String, Long> agreedBounds;
+
+    private final ExecutorService executor = Tracers.wrap(PTExecutors.newCachedThreadPool(
+            PTExecutors.newNamedThreadFactory(true)));
+
+    public MultiplexedTimestampBoundStore(PaxosProposer proposer,
+            PaxosLearner knowledge,
+            List<PaxosAcceptor> acceptors,
+            List<PaxosLearner> learners,
+            long maximumWaitBeforeProposalMs) {
+        this(proposer, knowledge, acceptors, learners, maximumWaitBeforeProposalMs, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    @VisibleForTesting
+    MultiplexedTimestampBoundStore(PaxosProposer proposer,
+            PaxosLearner knowledge,
+            List<PaxosAcceptor> acceptors,
+            List<PaxosLearner> learners,
+            long maximumWaitBeforeProposalMs,
+            int snapshotInterval) {
+        Preconditions.checkArgument(snapshotInterval > 0, "Snapshot interval must be positive, but was %s",
+                snapshotInterval);
+        this.proposer = proposer;
+        this.knowledge = knowledge;
+        this.acceptors = acceptors;
+        this.learners = learners;
+        this.maximumWaitBeforeProposalMs = maximumWaitBeforeProposalMs;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Returns a bound store for a single client. A new store should be created for each leadership term, as the
+     * store will only update the bound it read from the cluster in {@link TimestampBoundStore#getUpperLimit()}.
+     */
+    public TimestampBoundStore forClient(String client) {
+        return new ClientBoundStore(client);
+    }
+
+    /**
+     * Reads the bounds agreed by a quorum of the cluster and returns the given client's bound, or zero if the
+     * cluster has never stored a bound for it.
+     *
+     * @throws ServiceNotAvailableException if we couldn't contact a quorum
+     */
+    @VisibleForTesting
+    synchronized long readBound(String client) {
+        refreshAgreedBounds();
+        return agreedBounds.getOrDefault(client, 0L);
+    }
+
+    @VisibleForTesting
+    void storeBound(String client, long expectedBound, long limit) {
+        Preconditions.checkArgument(limit >= expectedBound,
+                "Tried to store an upper limit %s less than the current limit %s", limit, expectedBound);
+        BoundUpdate update = new BoundUpdate(client, expectedBound, limit);
+        pendingUpdates.add(update);
+        synchronized (this) {
+            if (!update.isDone()) {
+                runRound();
+            }
+        }
+        update.throwIfFailed();
+    }
+
+    @GuardedBy("this")
+    private void runRound() {
+        List<BoundUpdate> updates = Lists.newArrayList();
+        for (BoundUpdate update = pendingUpdates.poll(); update != null; update = pendingUpdates.poll()) {
+            updates.add(update);
+        }
+
+        try {
+            if (agreedBounds == null) {
+                refreshAgreedBounds();
+            }
+            SortedMap<String, Long> proposedBounds = Maps.newTreeMap(agreedBounds);
+            SortedMap<String, Long> changedBounds = Maps.newTreeMap();
+            List<BoundUpdate> proposedUpdates = Lists.newArrayListWithCapacity(updates.size());
+            for (BoundUpdate update : updates) {
+                long currentBound = proposedBounds.getOrDefault(update.client, 0L);
+                if (currentBound != update.expectedBound) {
+                    update.fail(new NotCurrentLeaderException(String.format(
+                            "The timestamp limit for client '%s' changed from under us to %s; we expected %s and"
+                                    + " tried to store %s. This suggests that another timelock server has gained"
+                                    + " leadership and updated the timestamp bound.",
+                            update.client, currentBound, update.expectedBound, update.limit)));
+                } else {
+                    proposedBounds.put(update.client, update.limit);
+                    changedBounds.put(update.client, update.limit);
+                    proposedUpdates.add(update);
+                }
+            }
+            if (proposedUpdates.isEmpty()) {
+                return;
+            }
+
+            long newSeq = agreedSeq + 1;
+            boolean isSnapshot = newSeq - agreedSnapshotSeq >= snapshotInterval;
+            proposeUntilAgreed(newSeq, isSnapshot
+                    ? serialize(BoundsValue.snapshot(proposedBounds))
+                    : serialize(BoundsValue.delta(changedBounds)));
+            PaxosValue value = knowledge.getLearnedValue(newSeq);
+            if (!value.getLeaderUUID().equals(proposer.getUuid())) {
+                // Someone else wrote to the log since we last read it; what we know of it is out of date.
+                agreedBounds = null;
+                throw new NotCurrentLeaderException(String.format(
+                        "Client timestamp bounds changed from under us for sequence '%s' (proposer with UUID '%s'"
+                                + " changed them, our UUID is '%s'). This suggests that we have lost leadership,"
+                                + " and another timelock server has gained leadership and updated the bounds.",
+                        newSeq,
+                        value.getLeaderUUID(),
+                        proposer.getUuid()));
+            }
+            agreedSeq = newSeq;
+            if (isSnapshot) {
+                agreedSnapshotSeq = newSeq;
+            }
+            agreedBounds = ImmutableSortedMap.copyOfSorted(proposedBounds);
+            DebugLogger.logger.info("Stored timestamp limits for {} clients at sequence '{}'.",
+                    proposedUpdates.size(),
+                    newSeq);
+            proposedUpdates.forEach(BoundUpdate::succeed);
+        } catch (RuntimeException | Error e) {
+            updates.forEach(update -> update.fail(e));
+        }
+    }
+
+    @GuardedBy("this")
+    private void refreshAgreedBounds() {
+        List<PaxosTimestampBoundStore.PaxosLong> responses = PaxosQuorumChecker.collectQuorumResponses(
+                ImmutableList.copyOf(acceptors),
+                acceptor -> ImmutablePaxosLong.of(acceptor.getLatestSequencePreparedOrAccepted()),
+                proposer.getQuorumSize(),
+                executor,
+                PaxosQuorumChecker.DEFAULT_REMOTE_REQUESTS_TIMEOUT_IN_SECONDS,
+                ONLY_LOG_ON_QUORUM_FAILURE);
+        if (!PaxosQuorumChecker.hasQuorum(responses, proposer.getQuorumSize())) {
+            throw new ServiceNotAvailableException("could not get a quorum");
+        }
+        long seq = Ordering.natural().onResultOf(PaxosTimestampBoundStore.PaxosLong::getValue).max(responses)
+                .getValue();
+
+        // Walk back to the latest snapshot, then replay the deltas agreed since it in order.
+        List<SortedMap<String, Long>> deltas = Lists.newArrayList();
+        long snapshotSeq = seq;
+        BoundsValue value = deserialize(getAgreedBounds(snapshotSeq));
+        while (!value.isSnapshot()) {
+            deltas.add(value.getBounds());
+            snapshotSeq--;
+            value = deserialize(getAgreedBounds(snapshotSeq));
+        }
+        SortedMap<String, Long> bounds = Maps.newTreeMap(value.getBounds());
+        Lists.reverse(deltas).forEach(bounds::putAll);
+
+        agreedBounds = ImmutableSortedMap.copyOfSorted(bounds);
+        agreedSeq = Math.max(seq, PaxosAcceptor.NO_LOG_ENTRY);
+        agreedSnapshotSeq = Math.max(snapshotSeq, PaxosAcceptor.NO_LOG_ENTRY);
+    }
+
+    /**
+     * Obtains agreement for a given sequence number. If nothing was learned for it, an empty delta is forced for it;
+     * unlike {@link PaxosTimestampBoundStore#getAgreedState(long)}, this does not need to know the previous value,
+     * because an empty delta leaves every bound as it was.
+     */
+    private byte[] getAgreedBounds(long seq) {
+        Optional<byte[]> bounds = getLearnedBounds(seq);
+        if (bounds.isPresent()) {
+            return bounds.get();
+        }
+        byte[] acceptedValue = proposeUntilAgreed(seq, serialize(BoundsValue.delta(ImmutableSortedMap.of())));
+        return Preconditions.checkNotNull(acceptedValue, "Proposed value can't be null, but was in sequence %s", seq);
+    }
+
+    private byte[] proposeUntilAgreed(long seq, byte[] bounds) {
+        while (true) {
+            try {
+                return proposer.propose(seq, bounds);
+            } catch (PaxosRoundFailureException e) {
+                long backoffTime = (long) (maximumWaitBeforeProposalMs * Math.random() + 1);
+                log.info("Paxos proposal couldn't complete, because we could not connect to a quorum of nodes. We"
+                        + " will retry in {} ms.",
+                        backoffTime,
+                        e);
+                try {
+                    Thread.sleep(backoffTime);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw Throwables.rewrapAndThrowUncheckedException(interruptedException);
+                }
+            }
+        }
+    }
+
+    private Optional<byte[]> getLearnedBounds(long seq) {
+        if (seq <= PaxosAcceptor.NO_LOG_ENTRY) {
+            return Optional.of(serialize(BoundsValue.snapshot(ImmutableSortedMap.of())));
+        }
+        List<LearnedBounds> responses = PaxosQuorumChecker.collectQuorumResponses(
+                ImmutableList.copyOf(learners),
+                learner -> getLearnedValue(seq, learner),
+                QUORUM_OF_ONE,
+                executor,
+                PaxosQuorumChecker.DEFAULT_REMOTE_REQUESTS_TIMEOUT_IN_SECONDS,
+                ONLY_LOG_ON_QUORUM_FAILURE);
+        if (responses.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(responses.iterator().next().data);
+    }
+
+    private static LearnedBounds getLearnedValue(long seq, PaxosLearner learner) {
+        PaxosValue value = learner.getLearnedValue(seq);
+        if (value == null) {
+            throw new NoSuchElementException(
+                    String.format("Tried to get a learned value for sequence number '%d' which didn't exist", seq));
+        }
+        return new LearnedBounds(value.getData());
+    }
+
+    @VisibleForTesting
+    static byte[] serialize(BoundsValue value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeBoolean(value.isSnapshot());
+            out.writeInt(value.getBounds().size());
+            for (Map.Entry<String, Long> entry : value.getBounds().entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @VisibleForTesting
+    static BoundsValue deserialize(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            boolean isSnapshot = in.readBoolean();
+            int size = in.readInt();
+            ImmutableSortedMap.Builder<String, Long> bounds = ImmutableSortedMap.naturalOrder();
+            for (int i = 0; i < size; i++) {
+                bounds.put(in.readUTF(), in.readLong());
+            }
+            return new BoundsValue(isSnapshot, bounds.build());
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+    }
+
+    private final class ClientBoundStore implements TimestampBoundStore {
+        private final String client;
+
+        @GuardedBy("this")
+        private Long agreedBound;
+
+        private ClientBoundStore(String client) {
+            this.client = client;
+        }
+
+        @Override
+        public synchronized long getUpperLimit() {
+            agreedBound = readBound(client);
+            return agreedBound;
+        }
+
+        @Override
+        public synchronized void storeUpperLimit(long limit) {
+            Preconditions.checkState(agreedBound != null,
+                    "getUpperLimit() must be called before storeUpperLimit() for client %s", client);
+            storeBound(client, agreedBound, limit);
+            agreedBound = limit;
+        }
+    }
+
+    private static final class BoundUpdate {
+        private final String client;
+        private final long expectedBound;
+        private final long limit;
+
+        private volatile boolean done;
+        private volatile Throwable failure;
+
+        BoundUpdate(String client, long expectedBound, long limit) {
+            this.client = client;
+            this.expectedBound = expectedBound;
+            this.limit = limit;
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        void succeed() {
+            done = true;
+        }
+
+        void fail(Throwable cause) {
+            if (!done) {
+                failure = cause;
+                done = true;
+            }
+        }
+
+        void throwIfFailed() {
+            if (failure != null) {
+                throw Throwables.rewrapAndThrowUncheckedException(failure);
+            }
+        }
+    }
+
+    /**
+     * A value in the log: either a snapshot of every client's bound, or a delta of the bounds changed in one round.
+     */
+    @VisibleForTesting
+    static final class BoundsValue {
+        private final boolean isSnapshot;
+        private final SortedMap<String, Long> bounds;
+
+        private BoundsValue(boolean isSnapshot, SortedMap<String, Long> bounds) {
+            this.isSnapshot = isSnapshot;
+            this.bounds = bounds;
+        }
+
+        static BoundsValue snapshot(SortedMap<String, Long> bounds) {
+            return new BoundsValue(true, bounds);
+        }
+
+        static BoundsValue delta(SortedMap<String, Long> bounds) {
+            return new BoundsValue(false, bounds);
+        }
+
+        boolean isSnapshot() {
+            return isSnapshot;
+        }
+
+        SortedMap<String, Long> getBounds() {
+            return bounds;
+        }
+    }
+
+    private static final class LearnedBounds implements PaxosResponse {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] data;
+
+        LearnedBounds(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public boolean isSuccessful() {
+            return true;
+        }
+    }
+}
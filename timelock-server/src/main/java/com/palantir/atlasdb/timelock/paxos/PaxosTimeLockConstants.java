@@ -27,6 +27,9 @@ public final class PaxosTimeLockConstants {
     public static final String LEADER_PAXOS_NAMESPACE = "leaderPaxos";
     public static final String CLIENT_PAXOS_NAMESPACE = "clientPaxos";
 
+    // The shared log of client timestamp bounds is served as if it were a client with this name
+    public static final String MULTIPLEXED_CLIENT_BOUNDS_NAMESPACE = "multiplexed-client-bounds";
+
     private PaxosTimeLockConstants() {
     }
 }
@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.timelock.paxos;
 
+import java.io.File;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
@@ -30,6 +31,7 @@ import javax.net.ssl.SSLSocketFactory;
 
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
@@ -75,6 +77,7 @@ public class PaxosTimeLockServer implements TimeLockServer {
     private Optional<SSLSocketFactory> optionalSecurity = Optional.empty();
     private LeaderElectionService leaderElectionService;
     private PaxosResource paxosResource;
+    private MultiplexedTimestampBoundStore multiplexedBoundStore;
     private Semaphore sharedThreadPool = new Semaphore(-1);
     private TimeLockServerConfiguration timeLockServerConfiguration;
 
@@ -93,6 +96,11 @@ public class PaxosTimeLockServer implements TimeLockServer {
 
         registerLeaderElectionService(configuration);
 
+        checkClientPaxosLogs(configuration);
+        if (paxosConfiguration.multiplexClientTimestampBounds()) {
+            multiplexedBoundStore = createMultiplexedBoundStore();
+        }
+
         registerHealthCheck(configuration);
     }
 
@@ -132,6 +140,37 @@ public class PaxosTimeLockServer implements TimeLockServer {
                 localPaxosServices.ourLearner()));
     }
 
+    private void checkClientPaxosLogs(TimeLockServerConfiguration configuration) {
+        File paxosDataDir = paxosConfiguration.paxosDataDir();
+        if (paxosConfiguration.multiplexClientTimestampBounds()) {
+            for (String client : configuration.clients()) {
+                Preconditions.checkState(!new File(paxosDataDir, client).exists(),
+                        "Client timestamp bounds are configured to be multiplexed, but client '%s' already has its"
+                                + " own Paxos log in %s. Its bound would not be carried over.",
+                        client, paxosDataDir);
+            }
+        } else {
+            Preconditions.checkState(
+                    !new File(paxosDataDir, PaxosTimeLockConstants.MULTIPLEXED_CLIENT_BOUNDS_NAMESPACE).exists(),
+                    "Client timestamp bounds are not configured to be multiplexed, but a multiplexed Paxos log"
+                            + " exists in %s. The bounds stored in it would not be carried over.",
+                    paxosDataDir);
+        }
+    }
+
+    private MultiplexedTimestampBoundStore createMultiplexedBoundStore() {
+        String namespace = PaxosTimeLockConstants.MULTIPLEXED_CLIENT_BOUNDS_NAMESPACE;
+        paxosResource.addInstrumentedClient(namespace);
+        List<PaxosAcceptor> acceptors = createAcceptors(namespace);
+        List<PaxosLearner> learners = createLearners(namespace);
+        return new MultiplexedTimestampBoundStore(
+                createProposer(namespace, acceptors, learners),
+                paxosResource.getPaxosLearner(namespace),
+                ImmutableList.copyOf(acceptors),
+                ImmutableList.copyOf(learners),
+                paxosConfiguration.maximumWaitBeforeProposalMs());
+    }
+
     private void registerHealthCheck(TimeLockServerConfiguration configuration) {
         Set<PingableLeader> pingableLeaders = Leaders.generatePingables(
                 getAllServerPaths(configuration),
@@ -186,7 +225,9 @@ public class PaxosTimeLockServer implements TimeLockServer {
         return AwaitingLeadershipProxy.newProxyInstance(
                 RemoteLockService.class,
                 () -> createThreadPoolingLockService(slowLogTriggerMillis),
-                leaderElectionService);
+                leaderElectionService,
+                paxosConfiguration.leaderLeaseDurationMs(),
+                paxosConfiguration.leaderLeaseClockDriftMarginMs());
     }
 
     private CloseableRemoteLockService createThreadPoolingLockService(long slowLogTriggerMillis) {
@@ -235,28 +276,48 @@ public class PaxosTimeLockServer implements TimeLockServer {
     }
 
     private ManagedTimestampService createPaxosBackedTimestampService(String client) {
+        if (multiplexedBoundStore != null) {
+            return AwaitingLeadershipProxy.newProxyInstance(
+                    ManagedTimestampService.class,
+                    () -> createManagedTimestampService(multiplexedBoundStore.forClient(client), client),
+                    leaderElectionService,
+                    paxosConfiguration.leaderLeaseDurationMs(),
+                    paxosConfiguration.leaderLeaseClockDriftMarginMs());
+        }
+
         paxosResource.addInstrumentedClient(client);
+        List<PaxosAcceptor> acceptors = createAcceptors(client);
+        List<PaxosLearner> learners = createLearners(client);
+        PaxosProposer proposer = createProposer(client, acceptors, learners);
+        return AwaitingLeadershipProxy.newProxyInstance(
+                ManagedTimestampService.class,
+                () -> createManagedTimestampService(
+                        new PaxosTimestampBoundStore(
+                                proposer,
+                                paxosResource.getPaxosLearner(client),
+                                ImmutableList.copyOf(acceptors),
+                                ImmutableList.copyOf(learners),
+                                paxosConfiguration.maximumWaitBeforeProposalMs()),
+                        client),
+                leaderElectionService,
+                paxosConfiguration.leaderLeaseDurationMs(),
+                paxosConfiguration.leaderLeaseClockDriftMarginMs());
+    }
 
+    /**
+     * Creates a proposer for the Paxos log of the given namespace, which is either a client or the shared log of
+     * client bounds, once our learner has caught up with the cluster.
+     */
+    private PaxosProposer createProposer(
+            String namespace,
+            List<PaxosAcceptor> acceptors,
+            List<PaxosLearner> learners) {
         ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
-                .setNameFormat("atlas-consensus-" + client + "-%d")
+                .setNameFormat("atlas-consensus-" + namespace + "-%d")
                 .setDaemon(true)
                 .build());
 
-        Set<String> namespacedUris = PaxosTimeLockUriUtils.getClientPaxosUris(remoteServers, client);
-        List<PaxosAcceptor> acceptors = Leaders.createProxyAndLocalList(
-                paxosResource.getPaxosAcceptor(client),
-                namespacedUris,
-                optionalSecurity,
-                PaxosAcceptor.class,
-                "timestamp-bound-store." + client);
-
-        PaxosLearner ourLearner = paxosResource.getPaxosLearner(client);
-        List<PaxosLearner> learners = Leaders.createProxyAndLocalList(
-                ourLearner,
-                namespacedUris,
-                optionalSecurity,
-                PaxosLearner.class,
-                "timestamp-bound-store." + client);
+        PaxosLearner ourLearner = paxosResource.getPaxosLearner(namespace);
 
         PaxosProposer proposer = instrument(PaxosProposer.class,
                 PaxosProposerImpl.newProposer(
@@ -266,29 +327,32 @@ public class PaxosTimeLockServer implements TimeLockServer {
                         getQuorumSize(acceptors),
                         UUID.randomUUID(),
                         executor),
-                client);
+                namespace);
 
         PaxosSynchronizer.synchronizeLearner(ourLearner, learners);
+        return proposer;
+    }
 
-        return AwaitingLeadershipProxy.newProxyInstance(
-                ManagedTimestampService.class,
-                () -> createManagedPaxosTimestampService(proposer, client, acceptors, learners),
-                leaderElectionService);
+    private List<PaxosAcceptor> createAcceptors(String namespace) {
+        return Leaders.createProxyAndLocalList(
+                paxosResource.getPaxosAcceptor(namespace),
+                PaxosTimeLockUriUtils.getClientPaxosUris(remoteServers, namespace),
+                optionalSecurity,
+                PaxosAcceptor.class,
+                "timestamp-bound-store." + namespace);
     }
 
-    private ManagedTimestampService createManagedPaxosTimestampService(
-            PaxosProposer proposer,
-            String client,
-            List<PaxosAcceptor> acceptors,
-            List<PaxosLearner> learners) {
-        TimestampBoundStore boundStore = instrument(TimestampBoundStore.class,
-                new PaxosTimestampBoundStore(
-                        proposer,
-                        paxosResource.getPaxosLearner(client),
-                        ImmutableList.copyOf(acceptors),
-                        ImmutableList.copyOf(learners),
-                        paxosConfiguration.maximumWaitBeforeProposalMs()),
-                client);
+    private List<PaxosLearner> createLearners(String namespace) {
+        return Leaders.createProxyAndLocalList(
+                paxosResource.getPaxosLearner(namespace),
+                PaxosTimeLockUriUtils.getClientPaxosUris(remoteServers, namespace),
+                optionalSecurity,
+                PaxosLearner.class,
+                "timestamp-bound-store." + namespace);
+    }
+
+    private ManagedTimestampService createManagedTimestampService(TimestampBoundStore rawBoundStore, String client) {
+        TimestampBoundStore boundStore = instrument(TimestampBoundStore.class, rawBoundStore, client);
         PersistentTimestampService persistentTimestampService = PersistentTimestampService.create(boundStore);
         return new DelegatingManagedTimestampService(persistentTimestampService, persistentTimestampService);
     }
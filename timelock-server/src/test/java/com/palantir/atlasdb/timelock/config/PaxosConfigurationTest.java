@@ -116,4 +116,27 @@ public class PaxosConfigurationTest {
                 .leaderPingResponseWaitMs(NEGATIVE_LONG)
                 ::build).isInstanceOf(IllegalArgumentException.class);
     }
+
+    @Test
+    public void canSpecifyLeaderLeaseWithDefaultClockDriftMargin() {
+        ImmutablePaxosConfiguration configuration = ImmutablePaxosConfiguration.builder()
+                .leaderLeaseDurationMs(POSITIVE_LONG)
+                .build();
+        assertThat(configuration.leaderLeaseClockDriftMarginMs()).isEqualTo(POSITIVE_LONG / 10);
+    }
+
+    @Test
+    public void throwOnNegativeLeaderLeaseDuration() {
+        assertThatThrownBy(ImmutablePaxosConfiguration.builder()
+                .leaderLeaseDurationMs(NEGATIVE_LONG)
+                ::build).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void throwOnClockDriftMarginCoveringTheWholeLease() {
+        assertThatThrownBy(ImmutablePaxosConfiguration.builder()
+                .leaderLeaseDurationMs(POSITIVE_LONG)
+                .leaderLeaseClockDriftMarginMs(POSITIVE_LONG)
+                ::build).isInstanceOf(IllegalArgumentException.class);
+    }
 }
@@ -64,6 +64,14 @@ public class TimeLockServerConfigurationTest {
                 .isInstanceOf(IllegalStateException.class);
     }
 
+    @Test
+    public void shouldRejectClientsConflictingWithTheMultiplexedBoundsLog() {
+        assertThatThrownBy(() -> createSimpleConfig(
+                CLUSTER,
+                ImmutableSet.of(PaxosTimeLockConstants.MULTIPLEXED_CLIENT_BOUNDS_NAMESPACE)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
     @Test
     public void shouldRejectClientsWithEmptyName() {
         assertThatThrownBy(() -> createSimpleConfig(CLUSTER, ImmutableSet.of("")))
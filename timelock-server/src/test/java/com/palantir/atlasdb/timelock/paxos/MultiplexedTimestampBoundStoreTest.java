@@ -0,0 +1,315 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.leader.NotCurrentLeaderException;
+import com.palantir.paxos.PaxosAcceptor;
+import com.palantir.paxos.PaxosAcceptorImpl;
+import com.palantir.paxos.PaxosLearner;
+import com.palantir.paxos.PaxosLearnerImpl;
+import com.palantir.paxos.PaxosProposer;
+import com.palantir.paxos.PaxosProposerImpl;
+import com.palantir.paxos.PaxosRoundFailureException;
+import com.palantir.remoting2.tracing.Tracers;
+import com.palantir.timestamp.TimestampBoundStore;
+
+public class MultiplexedTimestampBoundStoreTest {
+    private static final int NUM_NODES = 3;
+    private static final int NUM_CLIENTS = 50;
+    private static final int SNAPSHOT_INTERVAL = 5;
+
+    private static final String LOG_DIR = "testlogs/";
+    private static final String LEARNER_DIR_PREFIX = LOG_DIR + "learner/";
+    private static final String ACCEPTOR_DIR_PREFIX = LOG_DIR + "acceptor/";
+    private static final String CLIENT_1 = "client-1";
+    private static final String CLIENT_2 = "client-2";
+    private static final long TIMESTAMP_1 = 100000;
+    private static final long TIMESTAMP_2 = 200000;
+
+    private final ExecutorService executor = Tracers.wrap(PTExecutors.newCachedThreadPool());
+    private final List<PaxosAcceptor> acceptors = Lists.newArrayList();
+    private final List<PaxosLearner> learners = Lists.newArrayList();
+
+    private MultiplexedTimestampBoundStore store;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < NUM_NODES; i++) {
+            acceptors.add(PaxosAcceptorImpl.newAcceptor(ACCEPTOR_DIR_PREFIX + i));
+            learners.add(PaxosLearnerImpl.newLearner(LEARNER_DIR_PREFIX + i));
+        }
+        store = createStore(0, createPaxosProposer(0));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException, IOException {
+        try {
+            executor.shutdownNow();
+            boolean terminated = executor.awaitTermination(10, TimeUnit.SECONDS);
+            if (!terminated) {
+                throw new IllegalStateException(
+                        "Some threads are still hanging around! Can't proceed or they might corrupt future tests.");
+            }
+        } finally {
+            FileUtils.deleteDirectory(new File(LOG_DIR));
+        }
+    }
+
+    @Test
+    public void boundsBeginFromZero() {
+        assertThat(store.forClient(CLIENT_1).getUpperLimit()).isEqualTo(0L);
+    }
+
+    @Test
+    public void storesBoundsForEachClientIndependently() {
+        TimestampBoundStore client1 = store.forClient(CLIENT_1);
+        TimestampBoundStore client2 = store.forClient(CLIENT_2);
+        client1.getUpperLimit();
+        client2.getUpperLimit();
+
+        client1.storeUpperLimit(TIMESTAMP_1);
+        client2.storeUpperLimit(TIMESTAMP_2);
+
+        MultiplexedTimestampBoundStore otherStore = createStore(1, createPaxosProposer(1));
+        assertThat(otherStore.forClient(CLIENT_1).getUpperLimit()).isEqualTo(TIMESTAMP_1);
+        assertThat(otherStore.forClient(CLIENT_2).getUpperLimit()).isEqualTo(TIMESTAMP_2);
+    }
+
+    @Test
+    public void mustReadTheBoundBeforeStoringOne() {
+        assertThatThrownBy(() -> store.forClient(CLIENT_1).storeUpperLimit(TIMESTAMP_1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void throwsIfStoringLimitLessThanUpperLimit() {
+        TimestampBoundStore client = store.forClient(CLIENT_1);
+        client.getUpperLimit();
+        client.storeUpperLimit(TIMESTAMP_2);
+        assertThatThrownBy(() -> client.storeUpperLimit(TIMESTAMP_1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void throwsIfClientBoundChangedUnderUs() {
+        TimestampBoundStore client = store.forClient(CLIENT_1);
+        client.getUpperLimit();
+
+        TimestampBoundStore otherClient = createStore(1, createPaxosProposer(1)).forClient(CLIENT_1);
+        otherClient.getUpperLimit();
+        otherClient.storeUpperLimit(TIMESTAMP_1);
+
+        assertThatThrownBy(() -> client.storeUpperLimit(TIMESTAMP_2)).isInstanceOf(NotCurrentLeaderException.class);
+        assertThatThrownBy(() -> client.storeUpperLimit(TIMESTAMP_2)).isInstanceOf(NotCurrentLeaderException.class);
+    }
+
+    @Test
+    public void recoversFromUpdatesToOtherClientsByAnotherProposer() {
+        TimestampBoundStore client1 = store.forClient(CLIENT_1);
+        client1.getUpperLimit();
+
+        TimestampBoundStore otherClient2 = createStore(1, createPaxosProposer(1)).forClient(CLIENT_2);
+        otherClient2.getUpperLimit();
+        otherClient2.storeUpperLimit(TIMESTAMP_2);
+
+        assertThatThrownBy(() -> client1.storeUpperLimit(TIMESTAMP_1)).isInstanceOf(NotCurrentLeaderException.class);
+        client1.storeUpperLimit(TIMESTAMP_1);
+
+        MultiplexedTimestampBoundStore otherStore = createStore(2, createPaxosProposer(2));
+        assertThat(otherStore.forClient(CLIENT_1).getUpperLimit()).isEqualTo(TIMESTAMP_1);
+        assertThat(otherStore.forClient(CLIENT_2).getUpperLimit()).isEqualTo(TIMESTAMP_2);
+    }
+
+    @Test
+    public void batchesConcurrentUpdatesIntoFewerRounds() throws Exception {
+        PaxosProposer proposer = spy(new SlowPaxosProposer(createPaxosProposer(0)));
+        store = createStore(0, proposer);
+        List<TimestampBoundStore> clients = Lists.newArrayList();
+        for (int i = 0; i < NUM_CLIENTS; i++) {
+            TimestampBoundStore client = store.forClient("client-" + i);
+            client.getUpperLimit();
+            clients.add(client);
+        }
+
+        List<Future<?>> futures = Lists.newArrayList();
+        for (TimestampBoundStore client : clients) {
+            futures.add(executor.submit(() -> client.storeUpperLimit(TIMESTAMP_1)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        verify(proposer, atMost(NUM_CLIENTS / 2)).propose(anyLong(), anyObject());
+        MultiplexedTimestampBoundStore otherStore = createStore(1, createPaxosProposer(1));
+        for (int i = 0; i < NUM_CLIENTS; i++) {
+            assertThat(otherStore.forClient("client-" + i).getUpperLimit()).isEqualTo(TIMESTAMP_1);
+        }
+    }
+
+    @Test
+    public void proposesOnlyTheChangedBoundsBetweenSnapshots() throws Exception {
+        PaxosProposer proposer = spy(createPaxosProposer(0));
+        store = createStore(0, proposer, SNAPSHOT_INTERVAL);
+        TimestampBoundStore client1 = store.forClient(CLIENT_1);
+        TimestampBoundStore client2 = store.forClient(CLIENT_2);
+        client1.getUpperLimit();
+        client2.getUpperLimit();
+
+        client1.storeUpperLimit(TIMESTAMP_1);
+        client2.storeUpperLimit(TIMESTAMP_2);
+
+        ArgumentCaptor<byte[]> values = ArgumentCaptor.forClass(byte[].class);
+        verify(proposer, times(2)).propose(anyLong(), values.capture());
+        MultiplexedTimestampBoundStore.BoundsValue lastValue =
+                MultiplexedTimestampBoundStore.deserialize(values.getValue());
+        assertThat(lastValue.isSnapshot()).isFalse();
+        assertThat(lastValue.getBounds()).isEqualTo(ImmutableSortedMap.of(CLIENT_2, TIMESTAMP_2));
+    }
+
+    @Test
+    public void proposesASnapshotOncePerInterval() throws Exception {
+        PaxosProposer proposer = spy(createPaxosProposer(0));
+        store = createStore(0, proposer, SNAPSHOT_INTERVAL);
+        TimestampBoundStore client1 = store.forClient(CLIENT_1);
+        TimestampBoundStore client2 = store.forClient(CLIENT_2);
+        client1.getUpperLimit();
+        client2.getUpperLimit();
+        client2.storeUpperLimit(TIMESTAMP_2);
+
+        for (int i = 1; i < SNAPSHOT_INTERVAL; i++) {
+            client1.storeUpperLimit(TIMESTAMP_1 + i);
+        }
+
+        ArgumentCaptor<byte[]> values = ArgumentCaptor.forClass(byte[].class);
+        verify(proposer, times(SNAPSHOT_INTERVAL)).propose(anyLong(), values.capture());
+        MultiplexedTimestampBoundStore.BoundsValue lastValue =
+                MultiplexedTimestampBoundStore.deserialize(values.getValue());
+        assertThat(lastValue.isSnapshot()).isTrue();
+        assertThat(lastValue.getBounds()).isEqualTo(ImmutableSortedMap.of(
+                CLIENT_1, TIMESTAMP_1 + SNAPSHOT_INTERVAL - 1,
+                CLIENT_2, TIMESTAMP_2));
+    }
+
+    @Test
+    public void recoversBoundsFromTheLatestSnapshotAndLaterDeltas() {
+        store = createStore(0, createPaxosProposer(0), SNAPSHOT_INTERVAL);
+        TimestampBoundStore client1 = store.forClient(CLIENT_1);
+        TimestampBoundStore client2 = store.forClient(CLIENT_2);
+        client1.getUpperLimit();
+        client2.getUpperLimit();
+        client2.storeUpperLimit(TIMESTAMP_2);
+
+        int rounds = 2 * SNAPSHOT_INTERVAL + 1;
+        for (int i = 1; i < rounds; i++) {
+            client1.storeUpperLimit(TIMESTAMP_1 + i);
+        }
+
+        MultiplexedTimestampBoundStore otherStore = createStore(1, createPaxosProposer(1), SNAPSHOT_INTERVAL);
+        assertThat(otherStore.forClient(CLIENT_1).getUpperLimit()).isEqualTo(TIMESTAMP_1 + rounds - 1);
+        assertThat(otherStore.forClient(CLIENT_2).getUpperLimit()).isEqualTo(TIMESTAMP_2);
+    }
+
+    @Test
+    public void serializesBounds() {
+        ImmutableSortedMap<String, Long> bounds = ImmutableSortedMap.of(CLIENT_1, TIMESTAMP_1, CLIENT_2, TIMESTAMP_2);
+        MultiplexedTimestampBoundStore.BoundsValue value = MultiplexedTimestampBoundStore.deserialize(
+                MultiplexedTimestampBoundStore.serialize(MultiplexedTimestampBoundStore.BoundsValue.delta(bounds)));
+        assertThat(value.isSnapshot()).isFalse();
+        assertThat(value.getBounds()).isEqualTo(bounds);
+    }
+
+    private MultiplexedTimestampBoundStore createStore(int nodeIndex, PaxosProposer proposer) {
+        return new MultiplexedTimestampBoundStore(
+                proposer,
+                learners.get(nodeIndex),
+                ImmutableList.copyOf(acceptors),
+                ImmutableList.copyOf(learners),
+                1000L);
+    }
+
+    private MultiplexedTimestampBoundStore createStore(int nodeIndex, PaxosProposer proposer, int snapshotInterval) {
+        return new MultiplexedTimestampBoundStore(
+                proposer,
+                learners.get(nodeIndex),
+                ImmutableList.copyOf(acceptors),
+                ImmutableList.copyOf(learners),
+                1000L,
+                snapshotInterval);
+    }
+
+    private PaxosProposer createPaxosProposer(int nodeIndex) {
+        return PaxosProposerImpl.newProposer(
+                learners.get(nodeIndex),
+                ImmutableList.copyOf(acceptors),
+                ImmutableList.copyOf(learners),
+                NUM_NODES / 2 + 1,
+                UUID.randomUUID(),
+                executor);
+    }
+
+    private static class SlowPaxosProposer implements PaxosProposer {
+        private final PaxosProposer delegate;
+
+        SlowPaxosProposer(PaxosProposer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public byte[] propose(long seq, @Nullable byte[] proposalValue) throws PaxosRoundFailureException {
+            Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+            return delegate.propose(seq, proposalValue);
+        }
+
+        @Override
+        public int getQuorumSize() {
+            return delegate.getQuorumSize();
+        }
+
+        @Override
+        public String getUuid() {
+            return delegate.getUuid();
+        }
+    }
+}
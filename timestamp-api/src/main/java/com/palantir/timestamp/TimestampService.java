@@ -29,7 +29,7 @@ public interface TimestampService {
      */
     @POST // This has to be POST because we can't allow caching.
     @Path("fresh-timestamp")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, "application/x-jackson-smile"})
     long getFreshTimestamp();
 
     /**
@@ -38,6 +38,6 @@ public interface TimestampService {
      */
     @POST // This has to be POST because we can't allow caching.
     @Path("fresh-timestamps")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, "application/x-jackson-smile"})
     TimestampRange getFreshTimestamps(@QueryParam("number") int numTimestampsRequested);
 }
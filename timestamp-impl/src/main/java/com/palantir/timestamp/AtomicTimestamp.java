@@ -32,6 +32,10 @@ public class AtomicTimestamp {
         return TimestampRange.createInclusiveRange(lowerBound, upperBound);
     }
 
+    public long incrementAndGet() {
+        return value.incrementAndGet();
+    }
+
     public void increaseTo(long target) {
         value.updateAndGet(current -> Math.max(current, target));
     }
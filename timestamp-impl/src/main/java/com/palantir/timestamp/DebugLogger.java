@@ -36,8 +36,16 @@ public final class DebugLogger {
     }
 
     public static void handedOutTimestamps(TimestampRange range) {
-        long count = range.getUpperBound() - range.getLowerBound() + 1L;
-        logger.trace("Handing out {} timestamps, taking us to {}.", count, range.getUpperBound());
+        if (logger.isTraceEnabled()) {
+            long count = range.getUpperBound() - range.getLowerBound() + 1L;
+            logger.trace("Handing out {} timestamps, taking us to {}.", count, range.getUpperBound());
+        }
+    }
+
+    public static void handedOutTimestamp(long timestamp) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("Handing out 1 timestamps, taking us to {}.", timestamp);
+        }
     }
 
     public static void createdPersistentTimestamp() {
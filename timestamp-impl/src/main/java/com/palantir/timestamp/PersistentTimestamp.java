@@ -35,6 +35,16 @@ public class PersistentTimestamp {
         return range;
     }
 
+    /**
+     * Hands out a single timestamp, like {@code incrementBy(1).getLowerBound()} but without allocating a range.
+     * Unless the timestamp passes the upper limit, this is one atomic increment and a volatile read.
+     */
+    public long incrementAndGet() {
+        long freshTimestamp = timestamp.incrementAndGet();
+        upperLimit.increaseToAtLeast(freshTimestamp);
+        return freshTimestamp;
+    }
+
     public void increaseTo(long newTimestamp) {
         timestamp.increaseTo(newTimestamp);
         upperLimit.increaseToAtLeast(newTimestamp);
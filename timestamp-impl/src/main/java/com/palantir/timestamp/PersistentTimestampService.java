@@ -17,6 +17,7 @@ package com.palantir.timestamp;
 
 import javax.annotation.concurrent.ThreadSafe;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Preconditions;
 
 @ThreadSafe
@@ -37,13 +38,28 @@ public class PersistentTimestampService implements TimestampService, TimestampMa
         return new PersistentTimestampService(timestamp);
     }
 
+    /**
+     * Creates a timestamp service whose upper limit is reserved in proportion to the rate at which timestamps are
+     * handed out, and extended in the background before it runs out. See
+     * {@link PersistentUpperLimit#createAdaptive(TimestampBoundStore, MetricRegistry)}.
+     */
+    public static PersistentTimestampService createAdaptive(TimestampBoundStore store, MetricRegistry metricRegistry) {
+        ErrorCheckingTimestampBoundStore errorCheckingStore = new ErrorCheckingTimestampBoundStore(store);
+        long latestTimestamp = errorCheckingStore.getUpperLimit();
+        PersistentUpperLimit upperLimit = PersistentUpperLimit.createAdaptive(errorCheckingStore, metricRegistry);
+        PersistentTimestamp timestamp = new PersistentTimestamp(upperLimit, latestTimestamp);
+        return new PersistentTimestampService(timestamp);
+    }
+
     public PersistentTimestampService(PersistentTimestamp timestamp) {
         this.timestamp = timestamp;
     }
 
     @Override
     public long getFreshTimestamp() {
-        return getFreshTimestamps(1).getLowerBound();
+        long freshTimestamp = timestamp.incrementAndGet();
+        DebugLogger.handedOutTimestamp(freshTimestamp);
+        return freshTimestamp;
     }
 
     @Override
@@ -15,39 +15,143 @@
  */
 package com.palantir.timestamp;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 
 public class PersistentUpperLimit {
+    private static final Logger log = LoggerFactory.getLogger(PersistentUpperLimit.class);
 
     @VisibleForTesting
     static final long BUFFER = 1_000_000;
+    private static final long MAX_ADAPTIVE_BUFFER = 100 * BUFFER;
+    private static final long ADAPTIVE_BUFFER_TARGET_MILLIS = 60_000;
+
+    private static final long EXTENSION_THREAD_KEEP_ALIVE_SECONDS = 60;
 
     private volatile long currentLimit;
+    private volatile long earlyExtensionThreshold = Long.MAX_VALUE;
     private final TimestampBoundStore store;
+    private final TimestampReservationSizer reservationSizer;
+    private final Executor extensionExecutor;
+    private final AtomicBoolean earlyExtensionScheduled = new AtomicBoolean();
+    private final Meter blockingExtensions;
+    private final Meter earlyExtensions;
 
     public PersistentUpperLimit(TimestampBoundStore boundStore) {
+        this(boundStore, TimestampReservationSizer.fixed(BUFFER), MoreExecutors.directExecutor(), new Meter(),
+                new Meter());
+    }
+
+    /**
+     * Creates an upper limit that sizes each reservation from the rate at which timestamps are handed out, and
+     * stores the next one in the background once half of the current reservation has been handed out. Callers then
+     * only wait on the store when timestamps are handed out faster than it can be extended; how often that happens
+     * is recorded in the {@code blockingExtensions} meter.
+     */
+    public static PersistentUpperLimit createAdaptive(TimestampBoundStore boundStore, MetricRegistry metricRegistry) {
+        return new PersistentUpperLimit(
+                boundStore,
+                TimestampReservationSizer.adaptive(BUFFER, MAX_ADAPTIVE_BUFFER, ADAPTIVE_BUFFER_TARGET_MILLIS,
+                        System::currentTimeMillis),
+                newExtensionExecutor(),
+                metricRegistry.meter(MetricRegistry.name(PersistentUpperLimit.class, "blockingExtensions")),
+                metricRegistry.meter(MetricRegistry.name(PersistentUpperLimit.class, "earlyExtensions")));
+    }
+
+    @VisibleForTesting
+    PersistentUpperLimit(
+            TimestampBoundStore boundStore,
+            TimestampReservationSizer reservationSizer,
+            Executor extensionExecutor,
+            Meter blockingExtensions,
+            Meter earlyExtensions) {
         this.store = boundStore;
+        this.reservationSizer = reservationSizer;
+        this.extensionExecutor = extensionExecutor;
+        this.blockingExtensions = blockingExtensions;
+        this.earlyExtensions = earlyExtensions;
         this.currentLimit = boundStore.getUpperLimit();
     }
 
+    /**
+     * At most one early extension of a limit is pending at a time, so each limit gets a single daemon thread, which
+     * exits once it has been idle for a while.
+     */
+    private static Executor newExtensionExecutor() {
+        return PTExecutors.newThreadPoolExecutor(0, 1, EXTENSION_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("timestamp-upper-limit-extension", true));
+    }
+
     public long get() {
         return currentLimit;
     }
 
     public void increaseToAtLeast(long newLimit) {
         if (newLimit > currentLimit) {
-            updateLimit(newLimit);
+            if (updateLimit(newLimit, newLimit)) {
+                blockingExtensions.mark();
+            }
+        } else if (newLimit >= earlyExtensionThreshold) {
+            scheduleEarlyExtension(newLimit);
         }
     }
 
-    private synchronized void updateLimit(long newLimit) {
-        if (currentLimit >= newLimit) {
-            return;
+    private synchronized boolean updateLimit(long requiredLimit, long issuedUpTo) {
+        if (currentLimit >= requiredLimit) {
+            return false;
         }
 
-        long newLimitWithBuffer = newLimit + BUFFER;
+        long reservation = reservationSizer.nextReservation(issuedUpTo);
+        long newLimitWithBuffer = issuedUpTo + reservation;
+        if (newLimitWithBuffer <= currentLimit) {
+            return false;
+        }
         storeUpperLimit(newLimitWithBuffer);
         currentLimit = newLimitWithBuffer;
+        if (reservationSizer.isAdaptive()) {
+            earlyExtensionThreshold = newLimitWithBuffer - reservation / 2;
+        }
+        return true;
+    }
+
+    private void scheduleEarlyExtension(long issuedUpTo) {
+        if (!earlyExtensionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long limitToExtend = currentLimit;
+        try {
+            extensionExecutor.execute(() -> extendEarly(limitToExtend, issuedUpTo));
+        } catch (RejectedExecutionException e) {
+            earlyExtensionScheduled.set(false);
+            log.warn("Could not schedule an early extension of the timestamp upper limit", e);
+        }
+    }
+
+    private void extendEarly(long limitToExtend, long issuedUpTo) {
+        try {
+            if (updateLimit(limitToExtend + 1, issuedUpTo)) {
+                earlyExtensions.mark();
+            }
+        } catch (Throwable t) {
+            // Leave extensions to the callers, who will see the failure.
+            earlyExtensionThreshold = Long.MAX_VALUE;
+            log.warn("Failed to extend the timestamp upper limit ahead of time", t);
+        } finally {
+            earlyExtensionScheduled.set(false);
+        }
     }
 
     private void storeUpperLimit(long upperLimit) {
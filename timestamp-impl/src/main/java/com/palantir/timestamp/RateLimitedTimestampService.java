@@ -30,8 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.palantir.common.base.Throwables;
-import com.palantir.common.proxy.TimingProxy;
 import com.palantir.util.jmx.OperationTimer;
+import com.palantir.util.jmx.OperationTimer.TimingState;
 import com.palantir.util.timer.LoggingOperationTimer;
 
 /**
@@ -57,7 +57,7 @@ public class RateLimitedTimestampService implements TimestampService {
             new AtomicReference<TimestampHolder>();
 
     public RateLimitedTimestampService(TimestampService delegate, long minTimeBetweenRequestsMillis) {
-        this.delegate = TimingProxy.newProxyInstance(TimestampService.class, delegate, timer);
+        this.delegate = delegate;
         this.minTimeBetweenRequestsMillis = minTimeBetweenRequestsMillis;
     }
 
@@ -142,7 +142,17 @@ public class RateLimitedTimestampService implements TimestampService {
 
     @Override
     public TimestampRange getFreshTimestamps(int numTimestampsRequested) {
-        return delegate.getFreshTimestamps(numTimestampsRequested);
+        return getFreshTimestampsFromDelegate(numTimestampsRequested);
+    }
+
+    // timed here rather than through a TimingProxy, to avoid reflection on each call
+    private TimestampRange getFreshTimestampsFromDelegate(int numTimestamps) {
+        TimingState timingState = timer.begin("getFreshTimestamps");
+        try {
+            return delegate.getFreshTimestamps(numTimestamps);
+        } finally {
+            timingState.end();
+        }
     }
 
     private synchronized boolean populateBatchAndInstallNewBatch(TimestampHolder batch) {
@@ -164,7 +174,7 @@ public class RateLimitedTimestampService implements TimestampService {
             // for "batch" can come in. We can now safely populate the batch
             // with fresh timestamps without violating any freshness guarantees.
             // TODO: probably need to adjust this formula
-            TimestampRange freshTimestamps = delegate.getFreshTimestamps(numTimestampsToGet);
+            TimestampRange freshTimestamps = getFreshTimestampsFromDelegate(numTimestampsToGet);
 
             batch.populate(freshTimestamps);
         } catch (Throwable t) {
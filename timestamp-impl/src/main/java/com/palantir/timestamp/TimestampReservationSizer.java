@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.timestamp;
+
+import java.util.function.LongSupplier;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Decides how far past the timestamps handed out so far to reserve the next upper limit. A fixed sizer always
+ * reserves the same buffer; an adaptive sizer reserves roughly {@code targetMillis} worth of timestamps at the
+ * issuance rate observed between previous reservations, so that busy services go to the store less often.
+ */
+@NotThreadSafe
+final class TimestampReservationSizer {
+    // weight given to the most recent rate sample
+    private static final double SMOOTHING = 0.5;
+
+    private final long minReservation;
+    private final long maxReservation;
+    private final long targetMillis;
+    private final LongSupplier clock;
+
+    private long lastIssuedUpTo = -1L;
+    private long lastReservationMillis;
+    private double timestampsPerMilli;
+
+    private TimestampReservationSizer(long minReservation, long maxReservation, long targetMillis, LongSupplier clock) {
+        this.minReservation = minReservation;
+        this.maxReservation = maxReservation;
+        this.targetMillis = targetMillis;
+        this.clock = clock;
+    }
+
+    static TimestampReservationSizer fixed(long reservation) {
+        return new TimestampReservationSizer(reservation, reservation, 0L, () -> 0L);
+    }
+
+    static TimestampReservationSizer adaptive(
+            long minReservation,
+            long maxReservation,
+            long targetMillis,
+            LongSupplier clock) {
+        return new TimestampReservationSizer(minReservation, maxReservation, targetMillis, clock);
+    }
+
+    boolean isAdaptive() {
+        return minReservation != maxReservation;
+    }
+
+    /**
+     * Returns the number of timestamps to reserve past {@code issuedUpTo}, the highest timestamp the new limit
+     * must cover, and records it as a sample of the issuance rate.
+     */
+    long nextReservation(long issuedUpTo) {
+        if (!isAdaptive()) {
+            return minReservation;
+        }
+
+        long now = clock.getAsLong();
+        if (lastIssuedUpTo >= 0 && now > lastReservationMillis && issuedUpTo > lastIssuedUpTo) {
+            double sample = (double) (issuedUpTo - lastIssuedUpTo) / (now - lastReservationMillis);
+            timestampsPerMilli = timestampsPerMilli == 0
+                    ? sample
+                    : SMOOTHING * sample + (1 - SMOOTHING) * timestampsPerMilli;
+        }
+        if (now > lastReservationMillis || lastIssuedUpTo < 0) {
+            lastIssuedUpTo = issuedUpTo;
+            lastReservationMillis = now;
+        }
+
+        double reservation = timestampsPerMilli * targetMillis;
+        return (long) Math.max(minReservation, Math.min(maxReservation, reservation));
+    }
+}
@@ -55,7 +55,19 @@ public class AtomicTimestampTests {
         assertThat(timestamp.incrementBy(1).getUpperBound(), is(INITIAL_TIMESTAMP + 101));
     }
 
-    private void waitForExecutorToFinish() throws InterruptedException {
+    @Test
+    public void handleConcurrentlyIncrementingTheValueAndHandingOutRanges() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> timestamp.incrementAndGet());
+            executor.submit(() -> timestamp.incrementBy(2));
+        }
+
+        waitForExecutorToFinish();
+
+        assertThat(timestamp.incrementAndGet(), is(INITIAL_TIMESTAMP + 301));
+    }
+
+        private void waitForExecutorToFinish() throws InterruptedException {
         executor.shutdown();
         executor.awaitTermination(10, TimeUnit.SECONDS);
     }
@@ -21,6 +21,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,7 +36,6 @@ public class PersistentTimestampServiceMockingTest {
 
     private static final long INITIAL_TIMESTAMP = 12345L;
     private static final long TIMESTAMP = 100 * 1000;
-    private static final TimestampRange SINGLE_TIMESTAMP_RANGE = TimestampRange.createInclusiveRange(TIMESTAMP, TIMESTAMP);
 
     private static final TimestampRange RANGE = TimestampRange.createInclusiveRange(100, 200);
 
@@ -73,9 +73,11 @@ public class PersistentTimestampServiceMockingTest {
 
     @Test
     public void shouldRequestOnlyRequestASingleTimestampIfOnGetFreshTimestamp() {
-        when(timestamp.incrementBy(1)).thenReturn(SINGLE_TIMESTAMP_RANGE);
+        when(timestamp.incrementAndGet()).thenReturn(TIMESTAMP);
 
         assertThat(timestampService.getFreshTimestamp(), is(TIMESTAMP));
+        verify(timestamp).incrementAndGet();
+        verify(timestamp, never()).incrementBy(anyLong());
     }
 
     @Test(expected = IllegalArgumentException.class)
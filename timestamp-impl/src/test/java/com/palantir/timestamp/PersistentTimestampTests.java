@@ -67,6 +67,14 @@ public class PersistentTimestampTests {
         verify(upperLimit).increaseToAtLeast(UPPER_LIMIT + 10);
     }
 
+    @Test public void
+    shouldHandOutSingleTimestampsAfterRanges() {
+        TimestampRange range = timestamp.incrementBy(10);
+
+        assertThat(timestamp.incrementAndGet(), is(range.getUpperBound() + 1));
+        verify(upperLimit).increaseToAtLeast(range.getUpperBound() + 1);
+    }
+
     @Test public void
     canFastForwardToANewMinimumTimestamp() {
         long newMinimum = 2 * UPPER_LIMIT;
@@ -18,17 +18,23 @@ package com.palantir.timestamp;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.CountDownLatch;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import com.codahale.metrics.Meter;
+import com.google.common.util.concurrent.MoreExecutors;
+
 public class PersistentUpperLimitTest {
     private static final long TIMESTAMP = 12345L;
     private static final long INITIAL_UPPER_LIMIT = 10L;
@@ -40,6 +46,8 @@ public class PersistentUpperLimitTest {
     @Rule
     public ExpectedException exception = ExpectedException.none();
     private final TimestampAllocationFailures allocationFailures = mock(TimestampAllocationFailures.class);
+    private final Meter blockingExtensions = new Meter();
+    private final Meter earlyExtensions = new Meter();
 
     @Before
     public void setup() {
@@ -112,4 +120,73 @@ public class PersistentUpperLimitTest {
         assertThat(upperLimit.get(), is(INITIAL_UPPER_LIMIT));
     }
 
+    @Test
+    public void adaptiveLimitExtendsInTheBackgroundOnceHalfOfTheReservationIsHandedOut() {
+        PersistentUpperLimit adaptiveLimit = createAdaptiveUpperLimit();
+        adaptiveLimit.increaseToAtLeast(TIMESTAMP);
+        assertThat(adaptiveLimit.get(), is(TIMESTAMP + BUFFER));
+
+        adaptiveLimit.increaseToAtLeast(TIMESTAMP + BUFFER / 2 - 1);
+        assertThat(adaptiveLimit.get(), is(TIMESTAMP + BUFFER));
+
+        adaptiveLimit.increaseToAtLeast(TIMESTAMP + BUFFER / 2);
+        assertThat(adaptiveLimit.get(), is(TIMESTAMP + BUFFER / 2 + BUFFER));
+        assertThat(blockingExtensions.getCount(), is(1L));
+        assertThat(earlyExtensions.getCount(), is(1L));
+    }
+
+    @Test
+    public void adaptiveLimitLeavesExtensionsToCallersAfterABackgroundExtensionFails() {
+        PersistentUpperLimit adaptiveLimit = createAdaptiveUpperLimit();
+        adaptiveLimit.increaseToAtLeast(TIMESTAMP);
+        doThrow(RuntimeException.class).when(boundStore).storeUpperLimit(anyLong());
+
+        adaptiveLimit.increaseToAtLeast(TIMESTAMP + BUFFER / 2);
+        adaptiveLimit.increaseToAtLeast(TIMESTAMP + BUFFER / 2 + 1);
+
+        verify(boundStore, times(2)).storeUpperLimit(anyLong());
+        assertThat(adaptiveLimit.get(), is(TIMESTAMP + BUFFER));
+        assertThat(earlyExtensions.getCount(), is(0L));
+    }
+
+    @Test
+    public void onlyMarksABlockingExtensionForTheCallerThatStoresTheNewLimit() throws InterruptedException {
+        CountDownLatch storing = new CountDownLatch(1);
+        CountDownLatch finishStoring = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            storing.countDown();
+            finishStoring.await();
+            return null;
+        }).when(boundStore).storeUpperLimit(anyLong());
+        PersistentUpperLimit limit = new PersistentUpperLimit(
+                boundStore,
+                TimestampReservationSizer.fixed(BUFFER),
+                MoreExecutors.directExecutor(),
+                blockingExtensions,
+                earlyExtensions);
+
+        Thread first = new Thread(() -> limit.increaseToAtLeast(TIMESTAMP));
+        first.start();
+        storing.await();
+        Thread second = new Thread(() -> limit.increaseToAtLeast(TIMESTAMP));
+        second.start();
+        while (second.getState() != Thread.State.BLOCKED) {
+            Thread.sleep(1);
+        }
+        finishStoring.countDown();
+        first.join();
+        second.join();
+
+        verify(boundStore, times(1)).storeUpperLimit(anyLong());
+        assertThat(blockingExtensions.getCount(), is(1L));
+    }
+
+    private PersistentUpperLimit createAdaptiveUpperLimit() {
+        return new PersistentUpperLimit(
+                boundStore,
+                TimestampReservationSizer.adaptive(BUFFER, 10 * BUFFER, 1L, () -> 0L),
+                MoreExecutors.directExecutor(),
+                blockingExtensions,
+                earlyExtensions);
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.timestamp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class TimestampReservationSizerTest {
+    private static final long MIN = 1_000L;
+    private static final long MAX = 100_000L;
+    private static final long TARGET_MILLIS = 1_000L;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final TimestampReservationSizer sizer =
+            TimestampReservationSizer.adaptive(MIN, MAX, TARGET_MILLIS, clock::get);
+
+    @Test
+    public void fixedSizerAlwaysReservesTheSameBuffer() {
+        TimestampReservationSizer fixed = TimestampReservationSizer.fixed(MIN);
+        assertThat(fixed.isAdaptive()).isFalse();
+        assertThat(fixed.nextReservation(10L)).isEqualTo(MIN);
+        assertThat(fixed.nextReservation(10_000_000L)).isEqualTo(MIN);
+    }
+
+    @Test
+    public void reservesTheMinimumBeforeAnyRateIsObserved() {
+        assertThat(sizer.nextReservation(500L)).isEqualTo(MIN);
+    }
+
+    @Test
+    public void reservesTargetMillisWorthOfTimestampsAtTheObservedRate() {
+        sizer.nextReservation(0L);
+        clock.addAndGet(100L);
+        // 20 timestamps per millisecond
+        assertThat(sizer.nextReservation(2_000L)).isEqualTo(20 * TARGET_MILLIS);
+    }
+
+    @Test
+    public void smoothsTheRateAcrossReservations() {
+        sizer.nextReservation(0L);
+        clock.addAndGet(100L);
+        sizer.nextReservation(4_000L);
+        clock.addAndGet(100L);
+        // average of 40 and 20 timestamps per millisecond
+        assertThat(sizer.nextReservation(6_000L)).isEqualTo(30 * TARGET_MILLIS);
+    }
+
+    @Test
+    public void staysWithinTheConfiguredBounds() {
+        sizer.nextReservation(0L);
+        clock.addAndGet(1L);
+        assertThat(sizer.nextReservation(1_000_000L)).isEqualTo(MAX);
+
+        for (int i = 0; i < 20; i++) {
+            clock.addAndGet(1_000_000L);
+            sizer.nextReservation(1_000_001L + i);
+        }
+        assertThat(sizer.nextReservation(1_000_100L)).isEqualTo(MIN);
+    }
+}